@@ -0,0 +1,105 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.instance.reader.CordeauReader;
+import com.graphhopper.jsprit.instance.reader.LiLimReader;
+import com.graphhopper.jsprit.instance.reader.SolomonReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads the benchmark instances of jsprit-instances and creates reproducible solutions to start benchmarks from.
+ * <p>
+ * <p>Instances are given relative to the instances folder, e.g. solomon/R101.txt, lilim/lc101.txt or cordeau/p01.
+ * The folder is ../jsprit-instances/instances by default and can be changed with -Djsprit.instances=folder.
+ */
+public class BenchmarkProblems {
+
+    public static final String INSTANCES_PROPERTY = "jsprit.instances";
+
+    public static VehicleRoutingProblem read(String instance) {
+        String folder = System.getProperty(INSTANCES_PROPERTY, "../jsprit-instances/instances");
+        File file = new File(folder, instance);
+        if (!file.exists()) throw new IllegalArgumentException("instance " + file.getAbsolutePath() + " does not exist. " +
+            "set -D" + INSTANCES_PROPERTY + "=folder to specify the instances folder.");
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        if (instance.startsWith("solomon")) new SolomonReader(vrpBuilder).read(file.getPath());
+        else if (instance.startsWith("lilim")) new LiLimReader(vrpBuilder).read(file.getPath());
+        else if (instance.startsWith("cordeau")) new CordeauReader(vrpBuilder).read(file.getPath());
+        else throw new IllegalArgumentException("cannot read " + instance + ". instances must be in solomon, lilim or cordeau folder.");
+        return vrpBuilder.build();
+    }
+
+    /**
+     * Solves vrp with a fixed random seed and number of iterations.
+     *
+     * @param vrp        the problem
+     * @param iterations number of iterations
+     * @return the best solution found
+     */
+    public static VehicleRoutingProblemSolution solve(VehicleRoutingProblem vrp, int iterations) {
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setProperty(Jsprit.Parameter.THREADS, "1").buildAlgorithm();
+        vra.setMaxIterations(iterations);
+        return Solutions.bestOf(vra.searchSolutions());
+    }
+
+    /**
+     * Copies the routes of solution.
+     *
+     * @param solution the solution
+     * @return copied routes
+     */
+    public static List<VehicleRoute> copyRoutes(VehicleRoutingProblemSolution solution) {
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        for (VehicleRoute route : solution.getRoutes()) routes.add(VehicleRoute.copyOf(route));
+        return routes;
+    }
+
+    /**
+     * Removes every nth job from routes, and returns the removed jobs.
+     *
+     * @param routes routes to remove jobs from
+     * @param nth    every nth job is removed
+     * @return removed jobs
+     */
+    public static List<Job> removeEveryNthJob(Collection<VehicleRoute> routes, int nth) {
+        List<Job> removed = new ArrayList<Job>();
+        int count = 0;
+        for (VehicleRoute route : routes) {
+            for (Job job : new ArrayList<Job>(route.getTourActivities().getJobs())) {
+                if (count++ % nth == 0) {
+                    route.getTourActivities().removeJob(job);
+                    removed.add(job);
+                }
+            }
+        }
+        return removed;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners.PrioritizedVRAListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculator;
+import com.graphhopper.jsprit.core.algorithm.recreate.JobInsertionCostsCalculatorBuilder;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of calculating the insertion of a job into a route, i.e. of ServiceInsertionCalculator
+ * (solomon and cordeau instances) and ShipmentInsertionCalculator (lilim instances), including hard and soft
+ * constraints. Run with -prof gc to measure allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobInsertionBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "cordeau/p01"})
+    public String instance;
+
+    private JobInsertionCostsCalculator calculator;
+
+    private List<VehicleRoute> routes;
+
+    private List<Job> jobs;
+
+    private int jobIndex = 0;
+
+    private int routeIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        routes = BenchmarkProblems.copyRoutes(BenchmarkProblems.solve(vrp, 100));
+        jobs = BenchmarkProblems.removeEveryNthJob(routes, 10);
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        AlgorithmUtil.addCoreConstraints(constraintManager, stateManager, vrp);
+        VehicleFleetManager fleetManager;
+        if (vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.FINITE)) {
+            fleetManager = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        } else {
+            fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        }
+        for (VehicleRoute route : routes) fleetManager.lock(route.getVehicle());
+        calculator = new JobInsertionCostsCalculatorBuilder(new ArrayList<InsertionListener>(), new ArrayList<PrioritizedVRAListener>())
+            .setVehicleRoutingProblem(vrp).setStateManager(stateManager).setConstraintManager(constraintManager)
+            .setVehicleFleetManager(fleetManager).setLocalLevel(true).build();
+        stateManager.informInsertionStarts(routes, jobs);
+    }
+
+    @Benchmark
+    public InsertionData insertJobIntoRoute() {
+        VehicleRoute route = routes.get(routeIndex);
+        Job job = jobs.get(jobIndex);
+        if (++routeIndex == routes.size()) {
+            routeIndex = 0;
+            if (++jobIndex == jobs.size()) jobIndex = 0;
+        }
+        return calculator.getInsertionData(route, job, null, route.getDepartureTime(), route.getDriver(), Double.MAX_VALUE);
+    }
+
+}
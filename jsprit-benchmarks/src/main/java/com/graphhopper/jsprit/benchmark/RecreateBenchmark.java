@@ -0,0 +1,98 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionBuilder;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionStrategy;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of re-inserting 10% of the jobs of a solution with best insertion and fast regret insertion
+ * (RegretInsertionFast), i.e. of a complete recreate step including state updates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecreateBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "cordeau/p01"})
+    public String instance;
+
+    @Param({"BEST", "REGRET"})
+    public String strategy;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private StateManager stateManager;
+
+    private VehicleFleetManager fleetManager;
+
+    private InsertionStrategy insertion;
+
+    private List<VehicleRoute> routes;
+
+    private List<Job> jobs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        solution = BenchmarkProblems.solve(vrp, 100);
+        stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        AlgorithmUtil.addCoreConstraints(constraintManager, stateManager, vrp);
+        if (vrp.getFleetSize().equals(VehicleRoutingProblem.FleetSize.FINITE)) {
+            fleetManager = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        } else {
+            fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        }
+        insertion = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.valueOf(strategy)).setFastRegret(true).build();
+        insertion.addListener(stateManager);
+    }
+
+    @Setup(Level.Invocation)
+    public void ruin() {
+        routes = BenchmarkProblems.copyRoutes(solution);
+        jobs = BenchmarkProblems.removeEveryNthJob(routes, 10);
+        fleetManager.unlockAll();
+        for (VehicleRoute route : routes) fleetManager.lock(route.getVehicle());
+    }
+
+    @Benchmark
+    public Collection<Job> recreate() {
+        return insertion.insertJobs(routes, jobs);
+    }
+
+}
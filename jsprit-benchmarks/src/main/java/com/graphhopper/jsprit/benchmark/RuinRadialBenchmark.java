@@ -0,0 +1,95 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoods;
+import com.graphhopper.jsprit.core.algorithm.ruin.JobNeighborhoodsFactory;
+import com.graphhopper.jsprit.core.algorithm.ruin.RuinRadial;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of RuinRadial removing 30% of the jobs of a solution, and of initialising the job
+ * neighborhoods RuinRadial is based on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuinRadialBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "cordeau/p01"})
+    public String instance;
+
+    @Param({"false", "true"})
+    public boolean lazyNeighborhoods;
+
+    private VehicleRoutingProblem vrp;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private RuinRadial ruin;
+
+    private List<VehicleRoute> routes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        vrp = BenchmarkProblems.read(instance);
+        solution = BenchmarkProblems.solve(vrp, 100);
+        ruin = new RuinRadial(vrp, (int) (vrp.getJobs().size() * 0.3), createNeighborhoods());
+        ruin.setRandom(RandomNumberGeneration.newInstance());
+    }
+
+    private JobNeighborhoods createNeighborhoods() {
+        JobNeighborhoodsFactory factory = new JobNeighborhoodsFactory();
+        AvgServiceAndShipmentDistance distance = new AvgServiceAndShipmentDistance(vrp.getTransportCosts());
+        int capacity = (int) (vrp.getJobs().size() * 0.5);
+        JobNeighborhoods neighborhoods;
+        if (lazyNeighborhoods) neighborhoods = factory.createLazyNeighborhoods(vrp, distance, capacity, 1000);
+        else neighborhoods = factory.createNeighborhoods(vrp, distance, capacity);
+        neighborhoods.initialise();
+        return neighborhoods;
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        routes = BenchmarkProblems.copyRoutes(solution);
+    }
+
+    @Benchmark
+    public Collection<Job> ruin() {
+        return ruin.ruin(routes);
+    }
+
+    @Benchmark
+    public JobNeighborhoods initialiseNeighborhoods() {
+        return createNeighborhoods();
+    }
+
+}
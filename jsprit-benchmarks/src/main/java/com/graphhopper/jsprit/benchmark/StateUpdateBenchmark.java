@@ -0,0 +1,70 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.benchmark;
+
+import com.graphhopper.jsprit.core.algorithm.AlgorithmUtil;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of updating all route and activity states of a solution with the core state updaters, i.e.
+ * of what StateManager does at the beginning of each recreate step, with object and primitive state storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateUpdateBenchmark {
+
+    @Param({"solomon/R101.txt", "lilim/lc101.txt", "cordeau/p01"})
+    public String instance;
+
+    @Param({"false", "true"})
+    public boolean primitiveStates;
+
+    private StateManager stateManager;
+
+    private List<VehicleRoute> routes;
+
+    private List<Job> unassigned;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VehicleRoutingProblem vrp = BenchmarkProblems.read(instance);
+        routes = BenchmarkProblems.copyRoutes(BenchmarkProblems.solve(vrp, 100));
+        unassigned = BenchmarkProblems.removeEveryNthJob(routes, 10);
+        stateManager = new StateManager(vrp, primitiveStates);
+        AlgorithmUtil.addCoreConstraints(new ConstraintManager(vrp, stateManager), stateManager, vrp);
+    }
+
+    @Benchmark
+    public StateManager updateStates() {
+        stateManager.informInsertionStarts(routes, unassigned);
+        return stateManager;
+    }
+
+}
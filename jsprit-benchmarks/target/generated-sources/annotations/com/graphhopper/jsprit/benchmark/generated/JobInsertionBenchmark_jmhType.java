@@ -0,0 +1,4 @@
+package com.graphhopper.jsprit.benchmark.generated;
+public class JobInsertionBenchmark_jmhType extends JobInsertionBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.graphhopper.jsprit.benchmark.generated;
+public class JspritBenchmark_jmhType extends JspritBenchmark_jmhType_B3 {
+}
+
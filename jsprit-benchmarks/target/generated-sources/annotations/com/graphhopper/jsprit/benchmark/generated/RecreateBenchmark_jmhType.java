@@ -0,0 +1,4 @@
+package com.graphhopper.jsprit.benchmark.generated;
+public class RecreateBenchmark_jmhType extends RecreateBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.graphhopper.jsprit.benchmark.generated;
+public class RuinRadialBenchmark_jmhType extends RuinRadialBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.graphhopper.jsprit.benchmark.generated;
+public class StateUpdateBenchmark_jmhType extends StateUpdateBenchmark_jmhType_B3 {
+}
+
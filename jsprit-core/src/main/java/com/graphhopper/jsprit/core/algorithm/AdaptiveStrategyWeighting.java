@@ -0,0 +1,261 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.listener.StrategySelectedListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Adapts the weights of the search strategies of a {@link SearchStrategyManager} while the algorithm runs, i.e.
+ * strategies that improve solutions fast are selected more often than strategies that consume much time without
+ * finding anything (adaptive large neighborhood search, see Ropke and Pisinger 2006).
+ * <p>
+ * <p>Each time a strategy is run, it is rewarded with a score depending on the discovered solution: it is either a
+ * new best solution, better than the best solution the strategy started with, accepted or rejected. Scores and
+ * the time the strategy took are summed up over a segment of iterations. At the end of each segment, the weight of
+ * every strategy that was run is moved towards its score per second, i.e.
+ * <p>
+ * <p>weight = (1 - reactionFactor) * weight + reactionFactor * target
+ * <p>
+ * <p>where the targets are the scores per second scaled such that they sum up to the weights of the strategies run
+ * in the segment. Strategies that have not been run keep their weight. A weight never drops below minWeightShare
+ * times its initial weight, thus every strategy keeps being tried. Strategies with initial weight 0 are never selected.
+ * <p>
+ * <p>Time is measured from iteration start till the strategy has been run (wall clock), since insertions might be
+ * spread across several threads.
+ * <p>
+ * <p>The weights at the end of each segment are recorded and can be retrieved with {@link #getWeightTrajectory()}.
+ */
+public class AdaptiveStrategyWeighting implements AlgorithmStartsListener, IterationStartsListener, StrategySelectedListener {
+
+    /**
+     * Weights of the search strategies at the end of a segment.
+     */
+    public static class WeightSnapshot {
+
+        private final int iteration;
+
+        private final Map<String, Double> weights;
+
+        WeightSnapshot(int iteration, Map<String, Double> weights) {
+            this.iteration = iteration;
+            this.weights = Collections.unmodifiableMap(weights);
+        }
+
+        /**
+         * @return iteration the weights have been determined at (0 for the initial weights)
+         */
+        public int getIteration() {
+            return iteration;
+        }
+
+        /**
+         * @return weights by strategy id
+         */
+        public Map<String, Double> getWeights() {
+            return weights;
+        }
+
+        @Override
+        public String toString() {
+            return "[iteration=" + iteration + "][weights=" + weights + "]";
+        }
+    }
+
+    private final static Logger logger = LoggerFactory.getLogger(AdaptiveStrategyWeighting.class);
+
+    private final SearchStrategyManager strategyManager;
+
+    private int segmentLength = 100;
+
+    private double reactionFactor = 0.1;
+
+    private double minWeightShare = 0.1;
+
+    private double newBestScore = 33.;
+
+    private double improvementScore = 9.;
+
+    private double acceptedScore = 13.;
+
+    private Map<String, Double> initialWeights;
+
+    private final Map<String, double[]> segmentStats = new HashMap<String, double[]>();
+
+    private final List<WeightSnapshot> weightTrajectory = new ArrayList<WeightSnapshot>();
+
+    private int iteration;
+
+    private long iterationStartTime;
+
+    private double costsAtIterationStart;
+
+    private double bestCosts;
+
+    public AdaptiveStrategyWeighting(SearchStrategyManager strategyManager) {
+        this.strategyManager = strategyManager;
+    }
+
+    /**
+     * Sets the number of iterations after which weights are updated. Default is 100.
+     *
+     * @param segmentLength number of iterations per segment
+     */
+    public void setSegmentLength(int segmentLength) {
+        if (segmentLength < 1) throw new IllegalArgumentException("segment length must be at least 1");
+        this.segmentLength = segmentLength;
+    }
+
+    /**
+     * Sets how fast weights react to the scores of the last segment, i.e. 0 keeps the weights as they are and 1
+     * replaces them by the targets of the last segment. Default is 0.1.
+     *
+     * @param reactionFactor reaction factor between 0 and 1
+     */
+    public void setReactionFactor(double reactionFactor) {
+        if (reactionFactor < 0. || reactionFactor > 1.)
+            throw new IllegalArgumentException("reaction factor must be between 0 and 1");
+        this.reactionFactor = reactionFactor;
+    }
+
+    /**
+     * Sets the lower bound of weights relative to the initial weights. Default is 0.1.
+     *
+     * @param minWeightShare lower bound as share of the initial weight
+     */
+    public void setMinWeightShare(double minWeightShare) {
+        if (minWeightShare < 0. || minWeightShare > 1.)
+            throw new IllegalArgumentException("min weight share must be between 0 and 1");
+        this.minWeightShare = minWeightShare;
+    }
+
+    /**
+     * Sets the scores a strategy is rewarded with. Defaults are 33 for a new best solution, 9 for a solution that is
+     * better than the best solution at iteration start and 13 for an accepted solution that is not better.
+     *
+     * @param newBestScore     score of a new best solution
+     * @param improvementScore score of an improving solution
+     * @param acceptedScore    score of an accepted solution
+     */
+    public void setScores(double newBestScore, double improvementScore, double acceptedScore) {
+        this.newBestScore = newBestScore;
+        this.improvementScore = improvementScore;
+        this.acceptedScore = acceptedScore;
+    }
+
+    /**
+     * @return weights at algorithm start and at the end of each segment
+     */
+    public List<WeightSnapshot> getWeightTrajectory() {
+        return Collections.unmodifiableList(weightTrajectory);
+    }
+
+    @Override
+    public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+        if (initialWeights == null) {
+            initialWeights = currentWeights();
+        } else {
+            for (Map.Entry<String, Double> e : initialWeights.entrySet()) {
+                strategyManager.informStrategyWeightChanged(e.getKey(), e.getValue());
+            }
+        }
+        segmentStats.clear();
+        weightTrajectory.clear();
+        weightTrajectory.add(new WeightSnapshot(0, currentWeights()));
+        iteration = 0;
+        bestCosts = Double.MAX_VALUE;
+        VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+        if (best != null) bestCosts = best.getCost();
+    }
+
+    @Override
+    public void informIterationStarts(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        iteration = i;
+        VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+        costsAtIterationStart = best == null ? Double.MAX_VALUE : best.getCost();
+        iterationStartTime = System.nanoTime();
+    }
+
+    @Override
+    public void informSelectedStrategy(SearchStrategy.DiscoveredSolution discoveredSolution, VehicleRoutingProblem vehicleRoutingProblem, Collection<VehicleRoutingProblemSolution> vehicleRoutingProblemSolutions) {
+        long nanos = System.nanoTime() - iterationStartTime;
+        double costs = discoveredSolution.getSolution().getCost();
+        double score = 0.;
+        if (costs < bestCosts) {
+            bestCosts = costs;
+            score = newBestScore;
+        } else if (discoveredSolution.isAccepted()) {
+            score = costs < costsAtIterationStart ? improvementScore : acceptedScore;
+        }
+        double[] stats = segmentStats.get(discoveredSolution.getStrategyId());
+        if (stats == null) {
+            stats = new double[2];
+            segmentStats.put(discoveredSolution.getStrategyId(), stats);
+        }
+        stats[0] += score;
+        stats[1] += Math.max(nanos, 1L) / 1e9;
+        if (iteration % segmentLength == 0) {
+            updateWeights();
+        }
+    }
+
+    private void updateWeights() {
+        double sumRates = 0.;
+        double sumWeights = 0.;
+        for (Map.Entry<String, double[]> e : segmentStats.entrySet()) {
+            sumRates += e.getValue()[0] / e.getValue()[1];
+            sumWeights += strategyManager.getWeight(e.getKey());
+        }
+        if (sumRates > 0.) {
+            for (Map.Entry<String, double[]> e : segmentStats.entrySet()) {
+                String strategyId = e.getKey();
+                double target = e.getValue()[0] / e.getValue()[1] / sumRates * sumWeights;
+                double weight = (1. - reactionFactor) * strategyManager.getWeight(strategyId) + reactionFactor * target;
+                Double initialWeight = initialWeights.get(strategyId);
+                double minWeight = initialWeight == null ? 0. : minWeightShare * initialWeight;
+                strategyManager.informStrategyWeightChanged(strategyId, Math.max(weight, minWeight));
+            }
+        }
+        segmentStats.clear();
+        WeightSnapshot snapshot = new WeightSnapshot(iteration, currentWeights());
+        weightTrajectory.add(snapshot);
+        logger.debug("strategy weights updated {}", snapshot);
+    }
+
+    private Map<String, Double> currentWeights() {
+        Map<String, Double> weights = new LinkedHashMap<String, Double>();
+        for (SearchStrategy strategy : strategyManager.getStrategies()) {
+            weights.put(strategy.getId(), strategyManager.getWeight(strategy.getId()));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=adaptiveStrategyWeighting][segmentLength=" + segmentLength + "][reactionFactor=" + reactionFactor + "]";
+    }
+
+}
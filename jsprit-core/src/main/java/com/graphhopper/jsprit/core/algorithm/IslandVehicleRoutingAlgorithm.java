@@ -0,0 +1,198 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.core.util.SplitMixRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Island model that runs a number of independent {@link VehicleRoutingAlgorithm}s (islands) on separate threads.
+ * <p>
+ * <p>Each island is created by an {@link IslandFactory} and thus has its own state manager, fleet manager and random
+ * stream. Every migrationInterval iterations, an island publishes a copy of its best solution and imports the best
+ * solution its neighbour (in a ring) has published last, if this is better than its worst solution. Each published
+ * solution is imported at most once. Migration does not synchronize islands, i.e. islands never wait for each other.
+ * <p>
+ * <p>searchSolutions() returns the solutions of all islands.
+ */
+public class IslandVehicleRoutingAlgorithm {
+
+    /**
+     * Creates the algorithm of an island.
+     */
+    public static interface IslandFactory {
+
+        /**
+         * Creates a new algorithm. It must not share any stateful component such as state manager, fleet manager or
+         * search strategies with algorithms of other islands.
+         *
+         * @param vrp    the problem to be solved
+         * @param island the index of the island
+         * @param random the random number generator of the island
+         * @return algorithm
+         */
+        public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, int island, Random random);
+
+    }
+
+    static class Migration implements IterationEndsListener {
+
+        private final int island;
+
+        private final AtomicReferenceArray<VehicleRoutingProblemSolution> emigrants;
+
+        private final int migrationInterval;
+
+        private VehicleRoutingProblemSolution lastImmigrant;
+
+        Migration(int island, AtomicReferenceArray<VehicleRoutingProblemSolution> emigrants, int migrationInterval) {
+            this.island = island;
+            this.emigrants = emigrants;
+            this.migrationInterval = migrationInterval;
+        }
+
+        @Override
+        public void informIterationEnds(int i, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+            if (i % migrationInterval != 0) return;
+            VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+            if (best != null) emigrants.set(island, VehicleRoutingProblemSolution.copyOf(best));
+            VehicleRoutingProblemSolution immigrant = emigrants.get((island + emigrants.length() - 1) % emigrants.length());
+            //the neighbour publishes a new copy each time, thus the same reference means nothing new has been published
+            if (immigrant == null || immigrant == lastImmigrant) return;
+            lastImmigrant = immigrant;
+            VehicleRoutingProblemSolution worst = null;
+            for (VehicleRoutingProblemSolution s : solutions) {
+                if (worst == null || s.getCost() > worst.getCost()) worst = s;
+            }
+            if (worst == null || immigrant.getCost() < worst.getCost()) {
+                logger.debug("island {} imports solution with costs {}", island, immigrant.getCost());
+                if (worst != null) solutions.remove(worst);
+                solutions.add(VehicleRoutingProblemSolution.copyOf(immigrant));
+            }
+        }
+
+    }
+
+    private final static Logger logger = LoggerFactory.getLogger(IslandVehicleRoutingAlgorithm.class);
+
+    private final VehicleRoutingProblem problem;
+
+    private final IslandFactory islandFactory;
+
+    private final int nuOfIslands;
+
+    private int migrationInterval = 100;
+
+    private long seed = 4711L;
+
+    private Integer maxIterations = null;
+
+    public IslandVehicleRoutingAlgorithm(VehicleRoutingProblem problem, IslandFactory islandFactory, int nuOfIslands) {
+        if (nuOfIslands < 1) throw new IllegalArgumentException("nuOfIslands must be at least 1");
+        this.problem = problem;
+        this.islandFactory = islandFactory;
+        this.nuOfIslands = nuOfIslands;
+    }
+
+    /**
+     * Sets the number of iterations between two migrations. Default is 100.
+     *
+     * @param migrationInterval number of iterations between migrations
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) throw new IllegalArgumentException("migrationInterval must be at least 1");
+        this.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * Sets the seed the random streams of the islands are derived from, i.e. the islands get subsequent splits of
+     * a {@link SplitMixRandom} with this seed. Thus, for a given seed and number of islands, the streams are the same.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets max number of iterations of each and every island. If it is not set, the islands run as long as specified
+     * by their factory.
+     *
+     * @param maxIterations max number of iterations per island
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public int getNuOfIslands() {
+        return nuOfIslands;
+    }
+
+    /**
+     * Runs all islands and returns the solutions of all islands.
+     *
+     * @return the solutions of all islands
+     */
+    public Collection<VehicleRoutingProblemSolution> searchSolutions() {
+        AtomicReferenceArray<VehicleRoutingProblemSolution> emigrants = new AtomicReferenceArray<VehicleRoutingProblemSolution>(nuOfIslands);
+        List<Callable<Collection<VehicleRoutingProblemSolution>>> islands = new ArrayList<Callable<Collection<VehicleRoutingProblemSolution>>>();
+        SplitMixRandom random = RandomNumberGeneration.newSplittableInstance(seed);
+        for (int i = 0; i < nuOfIslands; i++) {
+            final VehicleRoutingAlgorithm algorithm = islandFactory.createAlgorithm(problem, i, random.split());
+            if (maxIterations != null) algorithm.setMaxIterations(maxIterations);
+            if (nuOfIslands > 1) algorithm.addListener(new Migration(i, emigrants, migrationInterval));
+            islands.add(new Callable<Collection<VehicleRoutingProblemSolution>>() {
+
+                @Override
+                public Collection<VehicleRoutingProblemSolution> call() throws Exception {
+                    return algorithm.searchSolutions();
+                }
+
+            });
+        }
+        logger.info("islands start: [nuOfIslands={}][migrationInterval={}]", nuOfIslands, migrationInterval);
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        ExecutorService executor = Executors.newFixedThreadPool(nuOfIslands);
+        try {
+            for (Future<Collection<VehicleRoutingProblemSolution>> future : executor.invokeAll(islands)) {
+                solutions.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdown();
+        }
+        return solutions;
+    }
+
+}
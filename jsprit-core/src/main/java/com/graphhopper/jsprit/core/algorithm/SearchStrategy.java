@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm;
 
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
@@ -80,6 +81,10 @@ public class SearchStrategy {
 
     private String name;
 
+    private SearchMetricsListener metricsListener;
+
+    private boolean copyOnWrite = false;
+
     public SearchStrategy(String id, SolutionSelector solutionSelector, SolutionAcceptor solutionAcceptor, SolutionCostCalculator solutionCostCalculator) {
         if (id == null) throw new IllegalStateException("strategy id cannot be null");
         this.solutionSelector = solutionSelector;
@@ -101,6 +106,17 @@ public class SearchStrategy {
         this.name = name;
     }
 
+    /**
+     * Sets whether the selected solution is copied lazily, i.e. whether its routes are only copied physically if
+     * they are changed by the modules (see {@link VehicleRoutingProblemSolution#lazyCopyOf(VehicleRoutingProblemSolution)}).
+     * Unchanged routes share their activities with the selected solution. Default is false.
+     *
+     * @param copyOnWrite true if solutions should be copied lazily
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
     public Collection<SearchStrategyModule> getSearchStrategyModules() {
         return Collections.unmodifiableCollection(searchStrategyModules);
     }
@@ -125,7 +141,8 @@ public class SearchStrategy {
      * <p>
      * <p>This involves three basic steps: 1) Selecting a solution from solutions (input parameter) according to {@link com.graphhopper.jsprit.core.algorithm.selector.SolutionSelector}, 2) running the modules
      * ({@link SearchStrategyModule}) on the selectedSolution and 3) accepting the new solution according to {@link com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor}.
-     * <p> Note that after 1) the selected solution is copied, thus the original solution is not modified.
+     * <p> Note that after 1) the selected solution is copied, thus the original solution is not modified. If copy-on-write is activated,
+     * only routes that are changed are copied.
      * <p> Note also that 3) modifies the input parameter solutions by adding, removing, replacing the existing solutions or whatever is defined in the solutionAcceptor.
      *
      * @param vrp       the underlying vehicle routing problem
@@ -135,18 +152,33 @@ public class SearchStrategy {
      */
     @SuppressWarnings("UnusedParameters")
     public DiscoveredSolution run(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        long startTime = metricsListener == null ? 0 : System.nanoTime();
         VehicleRoutingProblemSolution solution = solutionSelector.selectSolution(solutions);
         if (solution == null) throw new IllegalStateException(getErrMsg());
-        VehicleRoutingProblemSolution lastSolution = VehicleRoutingProblemSolution.copyOf(solution);
+        VehicleRoutingProblemSolution lastSolution = copy(solution);
         for (SearchStrategyModule module : searchStrategyModules) {
             lastSolution = module.runAndGetSolution(lastSolution);
         }
         double costs = solutionCostCalculator.getCosts(lastSolution);
         lastSolution.setCost(costs);
         boolean solutionAccepted = solutionAcceptor.acceptSolution(solutions, lastSolution);
+        if (metricsListener != null) metricsListener.informStrategyRun(getId(), System.nanoTime() - startTime);
         return new DiscoveredSolution(lastSolution, solutionAccepted, getId());
     }
 
+    private VehicleRoutingProblemSolution copy(VehicleRoutingProblemSolution solution) {
+        if (metricsListener == null) return copyOf(solution);
+        long startTime = System.nanoTime();
+        VehicleRoutingProblemSolution copy = copyOf(solution);
+        metricsListener.informSolutionCopied(System.nanoTime() - startTime);
+        return copy;
+    }
+
+    private VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution) {
+        if (copyOnWrite) return VehicleRoutingProblemSolution.lazyCopyOf(solution);
+        return VehicleRoutingProblemSolution.copyOf(solution);
+    }
+
     private String getErrMsg() {
         return "solution is null. check solutionSelector to return an appropriate solution. " +
             "\nfigure out whether you start with an initial solution. either you set it manually by algorithm.addInitialSolution(...)"
@@ -161,6 +193,9 @@ public class SearchStrategy {
     }
 
     public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+        if (moduleListener instanceof SearchMetricsListener) {
+            metricsListener = (SearchMetricsListener) moduleListener;
+        }
         for (SearchStrategyModule module : searchStrategyModules) {
             module.addModuleListener(moduleListener);
         }
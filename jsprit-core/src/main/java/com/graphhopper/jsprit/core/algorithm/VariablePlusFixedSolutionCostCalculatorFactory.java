@@ -21,6 +21,7 @@ import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
@@ -35,9 +36,14 @@ public class VariablePlusFixedSolutionCostCalculatorFactory {
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     public VariablePlusFixedSolutionCostCalculatorFactory(RouteAndActivityStateGetter stateManager) {
         super();
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
     }
 
     public SolutionCostCalculator createCalculator() {
@@ -47,7 +53,8 @@ public class VariablePlusFixedSolutionCostCalculatorFactory {
             public double getCosts(VehicleRoutingProblemSolution solution) {
                 double c = 0.0;
                 for (VehicleRoute r : solution.getRoutes()) {
-                    c += stateManager.getRouteState(r, InternalStates.COSTS, Double.class);
+                    if (primitiveStates != null) c += primitiveStates.getRouteStateDouble(r, InternalStates.COSTS, 0.);
+                    else c += stateManager.getRouteState(r, InternalStates.COSTS, Double.class);
                     c += getFixedCosts(r.getVehicle());
                 }
                 c += solution.getUnassignedJobs().size() * c * .1;
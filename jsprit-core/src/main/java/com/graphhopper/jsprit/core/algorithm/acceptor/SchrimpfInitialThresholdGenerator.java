@@ -18,19 +18,46 @@
 package com.graphhopper.jsprit.core.algorithm.acceptor;
 
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithmFactory;
 import com.graphhopper.jsprit.core.algorithm.box.GreedySchrimpfFactory;
 import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
 import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmStartsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.core.util.SplitMixRandom;
 import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
-
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Determines the initial threshold of {@link SchrimpfAcceptance} as half the standard deviation of the results of a
+ * random walk, i.e. of nOfRandomWalks ruin-and-recreate iterations that accept every new solution.
+ * <p>
+ * <p>The walk can be split into several independent walks that run in parallel on an executor (see
+ * {@link #setExecutor(ExecutorService, int)}). The walk algorithm is created by a {@link VehicleRoutingAlgorithmFactory}
+ * which by default is a greedy {@link GreedySchrimpfFactory} algorithm. To evaluate the walk with the constraints of
+ * the main algorithm, set a factory that wires the same constraints (see
+ * {@link #setWalkAlgorithmFactory(VehicleRoutingAlgorithmFactory)}). Each walk needs its own state manager, since
+ * state managers cannot be shared by algorithms that run concurrently. The default walks get their own random streams,
+ * split in order from one generator (see {@link #setRandom(Random)}), thus they are reproducible for a given seed and
+ * number of walks.
+ * <p>
+ * <p>If estimates of an instance family are set (see {@link #setEstimates(SchrimpfThresholdEstimates, String)}), a
+ * persisted estimate is used without any walk, and a new estimate is persisted.
+ */
 public class SchrimpfInitialThresholdGenerator implements AlgorithmStartsListener {
 
     private static Logger logger = LoggerFactory.getLogger(SchrimpfInitialThresholdGenerator.class.getName());
@@ -39,14 +66,87 @@ public class SchrimpfInitialThresholdGenerator implements AlgorithmStartsListene
 
     private int nOfRandomWalks;
 
+    private ExecutorService executor;
+
+    private int nuOfWalks = 1;
+
+    private SplitMixRandom random = RandomNumberGeneration.newSplittableInstance();
+
+    private VehicleRoutingAlgorithmFactory walkAlgorithmFactory = new VehicleRoutingAlgorithmFactory() {
+
+        @Override
+        public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+            Jsprit.Builder builder = new GreedySchrimpfFactory().createGreedyAlgorithmBuilder(vrp);
+            builder.setCustomAcceptor(new AcceptNewRemoveFirst(1));
+            builder.setRandom(random.split());
+            return builder.buildAlgorithm();
+        }
+
+    };
+
+    private SchrimpfThresholdEstimates estimates;
+
+    private String instanceFamily;
+
     public SchrimpfInitialThresholdGenerator(SchrimpfAcceptance schrimpfAcceptance, int nOfRandomWalks) {
         super();
         this.schrimpfAcceptance = schrimpfAcceptance;
         this.nOfRandomWalks = nOfRandomWalks;
     }
 
+    /**
+     * Splits the random walk into nuOfWalks independent walks that run on executor.
+     *
+     * @param executor  the executor, e.g. the thread pool of the main algorithm
+     * @param nuOfWalks number of walks, e.g. the number of threads of executor
+     */
+    public void setExecutor(ExecutorService executor, int nuOfWalks) {
+        if (nuOfWalks < 1) throw new IllegalArgumentException("number of walks must be at least 1");
+        this.executor = executor;
+        this.nuOfWalks = nuOfWalks;
+    }
+
+    /**
+     * Sets the generator the random streams of the default walks are split from. Only its first number is drawn,
+     * i.e. it seeds the streams.
+     *
+     * @param random the random number generator
+     */
+    public void setRandom(Random random) {
+        this.random = RandomNumberGeneration.newSplittableInstance(random.nextLong());
+    }
+
+    /**
+     * Sets the factory that creates the walk algorithm. Its acceptor should accept every new solution, e.g.
+     * {@link AcceptNewRemoveFirst}.
+     *
+     * @param walkAlgorithmFactory the factory
+     */
+    public void setWalkAlgorithmFactory(VehicleRoutingAlgorithmFactory walkAlgorithmFactory) {
+        this.walkAlgorithmFactory = walkAlgorithmFactory;
+    }
+
+    /**
+     * Uses the persisted estimate of instanceFamily if there is one, and persists the estimate otherwise.
+     *
+     * @param estimates      the estimates
+     * @param instanceFamily the family of the problem to be solved
+     */
+    public void setEstimates(SchrimpfThresholdEstimates estimates, String instanceFamily) {
+        this.estimates = estimates;
+        this.instanceFamily = instanceFamily;
+    }
+
     @Override
     public void informAlgorithmStarts(VehicleRoutingProblem problem, VehicleRoutingAlgorithm algorithm, Collection<VehicleRoutingProblemSolution> solutions) {
+        if (estimates != null) {
+            Double estimate = estimates.get(instanceFamily);
+            if (estimate != null) {
+                schrimpfAcceptance.setInitialThreshold(estimate);
+                logger.info("initial threshold of instance family {}: {}", instanceFamily, estimate);
+                return;
+            }
+        }
         logger.info("prepare schrimpfAcceptanceFunction, i.e. determine initial threshold");
         double now = System.currentTimeMillis();
 
@@ -54,32 +154,75 @@ public class SchrimpfInitialThresholdGenerator implements AlgorithmStartsListene
          * randomWalk to determine standardDev
 		 */
         final double[] results = new double[nOfRandomWalks];
+        List<Callable<Object>> walks = new ArrayList<Callable<Object>>();
+        int nuOfWalks = Math.min(this.nuOfWalks, nOfRandomWalks);
+        int offset = 0;
+        for (int w = 0; w < nuOfWalks; w++) {
+            int iterations = nOfRandomWalks / nuOfWalks + (w < nOfRandomWalks % nuOfWalks ? 1 : 0);
+            walks.add(createWalk(problem, results, offset, iterations));
+            offset += iterations;
+        }
+        if (executor == null || nuOfWalks == 1) {
+            for (Callable<Object> walk : walks) {
+                try {
+                    walk.call();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } else {
+            try {
+                for (Future<Object> future : executor.invokeAll(walks)) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
 
-        Jsprit.Builder builder = new GreedySchrimpfFactory().createGreedyAlgorithmBuilder(problem);
-        builder.setCustomAcceptor(new AcceptNewRemoveFirst(1));
-        VehicleRoutingAlgorithm vra = builder.buildAlgorithm();
-        vra.setMaxIterations(nOfRandomWalks);
+        StandardDeviation dev = new StandardDeviation();
+        double standardDeviation = dev.evaluate(results);
+        double initialThreshold = standardDeviation / 2;
+
+        schrimpfAcceptance.setInitialThreshold(initialThreshold);
+        if (estimates != null) {
+            estimates.put(instanceFamily, initialThreshold);
+            try {
+                estimates.save();
+            } catch (IOException e) {
+                logger.warn("cannot persist initial threshold of instance family {}: {}", instanceFamily, e.getMessage());
+            }
+        }
+
+        logger.info("took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
+        logger.debug("initial threshold: {}", initialThreshold);
+        logger.info("---------------------------------------------------------------------");
+    }
+
+    private Callable<Object> createWalk(final VehicleRoutingProblem problem, final double[] results, final int offset, int iterations) {
+        final VehicleRoutingAlgorithm vra = walkAlgorithmFactory.createAlgorithm(problem);
+        vra.setMaxIterations(iterations);
         vra.getAlgorithmListeners().addListener(new IterationEndsListener() {
 
             @Override
             public void informIterationEnds(int iteration, VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
                 double result = Solutions.bestOf(solutions).getCost();
 //				logger.info("result={}", result);
-                results[iteration - 1] = result;
+                results[offset + iteration - 1] = result;
             }
 
         });
-        vra.searchSolutions();
+        return new Callable<Object>() {
 
-        StandardDeviation dev = new StandardDeviation();
-        double standardDeviation = dev.evaluate(results);
-        double initialThreshold = standardDeviation / 2;
-
-        schrimpfAcceptance.setInitialThreshold(initialThreshold);
+            @Override
+            public Object call() throws Exception {
+                return vra.searchSolutions();
+            }
 
-        logger.info("took {} seconds", ((System.currentTimeMillis() - now) / 1000.0));
-        logger.debug("initial threshold: {}", initialThreshold);
-        logger.info("---------------------------------------------------------------------");
+        };
     }
 
 }
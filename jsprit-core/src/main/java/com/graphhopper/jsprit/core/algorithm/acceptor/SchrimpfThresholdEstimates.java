@@ -0,0 +1,90 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.acceptor;
+
+import java.io.*;
+import java.util.Properties;
+
+/**
+ * Persisted initial thresholds of {@link SchrimpfAcceptance} per instance family, e.g. per depot or per customer
+ * segment. Instances of a family are assumed to have similar cost structures, so that the threshold estimated for one
+ * instance can be used for the others (see
+ * {@link SchrimpfInitialThresholdGenerator#setEstimates(SchrimpfThresholdEstimates, String)}).
+ * <p>
+ * <p>Estimates are stored as properties file, i.e. one line per family.
+ */
+public class SchrimpfThresholdEstimates {
+
+    /**
+     * Loads estimates from file. If file does not exist, estimates are empty and file is created on
+     * {@link #save()}.
+     *
+     * @param file the file
+     * @return estimates
+     * @throws IOException if file cannot be read
+     */
+    public static SchrimpfThresholdEstimates load(File file) throws IOException {
+        SchrimpfThresholdEstimates estimates = new SchrimpfThresholdEstimates(file);
+        if (file.exists()) {
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                estimates.estimates.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        return estimates;
+    }
+
+    private final File file;
+
+    private final Properties estimates = new Properties();
+
+    private SchrimpfThresholdEstimates(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @param instanceFamily the family
+     * @return initial threshold of the family, or null if there is no estimate yet
+     */
+    public synchronized Double get(String instanceFamily) {
+        String value = estimates.getProperty(instanceFamily);
+        if (value == null) return null;
+        return Double.valueOf(value);
+    }
+
+    public synchronized void put(String instanceFamily, double initialThreshold) {
+        estimates.setProperty(instanceFamily, String.valueOf(initialThreshold));
+    }
+
+    /**
+     * Writes estimates to file.
+     *
+     * @throws IOException if file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            estimates.store(out, "initial thresholds of schrimpf acceptance per instance family");
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -19,18 +19,25 @@
 package com.graphhopper.jsprit.core.algorithm.box;
 
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionCostsCache;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.SplitMixRandom;
 
 import java.util.Collection;
 import java.util.Random;
 
 /**
  * Created by schroeder on 16/01/15.
+ * <p>
+ * <p>Insertion costs are evaluated concurrently, thus noise is not drawn from a shared generator. Instead, it is
+ * derived from a seed drawn at iteration start and the insertion to be evaluated (see {@link SplitMixRandom#mix64(long)}).
+ * This way, evaluating an insertion costs neither synchronization nor contention, and noise does not depend on the
+ * order threads evaluate insertions in, i.e. runs are reproducible.
  */
 class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, IterationStartsListener {
 
@@ -42,20 +49,16 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
 
     private Random random = RandomNumberGeneration.newInstance();
 
-    private Random[] randomArray;
+    private long iterationSeed;
 
     private double maxCosts;
 
+    private InsertionCostsCache insertionCostsCache;
+
     ConcurrentInsertionNoiseMaker(VehicleRoutingProblem vrp, double maxCosts, double noiseLevel, double noiseProbability) {
         this.noiseLevel = noiseLevel;
         this.noiseProbability = noiseProbability;
         this.maxCosts = maxCosts;
-        randomArray = new Random[vrp.getNuActivities() + 2];
-        for (int i = 0; i < randomArray.length; i++) {
-            Random r = new Random();
-            r.setSeed(random.nextLong());
-            randomArray[i] = r;
-        }
     }
 
     @Override
@@ -63,12 +66,18 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
         if (random.nextDouble() < noiseProbability) {
             makeNoise = true;
         } else makeNoise = false;
+        if (makeNoise) iterationSeed = random.nextLong();
+        if (insertionCostsCache != null) insertionCostsCache.setActive(!makeNoise);
     }
 
     @Override
     public double getCosts(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         if (makeNoise) {
-            return noiseLevel * maxCosts * randomArray[newAct.getIndex()].nextDouble();
+            long key = SplitMixRandom.mix64(iterationSeed + newAct.getIndex());
+            key = SplitMixRandom.mix64(key + prevAct.getIndex());
+            key = SplitMixRandom.mix64(key + (nextAct == null ? 0 : nextAct.getIndex()));
+            key = SplitMixRandom.mix64(key + iFacts.getNewVehicle().getIndex());
+            return noiseLevel * maxCosts * SplitMixRandom.toDouble(key);
         }
         return 0;
     }
@@ -76,4 +85,13 @@ class ConcurrentInsertionNoiseMaker implements SoftActivityConstraint, Iteration
     public void setRandom(Random random) {
         this.random = random;
     }
+
+    /**
+     * Sets a cache that is deactivated in iterations with noise, since noisy insertion costs must not be cached.
+     *
+     * @param insertionCostsCache the cache
+     */
+    void setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+    }
 }
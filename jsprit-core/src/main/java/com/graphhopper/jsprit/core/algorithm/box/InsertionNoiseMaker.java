@@ -19,6 +19,7 @@
 package com.graphhopper.jsprit.core.algorithm.box;
 
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionCostsCache;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
@@ -46,6 +47,8 @@ class InsertionNoiseMaker implements SoftActivityConstraint, IterationStartsList
 
     private double maxCosts;
 
+    private InsertionCostsCache insertionCostsCache;
+
     InsertionNoiseMaker(VehicleRoutingProblem vrp, double maxCosts, double noiseLevel, double noiseProbability) {
         this.noiseLevel = noiseLevel;
         this.noiseProbability = noiseProbability;
@@ -63,6 +66,7 @@ class InsertionNoiseMaker implements SoftActivityConstraint, IterationStartsList
         if (random.nextDouble() < noiseProbability) {
             makeNoise = true;
         } else makeNoise = false;
+        if (insertionCostsCache != null) insertionCostsCache.setActive(!makeNoise);
     }
 
     @Override
@@ -76,4 +80,13 @@ class InsertionNoiseMaker implements SoftActivityConstraint, IterationStartsList
     public void setRandom(Random random) {
         this.random = random;
     }
+
+    /**
+     * Sets a cache that is deactivated in iterations with noise, since noisy insertion costs must not be cached.
+     *
+     * @param insertionCostsCache the cache
+     */
+    void setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+    }
 }
@@ -18,6 +18,8 @@
 
 package com.graphhopper.jsprit.core.algorithm.box;
 
+import com.graphhopper.jsprit.core.algorithm.AdaptiveStrategyWeighting;
+import com.graphhopper.jsprit.core.algorithm.IslandVehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.PrettyAlgorithmBuilder;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
@@ -25,6 +27,7 @@ import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.algorithm.module.RuinAndRecreateModule;
 import com.graphhopper.jsprit.core.algorithm.recreate.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.*;
@@ -33,6 +36,7 @@ import com.graphhopper.jsprit.core.algorithm.selector.SelectBest;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.cost.WaitingTimeCosts;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.SolutionCostCalculator;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
@@ -42,17 +46,24 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.FiniteFleetManagerFactory;
 import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import com.graphhopper.jsprit.core.util.NoiseMaker;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.Solutions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Executors;
 
 
 public class Jsprit {
 
+    private final static Logger logger = LoggerFactory.getLogger(Jsprit.class);
+
     private final ActivityInsertionCostsCalculator activityInsertion;
 
     public enum Construction {
@@ -124,7 +135,21 @@ public class Jsprit {
         STRING_K_MIN("string_kmin"),
         STRING_K_MAX("string_kmax"),
         STRING_L_MIN("string_lmin"),
-        STRING_L_MAX("string_lmax");
+        STRING_L_MAX("string_lmax"),
+        PRIMITIVE_STATES("primitive_states"),
+        INCREMENTAL_STATE_UPDATES("incremental_state_updates"),
+        FORK_JOIN_INSERTION("insertion.fork_join"),
+        LAZY_NEIGHBORHOODS("neighborhoods.lazy"),
+        NEIGHBORHOODS_MAX_CACHED_JOBS("neighborhoods.max_cached_jobs"),
+        COPY_ON_WRITE_SOLUTIONS("solutions.copy_on_write"),
+        INSERTION_COSTS_CACHE("insertion.costs_cache"),
+        ROUTE_CANDIDATE_FILTER("insertion.route_candidate_filter"),
+        MAX_CANDIDATE_ROUTES("insertion.max_candidate_routes"),
+        REGRET_CANDIDATE_ROUTES("regret.candidate_routes"),
+        PRUNED_SHIPMENT_INSERTION("insertion.pruned_shipments"),
+        ADAPTIVE_STRATEGY_WEIGHTS("strategy.adaptive_weights"),
+        STRATEGY_WEIGHTS_SEGMENT("strategy.weights_segment"),
+        STRATEGY_WEIGHTS_REACTION("strategy.weights_reaction");
 
 
         String paraName;
@@ -173,6 +198,8 @@ public class Jsprit {
 
         private VehicleFleetManager fleetManager = null;
 
+        private SearchMetricsListener metricsListener = null;
+
         public static Builder newInstance(VehicleRoutingProblem vrp) {
             return new Builder(vrp);
         }
@@ -233,6 +260,20 @@ public class Jsprit {
             defaults.put(Parameter.FAST_REGRET.toString(), String.valueOf(false));
             defaults.put(Parameter.BREAK_SCHEDULING.toString(), String.valueOf(true));
             defaults.put(Parameter.CONSTRUCTION.toString(), Construction.REGRET_INSERTION.toString());
+            defaults.put(Parameter.PRIMITIVE_STATES.toString(), String.valueOf(false));
+            defaults.put(Parameter.INCREMENTAL_STATE_UPDATES.toString(), String.valueOf(false));
+            defaults.put(Parameter.FORK_JOIN_INSERTION.toString(), String.valueOf(false));
+            defaults.put(Parameter.LAZY_NEIGHBORHOODS.toString(), String.valueOf(false));
+            defaults.put(Parameter.NEIGHBORHOODS_MAX_CACHED_JOBS.toString(), String.valueOf(1000));
+            defaults.put(Parameter.COPY_ON_WRITE_SOLUTIONS.toString(), String.valueOf(false));
+            defaults.put(Parameter.INSERTION_COSTS_CACHE.toString(), String.valueOf(false));
+            defaults.put(Parameter.ROUTE_CANDIDATE_FILTER.toString(), String.valueOf(false));
+            defaults.put(Parameter.MAX_CANDIDATE_ROUTES.toString(), String.valueOf(Integer.MAX_VALUE));
+            defaults.put(Parameter.REGRET_CANDIDATE_ROUTES.toString(), String.valueOf(0));
+            defaults.put(Parameter.PRUNED_SHIPMENT_INSERTION.toString(), String.valueOf(false));
+            defaults.put(Parameter.ADAPTIVE_STRATEGY_WEIGHTS.toString(), String.valueOf(false));
+            defaults.put(Parameter.STRATEGY_WEIGHTS_SEGMENT.toString(), String.valueOf(100));
+            defaults.put(Parameter.STRATEGY_WEIGHTS_REACTION.toString(), String.valueOf(0.1));
             return defaults;
         }
 
@@ -304,10 +345,56 @@ public class Jsprit {
             return this;
         }
 
+        /**
+         * Sets a listener that is informed about ruin and recreate times, insertion cost evaluations, hard constraint
+         * rejections, state update times and solution copy times. It is registered with the state and constraint
+         * manager, the insertion strategies and the algorithm. Default is null, i.e. nothing is measured.
+         *
+         * @param metricsListener the listener, e.g. {@link com.graphhopper.jsprit.core.algorithm.metrics.SearchMetrics}
+         * @return this builder
+         */
+        public Builder setMetricsListener(SearchMetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
         public VehicleRoutingAlgorithm buildAlgorithm() {
             return new Jsprit(this).create(vrp);
         }
 
+        /**
+         * Builds an island model with nuOfIslands islands, each of them being an algorithm built by this builder with
+         * its own random stream.
+         * <p>
+         * <p>Since islands run concurrently, they must not share state and constraint manager, fleet manager, executor
+         * service, acceptor, activity insertion calculator or custom search strategies.
+         *
+         * @param nuOfIslands number of islands
+         * @return island model
+         * @throws IllegalStateException if one of the components islands cannot share has been set
+         */
+        public IslandVehicleRoutingAlgorithm buildIslandAlgorithm(int nuOfIslands) {
+            if (stateManager != null || constraintManager != null || fleetManager != null || es != null
+                || solutionAcceptor != null || activityInsertionCalculator != null || !customStrategies.isEmpty()) {
+                throw new IllegalStateException("islands cannot share state and constraint manager, fleet manager, executor service, " +
+                    "acceptor, activity insertion calculator or custom strategies. let jsprit create them for each island.");
+            }
+            return new IslandVehicleRoutingAlgorithm(vrp, new IslandVehicleRoutingAlgorithm.IslandFactory() {
+
+                @Override
+                public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, int island, Random random) {
+                    Random builderRandom = Builder.this.random;
+                    Builder.this.random = random;
+                    try {
+                        return new Jsprit(Builder.this).create(vrp);
+                    } finally {
+                        Builder.this.random = builderRandom;
+                    }
+                }
+
+            }, nuOfIslands);
+        }
+
     }
 
     static class RuinShareFactoryImpl implements RuinShareFactory
@@ -356,6 +443,8 @@ public class Jsprit {
 
     private boolean setupExecutorInternally = false;
 
+    private ForkJoinPool forkJoinPool = null;
+
     private boolean addCoreConstraints;
 
     private SolutionCostCalculator objectiveFunction = null;
@@ -372,6 +461,8 @@ public class Jsprit {
 
     private VehicleFleetManager vehicleFleetManager;
 
+    private SearchMetricsListener metricsListener;
+
     private Jsprit(Builder builder) {
         this.stateManager = builder.stateManager;
         this.constraintManager = builder.constraintManager;
@@ -386,6 +477,7 @@ public class Jsprit {
         regretScorer = builder.regretScorer;
         customStrategies.putAll(builder.customStrategies);
         vehicleFleetManager = builder.fleetManager;
+        metricsListener = builder.metricsListener;
     }
 
     private void ini(VehicleRoutingProblem vrp) {
@@ -405,11 +497,16 @@ public class Jsprit {
         }
 
         if (stateManager == null) {
-            stateManager = new StateManager(vrp);
+            stateManager = new StateManager(vrp, toBoolean(getProperty(Parameter.PRIMITIVE_STATES.toString())));
+            stateManager.setIncrementalUpdates(toBoolean(getProperty(Parameter.INCREMENTAL_STATE_UPDATES.toString())));
         }
         if (constraintManager == null) {
             constraintManager = new ConstraintManager(vrp, stateManager);
         }
+        if (metricsListener != null) {
+            stateManager.setMetricsListener(metricsListener);
+            constraintManager.setMetricsListener(metricsListener);
+        }
 
         if (noThreads == null) {
             noThreads = toInteger(getProperty(Parameter.THREADS.toString()));
@@ -417,7 +514,8 @@ public class Jsprit {
         if (noThreads > 1) {
             if (es == null) {
                 setupExecutorInternally = true;
-                es = Executors.newFixedThreadPool(noThreads);
+                if (toBoolean(getProperty(Parameter.FORK_JOIN_INSERTION.toString()))) es = new ForkJoinPool(noThreads);
+                else es = Executors.newFixedThreadPool(noThreads);
             }
         }
 
@@ -429,10 +527,33 @@ public class Jsprit {
             constraintManager.addConstraint(increasingAbsoluteFixedCosts);
         }
 
+        InsertionCostsCache insertionCostsCache = null;
+        if (toBoolean(getProperty(Parameter.INSERTION_COSTS_CACHE.toString()))) {
+            if (insertionCostsAreTransportCostsOnly(vrp, fixedCostParam)) insertionCostsCache = new InsertionCostsCache();
+            else logger.warn("insertion costs cache is not used since insertion costs depend on the share of jobs to be inserted " +
+                "(due to activity costs, fixed costs or a custom activity insertion calculator)");
+        }
+
+        boolean prunedShipmentInsertion = toBoolean(getProperty(Parameter.PRUNED_SHIPMENT_INSERTION.toString()));
+
+        RouteCandidateFilter routeCandidateFilter = null;
+        if (toBoolean(getProperty(Parameter.ROUTE_CANDIDATE_FILTER.toString()))) {
+            routeCandidateFilter = new RouteCandidateFilter(toInteger(getProperty(Parameter.MAX_CANDIDATE_ROUTES.toString())));
+            if (vrp.getTransportCosts() instanceof EuclideanCosts && insertionCostsAreTransportCostsOnly(vrp, fixedCostParam)) {
+                routeCandidateFilter.setDistanceFactor(((EuclideanCosts) vrp.getTransportCosts()).detourFactor);
+            }
+        }
+
         double noiseLevel = toDouble(getProperty(Parameter.INSERTION_NOISE_LEVEL.toString()));
         double noiseProbability = toDouble(getProperty(Parameter.INSERTION_NOISE_PROB.toString()));
 
-        JobNeighborhoods jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
+        JobNeighborhoods jobNeighborhoods;
+        if (toBoolean(getProperty(Parameter.LAZY_NEIGHBORHOODS.toString()))) {
+            jobNeighborhoods = new JobNeighborhoodsFactory().createLazyNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()),
+                (int) (vrp.getJobs().values().size() * 0.5), toInteger(getProperty(Parameter.NEIGHBORHOODS_MAX_CACHED_JOBS.toString())), es, noThreads);
+        } else {
+            jobNeighborhoods = new JobNeighborhoodsFactory().createNeighborhoods(vrp, new AvgServiceAndShipmentDistance(vrp.getTransportCosts()), (int) (vrp.getJobs().values().size() * 0.5));
+        }
         jobNeighborhoods.initialise();
 
         final double maxCosts;
@@ -447,11 +568,13 @@ public class Jsprit {
         if (noThreads > 1) {
             ConcurrentInsertionNoiseMaker noiseMaker = new ConcurrentInsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
             noiseMaker.setRandom(random);
+            noiseMaker.setInsertionCostsCache(insertionCostsCache);
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         } else {
             InsertionNoiseMaker noiseMaker = new InsertionNoiseMaker(vrp, maxCosts, noiseLevel, noiseProbability);
             noiseMaker.setRandom(random);
+            noiseMaker.setInsertionCostsCache(insertionCostsCache);
             constraintManager.addConstraint(noiseMaker);
             noiseConfigurator = noiseMaker;
         }
@@ -524,10 +647,31 @@ public class Jsprit {
         final ScoringFunction scorer;
 
         boolean fastRegret = Boolean.parseBoolean(getProperty(Parameter.FAST_REGRET.toString()));
-        if (es != null) {
+        int regretCandidateRoutes = toInteger(getProperty(Parameter.REGRET_CANDIDATE_ROUTES.toString()));
+        if (regretCandidateRoutes > 0) {
+            RegretInsertionKBest regretInsertion = (RegretInsertionKBest) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
+                .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                .setMetricsListener(metricsListener)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setRouteCandidateFilter(routeCandidateFilter)
+                .setPrunedShipmentInsertion(prunedShipmentInsertion)
+                .setRegretCandidateRoutes(regretCandidateRoutes)
+                .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
+                .setActivityInsertionCostCalculator(activityInsertion)
+                .build();
+            scorer = regretScorer;
+            regretInsertion.setScoringFunction(scorer);
+            regretInsertion.setDependencyTypes(constraintManager.getDependencyTypes());
+            regret = regretInsertion;
+        } else if (es != null) {
             if(fastRegret){
                 RegretInsertionConcurrentFast regretInsertion = (RegretInsertionConcurrentFast) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                    .setMetricsListener(metricsListener)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setRouteCandidateFilter(routeCandidateFilter)
+                    .setPrunedShipmentInsertion(prunedShipmentInsertion)
                     .setConcurrentMode(es, noThreads)
                     .setFastRegret(true)
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
@@ -542,6 +686,10 @@ public class Jsprit {
             else {
                 RegretInsertionConcurrent regretInsertion = (RegretInsertionConcurrent) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                    .setMetricsListener(metricsListener)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setRouteCandidateFilter(routeCandidateFilter)
+                    .setPrunedShipmentInsertion(prunedShipmentInsertion)
                     .setConcurrentMode(es, noThreads)
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
@@ -555,6 +703,10 @@ public class Jsprit {
             if(fastRegret) {
                 RegretInsertionFast regretInsertion = (RegretInsertionFast) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                    .setMetricsListener(metricsListener)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setRouteCandidateFilter(routeCandidateFilter)
+                    .setPrunedShipmentInsertion(prunedShipmentInsertion)
                     .setFastRegret(true)
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
@@ -568,6 +720,10 @@ public class Jsprit {
             else{
                 RegretInsertion regretInsertion = (RegretInsertion) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                     .setInsertionStrategy(InsertionBuilder.Strategy.REGRET)
+                    .setMetricsListener(metricsListener)
+                    .setInsertionCostsCache(insertionCostsCache)
+                    .setRouteCandidateFilter(routeCandidateFilter)
+                    .setPrunedShipmentInsertion(prunedShipmentInsertion)
                     .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                     .considerFixedCosts(toDouble(getProperty(Parameter.FIXED_COST_PARAM.toString())))
                     .setActivityInsertionCostCalculator(activityInsertion)
@@ -583,14 +739,35 @@ public class Jsprit {
         if (vrp.getJobs().size() < 250 || es == null) {
             BestInsertion bestInsertion = (BestInsertion) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                 .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
+                .setMetricsListener(metricsListener)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setRouteCandidateFilter(routeCandidateFilter)
+                .setPrunedShipmentInsertion(prunedShipmentInsertion)
+                .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
+                .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                .setActivityInsertionCostCalculator(activityInsertion)
+                .build();
+            best = bestInsertion;
+        } else if (toBoolean(getProperty(Parameter.FORK_JOIN_INSERTION.toString()))) {
+            BestInsertionForkJoin bestInsertion = (BestInsertionForkJoin) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
+                .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
+                .setMetricsListener(metricsListener)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setRouteCandidateFilter(routeCandidateFilter)
+                .setPrunedShipmentInsertion(prunedShipmentInsertion)
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
+                .setForkJoinMode(getForkJoinPool(), noThreads * 4)
                 .setActivityInsertionCostCalculator(activityInsertion)
                 .build();
             best = bestInsertion;
         } else {
             BestInsertionConcurrent bestInsertion = (BestInsertionConcurrent) new InsertionBuilder(vrp, vehicleFleetManager, stateManager, constraintManager)
                 .setInsertionStrategy(InsertionBuilder.Strategy.BEST)
+                .setMetricsListener(metricsListener)
+                .setInsertionCostsCache(insertionCostsCache)
+                .setRouteCandidateFilter(routeCandidateFilter)
+                .setPrunedShipmentInsertion(prunedShipmentInsertion)
                 .considerFixedCosts(Double.valueOf(properties.getProperty(Parameter.FIXED_COST_PARAM.toString())))
                 .setAllowVehicleSwitch(toBoolean(getProperty(Parameter.VEHICLE_SWITCH.toString())))
                 .setConcurrentMode(es, noThreads)
@@ -679,6 +856,11 @@ public class Jsprit {
 
 
         VehicleRoutingAlgorithm vra = prettyBuilder.build();
+        if (toBoolean(getProperty(Parameter.COPY_ON_WRITE_SOLUTIONS.toString()))) {
+            for (SearchStrategy strategy : vra.getSearchStrategyManager().getStrategies()) {
+                strategy.setCopyOnWrite(true);
+            }
+        }
         if(schrimpfThreshold != null) {
             vra.addListener(schrimpfThreshold);
         }
@@ -686,6 +868,13 @@ public class Jsprit {
         vra.addListener(noise);
         vra.addListener(clusters);
         if (increasingAbsoluteFixedCosts != null) vra.addListener(increasingAbsoluteFixedCosts);
+        if (metricsListener != null) vra.addListener(metricsListener);
+        if (toBoolean(getProperty(Parameter.ADAPTIVE_STRATEGY_WEIGHTS.toString()))) {
+            AdaptiveStrategyWeighting strategyWeighting = new AdaptiveStrategyWeighting(vra.getSearchStrategyManager());
+            strategyWeighting.setSegmentLength(toInteger(getProperty(Parameter.STRATEGY_WEIGHTS_SEGMENT.toString())));
+            strategyWeighting.setReactionFactor(toDouble(getProperty(Parameter.STRATEGY_WEIGHTS_REACTION.toString())));
+            vra.addListener(strategyWeighting);
+        }
 
         if(toBoolean(getProperty(Parameter.BREAK_SCHEDULING.toString()))) {
             vra.addListener(new BreakScheduling(vrp, stateManager, constraintManager));
@@ -705,26 +894,22 @@ public class Jsprit {
     }
 
 
+    /*
+     * if no executor is set, es is already a fork/join pool in fork/join mode. only if an executor of another kind is set,
+     * an extra pool is created.
+     */
+    private ForkJoinPool getForkJoinPool() {
+        if (es instanceof ForkJoinPool) return (ForkJoinPool) es;
+        if (forkJoinPool == null) forkJoinPool = new ForkJoinPool(noThreads);
+        return forkJoinPool;
+    }
+
     private void handleExecutorShutdown(VehicleRoutingAlgorithm vra) {
+        if (forkJoinPool != null) {
+            shutdownWhenAlgorithmEnds(vra, forkJoinPool);
+        }
         if (setupExecutorInternally) {
-            final Thread hook = new Thread() {
-                public void run() {
-                    if (!es.isShutdown()) {
-                        System.err.println("shutdownHook shuts down executorService");
-                        es.shutdown();
-                    }
-                }
-            };
-            Runtime.getRuntime().addShutdownHook(hook);
-            vra.addListener(new AlgorithmEndsListener() {
-
-                @Override
-                public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
-                    es.shutdown();
-                    Runtime.getRuntime().removeShutdownHook(hook);
-                }
-
-            });
+            shutdownWhenAlgorithmEnds(vra, es);
         }
 //        if (es != null) {
 //
@@ -739,10 +924,42 @@ public class Jsprit {
 //        }
     }
 
+    private void shutdownWhenAlgorithmEnds(VehicleRoutingAlgorithm vra, final ExecutorService executor) {
+        final Thread hook = new Thread() {
+            public void run() {
+                if (!executor.isShutdown()) {
+                    System.err.println("shutdownHook shuts down executorService");
+                    executor.shutdown();
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(hook);
+        vra.addListener(new AlgorithmEndsListener() {
+
+            @Override
+            public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+                executor.shutdown();
+                Runtime.getRuntime().removeShutdownHook(hook);
+            }
+
+        });
+    }
+
     String getProperty(String key) {
         return properties.getProperty(key);
     }
 
+    private boolean insertionCostsAreTransportCostsOnly(VehicleRoutingProblem vrp, double fixedCostParam) {
+        if (fixedCostParam > 0d || activityInsertion != null) return false;
+        if (!(vrp.getActivityCosts() instanceof WaitingTimeCosts)) return false;
+        for (VehicleType type : vrp.getTypes()) {
+            if (type.getVehicleCostParams().perWaitingTimeUnit > 0d || type.getVehicleCostParams().perServiceTimeUnit > 0d) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean toBoolean(String property) {
         return Boolean.valueOf(property);
     }
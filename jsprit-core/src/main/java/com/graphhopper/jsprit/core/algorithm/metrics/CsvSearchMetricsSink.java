@@ -0,0 +1,78 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes {@link SearchMetricsSnapshot}s to a csv file with the columns metric, name, count and nanos. The file is
+ * overwritten with each snapshot.
+ */
+public class CsvSearchMetricsSink implements SearchMetricsSink {
+
+    private final File file;
+
+    public CsvSearchMetricsSink(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void write(SearchMetricsSnapshot snapshot) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        try {
+            writer.write("metric,name,count,nanos");
+            writer.newLine();
+            writeTimings(writer, "strategy", snapshot.getStrategyTimes());
+            writeTimings(writer, "ruin", snapshot.getRuinTimes());
+            writeTimings(writer, "recreate", snapshot.getRecreateTimes());
+            writeTimings(writer, "stateUpdate", snapshot.getStateUpdateTimes());
+            writeTiming(writer, "solutionCopy", "", snapshot.getSolutionCopyTime());
+            writeLine(writer, "insertionCostEvaluation", "", snapshot.getInsertionCostEvaluations(), "");
+            for (Map.Entry<String, Long> e : snapshot.getHardConstraintRejections().entrySet()) {
+                writeLine(writer, "hardConstraintRejection", e.getKey(), e.getValue(), "");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeTimings(BufferedWriter writer, String metric, Map<String, SearchMetricsSnapshot.Timing> timings) throws IOException {
+        for (Map.Entry<String, SearchMetricsSnapshot.Timing> e : timings.entrySet()) {
+            writeTiming(writer, metric, e.getKey(), e.getValue());
+        }
+    }
+
+    private static void writeTiming(BufferedWriter writer, String metric, String name, SearchMetricsSnapshot.Timing timing) throws IOException {
+        writeLine(writer, metric, name, timing.getCount(), String.valueOf(timing.getNanos()));
+    }
+
+    private static void writeLine(BufferedWriter writer, String metric, String name, long count, String nanos) throws IOException {
+        writer.write(metric + "," + escape(name) + "," + count + "," + nanos);
+        writer.newLine();
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes {@link SearchMetricsSnapshot}s to a json file. The file is overwritten with each snapshot.
+ */
+public class JsonSearchMetricsSink implements SearchMetricsSink {
+
+    private final File file;
+
+    public JsonSearchMetricsSink(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void write(SearchMetricsSnapshot snapshot) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        try {
+            writer.write(toJson(snapshot));
+            writer.newLine();
+        } finally {
+            writer.close();
+        }
+    }
+
+    static String toJson(SearchMetricsSnapshot snapshot) {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"strategies\":");
+        appendTimings(json, snapshot.getStrategyTimes());
+        json.append(",\"ruin\":");
+        appendTimings(json, snapshot.getRuinTimes());
+        json.append(",\"recreate\":");
+        appendTimings(json, snapshot.getRecreateTimes());
+        json.append(",\"stateUpdates\":");
+        appendTimings(json, snapshot.getStateUpdateTimes());
+        json.append(",\"solutionCopies\":");
+        appendTiming(json, snapshot.getSolutionCopyTime());
+        json.append(",\"insertionCostEvaluations\":").append(snapshot.getInsertionCostEvaluations());
+        json.append(",\"hardConstraintRejections\":{");
+        Iterator<Map.Entry<String, Long>> rejections = snapshot.getHardConstraintRejections().entrySet().iterator();
+        while (rejections.hasNext()) {
+            Map.Entry<String, Long> e = rejections.next();
+            appendString(json, e.getKey());
+            json.append(':').append(e.getValue());
+            if (rejections.hasNext()) json.append(',');
+        }
+        json.append("}}");
+        return json.toString();
+    }
+
+    private static void appendTimings(StringBuilder json, Map<String, SearchMetricsSnapshot.Timing> timings) {
+        json.append('{');
+        Iterator<Map.Entry<String, SearchMetricsSnapshot.Timing>> iterator = timings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, SearchMetricsSnapshot.Timing> e = iterator.next();
+            appendString(json, e.getKey());
+            json.append(':');
+            appendTiming(json, e.getValue());
+            if (iterator.hasNext()) json.append(',');
+        }
+        json.append('}');
+    }
+
+    private static void appendTiming(StringBuilder json, SearchMetricsSnapshot.Timing timing) {
+        json.append("{\"count\":").append(timing.getCount()).append(",\"nanos\":").append(timing.getNanos()).append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') json.append('\\').append(c);
+            else if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+            else json.append(c);
+        }
+        json.append('"');
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import com.graphhopper.jsprit.core.algorithm.listener.AlgorithmEndsListener;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.HardConstraint;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link SearchMetricsListener} that aggregates all events.
+ * <p>
+ * <p>Its current state can be obtained with getSnapshot(). When the algorithm ends, the snapshot is written to all
+ * sinks that have been added, e.g. to a {@link CsvSearchMetricsSink} or a {@link JsonSearchMetricsSink}.
+ */
+public class SearchMetrics implements SearchMetricsListener, AlgorithmEndsListener {
+
+    private static class Timer {
+
+        final AtomicLong count = new AtomicLong();
+
+        final AtomicLong nanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+        }
+
+        SearchMetricsSnapshot.Timing toTiming() {
+            return new SearchMetricsSnapshot.Timing(count.get(), nanos.get());
+        }
+
+    }
+
+    private final ConcurrentMap<String, Timer> strategyTimers = new ConcurrentHashMap<String, Timer>();
+
+    private final ConcurrentMap<String, Timer> ruinTimers = new ConcurrentHashMap<String, Timer>();
+
+    private final ConcurrentMap<String, Timer> recreateTimers = new ConcurrentHashMap<String, Timer>();
+
+    private final ConcurrentMap<String, Timer> stateUpdateTimers = new ConcurrentHashMap<String, Timer>();
+
+    private final ConcurrentMap<String, AtomicLong> hardConstraintRejections = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final AtomicLong insertionCostEvaluations = new AtomicLong();
+
+    private final ConcurrentMap<Class<?>, String> names = new ConcurrentHashMap<Class<?>, String>();
+
+    private volatile Timer solutionCopyTimer = new Timer();
+
+    private final List<SearchMetricsSink> sinks = new CopyOnWriteArrayList<SearchMetricsSink>();
+
+    /**
+     * Adds a sink the snapshot is written to when the algorithm ends.
+     *
+     * @param sink the sink to be added
+     */
+    public void addSink(SearchMetricsSink sink) {
+        sinks.add(sink);
+    }
+
+    @Override
+    public void informStrategyRun(String strategyId, long nanos) {
+        timer(strategyTimers, strategyId).add(nanos);
+    }
+
+    @Override
+    public void informRuin(String moduleName, long nanos) {
+        timer(ruinTimers, moduleName).add(nanos);
+    }
+
+    @Override
+    public void informRecreate(String moduleName, long nanos) {
+        timer(recreateTimers, moduleName).add(nanos);
+    }
+
+    @Override
+    public void informInsertionCostsEvaluated() {
+        insertionCostEvaluations.incrementAndGet();
+    }
+
+    @Override
+    public void informHardConstraintRejected(HardConstraint constraint) {
+        String name = nameOf(constraint);
+        AtomicLong counter = hardConstraintRejections.get(name);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = hardConstraintRejections.putIfAbsent(name, newCounter);
+            if (counter == null) counter = newCounter;
+        }
+        counter.incrementAndGet();
+    }
+
+    @Override
+    public void informStateUpdated(Object stateUpdater, long nanos) {
+        timer(stateUpdateTimers, nameOf(stateUpdater)).add(nanos);
+    }
+
+    @Override
+    public void informSolutionCopied(long nanos) {
+        solutionCopyTimer.add(nanos);
+    }
+
+    @Override
+    public void informAlgorithmEnds(VehicleRoutingProblem problem, Collection<VehicleRoutingProblemSolution> solutions) {
+        if (sinks.isEmpty()) return;
+        SearchMetricsSnapshot snapshot = getSnapshot();
+        for (SearchMetricsSink sink : sinks) {
+            try {
+                sink.write(snapshot);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the metrics recorded so far.
+     *
+     * @return snapshot
+     */
+    public SearchMetricsSnapshot getSnapshot() {
+        Map<String, Long> rejections = new HashMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> e : hardConstraintRejections.entrySet()) {
+            rejections.put(e.getKey(), e.getValue().get());
+        }
+        return new SearchMetricsSnapshot(timings(strategyTimers), timings(ruinTimers), timings(recreateTimers), timings(stateUpdateTimers),
+            rejections, insertionCostEvaluations.get(), solutionCopyTimer.toTiming());
+    }
+
+    /**
+     * Clears all metrics recorded so far.
+     */
+    public void reset() {
+        strategyTimers.clear();
+        ruinTimers.clear();
+        recreateTimers.clear();
+        stateUpdateTimers.clear();
+        hardConstraintRejections.clear();
+        insertionCostEvaluations.set(0);
+        solutionCopyTimer = new Timer();
+    }
+
+    private static Timer timer(ConcurrentMap<String, Timer> timers, String name) {
+        Timer timer = timers.get(name);
+        if (timer == null) {
+            Timer newTimer = new Timer();
+            timer = timers.putIfAbsent(name, newTimer);
+            if (timer == null) timer = newTimer;
+        }
+        return timer;
+    }
+
+    private static Map<String, SearchMetricsSnapshot.Timing> timings(ConcurrentMap<String, Timer> timers) {
+        Map<String, SearchMetricsSnapshot.Timing> timings = new HashMap<String, SearchMetricsSnapshot.Timing>();
+        for (Map.Entry<String, Timer> e : timers.entrySet()) {
+            timings.put(e.getKey(), e.getValue().toTiming());
+        }
+        return timings;
+    }
+
+    private String nameOf(Object o) {
+        String name = names.get(o.getClass());
+        if (name == null) {
+            name = o.getClass().getSimpleName();
+            if (name.isEmpty()) name = o.getClass().getName();
+            names.putIfAbsent(o.getClass(), name);
+        }
+        return name;
+    }
+
+}
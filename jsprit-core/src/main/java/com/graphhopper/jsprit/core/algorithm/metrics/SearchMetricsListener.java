@@ -0,0 +1,89 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.problem.constraint.HardConstraint;
+
+/**
+ * Listener that is informed about events on the hot path of the search, i.e. about the time spent in ruin, recreate,
+ * state updates and solution copies as well as about insertion cost evaluations and hard constraint rejections.
+ * <p>
+ * <p>Instrumentation is opt-in. Components only measure and report if a metrics listener has been set, thus it costs
+ * nothing but a null check if there is none. Use {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit.Builder#setMetricsListener(SearchMetricsListener)}
+ * to register it with all components of an algorithm. Implementations need to be thread-safe since insertion costs
+ * might be evaluated concurrently.
+ * <p>
+ * <p>All times are in nanoseconds.
+ */
+public interface SearchMetricsListener extends SearchStrategyModuleListener {
+
+    /**
+     * Informs that a search strategy has been run, i.e. a solution has been selected, copied, changed by the modules
+     * of the strategy and accepted or rejected.
+     *
+     * @param strategyId id of the strategy
+     * @param nanos      time the strategy took
+     */
+    void informStrategyRun(String strategyId, long nanos);
+
+    /**
+     * Informs that the ruin strategy of a ruin-and-recreate module has removed jobs.
+     *
+     * @param moduleName name of the module
+     * @param nanos      time the ruin took
+     */
+    void informRuin(String moduleName, long nanos);
+
+    /**
+     * Informs that the insertion strategy of a ruin-and-recreate module has (re-)inserted jobs.
+     *
+     * @param moduleName name of the module
+     * @param nanos      time the recreate took
+     */
+    void informRecreate(String moduleName, long nanos);
+
+    /**
+     * Informs that the insertion costs of a job into a route have been evaluated.
+     */
+    void informInsertionCostsEvaluated();
+
+    /**
+     * Informs that a hard constraint rejected an insertion.
+     *
+     * @param constraint the constraint that is not fulfilled
+     */
+    void informHardConstraintRejected(HardConstraint constraint);
+
+    /**
+     * Informs that a state updater (i.e. a route or activity visitor registered at the state manager) has updated
+     * the states of a route.
+     *
+     * @param stateUpdater the updater
+     * @param nanos        time the update took
+     */
+    void informStateUpdated(Object stateUpdater, long nanos);
+
+    /**
+     * Informs that a solution has been copied.
+     *
+     * @param nanos time the copy took
+     */
+    void informSolutionCopied(long nanos);
+
+}
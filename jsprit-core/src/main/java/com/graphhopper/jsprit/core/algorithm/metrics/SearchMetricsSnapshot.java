@@ -0,0 +1,152 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the metrics that {@link SearchMetrics} has recorded so far.
+ * <p>
+ * <p>Times are in nanoseconds, and maps are sorted by name.
+ */
+public class SearchMetricsSnapshot {
+
+    /**
+     * Number of measurements and the total time they took.
+     */
+    public static class Timing {
+
+        private final long count;
+
+        private final long nanos;
+
+        public Timing(long count, long nanos) {
+            this.count = count;
+            this.nanos = nanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getMeanNanos() {
+            if (count == 0) return 0.;
+            return (double) nanos / (double) count;
+        }
+
+        @Override
+        public String toString() {
+            return "[count=" + count + "][nanos=" + nanos + "]";
+        }
+
+    }
+
+    private final Map<String, Timing> strategyTimes;
+
+    private final Map<String, Timing> ruinTimes;
+
+    private final Map<String, Timing> recreateTimes;
+
+    private final Map<String, Timing> stateUpdateTimes;
+
+    private final Map<String, Long> hardConstraintRejections;
+
+    private final long insertionCostEvaluations;
+
+    private final Timing solutionCopyTime;
+
+    SearchMetricsSnapshot(Map<String, Timing> strategyTimes, Map<String, Timing> ruinTimes, Map<String, Timing> recreateTimes,
+                          Map<String, Timing> stateUpdateTimes, Map<String, Long> hardConstraintRejections,
+                          long insertionCostEvaluations, Timing solutionCopyTime) {
+        this.strategyTimes = Collections.unmodifiableMap(new TreeMap<String, Timing>(strategyTimes));
+        this.ruinTimes = Collections.unmodifiableMap(new TreeMap<String, Timing>(ruinTimes));
+        this.recreateTimes = Collections.unmodifiableMap(new TreeMap<String, Timing>(recreateTimes));
+        this.stateUpdateTimes = Collections.unmodifiableMap(new TreeMap<String, Timing>(stateUpdateTimes));
+        this.hardConstraintRejections = Collections.unmodifiableMap(new TreeMap<String, Long>(hardConstraintRejections));
+        this.insertionCostEvaluations = insertionCostEvaluations;
+        this.solutionCopyTime = solutionCopyTime;
+    }
+
+    /**
+     * Returns the time of search strategy runs by strategy id.
+     *
+     * @return strategy times
+     */
+    public Map<String, Timing> getStrategyTimes() {
+        return strategyTimes;
+    }
+
+    /**
+     * Returns the ruin time by module name. Note that {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit} names
+     * its ruin-and-recreate modules like their strategies.
+     *
+     * @return ruin times
+     */
+    public Map<String, Timing> getRuinTimes() {
+        return ruinTimes;
+    }
+
+    /**
+     * Returns the recreate time by module name.
+     *
+     * @return recreate times
+     */
+    public Map<String, Timing> getRecreateTimes() {
+        return recreateTimes;
+    }
+
+    /**
+     * Returns the state update time by simple class name of the state updater.
+     *
+     * @return state update times
+     */
+    public Map<String, Timing> getStateUpdateTimes() {
+        return stateUpdateTimes;
+    }
+
+    /**
+     * Returns the number of rejected insertions by simple class name of the hard constraint.
+     *
+     * @return number of rejections
+     */
+    public Map<String, Long> getHardConstraintRejections() {
+        return hardConstraintRejections;
+    }
+
+    public long getInsertionCostEvaluations() {
+        return insertionCostEvaluations;
+    }
+
+    public Timing getSolutionCopyTime() {
+        return solutionCopyTime;
+    }
+
+    @Override
+    public String toString() {
+        return "[strategies=" + strategyTimes + "][ruin=" + ruinTimes + "][recreate=" + recreateTimes + "][stateUpdates=" + stateUpdateTimes
+            + "][hardConstraintRejections=" + hardConstraintRejections + "][insertionCostEvaluations=" + insertionCostEvaluations
+            + "][solutionCopies=" + solutionCopyTime + "]";
+    }
+
+}
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.module;
 
 import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.InsertionStrategy;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.RuinStrategy;
@@ -39,6 +40,8 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     private String moduleName;
 
+    private SearchMetricsListener metricsListener;
+
     public RuinAndRecreateModule(String moduleName, InsertionStrategy insertion, RuinStrategy ruin) {
         super();
         this.insertion = insertion;
@@ -48,11 +51,18 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     @Override
     public VehicleRoutingProblemSolution runAndGetSolution(VehicleRoutingProblemSolution vrpSolution) {
+        long startTime = metricsListener == null ? 0 : System.nanoTime();
         Collection<Job> ruinedJobs = ruin.ruin(vrpSolution.getRoutes());
+        if (metricsListener != null) {
+            long ruinEndTime = System.nanoTime();
+            metricsListener.informRuin(moduleName, ruinEndTime - startTime);
+            startTime = ruinEndTime;
+        }
         Set<Job> ruinedJobSet = new HashSet<Job>();
         ruinedJobSet.addAll(ruinedJobs);
         ruinedJobSet.addAll(vrpSolution.getUnassignedJobs());
         Collection<Job> unassignedJobs = insertion.insertJobs(vrpSolution.getRoutes(), ruinedJobSet);
+        if (metricsListener != null) metricsListener.informRecreate(moduleName, System.nanoTime() - startTime);
         vrpSolution.getUnassignedJobs().clear();
         vrpSolution.getUnassignedJobs().addAll(unassignedJobs);
         return vrpSolution;
@@ -66,6 +76,9 @@ public class RuinAndRecreateModule implements SearchStrategyModule {
 
     @Override
     public void addModuleListener(SearchStrategyModuleListener moduleListener) {
+        if (moduleListener instanceof SearchMetricsListener) {
+            metricsListener = (SearchMetricsListener) moduleListener;
+        }
         if (moduleListener instanceof InsertionListener) {
             InsertionListener iListener = (InsertionListener) moduleListener;
             if (!insertion.getListeners().contains(iListener)) {
@@ -18,16 +18,15 @@
 
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
-import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.constraint.HardConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.HardRouteConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Created by schroeder on 06/02/17.
@@ -39,6 +38,7 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
             if (!hardRouteConstraint.fulfilled(insertionContext)) {
                 InsertionData emptyInsertionData = new InsertionData.NoInsertionFound();
                 emptyInsertionData.addFailedConstrainName(hardRouteConstraint.getClass().getSimpleName());
+                informRejected(hardRouteConstraint, constraintManager);
                 return emptyInsertionData;
             }
         }
@@ -46,50 +46,12 @@ abstract class AbstractInsertionCalculator implements JobInsertionCostsCalculato
     }
 
     ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedActivityConstraints, ConstraintManager constraintManager) {
-        ConstraintsStatus notFulfilled = null;
-        List<String> failed = new ArrayList<>();
-        for (HardActivityConstraint c : constraintManager.getCriticalHardActivityConstraints()) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                failedActivityConstraints.add(c.getClass().getSimpleName());
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    failed.add(c.getClass().getSimpleName());
-                    notFulfilled = status;
-                }
-            }
-        }
-        if (notFulfilled != null) {
-            failedActivityConstraints.addAll(failed);
-            return notFulfilled;
-        }
-
-        for (HardActivityConstraint c : constraintManager.getHighPrioHardActivityConstraints()) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
-                failedActivityConstraints.add(c.getClass().getSimpleName());
-                return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    failed.add(c.getClass().getSimpleName());
-                    notFulfilled = status;
-                }
-            }
-        }
-        if (notFulfilled != null) {
-            failedActivityConstraints.addAll(failed);
-            return notFulfilled;
-        }
+        return constraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedActivityConstraints);
+    }
 
-        for (HardActivityConstraint constraint : constraintManager.getLowPrioHardActivityConstraints()) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                failedActivityConstraints.add(constraint.getClass().getSimpleName());
-                return status;
-            }
-        }
-        return ConstraintsStatus.FULFILLED;
+    private static void informRejected(HardConstraint constraint, ConstraintManager constraintManager) {
+        SearchMetricsListener metricsListener = constraintManager.getMetricsListener();
+        if (metricsListener != null) metricsListener.informHardConstraintRejected(constraint);
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Concurrent best insertion that is based on a {@link ForkJoinPool}.
+ * <p>
+ * <p>In contrast to {@link BestInsertionConcurrent}, routes are partitioned into shards only once per insertion run, and
+ * new routes are added to the smallest shard. Each job is evaluated by a single fork/join task that recursively splits
+ * the shards, i.e. idle workers steal shards from busy ones. The best insertion costs found so far are shared lock-free
+ * between shards to prune the evaluation of the remaining routes, and the best insertion is determined by joining
+ * the results of the subtasks.
+ */
+public final class BestInsertionForkJoin extends AbstractInsertionStrategy {
+
+    static class Shard {
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+    }
+
+    private class ShardTask extends RecursiveTask<Insertion> {
+
+        private final Job job;
+
+        private final int fromShard;
+
+        private final int toShard;
+
+        private final AtomicLong bestCostBits;
+
+        ShardTask(Job job, int fromShard, int toShard, AtomicLong bestCostBits) {
+            this.job = job;
+            this.fromShard = fromShard;
+            this.toShard = toShard;
+            this.bestCostBits = bestCostBits;
+        }
+
+        @Override
+        protected Insertion compute() {
+            if (toShard - fromShard == 1) {
+                return getBestInsertion(shards.get(fromShard), job, bestCostBits);
+            }
+            int mid = (fromShard + toShard) >>> 1;
+            ShardTask left = new ShardTask(job, fromShard, mid, bestCostBits);
+            left.fork();
+            Insertion right = new ShardTask(job, mid, toShard, bestCostBits).compute();
+            return better(left.join(), right);
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(BestInsertionForkJoin.class);
+
+    private final JobInsertionCostsCalculator bestInsertionCostCalculator;
+
+    private final ForkJoinPool forkJoinPool;
+
+    private final int nuOfShards;
+
+    private List<Shard> shards;
+
+    public BestInsertionForkJoin(JobInsertionCostsCalculator jobInsertionCalculator, ForkJoinPool forkJoinPool, int nuOfShards, VehicleRoutingProblem vehicleRoutingProblem) {
+        super(vehicleRoutingProblem);
+        if (nuOfShards < 1) throw new IllegalArgumentException("nuOfShards must be at least 1");
+        this.bestInsertionCostCalculator = jobInsertionCalculator;
+        this.forkJoinPool = forkJoinPool;
+        this.nuOfShards = nuOfShards;
+        logger.debug("initialise {}", this);
+    }
+
+    @Override
+    public String toString() {
+        return "[name=bestInsertion]";
+    }
+
+    @Override
+    public Collection<Job> insertUnassignedJobs(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        List<Job> badJobs = new ArrayList<Job>(unassignedJobs.size());
+        List<Job> unassignedJobList = new ArrayList<Job>(unassignedJobs);
+        Collections.shuffle(unassignedJobList, random);
+        Collections.sort(unassignedJobList, new AccordingToPriorities());
+        shards = distributeRoutes(vehicleRoutes);
+        for (Job unassignedJob : unassignedJobList) {
+            AtomicLong bestCostBits = new AtomicLong(Double.doubleToLongBits(Double.MAX_VALUE));
+            Insertion bestInsertion = forkJoinPool.invoke(new ShardTask(unassignedJob, 0, shards.size(), bestCostBits));
+            List<String> failedConstraintNames = new ArrayList<String>();
+            if (bestInsertion.getInsertionData() instanceof NoInsertionFound) {
+                failedConstraintNames.addAll(bestInsertion.getInsertionData().getFailedConstraintNames());
+                bestInsertion = null;
+            }
+            double bestInsertionCost = bestInsertion == null ? Double.MAX_VALUE : bestInsertion.getInsertionData().getInsertionCost();
+            VehicleRoute newRoute = VehicleRoute.emptyRoute();
+            InsertionData newIData = bestInsertionCostCalculator.getInsertionData(newRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestInsertionCost);
+            if (!(newIData instanceof NoInsertionFound)) {
+                if (newIData.getInsertionCost() < bestInsertionCost) {
+                    bestInsertion = new Insertion(newRoute, newIData);
+                    vehicleRoutes.add(newRoute);
+                    smallestShard().routes.add(newRoute);
+                }
+            } else {
+                failedConstraintNames.addAll(newIData.getFailedConstraintNames());
+            }
+            if (bestInsertion == null) {
+                badJobs.add(unassignedJob);
+                markUnassigned(unassignedJob, failedConstraintNames);
+            } else insertJob(unassignedJob, bestInsertion.getInsertionData(), bestInsertion.getRoute());
+        }
+        shards = null;
+        return badJobs;
+    }
+
+    private Insertion getBestInsertion(Shard shard, Job unassignedJob, AtomicLong bestCostBits) {
+        Insertion bestInsertion = null;
+        InsertionData empty = new InsertionData.NoInsertionFound();
+        for (VehicleRoute vehicleRoute : shard.routes) {
+            double bestKnownCosts = Double.longBitsToDouble(bestCostBits.get());
+            InsertionData iData = bestInsertionCostCalculator.getInsertionData(vehicleRoute, unassignedJob, NO_NEW_VEHICLE_YET, NO_NEW_DEPARTURE_TIME_YET, NO_NEW_DRIVER_YET, bestKnownCosts);
+            if (iData instanceof NoInsertionFound) {
+                empty.getFailedConstraintNames().addAll(iData.getFailedConstraintNames());
+                continue;
+            }
+            if (bestInsertion == null || iData.getInsertionCost() < bestInsertion.getInsertionData().getInsertionCost()) {
+                bestInsertion = new Insertion(vehicleRoute, iData);
+                updateBestCosts(bestCostBits, iData.getInsertionCost());
+            }
+        }
+        if (bestInsertion == null) return new Insertion(null, empty);
+        return bestInsertion;
+    }
+
+    private static void updateBestCosts(AtomicLong bestCostBits, double costs) {
+        while (true) {
+            long currentBits = bestCostBits.get();
+            if (Double.longBitsToDouble(currentBits) <= costs) return;
+            if (bestCostBits.compareAndSet(currentBits, Double.doubleToLongBits(costs))) return;
+        }
+    }
+
+    private Insertion better(Insertion first, Insertion second) {
+        boolean firstFound = !(first.getInsertionData() instanceof NoInsertionFound);
+        boolean secondFound = !(second.getInsertionData() instanceof NoInsertionFound);
+        if (firstFound && secondFound) {
+            if (second.getInsertionData().getInsertionCost() < first.getInsertionData().getInsertionCost()) return second;
+            return first;
+        }
+        if (firstFound) return first;
+        if (secondFound) return second;
+        first.getInsertionData().getFailedConstraintNames().addAll(second.getInsertionData().getFailedConstraintNames());
+        return first;
+    }
+
+    private Shard smallestShard() {
+        Shard smallest = shards.get(0);
+        for (Shard shard : shards) {
+            if (shard.routes.size() < smallest.routes.size()) smallest = shard;
+        }
+        return smallest;
+    }
+
+    private List<Shard> distributeRoutes(Collection<VehicleRoute> vehicleRoutes) {
+        List<Shard> shards = new ArrayList<Shard>(nuOfShards);
+        for (int i = 0; i < nuOfShards; i++) shards.add(new Shard());
+        int count = 0;
+        for (VehicleRoute route : vehicleRoutes) {
+            if (count == nuOfShards) count = 0;
+            shards.get(count).routes.add(route);
+            count++;
+        }
+        return shards;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.InsertionData.NoInsertionFound;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+/**
+ * Looks up insertion data in an {@link InsertionCostsCache} and delegates to the actual calculator only if there is
+ * no valid entry.
+ * <p>
+ * <p>Cached insertion data are bound to the route and the activities they have been calculated for. Thus, data found
+ * in the cache are rebound to the current route with duplicated activities. Since the actual calculator skips
+ * insertions that are not better than bestKnownCosts, data without insertion are only reused if bestKnownCosts do
+ * not exceed those of the cached evaluation.
+ */
+final class CachingJobInsertionCostsCalculator implements JobInsertionCostsCalculator {
+
+    private final JobInsertionCostsCalculator calculator;
+
+    private final InsertionCostsCache cache;
+
+    CachingJobInsertionCostsCalculator(JobInsertionCostsCalculator calculator, InsertionCostsCache cache) {
+        this.calculator = calculator;
+        this.cache = cache;
+    }
+
+    @Override
+    public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+        if (!cache.isActive() || newJob instanceof Break) {
+            return calculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        }
+        long version = currentRoute.getTourActivities().getVersion();
+        InsertionCostsCache.Key key = new InsertionCostsCache.Key(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver);
+        InsertionCostsCache.Entry entry = cache.get(version, key);
+        if (entry != null) {
+            InsertionData cached = entry.insertionData;
+            if (cached instanceof NoInsertionFound) {
+                if (bestKnownCosts <= entry.bestKnownCosts) return copyOfNoInsertion(cached);
+            } else {
+                if (cached.getInsertionCost() < bestKnownCosts) return rebind(cached, currentRoute);
+                return new NoInsertionFound();
+            }
+        }
+        InsertionData iData = calculator.getInsertionData(currentRoute, newJob, newVehicle, newVehicleDepartureTime, newDriver, bestKnownCosts);
+        if (isRebindable(iData)) cache.put(version, key, new InsertionCostsCache.Entry(iData, bestKnownCosts));
+        return iData;
+    }
+
+    private static boolean isRebindable(InsertionData iData) {
+        for (Event e : iData.getEvents()) {
+            if (!(e instanceof InsertActivity) && !(e instanceof SwitchVehicle)) return false;
+        }
+        return true;
+    }
+
+    private static InsertionData copyOfNoInsertion(InsertionData cached) {
+        InsertionData noInsertion = new NoInsertionFound();
+        noInsertion.getFailedConstraintNames().addAll(cached.getFailedConstraintNames());
+        return noInsertion;
+    }
+
+    private static InsertionData rebind(InsertionData cached, VehicleRoute route) {
+        InsertionData iData = new InsertionData(cached.getInsertionCost(), cached.getPickupInsertionIndex(), cached.getDeliveryInsertionIndex(),
+            cached.getSelectedVehicle(), cached.getSelectedDriver());
+        iData.setVehicleDepartureTime(cached.getVehicleDepartureTime());
+        iData.setAdditionalTime(cached.getAdditionalTime());
+        for (Event e : cached.getEvents()) {
+            if (e instanceof InsertActivity) {
+                InsertActivity insertActivity = (InsertActivity) e;
+                iData.getEvents().add(new InsertActivity(route, insertActivity.getNewVehicle(), insertActivity.getActivity().duplicate(), insertActivity.getIndex()));
+            } else {
+                SwitchVehicle switchVehicle = (SwitchVehicle) e;
+                iData.getEvents().add(new SwitchVehicle(route, switchVehicle.getVehicle(), switchVehicle.getDepartureTime()));
+            }
+        }
+        return iData;
+    }
+
+}
@@ -22,6 +22,7 @@ import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import org.slf4j.Logger;
@@ -36,9 +37,16 @@ public final class DecreasingRelativeFixedCosts extends SolutionCompletenessRati
 
     private RouteAndActivityStateGetter stateGetter;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
+    private final Capacity noLoad = Capacity.Builder.newInstance().build();
+
     public DecreasingRelativeFixedCosts(RouteAndActivityStateGetter stateGetter, int noJobs) {
         super(noJobs);
         this.stateGetter = stateGetter;
+        if (stateGetter instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateGetter;
+        }
         logger.debug("initialise {}", this);
     }
 
@@ -59,9 +67,34 @@ public final class DecreasingRelativeFixedCosts extends SolutionCompletenessRati
         return maxLoad;
     }
 
+    private double getRelativeLoad(VehicleRoute route, Capacity additionalLoad, Capacity capacity) {
+        int nuDimensions = Math.max(Math.max(additionalLoad.getNuOfDimensions(), capacity.getNuOfDimensions()), primitiveStates.getNuCapacityDimensions());
+        int nuOfDimensions = 0;
+        double sumQuotients = 0.0;
+        for (int i = 0; i < nuDimensions; i++) {
+            int load = primitiveStates.getRouteStateCapacityDimension(route, InternalStates.MAXLOAD, i) + additionalLoad.get(i);
+            if (load != 0 && capacity.get(i) == 0) {
+                throw new IllegalArgumentException("numerator > 0 and denominator = 0. cannot divide by 0");
+            } else if (load != 0 || capacity.get(i) != 0) {
+                nuOfDimensions++;
+                sumQuotients += (double) load / (double) capacity.get(i);
+            }
+        }
+        if (nuOfDimensions > 0) return sumQuotients / (double) nuOfDimensions;
+        return 0.0;
+    }
+
     @Override
     public double getCosts(JobInsertionContext insertionContext) {
         VehicleRoute route = insertionContext.getRoute();
+        if (primitiveStates != null) {
+            double currentRelFix = 0d;
+            if (route.getVehicle() != null && !(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
+                currentRelFix = route.getVehicle().getType().getVehicleCostParams().fix * getRelativeLoad(route, noLoad, route.getVehicle().getType().getCapacityDimensions());
+            }
+            double newRelFix = insertionContext.getNewVehicle().getType().getVehicleCostParams().fix * getRelativeLoad(route, insertionContext.getJob().getSize(), insertionContext.getNewVehicle().getType().getCapacityDimensions());
+            return weightDeltaFixCost * solutionCompletenessRatio * (1 - solutionCompletenessRatio) * (newRelFix - currentRelFix);
+        }
         Capacity currentLoad = getCurrentMaxLoadInRoute(route);
         Capacity load = Capacity.addup(currentLoad, insertionContext.getJob().getSize());
         double currentRelFix = 0d;
@@ -0,0 +1,138 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import java.util.Arrays;
+
+/**
+ * Indexed max priority queue of scores, i.e. a binary heap that knows the heap position of each index. Thus, the
+ * score of an index can be updated or removed in O(log n). Equal scores are ordered by index.
+ * <p>
+ * <p>Indices must be in [0, capacity).
+ */
+class IndexedScoreQueue {
+
+    private final int[] heap;
+
+    private final int[] positions;
+
+    private final double[] scores;
+
+    private int size = 0;
+
+    IndexedScoreQueue(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        scores = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    boolean contains(int index) {
+        return positions[index] != -1;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts index with score, or updates the score if index is already in the queue.
+     *
+     * @param index the index
+     * @param score the score
+     */
+    void put(int index, double score) {
+        if (contains(index)) {
+            double old = scores[index];
+            scores[index] = score;
+            if (score > old) swim(positions[index]);
+            else sink(positions[index]);
+        } else {
+            scores[index] = score;
+            heap[size] = index;
+            positions[index] = size;
+            size++;
+            swim(size - 1);
+        }
+    }
+
+    void remove(int index) {
+        int position = positions[index];
+        if (position == -1) return;
+        size--;
+        if (position != size) {
+            swap(position, size);
+            positions[index] = -1;
+            swim(position);
+            sink(position);
+        } else positions[index] = -1;
+    }
+
+    /**
+     * @return index with highest score, or -1 if queue is empty
+     */
+    int peek() {
+        if (size == 0) return -1;
+        return heap[0];
+    }
+
+    double getScore(int index) {
+        return scores[index];
+    }
+
+    private boolean higher(int position, int otherPosition) {
+        int i = heap[position];
+        int j = heap[otherPosition];
+        if (scores[i] > scores[j]) return true;
+        return scores[i] == scores[j] && i < j;
+    }
+
+    private void swim(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!higher(position, parent)) return;
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void sink(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) return;
+            if (child + 1 < size && higher(child + 1, child)) child++;
+            if (!higher(child, position)) return;
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int position, int otherPosition) {
+        int i = heap[position];
+        int j = heap[otherPosition];
+        heap[position] = j;
+        heap[otherPosition] = i;
+        positions[j] = position;
+        positions[i] = otherPosition;
+    }
+
+}
@@ -18,6 +18,7 @@
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
 import com.graphhopper.jsprit.core.algorithm.listener.VehicleRoutingAlgorithmListeners;
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListener;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
@@ -27,6 +28,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 
 public class InsertionBuilder {
@@ -62,6 +64,10 @@ public class InsertionBuilder {
 
     private int nuOfThreads;
 
+    private ForkJoinPool forkJoinPool;
+
+    private int nuOfShards;
+
     private double timeSlice;
 
     private int nNeighbors;
@@ -76,6 +82,16 @@ public class InsertionBuilder {
 
     private boolean isFastRegret = false;
 
+    private int regretCandidateRoutes = 0;
+
+    private SearchMetricsListener metricsListener;
+
+    private InsertionCostsCache insertionCostsCache;
+
+    private RouteCandidateFilter routeCandidateFilter;
+
+    private boolean prunedShipmentInsertion = false;
+
     public InsertionBuilder(VehicleRoutingProblem vrp, VehicleFleetManager vehicleFleetManager, StateManager stateManager, ConstraintManager constraintManager) {
         super();
         this.vrp = vrp;
@@ -109,6 +125,18 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Restricts regret insertion to the k best routes of each job (see {@link RegretInsertionKBest}). It is single
+     * threaded, i.e. the concurrent mode is ignored. Default is 0, i.e. all routes are considered.
+     *
+     * @param k number of candidate routes per job, at least 2
+     * @return builder
+     */
+    public InsertionBuilder setRegretCandidateRoutes(int k) {
+        this.regretCandidateRoutes = k;
+        return this;
+    }
+
 
     public InsertionBuilder setLocalLevel() {
         local = true;
@@ -145,6 +173,69 @@ public class InsertionBuilder {
         return this;
     }
 
+    /**
+     * Builds best insertion on top of the specified forkJoinPool, i.e. routes are partitioned into nuOfShards shards
+     * that are evaluated with work-stealing (see {@link BestInsertionForkJoin}). It takes precedence over
+     * setConcurrentMode(...) for best insertion, and is ignored for regret insertion.
+     *
+     * @param forkJoinPool the pool evaluating the shards
+     * @param nuOfShards   number of route shards
+     * @return this builder
+     */
+    public InsertionBuilder setForkJoinMode(ForkJoinPool forkJoinPool, int nuOfShards) {
+        this.forkJoinPool = forkJoinPool;
+        this.nuOfShards = nuOfShards;
+        return this;
+    }
+
+
+    /**
+     * Sets a listener that is informed about each insertion cost evaluation. Default is null, i.e. evaluations are
+     * not counted.
+     *
+     * @param metricsListener the listener
+     * @return this builder
+     */
+    public InsertionBuilder setMetricsListener(SearchMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * Sets a cache of insertion data that survives insertion runs. It can be shared by strategies with equally
+     * configured cost calculators. Default is null, i.e. insertion data are always calculated.
+     *
+     * @param insertionCostsCache the cache
+     * @return this builder
+     */
+    public InsertionBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
+    /**
+     * Sets a filter that skips routes which are far away from the job to be inserted. It can be shared by several
+     * strategies. Default is null, i.e. all routes are evaluated.
+     *
+     * @param routeCandidateFilter the filter
+     * @return this builder
+     */
+    public InsertionBuilder setRouteCandidateFilter(RouteCandidateFilter routeCandidateFilter) {
+        this.routeCandidateFilter = routeCandidateFilter;
+        return this;
+    }
+
+    /**
+     * Sets whether shipment insertion skips delivery positions that violate capacity or time windows (see
+     * {@link ShipmentInsertionCalculator#setPruning}). Default is false.
+     *
+     * @param prunedShipmentInsertion true if shipment insertion is to be pruned
+     * @return this builder
+     */
+    public InsertionBuilder setPrunedShipmentInsertion(boolean prunedShipmentInsertion) {
+        this.prunedShipmentInsertion = prunedShipmentInsertion;
+        return this;
+    }
 
     public InsertionStrategy build() {
         List<InsertionListener> iListeners = new ArrayList<InsertionListener>();
@@ -167,17 +258,29 @@ public class InsertionBuilder {
             calcBuilder.experimentalTimeScheduler(timeSlice, nNeighbors);
         }
         calcBuilder.setAllowVehicleSwitch(allowVehicleSwitch);
+        calcBuilder.setInsertionCostsCache(insertionCostsCache);
+        calcBuilder.setRouteCandidateFilter(routeCandidateFilter);
+        calcBuilder.setPrunedShipmentInsertion(prunedShipmentInsertion);
         JobInsertionCostsCalculator costCalculator = calcBuilder.build();
+        if (metricsListener != null) {
+            costCalculator = new InsertionCostsEvaluationCounter(costCalculator, metricsListener);
+        }
 
         InsertionStrategy insertion;
         if (strategy.equals(Strategy.BEST)) {
-            if (executor == null) {
+            if (forkJoinPool != null) {
+                insertion = new BestInsertionForkJoin(costCalculator, forkJoinPool, nuOfShards, vrp);
+            } else if (executor == null) {
                 insertion = new BestInsertion(costCalculator, vrp);
             } else {
                 insertion = new BestInsertionConcurrent(costCalculator, executor, nuOfThreads, vrp);
             }
         } else if (strategy.equals(Strategy.REGRET)) {
-            if (executor == null) {
+            if (regretCandidateRoutes > 0) {
+                RegretInsertionKBest regret = new RegretInsertionKBest(costCalculator, vrp, fleetManager, regretCandidateRoutes);
+                regret.setSwitchAllowed(allowVehicleSwitch);
+                insertion = regret;
+            } else if (executor == null) {
                 if(isFastRegret){
                     RegretInsertionFast regret = new RegretInsertionFast(costCalculator, vrp, fleetManager);
                     regret.setSwitchAllowed(allowVehicleSwitch);
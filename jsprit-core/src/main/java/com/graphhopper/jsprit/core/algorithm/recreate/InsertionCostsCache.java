@@ -0,0 +1,192 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Solver-wide cache of insertion data that survives iterations, i.e. insertion costs of a job into a route that has
+ * not changed since its last evaluation (even if the route has been copied meanwhile) are not calculated again.
+ * <p>
+ * <p>Entries are keyed by the job, the version of the route's tour (see {@link TourActivities#getVersion()}), the
+ * vehicle and departure time of the route as well as the vehicle, departure time and driver to be evaluated. When an
+ * insertion starts, entries of routes that are not part of the solution to be recreated are evicted, and when a job
+ * is inserted, entries of the route's previous version are evicted. Entries of empty routes are never evicted.
+ * <p>
+ * <p>The cache assumes that insertion costs depend on nothing but the route and the job to be inserted, i.e. it must
+ * be deactivated as long as costs are randomized (e.g. by insertion noise) and it must not be used if constraints or
+ * cost calculators consider anything else (such as the share of jobs still to be inserted). It must only be shared by
+ * insertion strategies with equally configured cost calculators (see
+ * {@link InsertionBuilder#setInsertionCostsCache(InsertionCostsCache)}).
+ */
+public class InsertionCostsCache implements InsertionStartsListener, JobInsertedListener {
+
+    static class Key {
+
+        private final int jobIndex;
+
+        private final Vehicle routeVehicle;
+
+        private final double routeDepartureTime;
+
+        private final Vehicle newVehicle;
+
+        private final double newVehicleDepartureTime;
+
+        private final Driver newDriver;
+
+        Key(VehicleRoute route, Job job, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver) {
+            this.jobIndex = job.getIndex();
+            this.routeVehicle = route.getVehicle();
+            this.routeDepartureTime = route.getStart() == null ? 0. : route.getDepartureTime();
+            this.newVehicle = newVehicle;
+            this.newVehicleDepartureTime = newVehicleDepartureTime;
+            this.newDriver = newDriver;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return jobIndex == key.jobIndex
+                && Double.compare(routeDepartureTime, key.routeDepartureTime) == 0
+                && Double.compare(newVehicleDepartureTime, key.newVehicleDepartureTime) == 0
+                && equal(routeVehicle, key.routeVehicle)
+                && equal(newVehicle, key.newVehicle)
+                && equal(newDriver, key.newDriver);
+        }
+
+        private static boolean equal(Object o1, Object o2) {
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = jobIndex;
+            long bits = Double.doubleToLongBits(routeDepartureTime);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            bits = Double.doubleToLongBits(newVehicleDepartureTime);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+            result = 31 * result + (routeVehicle == null ? 0 : routeVehicle.hashCode());
+            result = 31 * result + (newVehicle == null ? 0 : newVehicle.hashCode());
+            return result;
+        }
+
+    }
+
+    static class Entry {
+
+        final InsertionData insertionData;
+
+        final double bestKnownCosts;
+
+        Entry(InsertionData insertionData, double bestKnownCosts) {
+            this.insertionData = insertionData;
+            this.bestKnownCosts = bestKnownCosts;
+        }
+
+    }
+
+    private final ConcurrentMap<Long, ConcurrentMap<Key, Entry>> entries = new ConcurrentHashMap<Long, ConcurrentMap<Key, Entry>>();
+
+    private final Map<VehicleRoute, Long> routeVersions = new IdentityHashMap<VehicleRoute, Long>();
+
+    private volatile boolean active = true;
+
+    /**
+     * Activates or deactivates the cache. If it is deactivated, insertion data are neither looked up nor cached.
+     * Default is true.
+     *
+     * @param active true if cache should be used
+     */
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns the number of cached insertion data.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Key, Entry> versionEntries : entries.values()) size += versionEntries.size();
+        return size;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        entries.clear();
+        routeVersions.clear();
+    }
+
+    Entry get(long version, Key key) {
+        Map<Key, Entry> versionEntries = entries.get(version);
+        if (versionEntries == null) return null;
+        return versionEntries.get(key);
+    }
+
+    void put(long version, Key key, Entry entry) {
+        ConcurrentMap<Key, Entry> versionEntries = entries.get(version);
+        if (versionEntries == null) {
+            ConcurrentMap<Key, Entry> newEntries = new ConcurrentHashMap<Key, Entry>();
+            versionEntries = entries.putIfAbsent(version, newEntries);
+            if (versionEntries == null) versionEntries = newEntries;
+        }
+        versionEntries.put(key, entry);
+    }
+
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        routeVersions.clear();
+        Set<Long> versions = new HashSet<Long>();
+        versions.add(TourActivities.EMPTY_VERSION);
+        for (VehicleRoute route : vehicleRoutes) {
+            long version = route.getTourActivities().getVersion();
+            versions.add(version);
+            routeVersions.put(route, version);
+        }
+        entries.keySet().retainAll(versions);
+    }
+
+    @Override
+    public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        Long previousVersion = routeVersions.put(inRoute, inRoute.getTourActivities().getVersion());
+        if (previousVersion != null && previousVersion != TourActivities.EMPTY_VERSION) {
+            entries.remove(previousVersion);
+        }
+    }
+
+}
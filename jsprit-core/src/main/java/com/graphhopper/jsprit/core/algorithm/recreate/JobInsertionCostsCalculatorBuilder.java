@@ -94,6 +94,12 @@ public class JobInsertionCostsCalculatorBuilder {
 
     private boolean addDefaultCostCalc = true;
 
+    private InsertionCostsCache insertionCostsCache;
+
+    private RouteCandidateFilter routeCandidateFilter;
+
+    private boolean prunedShipmentInsertion = false;
+
     /**
      * Constructs the builder.
      * <p>
@@ -186,6 +192,42 @@ public class JobInsertionCostsCalculatorBuilder {
         return this;
     }
 
+    /**
+     * Sets a cache that is looked up before insertion costs are calculated on local level. It is ignored on route
+     * level. Default is null, i.e. insertion costs are always calculated.
+     *
+     * @param insertionCostsCache the cache
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setInsertionCostsCache(InsertionCostsCache insertionCostsCache) {
+        this.insertionCostsCache = insertionCostsCache;
+        return this;
+    }
+
+    /**
+     * Sets a filter that skips routes which are not worth evaluating. Default is null, i.e. all routes are evaluated.
+     *
+     * @param routeCandidateFilter the filter
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setRouteCandidateFilter(RouteCandidateFilter routeCandidateFilter) {
+        this.routeCandidateFilter = routeCandidateFilter;
+        return this;
+    }
+
+    /**
+     * Sets whether shipment insertion skips delivery positions that violate capacity or time windows (see
+     * {@link ShipmentInsertionCalculator#setPruning}). It requires the core load and time window constraints.
+     * Default is false.
+     *
+     * @param prunedShipmentInsertion true if shipment insertion is to be pruned
+     * @return this builder
+     */
+    public JobInsertionCostsCalculatorBuilder setPrunedShipmentInsertion(boolean prunedShipmentInsertion) {
+        this.prunedShipmentInsertion = prunedShipmentInsertion;
+        return this;
+    }
+
     public JobInsertionCostsCalculatorBuilder experimentalTimeScheduler(double timeSlice, int neighbors) {
         timeScheduling = true;
         this.timeSlice = timeSlice;
@@ -217,6 +259,14 @@ public class JobInsertionCostsCalculatorBuilder {
         baseCalculator = standardLocal.getCalculator();
         addAlgorithmListeners(standardLocal.getAlgorithmListener());
         addInsertionListeners(standardLocal.getInsertionListener());
+        if (local && insertionCostsCache != null) {
+            baseCalculator = new CachingJobInsertionCostsCalculator(baseCalculator, insertionCostsCache);
+            insertionListeners.add(insertionCostsCache);
+        }
+        if (routeCandidateFilter != null) {
+            baseCalculator = new CandidateRoutesJobInsertionCostsCalculator(baseCalculator, routeCandidateFilter);
+            insertionListeners.add(routeCandidateFilter);
+        }
         if (considerFixedCost) {
 //            CalculatorPlusListeners withFixed = createCalculatorConsideringFixedCosts(vrp, baseCalculator, states, weightOfFixedCost);
 //            baseCalculator = withFixed.getCalculator();
@@ -287,8 +337,11 @@ public class JobInsertionCostsCalculatorBuilder {
             }
 
         };
-        ShipmentInsertionCalculator shipmentInsertion = new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(),actInsertionCalc, constraintManager);
+        ShipmentInsertionCalculator shipmentInsertion = new ShipmentInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), actInsertionCalc, constraintManager);
         shipmentInsertion.setJobActivityFactory(activityFactory);
+        if (prunedShipmentInsertion) {
+            shipmentInsertion.setPruning(statesManager);
+        }
         ServiceInsertionCalculator serviceInsertion = new ServiceInsertionCalculator(vrp.getTransportCosts(), vrp.getActivityCosts(), actInsertionCalc, constraintManager);
         serviceInsertion.setJobActivityFactory(activityFactory);
 
@@ -25,6 +25,7 @@ import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
@@ -49,11 +50,16 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     public LocalActivityInsertionCostsCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts actCosts, RouteAndActivityStateGetter stateManager) {
         super();
         this.routingCosts = routingCosts;
         this.activityCosts = actCosts;
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
     }
 
     @Override
@@ -89,8 +95,7 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
             double actCost_nextAct = activityCosts.getActivityCost(nextAct, arrTime_nextAct, iFacts.getRoute().getDriver(), iFacts.getRoute().getVehicle());
 
             double endTimeDelay_nextAct = Math.max(0, endTime_nextAct_new - endTime_nextAct_old);
-            Double futureWaiting = stateManager.getActivityState(nextAct, iFacts.getRoute().getVehicle(), InternalStates.FUTURE_WAITING, Double.class);
-            if (futureWaiting == null) futureWaiting = 0.;
+            double futureWaiting = getFutureWaiting(nextAct, iFacts.getRoute().getVehicle());
             double waitingTime_savings_timeUnit = Math.min(futureWaiting, endTimeDelay_nextAct);
             double waitingTime_savings = waitingTime_savings_timeUnit * iFacts.getRoute().getVehicle().getType().getVehicleCostParams().perWaitingTimeUnit;
             oldCosts += solutionCompletenessRatio * activityCostsWeight * waitingTime_savings;
@@ -99,6 +104,15 @@ class LocalActivityInsertionCostsCalculator implements ActivityInsertionCostsCal
         return totalCosts - oldCosts;
     }
 
+    private double getFutureWaiting(TourActivity act, Vehicle vehicle) {
+        if (primitiveStates != null) {
+            return primitiveStates.getActivityStateDouble(act, vehicle, InternalStates.FUTURE_WAITING, 0.);
+        }
+        Double futureWaiting = stateManager.getActivityState(act, vehicle, InternalStates.FUTURE_WAITING, Double.class);
+        if (futureWaiting == null) futureWaiting = 0.;
+        return futureWaiting;
+    }
+
     private boolean toDepot(Vehicle newVehicle) {
         return newVehicle.isReturnToDepot();
     }
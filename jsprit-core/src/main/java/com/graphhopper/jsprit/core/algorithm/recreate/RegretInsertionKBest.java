@@ -0,0 +1,381 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.DependencyType;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Regret insertion that only keeps the k best routes of each job.
+ * <p>
+ * <p>Like {@link RegretInsertionFast}, it scores jobs by the difference between their best and second best insertion.
+ * However, each job keeps the best insertion of its k best routes only (in a heap bounded to k). After inserting a
+ * job, only jobs that have the modified route among their candidates are re-evaluated on this route, and the job to
+ * insert next is taken from an indexed priority queue of scores. Thus, a round costs O(number of affected jobs) instead
+ * of O(number of unassigned jobs) insertion calculations and scorings.
+ * <p>
+ * <p>This is a heuristic restriction: inserting a job into a route is assumed not to make this route one of the k best
+ * of a job that did not have it as candidate before. Newly opened routes are evaluated for all jobs, and jobs whose
+ * candidates become infeasible are re-evaluated on all routes once fewer than two candidates are left. If a route
+ * switches its vehicle, the released vehicle might be the better choice for other routes, thus all jobs are
+ * re-evaluated on all routes. Jobs with inter- or intra-route dependencies are re-evaluated on all routes in every
+ * round.
+ */
+public class RegretInsertionKBest extends AbstractInsertionStrategy {
+
+    private static Logger logger = LoggerFactory.getLogger(RegretInsertionKBest.class);
+
+    private static final Comparator<VersionedInsertionData> DECREASING_COSTS = new Comparator<VersionedInsertionData>() {
+
+        @Override
+        public int compare(VersionedInsertionData o1, VersionedInsertionData o2) {
+            return Double.compare(o2.getiData().getInsertionCost(), o1.getiData().getInsertionCost());
+        }
+
+    };
+
+    private static final Comparator<VersionedInsertionData> INCREASING_COSTS = Collections.reverseOrder(DECREASING_COSTS);
+
+    private ScoringFunction scoringFunction;
+
+    private JobInsertionCostsCalculator insertionCostsCalculator;
+
+    private VehicleFleetManager fleetManager;
+
+    private Set<String> initialVehicleIds;
+
+    private boolean switchAllowed = true;
+
+    private DependencyType[] dependencyTypes = null;
+
+    private final int k;
+
+    private PriorityQueue<VersionedInsertionData>[] candidates;
+
+    private VehicleRoute[] emptyRoutes;
+
+    private InsertionData[] emptyRouteInsertions;
+
+    private ScoredJob[] scoredJobs;
+
+    private Map<VehicleRoute, Set<Job>> jobsByCandidateRoute;
+
+    private int updateRound;
+
+    public RegretInsertionKBest(JobInsertionCostsCalculator jobInsertionCalculator, VehicleRoutingProblem vehicleRoutingProblem, VehicleFleetManager fleetManager, int k) {
+        super(vehicleRoutingProblem);
+        if (k < 2) throw new IllegalArgumentException("k must be at least 2 to calculate a regret");
+        this.k = k;
+        this.scoringFunction = new DefaultScorer(vehicleRoutingProblem);
+        this.insertionCostsCalculator = jobInsertionCalculator;
+        this.fleetManager = fleetManager;
+        this.vrp = vehicleRoutingProblem;
+        this.initialVehicleIds = getInitialVehicleIds(vehicleRoutingProblem);
+        logger.debug("initialise {}", this);
+    }
+
+    /**
+     * Sets the scoring function.
+     * <p>
+     * <p>By default, the this.TimeWindowScorer is used.
+     *
+     * @param scoringFunction to score
+     */
+    public void setScoringFunction(ScoringFunction scoringFunction) {
+        this.scoringFunction = scoringFunction;
+    }
+
+    public void setSwitchAllowed(boolean switchAllowed) {
+        this.switchAllowed = switchAllowed;
+    }
+
+    public void setDependencyTypes(DependencyType[] dependencyTypes) {
+        this.dependencyTypes = dependencyTypes;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    private Set<String> getInitialVehicleIds(VehicleRoutingProblem vehicleRoutingProblem) {
+        Set<String> ids = new HashSet<String>();
+        for (VehicleRoute r : vehicleRoutingProblem.getInitialVehicleRoutes()) {
+            ids.add(r.getVehicle().getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=regretInsertionKBest][k=" + k + "][additionalScorer=" + scoringFunction + "]";
+    }
+
+    /**
+     * Runs insertion.
+     * <p>
+     * <p>Before inserting a job, the job with the highest score is taken from the priority queue of scores.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Job> insertUnassignedJobs(Collection<VehicleRoute> routes, Collection<Job> unassignedJobs) {
+        List<Job> badJobs = new ArrayList<Job>(unassignedJobs.size());
+        int noIndices = vrp.getJobs().values().size() + 2;
+        candidates = new PriorityQueue[noIndices];
+        emptyRoutes = new VehicleRoute[noIndices];
+        emptyRouteInsertions = new InsertionData[noIndices];
+        scoredJobs = new ScoredJob[noIndices];
+        jobsByCandidateRoute = new HashMap<VehicleRoute, Set<Job>>();
+        updateRound = 0;
+        IndexedScoreQueue scores = new IndexedScoreQueue(noIndices);
+        Set<Job> jobs = new LinkedHashSet<Job>(unassignedJobs);
+
+        for (Job job : jobs) {
+            candidates[job.getIndex()] = new PriorityQueue<VersionedInsertionData>(k, DECREASING_COSTS);
+            updateAllRoutes(job, routes);
+            updateEmptyRoute(job);
+        }
+        rescore(new ArrayList<Job>(jobs), jobs, scores, badJobs);
+
+        while (!scores.isEmpty()) {
+            updateRound++;
+            ScoredJob bestScoredJob = scoredJobs[scores.peek()];
+            Job job = bestScoredJob.getJob();
+            scores.remove(job.getIndex());
+            jobs.remove(job);
+            clearCandidates(job);
+            VehicleRoute modified = bestScoredJob.getRoute();
+            boolean vehicleReleased = !bestScoredJob.isNewRoute() && bestScoredJob.getInsertionData().getSelectedVehicle() != modified.getVehicle();
+            boolean fleetChanged = bestScoredJob.isNewRoute() || vehicleReleased;
+            if (bestScoredJob.isNewRoute()) {
+                routes.add(modified);
+            }
+            insertJob(job, bestScoredJob.getInsertionData(), modified);
+
+            Collection<Job> affected;
+            if (fleetChanged) affected = new ArrayList<Job>(jobs);
+            else {
+                Set<Job> candidateJobs = jobsByCandidateRoute.get(modified);
+                affected = candidateJobs == null ? new ArrayList<Job>() : new ArrayList<Job>(candidateJobs);
+            }
+            for (Job affectedJob : affected) {
+                if (hasRouteDependency(affectedJob)) continue;
+                if (vehicleReleased) updateAllRoutes(affectedJob, routes);
+                else update(affectedJob, modified, routes);
+            }
+            for (Job j : jobs) {
+                if (hasRouteDependency(j)) {
+                    updateAllRoutes(j, routes);
+                    affected.add(j);
+                }
+            }
+            if (fleetChanged) {
+                for (Job j : jobs) {
+                    updateLockedCandidates(j, routes);
+                    updateEmptyRoute(j);
+                }
+                rescore(new ArrayList<Job>(jobs), jobs, scores, badJobs);
+            } else rescore(affected, jobs, scores, badJobs);
+        }
+        return badJobs;
+    }
+
+    private boolean hasRouteDependency(Job job) {
+        if (dependencyTypes == null || dependencyTypes[job.getIndex()] == null) return false;
+        DependencyType dependencyType = dependencyTypes[job.getIndex()];
+        return dependencyType.equals(DependencyType.INTER_ROUTE) || dependencyType.equals(DependencyType.INTRA_ROUTE);
+    }
+
+    private void rescore(Collection<Job> jobs, Set<Job> unassignedJobs, IndexedScoreQueue scores, List<Job> badJobs) {
+        for (Job job : jobs) {
+            if (!unassignedJobs.contains(job)) continue;
+            ScoredJob scoredJob = score(job);
+            if (scoredJob instanceof ScoredJob.BadJob) {
+                scores.remove(job.getIndex());
+                unassignedJobs.remove(job);
+                clearCandidates(job);
+                badJobs.add(job);
+                markUnassigned(job, scoredJob.getInsertionData().getFailedConstraintNames());
+            } else {
+                scores.put(job.getIndex(), scoredJob.getScore());
+            }
+            scoredJobs[job.getIndex()] = scoredJob;
+        }
+    }
+
+    private ScoredJob score(Job job) {
+        List<VersionedInsertionData> sorted = new ArrayList<VersionedInsertionData>(candidates[job.getIndex()]);
+        Collections.sort(sorted, INCREASING_COSTS);
+        VehicleRoute bestRoute = null;
+        InsertionData best = null;
+        InsertionData secondBest = null;
+        for (VersionedInsertionData versionedIData : sorted) {
+            InsertionData iData = replaceLockedVehicle(versionedIData);
+            if (iData == null) continue;
+            if (best == null) {
+                best = iData;
+                bestRoute = versionedIData.getRoute();
+            } else {
+                secondBest = iData;
+                break;
+            }
+        }
+        VehicleRoute emptyRoute = emptyRoutes[job.getIndex()];
+        InsertionData iData = emptyRouteInsertions[job.getIndex()];
+        if (!(iData instanceof InsertionData.NoInsertionFound)) {
+            if (best == null) {
+                best = iData;
+                bestRoute = emptyRoute;
+            } else if (iData.getInsertionCost() < best.getInsertionCost()) {
+                secondBest = best;
+                best = iData;
+                bestRoute = emptyRoute;
+            } else if (secondBest == null || (iData.getInsertionCost() < secondBest.getInsertionCost())) {
+                secondBest = iData;
+            }
+        }
+        if (best == null) {
+            return new ScoredJob.BadJob(job, iData.getFailedConstraintNames());
+        }
+        double score = Scorer.score(job, best, secondBest, scoringFunction);
+        return new ScoredJob(job, score, best, bestRoute, bestRoute == emptyRoute);
+    }
+
+    /**
+     * Returns the insertion data with an available vehicle of the same type if the selected vehicle has been locked
+     * in the meantime, or null if there is no such vehicle.
+     */
+    private InsertionData replaceLockedVehicle(VersionedInsertionData versionedIData) {
+        InsertionData oldData = versionedIData.getiData();
+        VehicleRoute route = versionedIData.getRoute();
+        if (oldData.getSelectedVehicle() == route.getVehicle() || !fleetManager.isLocked(oldData.getSelectedVehicle())) {
+            return oldData;
+        }
+        Vehicle available = fleetManager.getAvailableVehicle(oldData.getSelectedVehicle().getVehicleTypeIdentifier());
+        if (available == null) return null;
+        InsertionData newData = new InsertionData(oldData.getInsertionCost(), oldData.getPickupInsertionIndex(),
+            oldData.getDeliveryInsertionIndex(), available, oldData.getSelectedDriver());
+        newData.setVehicleDepartureTime(oldData.getVehicleDepartureTime());
+        for (Event e : oldData.getEvents()) {
+            if (e instanceof SwitchVehicle) {
+                newData.getEvents().add(new SwitchVehicle(route, available, oldData.getVehicleDepartureTime()));
+            } else newData.getEvents().add(e);
+        }
+        return newData;
+    }
+
+    private void updateLockedCandidates(Job job, Collection<VehicleRoute> routes) {
+        for (VersionedInsertionData versionedIData : new ArrayList<VersionedInsertionData>(candidates[job.getIndex()])) {
+            if (replaceLockedVehicle(versionedIData) == null) update(job, versionedIData.getRoute(), routes);
+        }
+    }
+
+    private void updateEmptyRoute(Job job) {
+        VehicleRoute emptyRoute = VehicleRoute.emptyRoute();
+        emptyRoutes[job.getIndex()] = emptyRoute;
+        emptyRouteInsertions[job.getIndex()] = insertionCostsCalculator.getInsertionData(emptyRoute, job, null, -1, null, Double.MAX_VALUE);
+    }
+
+    private void updateAllRoutes(Job job, Collection<VehicleRoute> routes) {
+        clearCandidates(job);
+        for (VehicleRoute route : routes) {
+            VersionedInsertionData best = getBestInsertion(job, route);
+            if (best != null) offer(job, best);
+        }
+    }
+
+    private void update(Job job, VehicleRoute route, Collection<VehicleRoute> routes) {
+        PriorityQueue<VersionedInsertionData> jobCandidates = candidates[job.getIndex()];
+        boolean hadCandidate = removeCandidate(job, route);
+        int sizeBefore = jobCandidates.size() + (hadCandidate ? 1 : 0);
+        VersionedInsertionData best = getBestInsertion(job, route);
+        if (best != null) offer(job, best);
+        if (jobCandidates.size() < sizeBefore && jobCandidates.size() < 2) {
+            updateAllRoutes(job, routes);
+        }
+    }
+
+    private VersionedInsertionData getBestInsertion(Job job, VehicleRoute route) {
+        Collection<Vehicle> relevantVehicles = new ArrayList<Vehicle>();
+        if (!(route.getVehicle() instanceof VehicleImpl.NoVehicle)) {
+            relevantVehicles.add(route.getVehicle());
+            if (switchAllowed && !initialVehicleIds.contains(route.getVehicle().getId())) {
+                relevantVehicles.addAll(fleetManager.getAvailableVehicles(route.getVehicle()));
+            }
+        } else relevantVehicles.addAll(fleetManager.getAvailableVehicles());
+        InsertionData best = null;
+        for (Vehicle v : relevantVehicles) {
+            InsertionData iData = insertionCostsCalculator.getInsertionData(route, job, v, v.getEarliestDeparture(), route.getDriver(), Double.MAX_VALUE);
+            if (iData instanceof InsertionData.NoInsertionFound) continue;
+            if (best == null || iData.getInsertionCost() < best.getInsertionCost()) best = iData;
+        }
+        if (best == null) return null;
+        return new VersionedInsertionData(best, updateRound, route);
+    }
+
+    private void offer(Job job, VersionedInsertionData versionedIData) {
+        PriorityQueue<VersionedInsertionData> jobCandidates = candidates[job.getIndex()];
+        if (jobCandidates.size() >= k) {
+            VersionedInsertionData worst = jobCandidates.peek();
+            if (worst.getiData().getInsertionCost() <= versionedIData.getiData().getInsertionCost()) return;
+            jobCandidates.poll();
+            unregister(job, worst.getRoute());
+        }
+        jobCandidates.add(versionedIData);
+        Set<Job> jobs = jobsByCandidateRoute.get(versionedIData.getRoute());
+        if (jobs == null) {
+            jobs = new HashSet<Job>();
+            jobsByCandidateRoute.put(versionedIData.getRoute(), jobs);
+        }
+        jobs.add(job);
+    }
+
+    private boolean removeCandidate(Job job, VehicleRoute route) {
+        Iterator<VersionedInsertionData> iterator = candidates[job.getIndex()].iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getRoute() == route) {
+                iterator.remove();
+                unregister(job, route);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearCandidates(Job job) {
+        PriorityQueue<VersionedInsertionData> jobCandidates = candidates[job.getIndex()];
+        for (VersionedInsertionData versionedIData : jobCandidates) {
+            unregister(job, versionedIData.getRoute());
+        }
+        jobCandidates.clear();
+    }
+
+    private void unregister(Job job, VehicleRoute route) {
+        Set<Job> jobs = jobsByCandidateRoute.get(route);
+        if (jobs != null) jobs.remove(job);
+    }
+
+}
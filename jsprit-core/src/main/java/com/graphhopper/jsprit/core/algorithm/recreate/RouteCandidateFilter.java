@@ -0,0 +1,274 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.util.Coordinate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides which routes are worth evaluating for the insertion of a job based on spatial summaries of routes, i.e. the
+ * bounding boxes of their locations.
+ * <p>
+ * <p>It provides two filters:
+ * <p>
+ * <p>If maxCandidateRoutes is set, only the maxCandidateRoutes routes whose bounding boxes are closest to the job are
+ * evaluated. This is a heuristic restriction of the search space.
+ * <p>
+ * <p>If a distance factor is set, a lower bound of the detour to insert the job is derived from the distance of the
+ * job to the bounding box of the route (including start and end of its vehicle). Routes whose lower bound multiplied
+ * by the distance factor and the vehicle's costs per distance unit is not below bestKnownCosts are skipped. This is
+ * exact as long as insertion costs are at least factor * perDistanceUnit * euclidean detour, e.g. if transport costs
+ * are calculated with {@link com.graphhopper.jsprit.core.util.EuclideanCosts} (factor = detourFactor) and there are
+ * no other costs that can become negative. Since switching the vehicle of a route can save costs, the lower bound is
+ * only applied if the route's vehicle is evaluated.
+ * <p>
+ * <p>Empty routes, breaks as well as routes and jobs without coordinates are never filtered.
+ */
+public class RouteCandidateFilter implements InsertionStartsListener, JobInsertedListener {
+
+    static class Bounds {
+
+        final long version;
+
+        final boolean valid;
+
+        double minX = Double.MAX_VALUE;
+
+        double minY = Double.MAX_VALUE;
+
+        double maxX = -Double.MAX_VALUE;
+
+        double maxY = -Double.MAX_VALUE;
+
+        Bounds(VehicleRoute route) {
+            this.version = route.getTourActivities().getVersion();
+            boolean valid = true;
+            for (TourActivity act : route.getActivities()) {
+                valid = add(act.getLocation()) && valid;
+            }
+            this.valid = valid;
+        }
+
+        Bounds(Bounds bounds) {
+            this.version = bounds.version;
+            this.valid = bounds.valid;
+            this.minX = bounds.minX;
+            this.minY = bounds.minY;
+            this.maxX = bounds.maxX;
+            this.maxY = bounds.maxY;
+        }
+
+        boolean add(Location location) {
+            if (location == null || location.getCoordinate() == null) return false;
+            Coordinate coordinate = location.getCoordinate();
+            minX = Math.min(minX, coordinate.getX());
+            minY = Math.min(minY, coordinate.getY());
+            maxX = Math.max(maxX, coordinate.getX());
+            maxY = Math.max(maxY, coordinate.getY());
+            return true;
+        }
+
+        double diagonal() {
+            return Math.sqrt((maxX - minX) * (maxX - minX) + (maxY - minY) * (maxY - minY));
+        }
+
+        double distance(Coordinate coordinate) {
+            double dx = Math.max(0., Math.max(minX - coordinate.getX(), coordinate.getX() - maxX));
+            double dy = Math.max(0., Math.max(minY - coordinate.getY(), coordinate.getY() - maxY));
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+    }
+
+    private static class Candidates {
+
+        final int epoch;
+
+        final Set<VehicleRoute> routes;
+
+        Candidates(int epoch, Set<VehicleRoute> routes) {
+            this.epoch = epoch;
+            this.routes = routes;
+        }
+
+    }
+
+    private final int maxCandidateRoutes;
+
+    private double distanceFactor = 0.;
+
+    private final ConcurrentMap<VehicleRoute, Bounds> bounds = new ConcurrentHashMap<VehicleRoute, Bounds>();
+
+    private final ConcurrentMap<Job, Candidates> candidates = new ConcurrentHashMap<Job, Candidates>();
+
+    private final AtomicInteger epoch = new AtomicInteger();
+
+    private volatile Collection<VehicleRoute> routes;
+
+    /**
+     * @param maxCandidateRoutes max number of (non-empty) routes evaluated per job, Integer.MAX_VALUE to evaluate all
+     */
+    public RouteCandidateFilter(int maxCandidateRoutes) {
+        if (maxCandidateRoutes < 1) throw new IllegalArgumentException("maxCandidateRoutes must be at least 1");
+        this.maxCandidateRoutes = maxCandidateRoutes;
+    }
+
+    /**
+     * Sets the factor that converts euclidean distances into distances of the transport costs, i.e. transport costs
+     * must be at least factor * perDistanceUnit * euclidean distance. Default is 0, i.e. routes are not filtered by
+     * lower bounds of their detour.
+     *
+     * @param distanceFactor factor of euclidean distances
+     */
+    public void setDistanceFactor(double distanceFactor) {
+        if (distanceFactor < 0.) throw new IllegalArgumentException("distanceFactor must not be negative");
+        this.distanceFactor = distanceFactor;
+    }
+
+    public int getMaxCandidateRoutes() {
+        return maxCandidateRoutes;
+    }
+
+    @Override
+    public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
+        routes = vehicleRoutes;
+        bounds.clear();
+        candidates.clear();
+        epoch.incrementAndGet();
+    }
+
+    @Override
+    public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Returns true if inserting job into route with newVehicle can be better than bestKnownCosts and if route is among
+     * the candidate routes of job.
+     *
+     * @param route          the route
+     * @param job            the job to be inserted
+     * @param newVehicle     the vehicle to be evaluated
+     * @param bestKnownCosts the best known insertion costs
+     * @return true if insertion needs to be evaluated
+     */
+    boolean isCandidate(VehicleRoute route, Job job, Vehicle newVehicle, double bestKnownCosts) {
+        if (route.isEmpty() || job instanceof Break) return true;
+        List<Coordinate> jobCoordinates = getCoordinates(job);
+        if (jobCoordinates == null) return true;
+        Bounds routeBounds = getBounds(route);
+        if (!routeBounds.valid) return true;
+        if (distanceFactor > 0. && newVehicle == route.getVehicle() && bestKnownCosts < Double.MAX_VALUE) {
+            if (getDetourLowerBound(routeBounds, jobCoordinates, newVehicle) >= bestKnownCosts) return false;
+        }
+        if (maxCandidateRoutes == Integer.MAX_VALUE || routes == null) return true;
+        return getCandidates(job, jobCoordinates).contains(route);
+    }
+
+    private double getDetourLowerBound(Bounds routeBounds, List<Coordinate> jobCoordinates, Vehicle newVehicle) {
+        Bounds vehicleBounds = new Bounds(routeBounds);
+        if (!vehicleBounds.add(newVehicle.getStartLocation())) return 0.;
+        if (newVehicle.isReturnToDepot() && !vehicleBounds.add(newVehicle.getEndLocation())) return 0.;
+        double diagonal = vehicleBounds.diagonal();
+        double maxDetour = 0.;
+        for (Coordinate coordinate : jobCoordinates) {
+            double distance = vehicleBounds.distance(coordinate);
+            /*
+             * inserting a location with distance d to a box with diagonal l between two locations within the box
+             * increases distances by at least sqrt(l^2 + 4d^2) - l. inserting it at the end of an open route increases
+             * distances by at least d.
+             */
+            double detour = Math.sqrt(diagonal * diagonal + 4. * distance * distance) - diagonal;
+            if (!newVehicle.isReturnToDepot()) detour = Math.min(detour, distance);
+            maxDetour = Math.max(maxDetour, detour);
+        }
+        return maxDetour * distanceFactor * newVehicle.getType().getVehicleCostParams().perDistanceUnit;
+    }
+
+    private Set<VehicleRoute> getCandidates(Job job, final List<Coordinate> jobCoordinates) {
+        int currentEpoch = epoch.get();
+        Candidates jobCandidates = candidates.get(job);
+        if (jobCandidates != null && jobCandidates.epoch == currentEpoch) return jobCandidates.routes;
+        final Map<VehicleRoute, Double> distances = new IdentityHashMap<VehicleRoute, Double>();
+        List<VehicleRoute> ranked = new ArrayList<VehicleRoute>();
+        for (VehicleRoute route : new ArrayList<VehicleRoute>(routes)) {
+            if (route.isEmpty()) continue;
+            Bounds routeBounds = getBounds(route);
+            if (!routeBounds.valid) continue;
+            double distance = Double.MAX_VALUE;
+            for (Coordinate coordinate : jobCoordinates) {
+                distance = Math.min(distance, routeBounds.distance(coordinate));
+            }
+            distances.put(route, distance);
+            ranked.add(route);
+        }
+        Set<VehicleRoute> candidateRoutes = Collections.newSetFromMap(new IdentityHashMap<VehicleRoute, Boolean>());
+        if (ranked.size() > maxCandidateRoutes) {
+            Collections.sort(ranked, new Comparator<VehicleRoute>() {
+                @Override
+                public int compare(VehicleRoute o1, VehicleRoute o2) {
+                    return Double.compare(distances.get(o1), distances.get(o2));
+                }
+            });
+            candidateRoutes.addAll(ranked.subList(0, maxCandidateRoutes));
+        } else candidateRoutes.addAll(ranked);
+        candidates.put(job, new Candidates(currentEpoch, candidateRoutes));
+        return candidateRoutes;
+    }
+
+    private Bounds getBounds(VehicleRoute route) {
+        Bounds routeBounds = bounds.get(route);
+        if (routeBounds == null || routeBounds.version != route.getTourActivities().getVersion()) {
+            routeBounds = new Bounds(route);
+            bounds.put(route, routeBounds);
+        }
+        return routeBounds;
+    }
+
+    private static List<Coordinate> getCoordinates(Job job) {
+        List<Coordinate> coordinates = new ArrayList<Coordinate>(2);
+        if (job instanceof Service) {
+            if (!addCoordinate(coordinates, ((Service) job).getLocation())) return null;
+        } else if (job instanceof Shipment) {
+            if (!addCoordinate(coordinates, ((Shipment) job).getPickupLocation())) return null;
+            if (!addCoordinate(coordinates, ((Shipment) job).getDeliveryLocation())) return null;
+        } else return null;
+        return coordinates;
+    }
+
+    private static boolean addCoordinate(List<Coordinate> coordinates, Location location) {
+        if (location == null || location.getCoordinate() == null) return false;
+        coordinates.add(location.getCoordinate());
+        return true;
+    }
+
+}
@@ -26,6 +26,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 import java.util.ArrayList;
@@ -40,12 +41,17 @@ class RouteLevelActivityInsertionCostsEstimator implements ActivityInsertionCost
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private int nuOfActivities2LookForward = 0;
 
     public RouteLevelActivityInsertionCostsEstimator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts actCosts, RouteAndActivityStateGetter stateManager) {
         super();
         this.activityCosts = actCosts;
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
         auxilliaryPathCostCalculator = new AuxilliaryCostCalculator(routingCosts, activityCosts);
     }
 
@@ -70,6 +76,10 @@ class RouteLevelActivityInsertionCostsEstimator implements ActivityInsertionCost
     }
 
     private double actCostsOld(VehicleRoute vehicleRoute, TourActivity act) {
+        if (primitiveStates != null) {
+            if (act instanceof End) return primitiveStates.getRouteStateDouble(vehicleRoute, InternalStates.COSTS, 0.);
+            return primitiveStates.getActivityStateDouble(act, InternalStates.COSTS, 0.);
+        }
         Double cost_at_act;
         if (act instanceof End) {
             cost_at_act = stateManager.getRouteState(vehicleRoute, InternalStates.COSTS, Double.class);
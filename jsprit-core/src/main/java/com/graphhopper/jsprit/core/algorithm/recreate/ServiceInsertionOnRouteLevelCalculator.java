@@ -34,6 +34,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivities;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
@@ -60,6 +61,8 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private HardRouteConstraint hardRouteLevelConstraint;
 
     private HardActivityConstraint hardActivityLevelConstraint;
@@ -97,6 +100,7 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
 
     public void setStates(RouteAndActivityStateGetter stateManager) {
         this.stateManager = stateManager;
+        primitiveStates = stateManager instanceof PrimitiveRouteAndActivityStateGetter ? (PrimitiveRouteAndActivityStateGetter) stateManager : null;
     }
 
     void setNuOfActsForwardLooking(int nOfActsForwardLooking) {
@@ -267,8 +271,7 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
                 /**
                  * compute cost-diff of tour with and without new activity --> insertion_costs
                  */
-                Double currentRouteCosts = stateManager.getRouteState(currentRoute, InternalStates.COSTS, Double.class);
-                if (currentRouteCosts == null) currentRouteCosts = 0.;
+                double currentRouteCosts = sumOf_prevCosts_oldVehicle(currentRoute, end);
                 double insertion_costs = auxilliaryPathCostCalculator.costOfPath(wholeTour, start.getEndTime(), newDriver, newVehicle) - currentRouteCosts;
 
                 /**
@@ -307,6 +310,10 @@ final class ServiceInsertionOnRouteLevelCalculator implements JobInsertionCostsC
     }
 
     private double sumOf_prevCosts_oldVehicle(VehicleRoute vehicleRoute, TourActivity act) {
+        if (primitiveStates != null) {
+            if (act instanceof End) return primitiveStates.getRouteStateDouble(vehicleRoute, InternalStates.COSTS, 0.);
+            return primitiveStates.getActivityStateDouble(act, InternalStates.COSTS, 0.);
+        }
         Double prevCost;
         if (act instanceof End) {
             prevCost = stateManager.getRouteState(vehicleRoute, InternalStates.COSTS, Double.class);
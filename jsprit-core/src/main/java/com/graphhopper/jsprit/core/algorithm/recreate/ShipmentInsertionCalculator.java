@@ -17,11 +17,15 @@
  */
 package com.graphhopper.jsprit.core.algorithm.recreate;
 
+import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
 import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint.ConstraintsStatus;
+import com.graphhopper.jsprit.core.problem.constraint.PickupAndDeliverShipmentLoadActivityLevelConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.SoftActivityConstraint;
 import com.graphhopper.jsprit.core.problem.constraint.SoftRouteConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.VehicleDependentTimeWindowConstraints;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.driver.Driver;
@@ -34,11 +38,14 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -46,6 +53,10 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
     private static final Logger logger = LoggerFactory.getLogger(ShipmentInsertionCalculator.class);
 
+    private static final String TIME_WINDOW_CONSTRAINT = VehicleDependentTimeWindowConstraints.class.getSimpleName();
+
+    private static final String LOAD_CONSTRAINT = PickupAndDeliverShipmentLoadActivityLevelConstraint.class.getSimpleName();
+
     private final ConstraintManager constraintManager;
 
 //    private HardRouteConstraint hardRouteLevelConstraint;
@@ -66,6 +77,10 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
     private AdditionalAccessEgressCalculator additionalAccessEgressCalculator;
 
+    private RouteAndActivityStateGetter states;
+
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     public ShipmentInsertionCalculator(VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts, ActivityInsertionCostsCalculator activityInsertionCostsCalculator, ConstraintManager constraintManager) {
         super();
         this.activityInsertionCostsCalculator = activityInsertionCostsCalculator;
@@ -82,6 +97,22 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
         this.activityFactory = activityFactory;
     }
 
+    /**
+     * Lets the calculator skip insertion positions that cannot be feasible. Scanning delivery positions stops as soon
+     * as the shipment would be on board of an activity whose load plus the shipment's size exceeds the vehicle's
+     * capacity, or as soon as the departure exceeds the end of the latest delivery time window. Scanning pickup
+     * positions stops likewise once the departure exceeds the end of the latest pickup time window.
+     * <p>
+     * <p>The best insertion found is the same, provided capacity and time windows are enforced by the core constraints,
+     * i.e. loads and latest operation start times are maintained by the state manager.
+     *
+     * @param states the states to read activity loads from, or null to switch pruning off
+     */
+    public void setPruning(RouteAndActivityStateGetter states) {
+        this.states = states;
+        this.primitiveStates = states instanceof PrimitiveRouteAndActivityStateGetter ? (PrimitiveRouteAndActivityStateGetter) states : null;
+    }
+
     @Override
     public String toString() {
         return "[name=calculatesServiceInsertion]";
@@ -126,6 +157,13 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
         ActivityContext pickupContext = new ActivityContext();
 
+        boolean pruning = states != null;
+        double latestPickup = pruning ? getLatestStart(shipment.getPickupTimeWindows()) : Double.MAX_VALUE;
+        double latestDelivery = pruning ? getLatestStart(shipment.getDeliveryTimeWindows()) : Double.MAX_VALUE;
+        Capacity size = shipment.getSize();
+        Capacity vehicleCapacity = newVehicle.getType().getCapacityDimensions();
+        int nuDimensions = primitiveStates != null ? Math.max(size.getNuOfDimensions(), primitiveStates.getNuCapacityDimensions()) : 0;
+
         TourActivity prevAct = start;
         double prevActEndTime = newVehicleDepartureTime;
 
@@ -137,6 +175,10 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
 
         List<String> failedActivityConstraints = new ArrayList<>();
         while (!tourEnd) {
+            if (prevActEndTime > latestPickup) {
+                failedActivityConstraints.add(TIME_WINDOW_CONSTRAINT);
+                break;
+            }
             TourActivity nextAct;
             if (i < activities.size()) {
                 nextAct = activities.get(i);
@@ -183,6 +225,10 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
                 int j = i;
                 boolean tourEnd_deliveryLoop = false;
                 while (!tourEnd_deliveryLoop) {
+                    if (prevActEndTime_deliveryLoop > latestDelivery) {
+                        failedActivityConstraints.add(TIME_WINDOW_CONSTRAINT);
+                        break;
+                    }
                     TourActivity nextAct_deliveryLoop;
                     if (j < activities.size()) {
                         nextAct_deliveryLoop = activities.get(j);
@@ -217,6 +263,11 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
                         }
                     }
                     if (deliveryInsertionNotFulfilledBreak) break;
+                    //the shipment is on board of nextAct_deliveryLoop if it is delivered later
+                    if (pruning && !tourEnd_deliveryLoop && exceedsCapacity(nextAct_deliveryLoop, size, vehicleCapacity, nuDimensions)) {
+                        failedActivityConstraints.add(LOAD_CONSTRAINT);
+                        break;
+                    }
                     //update prevAct and endTime
                     double nextActArrTime = prevActEndTime_deliveryLoop + transportCosts.getTransportTime(prevAct_deliveryLoop.getLocation(), nextAct_deliveryLoop.getLocation(), prevActEndTime_deliveryLoop, newDriver, newVehicle);
                     prevActEndTime_deliveryLoop = Math.max(nextActArrTime, nextAct_deliveryLoop.getTheoreticalEarliestOperationStartTime()) + activityCosts.getActivityDuration(nextAct_deliveryLoop,nextActArrTime,newDriver,newVehicle);
@@ -254,4 +305,25 @@ final class ShipmentInsertionCalculator extends AbstractInsertionCalculator {
         return activityInsertionCostsCalculator.getCosts(iFacts, prevAct, nextAct, newAct, departureTimeAtPrevAct);
 
     }
+
+    private static double getLatestStart(Collection<TimeWindow> timeWindows) {
+        double latest = -Double.MAX_VALUE;
+        for (TimeWindow timeWindow : timeWindows) {
+            latest = Math.max(latest, timeWindow.getEnd());
+        }
+        return latest;
+    }
+
+    private boolean exceedsCapacity(TourActivity act, Capacity size, Capacity vehicleCapacity, int nuDimensions) {
+        if (primitiveStates == null) {
+            Capacity load = states.getActivityState(act, InternalStates.LOAD, Capacity.class);
+            return load != null && !Capacity.addup(load, size).isLessOrEqual(vehicleCapacity);
+        }
+        for (int i = 0; i < nuDimensions; i++) {
+            if (primitiveStates.getActivityStateCapacityDimension(act, InternalStates.LOAD, i) + size.get(i) > vehicleCapacity.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
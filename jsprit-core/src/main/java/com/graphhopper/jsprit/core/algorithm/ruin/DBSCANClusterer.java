@@ -21,93 +21,49 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
 import com.graphhopper.jsprit.core.util.RandomUtils;
-import org.apache.commons.math3.ml.clustering.Cluster;
-import org.apache.commons.math3.ml.clustering.Clusterable;
-import org.apache.commons.math3.ml.distance.DistanceMeasure;
 
 import java.util.*;
 
 /**
+ * Density-based clustering (DBSCAN) of the jobs of a route.
+ * <p>
+ * <p>If transport costs are euclidean and all jobs of the route are services located at coordinates, the neighbors
+ * of a job are looked up with a range query in a kd-tree of the route's jobs, i.e. clustering takes O(n log n) instead
+ * of O(n^2) distance calculations. Clusters are the same either way.
+ * <p>
  * Created by schroeder on 04/02/15.
  */
 public class DBSCANClusterer {
 
-    private static class LocationWrapper implements Clusterable {
-
-        private static int objCounter = 0;
+    private static class LocationWrapper {
 
         private final Job job;
 
         private List<Location> locations;
 
-        private int id;
-
         public LocationWrapper(Job job, List<Location> locations) {
             this.locations = locations;
-            objCounter++;
             this.job = job;
-            this.id = objCounter;
         }
 
-//        private List<Location> getLocations(Job job){
-//            List<Location> locs = new ArrayList<Location>();
-//            if(job instanceof Service) {
-//                locs.add(((Service) job).getLocation());
-//            }
-//            else if(job instanceof Shipment){
-//                locs.add(((Shipment) job).getPickupLocation());
-//                locs.add(((Shipment) job).getDeliveryLocation());
-//            }
-//            return locs;
-//        }
-
         public List<Location> getLocations() {
             return locations;
         }
 
-        @Override
-        public double[] getPoint() {
-            return new double[]{id};
-        }
-
         public Job getJob() {
             return job;
         }
     }
 
-    private static class MyDistance implements DistanceMeasure {
-
-        private Map<Integer, LocationWrapper> locations;
+    private static final int NOISE = 1;
 
-        private VehicleRoutingTransportCosts costs;
-
-        public MyDistance(List<LocationWrapper> locations, VehicleRoutingTransportCosts costs) {
-            this.locations = new HashMap<Integer, LocationWrapper>();
-            for (LocationWrapper lw : locations) {
-                this.locations.put((int) lw.getPoint()[0], lw);
-            }
-            this.costs = costs;
-        }
-
-        @Override
-        public double compute(double[] doubles, double[] doubles1) {
-            LocationWrapper l1 = locations.get((int) doubles[0]);
-            LocationWrapper l2 = locations.get((int) doubles1[0]);
-            int count = 0;
-            double sum = 0;
-            for (Location loc_1 : l1.getLocations()) {
-                for (Location loc_2 : l2.getLocations()) {
-                    sum += costs.getTransportCost(loc_1, loc_2, 0, null, null);
-                    count++;
-                }
-            }
-            return sum / (double) count;
-        }
-    }
+    private static final int PART_OF_CLUSTER = 2;
 
     private VehicleRoutingTransportCosts costs;
 
@@ -143,8 +99,7 @@ public class DBSCANClusterer {
 
     public List<List<Job>> getClusters(VehicleRoute route) {
         List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
-        return makeList(clusterResults);
+        return getClusters(route, locations);
     }
 
     private List<LocationWrapper> getLocationWrappers(VehicleRoute route) {
@@ -165,39 +120,104 @@ public class DBSCANClusterer {
         return locations;
     }
 
-    private List<Cluster<LocationWrapper>> getClusters(VehicleRoute route, List<LocationWrapper> locations) {
+    private List<List<Job>> getClusters(VehicleRoute route, List<LocationWrapper> locations) {
         double sampledDistance;
         if (epsDistance != null) sampledDistance = epsDistance;
         else sampledDistance = Math.max(0, sample(costs, route));
-        org.apache.commons.math3.ml.clustering.DBSCANClusterer<LocationWrapper> clusterer = new org.apache.commons.math3.ml.clustering.DBSCANClusterer<LocationWrapper>(sampledDistance, minNoOfJobsInCluster, new MyDistance(locations, costs));
-        return clusterer.cluster(locations);
+        return cluster(locations, sampledDistance);
     }
 
-    private List<List<Job>> makeList(List<Cluster<LocationWrapper>> clusterResults) {
-        List<List<Job>> l = new ArrayList<List<Job>>();
-        for (Cluster<LocationWrapper> c : clusterResults) {
-            List<Job> l_ = getJobList(c);
-            l.add(l_);
+    private List<List<Job>> cluster(List<LocationWrapper> points, double eps) {
+        List<List<Job>> clusters = new ArrayList<List<Job>>();
+        Map<Job, Integer> positions = new HashMap<Job, Integer>(points.size() * 2);
+        for (int i = 0; i < points.size(); i++) positions.put(points.get(i).getJob(), i);
+        JobKDTree tree = createTree(points);
+        int[] status = new int[points.size()];
+        for (int p = 0; p < points.size(); p++) {
+            if (status[p] != 0) continue;
+            List<Integer> neighbors = getNeighbors(p, points, positions, tree, eps);
+            if (neighbors.size() >= minNoOfJobsInCluster) {
+                clusters.add(expandCluster(p, neighbors, points, positions, tree, eps, status));
+            } else status[p] = NOISE;
         }
-        return l;
+        return clusters;
     }
 
-    private List<Job> getJobList(Cluster<LocationWrapper> c) {
-        List<Job> l_ = new ArrayList<Job>();
-        if (c == null) return l_;
-        for (LocationWrapper lw : c.getPoints()) {
-            l_.add(lw.getJob());
+    private List<Job> expandCluster(int p, List<Integer> neighbors, List<LocationWrapper> points, Map<Job, Integer> positions, JobKDTree tree, double eps, int[] status) {
+        List<Job> cluster = new ArrayList<Job>();
+        cluster.add(points.get(p).getJob());
+        status[p] = PART_OF_CLUSTER;
+        List<Integer> seeds = new ArrayList<Integer>(neighbors);
+        boolean[] isSeed = new boolean[points.size()];
+        for (Integer seed : seeds) isSeed[seed] = true;
+        int index = 0;
+        while (index < seeds.size()) {
+            int current = seeds.get(index);
+            if (status[current] == 0) {
+                List<Integer> currentNeighbors = getNeighbors(current, points, positions, tree, eps);
+                if (currentNeighbors.size() >= minNoOfJobsInCluster) {
+                    for (Integer neighbor : currentNeighbors) {
+                        if (!isSeed[neighbor]) {
+                            isSeed[neighbor] = true;
+                            seeds.add(neighbor);
+                        }
+                    }
+                }
+            }
+            if (status[current] != PART_OF_CLUSTER) {
+                status[current] = PART_OF_CLUSTER;
+                cluster.add(points.get(current).getJob());
+            }
+            index++;
+        }
+        return cluster;
+    }
+
+    private List<Integer> getNeighbors(int p, List<LocationWrapper> points, Map<Job, Integer> positions, JobKDTree tree, double eps) {
+        List<Integer> neighbors = new ArrayList<Integer>();
+        LocationWrapper point = points.get(p);
+        if (tree != null) {
+            List<Job> jobs = new ArrayList<Job>();
+            tree.withinRadius(point.getLocations().get(0).getCoordinate(), eps, ((EuclideanCosts) costs).detourFactor, point.getJob(), jobs);
+            for (Job job : jobs) neighbors.add(positions.get(job));
+            Collections.sort(neighbors);
+            return neighbors;
+        }
+        for (int q = 0; q < points.size(); q++) {
+            if (q != p && distance(point, points.get(q)) <= eps) neighbors.add(q);
+        }
+        return neighbors;
+    }
+
+    private JobKDTree createTree(List<LocationWrapper> points) {
+        if (!JobKDTree.isEuclidean(costs)) return null;
+        List<Job> jobs = new ArrayList<Job>(points.size());
+        for (LocationWrapper point : points) {
+            if (point.getLocations().size() != 1 || !(point.getJob() instanceof Service)) return null;
+            jobs.add(point.getJob());
+        }
+        if (!JobKDTree.canIndex(jobs)) return null;
+        return new JobKDTree(jobs);
+    }
+
+    private double distance(LocationWrapper l1, LocationWrapper l2) {
+        int count = 0;
+        double sum = 0;
+        for (Location loc_1 : l1.getLocations()) {
+            for (Location loc_2 : l2.getLocations()) {
+                sum += costs.getTransportCost(loc_1, loc_2, 0, null, null);
+                count++;
+            }
         }
-        return l_;
+        return sum / (double) count;
     }
 
     public List<Job> getRandomCluster(VehicleRoute route) {
         if (route.isEmpty()) return Collections.emptyList();
         List<LocationWrapper> locations = getLocationWrappers(route);
-        List<Cluster<LocationWrapper>> clusterResults = getClusters(route, locations);
+        List<List<Job>> clusterResults = getClusters(route, locations);
         if (clusterResults.isEmpty()) return Collections.emptyList();
-        Cluster<LocationWrapper> randomCluster = RandomUtils.nextItem(clusterResults, random);
-        return getJobList(randomCluster);
+        return RandomUtils.nextItem(clusterResults, random);
     }
 
     private double sample(VehicleRoutingTransportCosts costs, VehicleRoute r) {
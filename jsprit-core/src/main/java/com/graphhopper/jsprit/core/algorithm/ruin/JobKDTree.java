@@ -0,0 +1,206 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.CrowFlyCosts;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
+
+import java.util.*;
+
+/**
+ * Static 2-d tree of services that are located at coordinates. It is balanced, i.e. built by splitting at medians
+ * alternately in x and y, and stored in arrays in tree order. It supports k-nearest and range queries.
+ * <p>
+ * <p>The tree of all jobs of a problem is shared, i.e. it is built once per problem by {@link #of(VehicleRoutingProblem)}.
+ */
+class JobKDTree {
+
+    private static final Map<VehicleRoutingProblem, JobKDTree> trees = new WeakHashMap<VehicleRoutingProblem, JobKDTree>();
+
+    /**
+     * Returns the tree of all jobs of vrp (inclusive initial jobs in routes). It is built when it is requested first.
+     *
+     * @param vrp the problem
+     * @return tree of jobs
+     * @throws IllegalArgumentException if jobs of vrp cannot be indexed
+     */
+    static JobKDTree of(VehicleRoutingProblem vrp) {
+        synchronized (trees) {
+            JobKDTree tree = trees.get(vrp);
+            if (tree == null) {
+                Collection<Job> jobs = vrp.getJobsInclusiveInitialJobsInRoutes().values();
+                if (!canIndex(jobs)) throw new IllegalArgumentException("jobs cannot be indexed since they are not all located at coordinates");
+                tree = new JobKDTree(jobs);
+                trees.put(vrp, tree);
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * Returns true if transport costs are euclidean distances between coordinates multiplied by a constant factor,
+     * i.e. if the distance of costs returns the same order of locations as the tree does.
+     *
+     * @param costs transport costs
+     * @return true if costs are euclidean
+     */
+    static boolean isEuclidean(VehicleRoutingTransportCosts costs) {
+        return costs != null && (costs.getClass() == EuclideanCosts.class || costs.getClass() == CrowFlyCosts.class);
+    }
+
+    /**
+     * Returns true if jobDistance orders services the same way as euclidean distances between their coordinates.
+     *
+     * @param jobDistance distance between jobs
+     * @return true if jobDistance is euclidean
+     */
+    static boolean isEuclidean(JobDistance jobDistance) {
+        if (jobDistance instanceof EuclideanServiceDistance) return true;
+        return jobDistance instanceof AvgServiceAndShipmentDistance && isEuclidean(((AvgServiceAndShipmentDistance) jobDistance).getCosts());
+    }
+
+    /**
+     * Returns true if all jobs are services with coordinates, i.e. if they can be indexed.
+     *
+     * @param jobs jobs to be indexed
+     * @return true if jobs can be indexed
+     */
+    static boolean canIndex(Collection<Job> jobs) {
+        for (Job job : jobs) {
+            if (!(job instanceof Service)) return false;
+            if (((Service) job).getLocation() == null || ((Service) job).getLocation().getCoordinate() == null)
+                return false;
+        }
+        return true;
+    }
+
+    static Coordinate getCoordinate(Job job) {
+        return ((Service) job).getLocation().getCoordinate();
+    }
+
+    private final double[] xs;
+
+    private final double[] ys;
+
+    private final Job[] jobs;
+
+    JobKDTree(Collection<Job> jobs) {
+        int n = jobs.size();
+        Job[] ordered = jobs.toArray(new Job[n]);
+        build(ordered, 0, n, 0);
+        this.jobs = ordered;
+        xs = new double[n];
+        ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            Coordinate coordinate = getCoordinate(ordered[i]);
+            xs[i] = coordinate.getX();
+            ys[i] = coordinate.getY();
+        }
+    }
+
+    private static void build(Job[] jobs, int from, int to, int depth) {
+        if (to - from <= 1) return;
+        Arrays.sort(jobs, from, to, depth % 2 == 0 ? X : Y);
+        int mid = (from + to) >>> 1;
+        build(jobs, from, mid, depth + 1);
+        build(jobs, mid + 1, to, depth + 1);
+    }
+
+    private static final Comparator<Job> X = new Comparator<Job>() {
+        @Override
+        public int compare(Job o1, Job o2) {
+            return Double.compare(getCoordinate(o1).getX(), getCoordinate(o2).getX());
+        }
+    };
+
+    private static final Comparator<Job> Y = new Comparator<Job>() {
+        @Override
+        public int compare(Job o1, Job o2) {
+            return Double.compare(getCoordinate(o1).getY(), getCoordinate(o2).getY());
+        }
+    };
+
+    /**
+     * Adds all jobs whose distance to coordinate multiplied by scale is lower than or equal to radius to result.
+     *
+     * @param coordinate the reference coordinate
+     * @param radius     max distance
+     * @param scale      factor distances are multiplied with, e.g. a detour factor
+     * @param exclude    job that is not added, e.g. the job located at coordinate
+     * @param result     list jobs are added to
+     */
+    void withinRadius(Coordinate coordinate, double radius, double scale, Job exclude, List<Job> result) {
+        withinRadius(coordinate.getX(), coordinate.getY(), radius, scale, exclude, result, 0, jobs.length, 0);
+    }
+
+    private void withinRadius(double x, double y, double radius, double scale, Job exclude, List<Job> result, int from, int to, int depth) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+        if (jobs[mid] != exclude) {
+            double dx = x - xs[mid];
+            double dy = y - ys[mid];
+            if (Math.sqrt(dx * dx + dy * dy) * scale <= radius) result.add(jobs[mid]);
+        }
+        double diff = (depth % 2 == 0 ? x - xs[mid] : y - ys[mid]) * scale;
+        if (diff <= radius) withinRadius(x, y, radius, scale, exclude, result, from, mid, depth + 1);
+        if (-diff <= radius) withinRadius(x, y, radius, scale, exclude, result, mid + 1, to, depth + 1);
+    }
+
+    int size() {
+        return jobs.length;
+    }
+
+    /**
+     * Offers the jobs nearest to coordinate to selection, i.e. at least all jobs that end up being selected. Items are
+     * job indices.
+     *
+     * @param coordinate the reference coordinate
+     * @param exclude    job that is not offered, e.g. the job located at coordinate
+     * @param selection  the selection
+     */
+    void nearest(Coordinate coordinate, Job exclude, KNearestSelection selection) {
+        nearest(coordinate.getX(), coordinate.getY(), exclude, selection, 0, jobs.length, 0);
+    }
+
+    private void nearest(double x, double y, Job exclude, KNearestSelection selection, int from, int to, int depth) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+        if (jobs[mid] != exclude) {
+            double dx = x - xs[mid];
+            double dy = y - ys[mid];
+            selection.offer(jobs[mid].getIndex(), Math.sqrt(dx * dx + dy * dy));
+        }
+        double diff = depth % 2 == 0 ? x - xs[mid] : y - ys[mid];
+        if (diff < 0) {
+            nearest(x, y, exclude, selection, from, mid, depth + 1);
+            if (-diff < selection.worstDistance()) nearest(x, y, exclude, selection, mid + 1, to, depth + 1);
+        } else {
+            nearest(x, y, exclude, selection, mid + 1, to, depth + 1);
+            if (diff < selection.worstDistance()) nearest(x, y, exclude, selection, from, mid, depth + 1);
+        }
+    }
+
+}
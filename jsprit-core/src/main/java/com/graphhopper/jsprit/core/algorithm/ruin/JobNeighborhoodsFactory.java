@@ -21,6 +21,8 @@ package com.graphhopper.jsprit.core.algorithm.ruin;
 import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * Created by schroeder on 05/03/15.
  */
@@ -35,4 +37,51 @@ public class JobNeighborhoodsFactory {
         return new JobNeighborhoodsOptimized(vrp, jobDistance, capacity);
     }
 
+    /**
+     * Creates neighborhoods that calculate the capacity nearest neighbors of a job when they are requested first, and
+     * cache the neighbors of at most maxCachedJobs jobs.
+     *
+     * @param vrp           the problem
+     * @param jobDistance   the distance between jobs
+     * @param capacity      number of neighbors memorized per job
+     * @param maxCachedJobs max number of jobs whose neighbors are cached
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createLazyNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, int maxCachedJobs) {
+        return new JobNeighborhoodsLazy(vrp, jobDistance, capacity, maxCachedJobs);
+    }
+
+    /**
+     * Same as {@link #createLazyNeighborhoods(VehicleRoutingProblem, JobDistance, int, int)}, but if executor is not
+     * null, the neighbors of up to maxCachedJobs jobs are calculated in parallel at initialise().
+     *
+     * @param vrp           the problem
+     * @param jobDistance   the distance between jobs
+     * @param capacity      number of neighbors memorized per job
+     * @param maxCachedJobs max number of jobs whose neighbors are cached
+     * @param executor      executor to initialise neighborhoods with, can be null
+     * @param noThreads     number of threads of executor
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createLazyNeighborhoods(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, int maxCachedJobs, ExecutorService executor, int noThreads) {
+        return new JobNeighborhoodsLazy(vrp, jobDistance, capacity, maxCachedJobs, executor, noThreads);
+    }
+
+    /**
+     * Creates neighborhoods that memorize the capacity nearest neighbors of each job. If jobDistance is euclidean and
+     * all jobs are services located at coordinates, neighbors are looked up in the kd-tree of the problem when they
+     * are requested first. Otherwise, they are calculated for all jobs at initialise().
+     *
+     * @param vrp         the problem
+     * @param jobDistance the distance between jobs
+     * @param capacity    number of neighbors memorized per job
+     * @return neighborhoods
+     */
+    public JobNeighborhoods createNeighborhoodsWithCapRestriction(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity) {
+        if (JobKDTree.isEuclidean(jobDistance) && JobKDTree.canIndex(vrp.getJobsInclusiveInitialJobsInRoutes().values())) {
+            return new JobNeighborhoodsLazy(vrp, jobDistance, capacity, vrp.getJobsInclusiveInitialJobsInRoutes().size());
+        }
+        return new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, capacity);
+    }
+
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * JobNeighborhoods that determine the nearest neighbors of a job not before they are requested.
+ * <p>
+ * <p>Neighbors of services located at coordinates and compared with {@link EuclideanServiceDistance} or with
+ * {@link com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance} based on euclidean costs are
+ * looked up in the kd-tree that is shared by all neighborhoods of the problem, neighbors of all other jobs are selected from the distances to all other jobs with a bounded heap. Neighbor
+ * lists are cached, and if more than maxCachedJobs lists are cached, the least recently used list is evicted.
+ * <p>
+ * <p>Since distances between all jobs are not calculated anymore, getMaxDistance() is estimated at initialise() by
+ * determining the job farthest away from an arbitrary job and then the largest distance from this job to any other
+ * job. If an executor is given, initialise() additionally pre-calculates the neighbors of up to maxCachedJobs jobs
+ * in parallel.
+ */
+class JobNeighborhoodsLazy implements JobNeighborhoods {
+
+    private static Logger logger = LoggerFactory.getLogger(JobNeighborhoodsLazy.class);
+
+    private final VehicleRoutingProblem vrp;
+
+    private final JobDistance jobDistance;
+
+    private final int capacity;
+
+    private final int maxCachedJobs;
+
+    private final ExecutorService executor;
+
+    private final int noThreads;
+
+    private final Job[] jobs;
+
+    private final List<Job> jobList;
+
+    private final Map<Integer, int[]> cache;
+
+    private JobKDTree kdTree;
+
+    private double maxDistance = 0.;
+
+    public JobNeighborhoodsLazy(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, int maxCachedJobs) {
+        this(vrp, jobDistance, capacity, maxCachedJobs, null, 1);
+    }
+
+    public JobNeighborhoodsLazy(VehicleRoutingProblem vrp, JobDistance jobDistance, int capacity, int maxCachedJobs, ExecutorService executor, int noThreads) {
+        super();
+        this.vrp = vrp;
+        this.jobDistance = jobDistance;
+        this.maxCachedJobs = maxCachedJobs;
+        this.executor = executor;
+        this.noThreads = noThreads;
+        Collection<Job> allJobs = vrp.getJobsInclusiveInitialJobsInRoutes().values();
+        this.capacity = Math.min(capacity, Math.max(0, allJobs.size() - 1));
+        jobs = new Job[allJobs.size() + 1];
+        for (Job job : allJobs) jobs[job.getIndex()] = job;
+        jobList = new ArrayList<Job>(allJobs);
+        cache = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > JobNeighborhoodsLazy.this.maxCachedJobs;
+            }
+
+        };
+        logger.debug("initialize {}", this);
+    }
+
+    @Override
+    public Iterator<Job> getNearestNeighborsIterator(int nNeighbors, Job neighborTo) {
+        return new JobNeighborhoodsOptimized.ArrayIterator(nNeighbors, getNeighbors(neighborTo), jobs);
+    }
+
+    int[] getNeighbors(Job job) {
+        int[] neighbors;
+        synchronized (cache) {
+            neighbors = cache.get(job.getIndex());
+        }
+        if (neighbors != null) return neighbors;
+        neighbors = calculateNeighbors(job);
+        synchronized (cache) {
+            cache.put(job.getIndex(), neighbors);
+        }
+        return neighbors;
+    }
+
+    private int[] calculateNeighbors(Job job) {
+        KNearestSelection selection = new KNearestSelection(capacity);
+        if (capacity == 0) return selection.toSortedArray();
+        if (kdTree != null) {
+            kdTree.nearest(JobKDTree.getCoordinate(job), job, selection);
+        } else {
+            for (Job other : jobList) {
+                if (other == job) continue;
+                selection.offer(other.getIndex(), jobDistance.getDistance(job, other));
+            }
+        }
+        return selection.toSortedArray();
+    }
+
+    @Override
+    public void initialise() {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        if (JobKDTree.isEuclidean(jobDistance) && JobKDTree.canIndex(jobList)) {
+            kdTree = JobKDTree.of(vrp);
+        }
+        estimateMaxDistance();
+        if (executor != null && capacity > 0) preload();
+        stopWatch.stop();
+        logger.debug("initialise comp-time: {}", stopWatch);
+    }
+
+    private void estimateMaxDistance() {
+        if (jobList.size() < 2) return;
+        Job farthest = farthest(jobList.get(0));
+        farthest(farthest);
+    }
+
+    private Job farthest(Job from) {
+        Job farthest = from;
+        double max = -1.;
+        for (Job job : jobList) {
+            if (job == from) continue;
+            double distance = jobDistance.getDistance(from, job);
+            if (distance > max) {
+                max = distance;
+                farthest = job;
+            }
+        }
+        if (max > maxDistance) maxDistance = max;
+        return farthest;
+    }
+
+    private void preload() {
+        final List<Job> toLoad = jobList.subList(0, Math.min(jobList.size(), maxCachedJobs));
+        int chunkSize = Math.max(1, (toLoad.size() + noThreads - 1) / noThreads);
+        List<Callable<Map<Integer, int[]>>> tasks = new ArrayList<Callable<Map<Integer, int[]>>>();
+        for (int from = 0; from < toLoad.size(); from += chunkSize) {
+            final List<Job> chunk = toLoad.subList(from, Math.min(toLoad.size(), from + chunkSize));
+            tasks.add(new Callable<Map<Integer, int[]>>() {
+
+                @Override
+                public Map<Integer, int[]> call() throws Exception {
+                    Map<Integer, int[]> neighbors = new HashMap<Integer, int[]>();
+                    for (Job job : chunk) neighbors.put(job.getIndex(), calculateNeighbors(job));
+                    return neighbors;
+                }
+
+            });
+        }
+        try {
+            for (Future<Map<Integer, int[]>> future : executor.invokeAll(tasks)) {
+                Map<Integer, int[]> neighbors = future.get();
+                synchronized (cache) {
+                    cache.putAll(neighbors);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    @Override
+    public String toString() {
+        return "[name=lazyNeighborhoods][capacity=" + capacity + "][maxCachedJobs=" + maxCachedJobs + "]";
+    }
+
+}
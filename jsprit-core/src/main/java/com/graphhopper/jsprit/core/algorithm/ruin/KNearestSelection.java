@@ -0,0 +1,109 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+/**
+ * Selects the k items with the smallest distances from a stream of (item, distance) pairs with a bounded max-heap,
+ * i.e. in O(n log k) instead of sorting all n items.
+ */
+class KNearestSelection {
+
+    private final int k;
+
+    private final int[] items;
+
+    private final double[] distances;
+
+    private int size = 0;
+
+    KNearestSelection(int k) {
+        this.k = k;
+        this.items = new int[k];
+        this.distances = new double[k];
+    }
+
+    /**
+     * Returns the largest distance selected so far, or Double.MAX_VALUE if less than k items have been offered.
+     *
+     * @return largest selected distance
+     */
+    double worstDistance() {
+        if (size < k) return Double.MAX_VALUE;
+        return distances[0];
+    }
+
+    void offer(int item, double distance) {
+        if (k == 0) return;
+        if (size < k) {
+            items[size] = item;
+            distances[size] = distance;
+            siftUp(size++);
+        } else if (distance < distances[0]) {
+            items[0] = item;
+            distances[0] = distance;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Returns the selected items in ascending order of their distances. The selection cannot be used afterwards.
+     *
+     * @return sorted items
+     */
+    int[] toSortedArray() {
+        int n = size;
+        for (int last = n - 1; last > 0; last--) {
+            swap(0, last);
+            siftDown(0, last);
+        }
+        int[] sorted = new int[n];
+        System.arraycopy(items, 0, sorted, 0, n);
+        size = 0;
+        return sorted;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distances[i]) return;
+            swap(parent, i);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) return;
+            if (child + 1 < n && distances[child + 1] > distances[child]) child++;
+            if (distances[i] >= distances[child]) return;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+    }
+
+}
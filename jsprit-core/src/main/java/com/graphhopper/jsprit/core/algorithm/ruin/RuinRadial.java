@@ -64,7 +64,7 @@ public final class RuinRadial extends AbstractRuinStrategy {
             }
 
         };
-        JobNeighborhoodsImplWithCapRestriction jobNeighborhoodsImpl = new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
+        JobNeighborhoods jobNeighborhoodsImpl = new JobNeighborhoodsFactory().createNeighborhoodsWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
         jobNeighborhoodsImpl.initialise();
         jobNeighborhoods = jobNeighborhoodsImpl;
         logger.debug("initialise {}", this);
@@ -83,7 +83,7 @@ public final class RuinRadial extends AbstractRuinStrategy {
             }
 
         };
-        JobNeighborhoodsImplWithCapRestriction jobNeighborhoodsImpl = new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
+        JobNeighborhoods jobNeighborhoodsImpl = new JobNeighborhoodsFactory().createNeighborhoodsWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
         jobNeighborhoodsImpl.initialise();
         jobNeighborhoods = jobNeighborhoodsImpl;
         logger.debug("initialise {}", this);
@@ -59,7 +59,7 @@ public final class RuinRadialMultipleCenters extends AbstractRuinStrategy {
             }
 
         };
-        JobNeighborhoodsImplWithCapRestriction jobNeighborhoodsImpl = new JobNeighborhoodsImplWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
+        JobNeighborhoods jobNeighborhoodsImpl = new JobNeighborhoodsFactory().createNeighborhoodsWithCapRestriction(vrp, jobDistance, noJobsToMemorize);
         jobNeighborhoodsImpl.initialise();
         jobNeighborhoods = jobNeighborhoodsImpl;
         logger.debug("initialise {}", this);
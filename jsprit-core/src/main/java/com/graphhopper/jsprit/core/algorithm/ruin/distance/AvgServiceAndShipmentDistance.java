@@ -42,6 +42,10 @@ public class AvgServiceAndShipmentDistance implements JobDistance {
 
     }
 
+    public VehicleRoutingTransportCosts getCosts() {
+        return costs;
+    }
+
     /**
      * Calculates and returns the average distance between two jobs based on the input-transport costs.
      * <p>
@@ -0,0 +1,88 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+
+/**
+ * StateUpdater that can update its states incrementally after a job has been inserted, i.e. without
+ * visiting the whole route again.
+ * <p>
+ * <p>It must either be an {@link com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor} with
+ * direction {@link Direction#FORWARD} or a {@link com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor}
+ * with direction {@link Direction#BACKWARD}. If incremental updates are activated in the StateManager, forward updaters
+ * resume visiting the route at the first affected activity, and backward updaters that support early exit stop visiting
+ * the route as soon as their states do not change anymore. Incremental updates only apply if all registered activity
+ * visitors are incremental state updaters, otherwise routes are visited as a whole.
+ */
+public interface IncrementalStateUpdater extends StateUpdater {
+
+    enum Direction {
+        FORWARD, BACKWARD
+    }
+
+    /**
+     * Returns the direction this updater visits the activities of a route.
+     *
+     * @return direction
+     */
+    public Direction getDirection();
+
+    /**
+     * Returns true if this updater can stop visiting the route early, i.e. if it can tell by {@link #hasConverged()}
+     * that states of preceding activities cannot change anymore. Only backward updaters are asked.
+     *
+     * @return true if early exit is supported
+     */
+    public boolean supportsEarlyExit();
+
+    /**
+     * Returns the index of the first activity whose states are directly affected by the insertion of insertedJob, where
+     * insertionIndex is the index of the first activity of insertedJob in the route.
+     * <p>
+     * <p>Forward updaters must be able to resume at this index. Backward updaters are only asked whether they have converged
+     * after having visited an activity with a lower index.
+     *
+     * @param route          the route the job has been inserted into
+     * @param insertedJob    the inserted job
+     * @param insertionIndex the index of the first activity of the inserted job
+     * @return index of first affected activity
+     */
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex);
+
+    /**
+     * Begins visiting the route at activity index, i.e. it restores what has been memorized at activity index-1.
+     * Resuming at index 0 must be equivalent to begin(route).
+     * <p>
+     * <p>Backward updaters always begin at the end of the route, thus it is only called for forward updaters.
+     *
+     * @param route the route to be visited
+     * @param index the index of the first activity to be visited
+     */
+    public void resume(VehicleRoute route, int index);
+
+    /**
+     * Returns true if the states memorized when visiting the last activity are equal to the states memorized before,
+     * i.e. if states of preceding activities do not change either.
+     *
+     * @return true if states have converged
+     */
+    public boolean hasConverged();
+
+}
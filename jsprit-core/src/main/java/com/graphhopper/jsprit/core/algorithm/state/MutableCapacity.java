@@ -0,0 +1,122 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.state;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+
+import java.util.Arrays;
+
+/**
+ * Mutable counterpart of {@link Capacity} that is used by the load updaters to accumulate loads without creating
+ * a new Capacity at each and every activity.
+ * <p>
+ * <p>Its number of dimensions grows in the same way as the number of dimensions of Capacity.addup(...) and
+ * Capacity.max(...) would do.
+ */
+final class MutableCapacity {
+
+    private int[] values = new int[1];
+
+    private int nuDimensions = 1;
+
+    /**
+     * Resets this to one dimension with a value of zero.
+     */
+    void reset() {
+        Arrays.fill(values, 0);
+        nuDimensions = 1;
+    }
+
+    void setNuDimensions(int nuDimensions) {
+        ensureDimensions(nuDimensions);
+        this.nuDimensions = Math.max(1, nuDimensions);
+    }
+
+    void set(int index, int value) {
+        ensureDimensions(index + 1);
+        values[index] = value;
+        nuDimensions = Math.max(nuDimensions, index + 1);
+    }
+
+    int get(int index) {
+        if (index < nuDimensions) return values[index];
+        return 0;
+    }
+
+    int getNuDimensions() {
+        return nuDimensions;
+    }
+
+    void set(MutableCapacity capacity) {
+        reset();
+        setNuDimensions(capacity.nuDimensions);
+        System.arraycopy(capacity.values, 0, values, 0, capacity.nuDimensions);
+    }
+
+    void add(Capacity capacity) {
+        ensureDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            values[i] += capacity.get(i);
+        }
+        nuDimensions = Math.max(nuDimensions, capacity.getNuOfDimensions());
+    }
+
+    void max(MutableCapacity capacity) {
+        ensureDimensions(capacity.nuDimensions);
+        for (int i = 0; i < capacity.nuDimensions; i++) {
+            values[i] = Math.max(get(i), capacity.values[i]);
+        }
+        nuDimensions = Math.max(nuDimensions, capacity.nuDimensions);
+    }
+
+    /**
+     * Returns true if each and every dimension of this equals the according dimension of capacity.
+     *
+     * @param capacity capacity to compare
+     * @return true if equal
+     */
+    boolean isEqual(MutableCapacity capacity) {
+        for (int i = 0; i < Math.max(nuDimensions, capacity.nuDimensions); i++) {
+            if (get(i) != capacity.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a new and immutable Capacity with the current dimension values.
+     *
+     * @return capacity
+     */
+    Capacity toCapacity() {
+        Capacity.Builder builder = Capacity.Builder.newInstance();
+        for (int i = 0; i < nuDimensions; i++) {
+            builder.addDimension(i, values[i]);
+        }
+        return builder.build();
+    }
+
+    private void ensureDimensions(int required) {
+        if (required > values.length) {
+            values = Arrays.copyOf(values, required);
+        }
+        for (int i = nuDimensions; i < required; i++) {
+            values[i] = 0;
+        }
+    }
+
+}
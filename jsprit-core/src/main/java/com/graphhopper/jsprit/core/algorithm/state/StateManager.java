@@ -18,9 +18,11 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.algorithm.listener.IterationStartsListener;
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.*;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListeners;
+import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
@@ -31,7 +33,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
-import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 
 import java.util.*;
@@ -41,10 +43,25 @@ import java.util.*;
  * <p>
  * <p>Some condition, rules or constraints are stateful. This StateManager manages these states, i.e. it offers
  * methods to add, store and retrieve states based on the problem, vehicle-routes and tour-activities.
+ * <p>
+ * <p>If primitive states are activated (see {@link #StateManager(VehicleRoutingProblem, boolean)}), double and
+ * {@link Capacity} states are not memorized as objects but in primitive columns per stateId, i.e. doubles in double
+ * arrays and capacities as flattened int dimensions. Use the typed accessors such as
+ * {@link #getActivityStateDouble(TourActivity, StateId, double)} and {@link #putActivityStateDouble(TourActivity, StateId, double)}
+ * to read and write these states without boxing. The generic accessors still work, but box on read.
+ * <p>
+ * <p>If incremental updates are activated (see {@link #setIncrementalUpdates(boolean)}), inserting a job does not
+ * necessarily revisit the whole route. Instead, {@link IncrementalStateUpdater}s resume at the inserted job or stop
+ * early once their states do not change anymore.
+ * <p>
+ * <p>If a metrics listener is set (see {@link #setMetricsListener(SearchMetricsListener)}), the time each route and
+ * activity visitor takes to update states is measured and reported. Since activity visitors are interleaved per
+ * activity, measuring them takes two clock reads per activity and visitor. Thus only every 64th activity pass is
+ * measured.
  *
  * @author schroeder
  */
-public class StateManager implements RouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
+public class StateManager implements PrimitiveRouteAndActivityStateGetter, IterationStartsListener, RuinListener, InsertionStartsListener, JobInsertedListener, InsertionEndsListener {
 
     private RouteActivityVisitor routeActivityVisitor = new RouteActivityVisitor();
 
@@ -52,6 +69,26 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private Collection<RouteVisitor> routeVisitors = new ArrayList<RouteVisitor>();
 
+    private List<ActivityVisitor> activityVisitors = new ArrayList<ActivityVisitor>();
+
+    private List<ReverseActivityVisitor> reverseActivityVisitors = new ArrayList<ReverseActivityVisitor>();
+
+    private boolean incrementalUpdates = false;
+
+    private boolean activityVisitorsIncremental = true;
+
+    private boolean reverseActivityVisitorsIncremental = true;
+
+    private SearchMetricsListener metricsListener;
+
+    private static final int ACTIVITY_PASS_SAMPLING_MASK = 63;
+
+    private int nuActivityPasses = 0;
+
+    private Map<VehicleRoute, Integer> nuActivitiesAtLastUpdate = new HashMap<VehicleRoute, Integer>();
+
+    private Map<VehicleRoute, Vehicle> vehicleAtLastUpdate = new HashMap<VehicleRoute, Vehicle>();
+
     private RuinListeners ruinListeners = new RuinListeners();
 
     private InsertionListeners insertionListeners = new InsertionListeners();
@@ -90,6 +127,24 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     private final boolean isIndexedBased;
 
+    private final boolean primitiveStates;
+
+    private final int capacityStride;
+
+    private int nuCapacityDimensions;
+
+    private double[][] activityDoubleStates;
+
+    private double[][][] vehicleDependentActivityDoubleStates;
+
+    private int[][] activityCapacityStates;
+
+    private Map<VehicleRoute, double[]> routeDoubleStateMap;
+
+    private Map<VehicleRoute, double[][]> vehicleDependentRouteDoubleStateMap;
+
+    private Map<VehicleRoute, int[]> routeCapacityStateMap;
+
     int getMaxIndexOfVehicleTypeIdentifiers() {
         return nuVehicleTypeKeys;
     }
@@ -112,6 +167,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             routeStatesArr = new Object[vrp.getVehicles().size() + 2][stateIndexCounter+1];
             vehicleDependentRouteStatesArr = new Object[vrp.getVehicles().size() + 2][nuVehicleTypeKeys][stateIndexCounter+1];
             problemStates = new Object[stateIndexCounter+1];
+            if (primitiveStates) initPrimitiveActivityStates(stateIndexCounter + 1);
         }
         StateId id = StateFactory.createId(name, stateIndexCounter);
         incStateIndexCounter();
@@ -130,6 +186,19 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      * @param vehicleRoutingProblem the corresponding VehicleRoutingProblem
      */
     public StateManager(VehicleRoutingProblem vehicleRoutingProblem) {
+        this(vehicleRoutingProblem, false);
+    }
+
+    /**
+     * Constructs the stateManager with the specified VehicleRoutingProblem.
+     * <p>
+     * <p>If primitiveStates is true, double and capacity states are memorized in primitive arrays rather than as
+     * objects, i.e. memorizing them does not create any garbage.
+     *
+     * @param vehicleRoutingProblem the corresponding VehicleRoutingProblem
+     * @param primitiveStates       true if double and capacity states should be memorized in primitive arrays
+     */
+    public StateManager(VehicleRoutingProblem vehicleRoutingProblem, boolean primitiveStates) {
         stateIndexCounter = initialNoStates;
         int initialStateArrayLength = 30;
         this.vrp = vehicleRoutingProblem;
@@ -148,6 +217,65 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             vehicleDependentRouteStateMap = new HashMap<VehicleRoute, Object[][]>();
 //        }
         problemStates = new Object[initialStateArrayLength];
+        this.primitiveStates = primitiveStates;
+        nuCapacityDimensions = getNuCapacityDimensions(vrp);
+        capacityStride = nuCapacityDimensions + 1;
+        if (primitiveStates) {
+            initPrimitiveActivityStates(initialStateArrayLength);
+            routeDoubleStateMap = new HashMap<VehicleRoute, double[]>();
+            vehicleDependentRouteDoubleStateMap = new HashMap<VehicleRoute, double[][]>();
+            routeCapacityStateMap = new HashMap<VehicleRoute, int[]>();
+        }
+    }
+
+    private void initPrimitiveActivityStates(int noStates) {
+        activityDoubleStates = new double[nuActivities][noStates];
+        vehicleDependentActivityDoubleStates = new double[nuActivities][nuVehicleTypeKeys][noStates];
+        activityCapacityStates = new int[nuActivities][noStates * capacityStride];
+        fill_twoDimArr(activityDoubleStates, Double.NaN);
+        fill_threeDimArr(vehicleDependentActivityDoubleStates, Double.NaN);
+    }
+
+    private int getNuCapacityDimensions(VehicleRoutingProblem vrp) {
+        int nuDimensions = 1;
+        if (vrp.getJobs() != null) {
+            for (Job j : vrp.getJobs().values()) {
+                nuDimensions = Math.max(nuDimensions, j.getSize().getNuOfDimensions());
+            }
+        }
+        if (vrp.getInitialVehicleRoutes() != null) {
+            for (VehicleRoute r : vrp.getInitialVehicleRoutes()) {
+                for (Job j : r.getTourActivities().getJobs()) {
+                    nuDimensions = Math.max(nuDimensions, j.getSize().getNuOfDimensions());
+                }
+            }
+        }
+        if (vrp.getVehicles() != null) {
+            for (Vehicle v : vrp.getVehicles()) {
+                nuDimensions = Math.max(nuDimensions, v.getType().getCapacityDimensions().getNuOfDimensions());
+            }
+        }
+        return nuDimensions;
+    }
+
+    /**
+     * Returns true if double and capacity states are memorized in primitive arrays.
+     *
+     * @return true if primitive states are activated
+     */
+    public boolean primitiveStatesActivated() {
+        return primitiveStates;
+    }
+
+    /**
+     * Returns the number of capacity dimensions that need to be considered when reading capacity states dimension by
+     * dimension, i.e. the maximum number of dimensions of the problem's capacities and of all capacity states memorized so far.
+     *
+     * @return number of capacity dimensions
+     */
+    @Override
+    public int getNuCapacityDimensions() {
+        return nuCapacityDimensions;
     }
 
     private int getNuVehicleTypes(VehicleRoutingProblem vrp) {
@@ -200,6 +328,18 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             vehicleDependentRouteStateMap.clear();
         }
         Arrays.fill(problemStates,null);
+        nuActivitiesAtLastUpdate.clear();
+        vehicleAtLastUpdate.clear();
+        if (primitiveStates) {
+            fill_twoDimArr(activityDoubleStates, Double.NaN);
+            fill_threeDimArr(vehicleDependentActivityDoubleStates, Double.NaN);
+            for (int[] rows : activityCapacityStates) {
+                Arrays.fill(rows, 0);
+            }
+            routeDoubleStateMap.clear();
+            vehicleDependentRouteDoubleStateMap.clear();
+            routeCapacityStateMap.clear();
+        }
     }
 
     private void fill_threeDimArr(Object[][][] states, Object o) {
@@ -216,6 +356,18 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         }
     }
 
+    private void fill_threeDimArr(double[][][] states, double value) {
+        for (double[][] twoDimArr : states) {
+            fill_twoDimArr(twoDimArr, value);
+        }
+    }
+
+    private void fill_twoDimArr(double[][] states, double value) {
+        for (double[] rows : states) {
+            Arrays.fill(rows, value);
+        }
+    }
+
     /**
      * Returns associated state for the specified activity and stateId, or it returns null if no value is associated.
      * <p>If type class is not equal to the associated type class of the requested state value, it throws a ClassCastException.</p>
@@ -232,15 +384,142 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null;
+        Object stateObject = activityStates[act.getIndex()][stateId.getIndex()];
+        if (stateObject == null && primitiveStates) {
+            stateObject = getPrimitiveActivityState(act.getIndex(), stateId.getIndex());
+        }
         T state;
         try {
-            state = type.cast(activityStates[act.getIndex()][stateId.getIndex()]);
+            state = type.cast(stateObject);
         } catch (ClassCastException e) {
-            throw getClassCastException(e, stateId, type.toString(), activityStates[act.getIndex()][stateId.getIndex()].getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stateObject.getClass().toString());
         }
         return state;
     }
 
+    private Object getPrimitiveActivityState(int actIndex, int stateIndex) {
+        double doubleState = activityDoubleStates[actIndex][stateIndex];
+        if (!Double.isNaN(doubleState)) return doubleState;
+        return getCapacity(activityCapacityStates[actIndex], stateIndex * capacityStride);
+    }
+
+    private Capacity getCapacity(int[] capacityStates, int offset) {
+        int nuDimensions = capacityStates[offset];
+        if (nuDimensions == 0) return null;
+        Capacity.Builder builder = Capacity.Builder.newInstance();
+        for (int i = 0; i < nuDimensions; i++) {
+            builder.addDimension(i, capacityStates[offset + 1 + i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the double state that is associated to the specified activity and stateId, or the specified defaultValue
+     * if no state is associated.
+     * <p>
+     * <p>If primitive states are activated, this does not box the state value.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param stateId      the stateId for which a state value is associated to
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated double state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityStateDouble(TourActivity act, StateId stateId, double defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        if (primitiveStates) {
+            double state = activityDoubleStates[act.getIndex()][stateId.getIndex()];
+            if (!Double.isNaN(state)) return state;
+        }
+        return toDouble(activityStates[act.getIndex()][stateId.getIndex()], defaultValue);
+    }
+
+    /**
+     * Returns the double state that is associated to the specified activity, vehicle and stateId, or the specified defaultValue
+     * if no state is associated.
+     * <p>
+     * <p>If primitive states are activated, this does not box the state value.
+     *
+     * @param act          the activity for which a state value is associated to
+     * @param vehicle      the vehicle for which a state value is associated to
+     * @param stateId      the stateId for which a state value is associated to
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated double state or defaultValue
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public double getActivityStateDouble(TourActivity act, Vehicle vehicle, StateId stateId, double defaultValue) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return defaultValue;
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        if (primitiveStates) {
+            double state = vehicleDependentActivityDoubleStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()];
+            if (!Double.isNaN(state)) return state;
+        }
+        return toDouble(vehicleDependentActivityStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()], defaultValue);
+    }
+
+    /**
+     * Returns the specified dimension of the capacity state that is associated to the specified activity and stateId.
+     * It returns 0 if no state is associated or if the associated capacity does not have the specified dimension.
+     *
+     * @param act       the activity for which a state value is associated to
+     * @param stateId   the stateId for which a state value is associated to
+     * @param dimension the index of the capacity dimension
+     * @return the value of the capacity dimension
+     * @throws java.lang.IllegalStateException if <code>act.getIndex()==0</code> since this suggests that act has no index at all
+     */
+    @Override
+    public int getActivityStateCapacityDimension(TourActivity act, StateId stateId, int dimension) {
+        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
+        if (act.getIndex() < 0) return 0;
+        Object state = activityStates[act.getIndex()][stateId.getIndex()];
+        if (state == null && primitiveStates) {
+            return getCapacityDimension(activityCapacityStates[act.getIndex()], stateId.getIndex() * capacityStride, dimension);
+        }
+        if (state == null) return 0;
+        return ((Capacity) state).get(dimension);
+    }
+
+    void getActivityStateCapacity(TourActivity act, StateId stateId, MutableCapacity target) {
+        target.reset();
+        if (act.getIndex() < 0) return;
+        Object state = activityStates[act.getIndex()][stateId.getIndex()];
+        if (state == null && primitiveStates) {
+            copyCapacity(activityCapacityStates[act.getIndex()], stateId.getIndex() * capacityStride, target);
+        } else if (state != null) {
+            copyCapacity((Capacity) state, target);
+        }
+    }
+
+    private int getCapacityDimension(int[] capacityStates, int offset, int dimension) {
+        if (dimension >= capacityStates[offset]) return 0;
+        return capacityStates[offset + 1 + dimension];
+    }
+
+    private void copyCapacity(int[] capacityStates, int offset, MutableCapacity target) {
+        int nuDimensions = capacityStates[offset];
+        if (nuDimensions == 0) return;
+        target.setNuDimensions(nuDimensions);
+        for (int i = 0; i < nuDimensions; i++) {
+            target.set(i, capacityStates[offset + 1 + i]);
+        }
+    }
+
+    private void copyCapacity(Capacity capacity, MutableCapacity target) {
+        target.setNuDimensions(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            target.set(i, capacity.get(i));
+        }
+    }
+
+    private double toDouble(Object state, double defaultValue) {
+        if (state == null) return defaultValue;
+        return ((Number) state).doubleValue();
+    }
+
     /**
      * Returns true if a state value is associated to the specified activity, vehicle and stateId.
      *
@@ -252,7 +531,11 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     public boolean hasActivityState(TourActivity act, Vehicle vehicle, StateId stateId) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
-        return vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        if (primitiveStates && !Double.isNaN(vehicleDependentActivityDoubleStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()])) {
+            return true;
+        }
+        return vehicleDependentActivityStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()] != null;
     }
 
     /**
@@ -273,12 +556,17 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (act.getIndex() < 0) return null; //act.getIndex() < 0 indicates that act is either Start (-1) or End (-2)
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        Object stateObject = vehicleDependentActivityStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()];
+        if (stateObject == null && primitiveStates) {
+            double doubleState = vehicleDependentActivityDoubleStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()];
+            if (!Double.isNaN(doubleState)) stateObject = doubleState;
+        }
         T state;
         try {
-            state = type.cast(vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+            state = type.cast(stateObject);
         } catch (ClassCastException e) {
-            Object state_class = vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()];
-            throw getClassCastException(e, stateId, type.toString(), state_class.getClass().toString());
+            throw getClassCastException(e, stateId, type.toString(), stateObject.getClass().toString());
         }
         return state;
     }
@@ -311,17 +599,120 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             }
         }
         else {
+            Object stateObject = null;
+            Object[] states = routeStateMap.get(route);
+            if (states != null) stateObject = states[stateId.getIndex()];
+            if (stateObject == null && primitiveStates) stateObject = getPrimitiveRouteState(route, stateId.getIndex());
             try {
-                if (routeStateMap.containsKey(route)) {
-                    state = type.cast(routeStateMap.get(route)[stateId.getIndex()]);
-                }
+                state = type.cast(stateObject);
             } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), routeStateMap.get(route)[stateId.getIndex()].getClass().toString());
+                throw getClassCastException(e, stateId, type.toString(), stateObject.getClass().toString());
             }
         }
         return state;
     }
 
+    private Object getPrimitiveRouteState(VehicleRoute route, int stateIndex) {
+        double[] doubleStates = routeDoubleStateMap.get(route);
+        if (doubleStates != null && !Double.isNaN(doubleStates[stateIndex])) return doubleStates[stateIndex];
+        int[] capacityStates = routeCapacityStateMap.get(route);
+        if (capacityStates != null) return getCapacity(capacityStates, stateIndex * capacityStride);
+        return null;
+    }
+
+    /**
+     * Returns the double state that is associated to the specified route and stateId, or the specified defaultValue
+     * if no state is associated.
+     * <p>
+     * <p>If primitive states are activated, this does not box the state value.
+     *
+     * @param route        the route for which a state value is associated to
+     * @param stateId      the stateId for which a state value is associated to
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated double state or defaultValue
+     */
+    @Override
+    public double getRouteStateDouble(VehicleRoute route, StateId stateId, double defaultValue) {
+        if (route.isEmpty()) return defaultValue;
+        if (primitiveStates) {
+            double[] doubleStates = routeDoubleStateMap.get(route);
+            if (doubleStates != null && !Double.isNaN(doubleStates[stateId.getIndex()])) return doubleStates[stateId.getIndex()];
+        }
+        if (isIndexedBased) return toDouble(routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()], defaultValue);
+        Object[] states = routeStateMap.get(route);
+        if (states == null) return defaultValue;
+        return toDouble(states[stateId.getIndex()], defaultValue);
+    }
+
+    /**
+     * Returns the double state that is associated to the specified route, vehicle and stateId, or the specified defaultValue
+     * if no state is associated.
+     * <p>
+     * <p>If primitive states are activated, this does not box the state value.
+     *
+     * @param route        the route for which a state value is associated to
+     * @param vehicle      the vehicle for which a state value is associated to
+     * @param stateId      the stateId for which a state value is associated to
+     * @param defaultValue the value that is returned if no state is associated
+     * @return the associated double state or defaultValue
+     */
+    @Override
+    public double getRouteStateDouble(VehicleRoute route, Vehicle vehicle, StateId stateId, double defaultValue) {
+        if (route.isEmpty()) return defaultValue;
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        if (primitiveStates) {
+            double[][] doubleStates = vehicleDependentRouteDoubleStateMap.get(route);
+            if (doubleStates != null && !Double.isNaN(doubleStates[vehicleTypeIndex][stateId.getIndex()])) {
+                return doubleStates[vehicleTypeIndex][stateId.getIndex()];
+            }
+        }
+        if (isIndexedBased) return toDouble(vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicleTypeIndex][stateId.getIndex()], defaultValue);
+        Object[][] states = vehicleDependentRouteStateMap.get(route);
+        if (states == null) return defaultValue;
+        return toDouble(states[vehicleTypeIndex][stateId.getIndex()], defaultValue);
+    }
+
+    /**
+     * Returns the specified dimension of the capacity state that is associated to the specified route and stateId.
+     * It returns 0 if no state is associated or if the associated capacity does not have the specified dimension.
+     *
+     * @param route     the route for which a state value is associated to
+     * @param stateId   the stateId for which a state value is associated to
+     * @param dimension the index of the capacity dimension
+     * @return the value of the capacity dimension
+     */
+    @Override
+    public int getRouteStateCapacityDimension(VehicleRoute route, StateId stateId, int dimension) {
+        if (route.isEmpty()) return 0;
+        Object state = getRouteObjectState(route, stateId);
+        if (state == null && primitiveStates) {
+            int[] capacityStates = routeCapacityStateMap.get(route);
+            if (capacityStates == null) return 0;
+            return getCapacityDimension(capacityStates, stateId.getIndex() * capacityStride, dimension);
+        }
+        if (state == null) return 0;
+        return ((Capacity) state).get(dimension);
+    }
+
+    void getRouteStateCapacity(VehicleRoute route, StateId stateId, MutableCapacity target) {
+        target.reset();
+        if (route.isEmpty()) return;
+        Object state = getRouteObjectState(route, stateId);
+        if (state == null && primitiveStates) {
+            int[] capacityStates = routeCapacityStateMap.get(route);
+            if (capacityStates != null) copyCapacity(capacityStates, stateId.getIndex() * capacityStride, target);
+        } else if (state != null) {
+            copyCapacity((Capacity) state, target);
+        }
+    }
+
+    private Object getRouteObjectState(VehicleRoute route, StateId stateId) {
+        if (isIndexedBased) return routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()];
+        Object[] states = routeStateMap.get(route);
+        if (states == null) return null;
+        return states[stateId.getIndex()];
+    }
+
     /**
      * Returns true if a state is assigned to the specified route, vehicle and stateId. Otherwise it returns false.
      *
@@ -332,6 +723,10 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     @SuppressWarnings("UnusedDeclaration")
     public boolean hasRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId) {
+        if (primitiveStates && vehicleDependentRouteDoubleStateMap.containsKey(route)
+            && !Double.isNaN(vehicleDependentRouteDoubleStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()])) {
+            return true;
+        }
         if (!vehicleDependentRouteStateMap.containsKey(route)) return false;
         return vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
 //        return vehicle_dependent_route_states[route.getActivities().get(0).getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] != null;
@@ -361,12 +756,20 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
             }
         }
         else {
-            try {
-                if (vehicleDependentRouteStateMap.containsKey(route)) {
-                    state = type.cast(vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()]);
+            int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+            Object stateObject = null;
+            Object[][] states = vehicleDependentRouteStateMap.get(route);
+            if (states != null) stateObject = states[vehicleTypeIndex][stateId.getIndex()];
+            if (stateObject == null && primitiveStates) {
+                double[][] doubleStates = vehicleDependentRouteDoubleStateMap.get(route);
+                if (doubleStates != null && !Double.isNaN(doubleStates[vehicleTypeIndex][stateId.getIndex()])) {
+                    stateObject = doubleStates[vehicleTypeIndex][stateId.getIndex()];
                 }
+            }
+            try {
+                state = type.cast(stateObject);
             } catch (ClassCastException e) {
-                throw getClassCastException(e, stateId, type.toString(), vehicleDependentRouteStateMap.get(route)[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()].getClass().toString());
+                throw getClassCastException(e, stateId, type.toString(), stateObject.getClass().toString());
             }
         }
         return state;
@@ -384,13 +787,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      *                                         || stateId.getIndex < noInternalStates
      */
     public <T> void putActivityState(TourActivity act, StateId stateId, T state) {
-        if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
-        if (stateId.getIndex() < initialNoStates)
-            throw new IllegalStateException("either you use a reserved stateId that is applied\n" +
-                "internally or your stateId has been created without index, e.g. StateFactory.createId(stateName)\n" +
-                " does not assign indeces thus do not use it anymore, but use\n " +
-                "stateManager.createStateId(name)\n" +
-                " instead.\n");
+        checkActivityStateArgs(act, stateId);
         putInternalTypedActivityState(act, stateId, state);
     }
 
@@ -407,6 +804,42 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      *                                         || stateId.getIndex < noInternalStates
      */
     public <T> void putActivityState(TourActivity act, Vehicle vehicle, StateId stateId, T state) {
+        checkActivityStateArgs(act, stateId);
+        putInternalTypedActivityState(act, vehicle, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity and stateId to the double state value. If primitive states are activated,
+     * this does not box the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param stateId the stateId which is the associated key to the activity state
+     * @param state   the state that is associated to the activity and stateId
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityStateDouble(TourActivity act, StateId stateId, double state) {
+        checkActivityStateArgs(act, stateId);
+        putInternalActivityStateDouble(act, stateId, state);
+    }
+
+    /**
+     * Associates the specified activity, vehicle and stateId to the double state value. If primitive states are activated,
+     * this does not box the state value.
+     *
+     * @param act     the activity for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId which is the associated key to the activity state
+     * @param state   the state that is associated to the activity and stateId
+     * @throws java.lang.IllegalStateException if <code>act.getIndex() == 0</code>
+     *                                         || stateId.getIndex < noInternalStates
+     */
+    public void putActivityStateDouble(TourActivity act, Vehicle vehicle, StateId stateId, double state) {
+        checkActivityStateArgs(act, stateId);
+        putInternalActivityStateDouble(act, vehicle, stateId, state);
+    }
+
+    private void checkActivityStateArgs(TourActivity act, StateId stateId) {
         if (act.getIndex() == 0) throw new IllegalStateException("activity index is 0. this should not be.");
         if (stateId.getIndex() < initialNoStates)
             throw new IllegalStateException("either you use a reserved stateId that is applied\n" +
@@ -414,15 +847,86 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
                 " does not assign indeces thus do not use it anymore, but use\n " +
                 "stateManager.createStateId(name)\n" +
                 " instead.\n");
-        putInternalTypedActivityState(act, vehicle, stateId, state);
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, StateId stateId, T state) {
+        if (state instanceof Capacity) updateNuCapacityDimensions(((Capacity) state).getNuOfDimensions());
+        if (primitiveStates) {
+            if (state instanceof Double && !((Double) state).isNaN()) {
+                putInternalActivityStateDouble(act, stateId, (Double) state);
+                return;
+            }
+            if (state instanceof Capacity && ((Capacity) state).getNuOfDimensions() < capacityStride) {
+                writeCapacity(activityCapacityStates[act.getIndex()], stateId.getIndex() * capacityStride, (Capacity) state);
+                activityDoubleStates[act.getIndex()][stateId.getIndex()] = Double.NaN;
+                activityStates[act.getIndex()][stateId.getIndex()] = null;
+                return;
+            }
+            activityDoubleStates[act.getIndex()][stateId.getIndex()] = Double.NaN;
+            activityCapacityStates[act.getIndex()][stateId.getIndex() * capacityStride] = 0;
+        }
         activityStates[act.getIndex()][stateId.getIndex()] = state;
     }
 
     <T> void putInternalTypedActivityState(TourActivity act, Vehicle vehicle, StateId stateId, T state) {
-        vehicleDependentActivityStates[act.getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        if (primitiveStates) {
+            if (state instanceof Double && !((Double) state).isNaN()) {
+                putInternalActivityStateDouble(act, vehicle, stateId, (Double) state);
+                return;
+            }
+            vehicleDependentActivityDoubleStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()] = Double.NaN;
+        }
+        vehicleDependentActivityStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()] = state;
+    }
+
+    void putInternalActivityStateDouble(TourActivity act, StateId stateId, double state) {
+        if (!primitiveStates || Double.isNaN(state)) {
+            putInternalTypedActivityState(act, stateId, (Double) state);
+            return;
+        }
+        activityDoubleStates[act.getIndex()][stateId.getIndex()] = state;
+        activityCapacityStates[act.getIndex()][stateId.getIndex() * capacityStride] = 0;
+        activityStates[act.getIndex()][stateId.getIndex()] = null;
+    }
+
+    void putInternalActivityStateDouble(TourActivity act, Vehicle vehicle, StateId stateId, double state) {
+        if (!primitiveStates || Double.isNaN(state)) {
+            putInternalTypedActivityState(act, vehicle, stateId, (Double) state);
+            return;
+        }
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        vehicleDependentActivityDoubleStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()] = state;
+        vehicleDependentActivityStates[act.getIndex()][vehicleTypeIndex][stateId.getIndex()] = null;
+    }
+
+    void putInternalActivityStateCapacity(TourActivity act, StateId stateId, MutableCapacity state) {
+        updateNuCapacityDimensions(state.getNuDimensions());
+        if (!primitiveStates || state.getNuDimensions() >= capacityStride) {
+            putInternalTypedActivityState(act, stateId, state.toCapacity());
+            return;
+        }
+        writeCapacity(activityCapacityStates[act.getIndex()], stateId.getIndex() * capacityStride, state);
+        activityDoubleStates[act.getIndex()][stateId.getIndex()] = Double.NaN;
+        activityStates[act.getIndex()][stateId.getIndex()] = null;
+    }
+
+    private void updateNuCapacityDimensions(int nuDimensions) {
+        if (nuDimensions > nuCapacityDimensions) nuCapacityDimensions = nuDimensions;
+    }
+
+    private void writeCapacity(int[] capacityStates, int offset, Capacity capacity) {
+        capacityStates[offset] = capacity.getNuOfDimensions();
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            capacityStates[offset + 1 + i] = capacity.get(i);
+        }
+    }
+
+    private void writeCapacity(int[] capacityStates, int offset, MutableCapacity capacity) {
+        capacityStates[offset] = capacity.getNuDimensions();
+        for (int i = 0; i < capacity.getNuDimensions(); i++) {
+            capacityStates[offset + 1 + i] = capacity.get(i);
+        }
     }
 
     /**
@@ -457,8 +961,53 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
         putTypedInternalRouteState(route, vehicle, stateId, state);
     }
 
+    /**
+     * Associates the specified route and stateId to the double state value. If primitive states are activated,
+     * this does not box the state value.
+     *
+     * @param route   the route for which a state value is associated to
+     * @param stateId the stateId which is the associated key to the route state
+     * @param state   the state that is associated to the route and stateId
+     * @throws java.lang.IllegalStateException if stateId is equal to a stateId that is already used internally.
+     */
+    public void putRouteStateDouble(VehicleRoute route, StateId stateId, double state) {
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putInternalRouteStateDouble(route, stateId, state);
+    }
+
+    /**
+     * Associates the specified route, vehicle and stateId to the double state value. If primitive states are activated,
+     * this does not box the state value.
+     *
+     * @param route   the route for which a state value is associated to
+     * @param vehicle the vehicle for which a state value is associated to
+     * @param stateId the stateId which is the associated key to the route state
+     * @param state   the state that is associated to the route, vehicle and stateId
+     * @throws java.lang.IllegalStateException if <code>vehicle.getIndex() == 0</code> || <code>stateId.getIndex() < noInternalStates</code>
+     */
+    public void putRouteStateDouble(VehicleRoute route, Vehicle vehicle, StateId stateId, double state) {
+        if (vehicle.getIndex() == 0) throw new IllegalStateException("vehicle index is 0. this should not be.");
+        if (stateId.getIndex() < initialNoStates) StateFactory.throwReservedIdException(stateId.toString());
+        putInternalRouteStateDouble(route, vehicle, stateId, state);
+    }
+
     <T> void putTypedInternalRouteState(VehicleRoute route, StateId stateId, T state) {
         if (route.isEmpty()) return;
+        if (state instanceof Capacity) updateNuCapacityDimensions(((Capacity) state).getNuOfDimensions());
+        if (primitiveStates) {
+            if (state instanceof Double && !((Double) state).isNaN()) {
+                putInternalRouteStateDouble(route, stateId, (Double) state);
+                return;
+            }
+            if (state instanceof Capacity && ((Capacity) state).getNuOfDimensions() < capacityStride) {
+                writeCapacity(getRouteCapacityStates(route), stateId.getIndex() * capacityStride, (Capacity) state);
+                clearRouteDoubleState(route, stateId);
+                clearRouteObjectState(route, stateId);
+                return;
+            }
+            clearRouteDoubleState(route, stateId);
+            clearRouteCapacityState(route, stateId);
+        }
         if(isIndexedBased){
             routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()] = state;
         }
@@ -472,6 +1021,14 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     <T> void putTypedInternalRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, T state) {
         if (route.isEmpty()) return;
+        if (primitiveStates) {
+            if (state instanceof Double && !((Double) state).isNaN()) {
+                putInternalRouteStateDouble(route, vehicle, stateId, (Double) state);
+                return;
+            }
+            double[][] doubleStates = vehicleDependentRouteDoubleStateMap.get(route);
+            if (doubleStates != null) doubleStates[vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = Double.NaN;
+        }
         if(isIndexedBased){
             vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicle.getVehicleTypeIdentifier().getIndex()][stateId.getIndex()] = state;
         }
@@ -484,6 +1041,85 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     }
 
+    void putInternalRouteStateDouble(VehicleRoute route, StateId stateId, double state) {
+        if (route.isEmpty()) return;
+        if (!primitiveStates || Double.isNaN(state)) {
+            putTypedInternalRouteState(route, stateId, (Double) state);
+            return;
+        }
+        double[] doubleStates = routeDoubleStateMap.get(route);
+        if (doubleStates == null) {
+            doubleStates = new double[stateIndexCounter];
+            Arrays.fill(doubleStates, Double.NaN);
+            routeDoubleStateMap.put(route, doubleStates);
+        }
+        doubleStates[stateId.getIndex()] = state;
+        clearRouteCapacityState(route, stateId);
+        clearRouteObjectState(route, stateId);
+    }
+
+    void putInternalRouteStateDouble(VehicleRoute route, Vehicle vehicle, StateId stateId, double state) {
+        if (route.isEmpty()) return;
+        if (!primitiveStates || Double.isNaN(state)) {
+            putTypedInternalRouteState(route, vehicle, stateId, (Double) state);
+            return;
+        }
+        int vehicleTypeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        double[][] doubleStates = vehicleDependentRouteDoubleStateMap.get(route);
+        if (doubleStates == null) {
+            doubleStates = new double[nuVehicleTypeKeys][stateIndexCounter];
+            fill_twoDimArr(doubleStates, Double.NaN);
+            vehicleDependentRouteDoubleStateMap.put(route, doubleStates);
+        }
+        doubleStates[vehicleTypeIndex][stateId.getIndex()] = state;
+        if (isIndexedBased) {
+            vehicleDependentRouteStatesArr[route.getVehicle().getIndex()][vehicleTypeIndex][stateId.getIndex()] = null;
+        } else {
+            Object[][] states = vehicleDependentRouteStateMap.get(route);
+            if (states != null) states[vehicleTypeIndex][stateId.getIndex()] = null;
+        }
+    }
+
+    void putInternalRouteStateCapacity(VehicleRoute route, StateId stateId, MutableCapacity state) {
+        if (route.isEmpty()) return;
+        updateNuCapacityDimensions(state.getNuDimensions());
+        if (!primitiveStates || state.getNuDimensions() >= capacityStride) {
+            putTypedInternalRouteState(route, stateId, state.toCapacity());
+            return;
+        }
+        writeCapacity(getRouteCapacityStates(route), stateId.getIndex() * capacityStride, state);
+        clearRouteDoubleState(route, stateId);
+        clearRouteObjectState(route, stateId);
+    }
+
+    private int[] getRouteCapacityStates(VehicleRoute route) {
+        int[] capacityStates = routeCapacityStateMap.get(route);
+        if (capacityStates == null) {
+            capacityStates = new int[stateIndexCounter * capacityStride];
+            routeCapacityStateMap.put(route, capacityStates);
+        }
+        return capacityStates;
+    }
+
+    private void clearRouteDoubleState(VehicleRoute route, StateId stateId) {
+        double[] doubleStates = routeDoubleStateMap.get(route);
+        if (doubleStates != null) doubleStates[stateId.getIndex()] = Double.NaN;
+    }
+
+    private void clearRouteCapacityState(VehicleRoute route, StateId stateId) {
+        int[] capacityStates = routeCapacityStateMap.get(route);
+        if (capacityStates != null) capacityStates[stateId.getIndex() * capacityStride] = 0;
+    }
+
+    private void clearRouteObjectState(VehicleRoute route, StateId stateId) {
+        if (isIndexedBased) {
+            routeStatesArr[route.getVehicle().getIndex()][stateId.getIndex()] = null;
+        } else {
+            Object[] states = routeStateMap.get(route);
+            if (states != null) states[stateId.getIndex()] = null;
+        }
+    }
+
     /**
      * Adds state updater.
      * <p>
@@ -528,6 +1164,10 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     void addActivityVisitor(ActivityVisitor activityVistor) {
         routeActivityVisitor.addActivityVisitor(activityVistor);
+        if (!activityVisitors.contains(activityVistor)) {
+            activityVisitors.add(activityVistor);
+            activityVisitorsIncremental = activityVisitorsIncremental && isIncremental(activityVistor, IncrementalStateUpdater.Direction.FORWARD);
+        }
     }
 
     /**
@@ -539,6 +1179,14 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
      */
     void addActivityVisitor(ReverseActivityVisitor activityVistor) {
         revRouteActivityVisitor.addActivityVisitor(activityVistor);
+        if (!reverseActivityVisitors.contains(activityVistor)) {
+            reverseActivityVisitors.add(activityVistor);
+            reverseActivityVisitorsIncremental = reverseActivityVisitorsIncremental && isIncremental(activityVistor, IncrementalStateUpdater.Direction.BACKWARD);
+        }
+    }
+
+    private static boolean isIncremental(Object visitor, IncrementalStateUpdater.Direction direction) {
+        return visitor instanceof IncrementalStateUpdater && ((IncrementalStateUpdater) visitor).getDirection() == direction;
     }
 
     void addRouteVisitor(RouteVisitor routeVisitor) {
@@ -557,22 +1205,221 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
     public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
 //		log.debug("insert " + job2insert + " in " + inRoute);
         insertionListeners.informJobInserted(job2insert, inRoute, additionalCosts, additionalTime);
+        visitRoute(inRoute);
+        if (incrementalUpdates) {
+            visitIncrementally(job2insert, inRoute);
+        } else {
+            visitActivities(inRoute);
+        }
+    }
+
+    private void visitRoute(VehicleRoute route) {
         for (RouteVisitor v : routeVisitors) {
-            v.visit(inRoute);
+            if (metricsListener == null) {
+                v.visit(route);
+            } else {
+                long startTime = System.nanoTime();
+                v.visit(route);
+                metricsListener.informStateUpdated(v, System.nanoTime() - startTime);
+            }
+        }
+    }
+
+    private void visitActivities(VehicleRoute route) {
+        if (!measureActivityPass()) {
+            routeActivityVisitor.visit(route);
+            revRouteActivityVisitor.visit(route);
+        } else {
+            visitActivitiesAndMeasure(route);
+        }
+    }
+
+    private void visitActivitiesAndMeasure(VehicleRoute route) {
+        List<TourActivity> activities = route.getActivities();
+        if (!activityVisitors.isEmpty()) {
+            long[] nanos = new long[activityVisitors.size()];
+            for (int j = 0; j < activityVisitors.size(); j++) {
+                long startTime = System.nanoTime();
+                activityVisitors.get(j).begin(route);
+                nanos[j] += System.nanoTime() - startTime;
+            }
+            for (TourActivity act : activities) {
+                for (int j = 0; j < activityVisitors.size(); j++) {
+                    long startTime = System.nanoTime();
+                    activityVisitors.get(j).visit(act);
+                    nanos[j] += System.nanoTime() - startTime;
+                }
+            }
+            finishAndReport(activityVisitors, nanos);
+        }
+        if (!reverseActivityVisitors.isEmpty() && !route.isEmpty()) {
+            long[] nanos = new long[reverseActivityVisitors.size()];
+            for (int j = 0; j < reverseActivityVisitors.size(); j++) {
+                long startTime = System.nanoTime();
+                reverseActivityVisitors.get(j).begin(route);
+                nanos[j] += System.nanoTime() - startTime;
+            }
+            for (int i = activities.size() - 1; i >= 0; i--) {
+                TourActivity act = activities.get(i);
+                for (int j = 0; j < reverseActivityVisitors.size(); j++) {
+                    long startTime = System.nanoTime();
+                    reverseActivityVisitors.get(j).visit(act);
+                    nanos[j] += System.nanoTime() - startTime;
+                }
+            }
+            finishAndReport(reverseActivityVisitors, nanos);
+        }
+    }
+
+    private void finishAndReport(List<?> visitors, long[] nanos) {
+        for (int j = 0; j < visitors.size(); j++) {
+            Object visitor = visitors.get(j);
+            long startTime = System.nanoTime();
+            if (visitor instanceof ActivityVisitor) ((ActivityVisitor) visitor).finish();
+            else ((ReverseActivityVisitor) visitor).finish();
+            metricsListener.informStateUpdated(visitor, nanos[j] + System.nanoTime() - startTime);
+        }
+    }
+
+    private void visitIncrementally(Job insertedJob, VehicleRoute route) {
+        List<TourActivity> activities = route.getActivities();
+        int insertionIndex = -1;
+        int nuInsertedActivities = 0;
+        for (int i = 0; i < activities.size(); i++) {
+            TourActivity act = activities.get(i);
+            if (act instanceof TourActivity.JobActivity && ((TourActivity.JobActivity) act).getJob() == insertedJob) {
+                if (insertionIndex < 0) insertionIndex = i;
+                nuInsertedActivities++;
+            }
+        }
+        Integer nuActivitiesBefore = nuActivitiesAtLastUpdate.get(route);
+        boolean statesValid = nuActivitiesBefore != null && nuActivitiesBefore + nuInsertedActivities == activities.size()
+            && vehicleAtLastUpdate.get(route) == route.getVehicle();
+        if (insertionIndex < 0 || !statesValid || !activityVisitorsIncremental || !reverseActivityVisitorsIncremental) {
+            visitActivities(route);
+        } else {
+            resumeActivityVisitors(route, activities, insertedJob, insertionIndex);
+            visitReverselyUntilConverged(route, activities, insertedJob, insertionIndex);
+        }
+        memorizeUpdate(route);
+    }
+
+    private void resumeActivityVisitors(VehicleRoute route, List<TourActivity> activities, Job insertedJob, int insertionIndex) {
+        if (activityVisitors.isEmpty()) return;
+        int fromIndex = insertionIndex;
+        for (ActivityVisitor visitor : activityVisitors) {
+            fromIndex = Math.min(fromIndex, ((IncrementalStateUpdater) visitor).getFirstAffectedIndex(route, insertedJob, insertionIndex));
+        }
+        long[] nanos = measureActivityPass() ? new long[activityVisitors.size()] : null;
+        for (int j = 0; j < activityVisitors.size(); j++) {
+            long startTime = nanos == null ? 0 : System.nanoTime();
+            ((IncrementalStateUpdater) activityVisitors.get(j)).resume(route, fromIndex);
+            if (nanos != null) nanos[j] += System.nanoTime() - startTime;
+        }
+        for (int i = fromIndex; i < activities.size(); i++) {
+            TourActivity act = activities.get(i);
+            for (int j = 0; j < activityVisitors.size(); j++) {
+                long startTime = nanos == null ? 0 : System.nanoTime();
+                activityVisitors.get(j).visit(act);
+                if (nanos != null) nanos[j] += System.nanoTime() - startTime;
+            }
+        }
+        if (nanos != null) {
+            finishAndReport(activityVisitors, nanos);
+        } else {
+            for (ActivityVisitor visitor : activityVisitors) {
+                visitor.finish();
+            }
+        }
+    }
+
+    private void visitReverselyUntilConverged(VehicleRoute route, List<TourActivity> activities, Job insertedJob, int insertionIndex) {
+        if (reverseActivityVisitors.isEmpty()) return;
+        int nuVisitors = reverseActivityVisitors.size();
+        int[] firstAffectedIndices = new int[nuVisitors];
+        boolean[] converged = new boolean[nuVisitors];
+        long[] nanos = measureActivityPass() ? new long[nuVisitors] : null;
+        for (int j = 0; j < nuVisitors; j++) {
+            long startTime = nanos == null ? 0 : System.nanoTime();
+            ReverseActivityVisitor visitor = reverseActivityVisitors.get(j);
+            IncrementalStateUpdater updater = (IncrementalStateUpdater) visitor;
+            firstAffectedIndices[j] = updater.supportsEarlyExit() ? updater.getFirstAffectedIndex(route, insertedJob, insertionIndex) : 0;
+            visitor.begin(route);
+            if (nanos != null) nanos[j] += System.nanoTime() - startTime;
+        }
+        int nuActiveVisitors = nuVisitors;
+        for (int i = activities.size() - 1; i >= 0 && nuActiveVisitors > 0; i--) {
+            TourActivity act = activities.get(i);
+            for (int j = 0; j < nuVisitors; j++) {
+                if (converged[j]) continue;
+                long startTime = nanos == null ? 0 : System.nanoTime();
+                ReverseActivityVisitor visitor = reverseActivityVisitors.get(j);
+                visitor.visit(act);
+                if (i < firstAffectedIndices[j] && ((IncrementalStateUpdater) visitor).hasConverged()) {
+                    converged[j] = true;
+                    nuActiveVisitors--;
+                }
+                if (nanos != null) nanos[j] += System.nanoTime() - startTime;
+            }
+        }
+        if (nanos != null) {
+            finishAndReport(reverseActivityVisitors, nanos);
+        } else {
+            for (ReverseActivityVisitor visitor : reverseActivityVisitors) {
+                visitor.finish();
+            }
+        }
+    }
+
+    private boolean measureActivityPass() {
+        return metricsListener != null && (nuActivityPasses++ & ACTIVITY_PASS_SAMPLING_MASK) == 0;
+    }
+
+    private void memorizeUpdate(VehicleRoute route) {
+        if (!incrementalUpdates) return;
+        nuActivitiesAtLastUpdate.put(route, route.getActivities().size());
+        vehicleAtLastUpdate.put(route, route.getVehicle());
+    }
+
+    /**
+     * Activates or deactivates incremental state updates.
+     * <p>
+     * <p>If activated, a job insertion only triggers {@link IncrementalStateUpdater}s to resume at the inserted job
+     * (forward) or to visit the route until their states converge (backward). The whole route is still visited if
+     * any registered activity visitor is not an IncrementalStateUpdater or if the route has been changed otherwise
+     * since its last update. Default is false.
+     *
+     * @param incrementalUpdates true if states should be updated incrementally
+     */
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+        if (!incrementalUpdates) {
+            nuActivitiesAtLastUpdate.clear();
+            vehicleAtLastUpdate.clear();
         }
-        routeActivityVisitor.visit(inRoute);
-        revRouteActivityVisitor.visit(inRoute);
+    }
+
+    public boolean incrementalUpdatesActivated() {
+        return incrementalUpdates;
+    }
+
+    /**
+     * Sets a listener that is informed about the time each route and activity visitor takes to update the states
+     * of a route. Activity visitors are only measured in every 64th pass. Default is null, i.e. nothing is measured.
+     *
+     * @param metricsListener the listener
+     */
+    public void setMetricsListener(SearchMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
     }
 
     @Override
     public void informInsertionStarts(Collection<VehicleRoute> vehicleRoutes, Collection<Job> unassignedJobs) {
         insertionListeners.informInsertionStarts(vehicleRoutes, unassignedJobs);
         for (VehicleRoute route : vehicleRoutes) {
-            for (RouteVisitor v : routeVisitors) {
-                v.visit(route);
-            }
-            routeActivityVisitor.visit(route);
-            revRouteActivityVisitor.visit(route);
+            visitRoute(route);
+            visitActivities(route);
+            memorizeUpdate(route);
         }
     }
 
@@ -598,6 +1445,7 @@ public class StateManager implements RouteAndActivityStateGetter, IterationStart
 
     @Override
     public void removed(Job job, VehicleRoute fromRoute) {
+        nuActivitiesAtLastUpdate.remove(fromRoute);
         ruinListeners.removed(job, fromRoute);
     }
 
@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.cost.ForwardTransportTime;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -32,7 +33,7 @@ import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
  *
  * @author stefan
  */
-public class UpdateActivityTimes implements ActivityVisitor, StateUpdater {
+public class UpdateActivityTimes implements ActivityVisitor, IncrementalStateUpdater {
 
     private ActivityTimeTracker timeTracker;
 
@@ -63,6 +64,16 @@ public class UpdateActivityTimes implements ActivityVisitor, StateUpdater {
         route.getStart().setEndTime(timeTracker.getActEndTime());
     }
 
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        if (index == 0) {
+            begin(route);
+            return;
+        }
+        timeTracker.resume(route, route.getActivities().get(index - 1));
+        this.route = route;
+    }
+
     @Override
     public void visit(TourActivity activity) {
         timeTracker.visit(activity);
@@ -76,4 +87,24 @@ public class UpdateActivityTimes implements ActivityVisitor, StateUpdater {
         route.getEnd().setArrTime(timeTracker.getActArrTime());
     }
 
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
+    }
+
 }
@@ -18,6 +18,7 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.BreakActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
@@ -28,7 +29,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author schroeder
  */
-public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, StateUpdater {
+public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, IncrementalStateUpdater {
 
     private StateManager states;
 
@@ -38,6 +39,8 @@ public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, StateUp
 
     private double futureWaiting;
 
+    private boolean converged = false;
+
     public UpdateFutureWaitingTimes(StateManager states, VehicleRoutingTransportCosts tpCosts) {
         super();
         this.states = states;
@@ -52,7 +55,8 @@ public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, StateUp
 
     @Override
     public void visit(TourActivity activity) {
-        states.putInternalTypedActivityState(activity, route.getVehicle(), InternalStates.FUTURE_WAITING, futureWaiting);
+        converged = states.getActivityStateDouble(activity, route.getVehicle(), InternalStates.FUTURE_WAITING, Double.NaN) == futureWaiting;
+        states.putInternalActivityStateDouble(activity, route.getVehicle(), InternalStates.FUTURE_WAITING, futureWaiting);
 		if(!(activity instanceof BreakActivity)) {
             futureWaiting += Math.max(activity.getTheoreticalEarliestOperationStartTime() - activity.getArrTime(), 0);
 		}
@@ -61,4 +65,29 @@ public class UpdateFutureWaitingTimes implements ReverseActivityVisitor, StateUp
     @Override
     public void finish() {
     }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.BACKWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return true;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        return insertionIndex;
+    }
+
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        begin(route);
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
 }
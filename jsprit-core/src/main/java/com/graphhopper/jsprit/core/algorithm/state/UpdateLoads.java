@@ -19,7 +19,6 @@ package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionStartsListener;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListener;
-import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.job.Delivery;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Pickup;
@@ -41,57 +40,91 @@ import java.util.Collection;
  *
  * @author stefan
  */
-class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListener, JobInsertedListener {
+class UpdateLoads implements ActivityVisitor, IncrementalStateUpdater, InsertionStartsListener, JobInsertedListener {
 
     private StateManager stateManager;
 
     /*
      * default has one dimension with a value of zero
      */
-    private Capacity currentLoad;
+    private MutableCapacity currentLoad = new MutableCapacity();
 
-    private Capacity defaultValue;
+    private MutableCapacity loadAtBeginning = new MutableCapacity();
+
+    private MutableCapacity loadAtEnd = new MutableCapacity();
 
     private VehicleRoute route;
 
     public UpdateLoads(StateManager stateManager) {
         super();
         this.stateManager = stateManager;
-        defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public void begin(VehicleRoute route) {
-        currentLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
-        if (currentLoad == null) currentLoad = defaultValue;
+        stateManager.getRouteStateCapacity(route, InternalStates.LOAD_AT_BEGINNING, currentLoad);
+        this.route = route;
+    }
+
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        if (index == 0) {
+            begin(route);
+            return;
+        }
+        stateManager.getActivityStateCapacity(route.getActivities().get(index - 1), InternalStates.LOAD, currentLoad);
         this.route = route;
     }
 
     @Override
     public void visit(TourActivity act) {
-        currentLoad = Capacity.addup(currentLoad, act.getSize());
-        stateManager.putInternalTypedActivityState(act, InternalStates.LOAD, currentLoad);
+        currentLoad.add(act.getSize());
+        stateManager.putInternalActivityStateCapacity(act, InternalStates.LOAD, currentLoad);
 //		assert currentLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "currentLoad at activity must not be > vehicleCapacity";
 //		assert currentLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "currentLoad at act must not be < 0 in one of the applied dimensions";
     }
 
     @Override
     public void finish() {
-        currentLoad = Capacity.Builder.newInstance().build();
+        currentLoad.reset();
+    }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    /**
+     * A delivery changes the load at beginning and thus the loads at all activities.
+     */
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        if (insertedJob instanceof Delivery) return 0;
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
     }
 
     void insertionStarts(VehicleRoute route) {
-        Capacity loadAtDepot = Capacity.Builder.newInstance().build();
-        Capacity loadAtEnd = Capacity.Builder.newInstance().build();
+        loadAtBeginning.reset();
+        loadAtEnd.reset();
         for (Job j : route.getTourActivities().getJobs()) {
             if (j instanceof Delivery) {
-                loadAtDepot = Capacity.addup(loadAtDepot, j.getSize());
+                loadAtBeginning.add(j.getSize());
             } else if (j instanceof Pickup || j instanceof Service) {
-                loadAtEnd = Capacity.addup(loadAtEnd, j.getSize());
+                loadAtEnd.add(j.getSize());
             }
         }
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_BEGINNING, loadAtDepot);
-        stateManager.putTypedInternalRouteState(route, InternalStates.LOAD_AT_END, loadAtEnd);
+        stateManager.putInternalRouteStateCapacity(route, InternalStates.LOAD_AT_BEGINNING, loadAtBeginning);
+        stateManager.putInternalRouteStateCapacity(route, InternalStates.LOAD_AT_END, loadAtEnd);
     }
 
     @Override
@@ -104,13 +137,13 @@ class UpdateLoads implements ActivityVisitor, StateUpdater, InsertionStartsListe
     @Override
     public void informJobInserted(Job job2insert, VehicleRoute inRoute, double additionalCosts, double additionalTime) {
         if (job2insert instanceof Delivery) {
-            Capacity loadAtDepot = stateManager.getRouteState(inRoute, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
-            if (loadAtDepot == null) loadAtDepot = defaultValue;
-            stateManager.putTypedInternalRouteState(inRoute, InternalStates.LOAD_AT_BEGINNING, Capacity.addup(loadAtDepot, job2insert.getSize()));
+            stateManager.getRouteStateCapacity(inRoute, InternalStates.LOAD_AT_BEGINNING, loadAtBeginning);
+            loadAtBeginning.add(job2insert.getSize());
+            stateManager.putInternalRouteStateCapacity(inRoute, InternalStates.LOAD_AT_BEGINNING, loadAtBeginning);
         } else if (job2insert instanceof Pickup || job2insert instanceof Service) {
-            Capacity loadAtEnd = stateManager.getRouteState(inRoute, InternalStates.LOAD_AT_END, Capacity.class);
-            if (loadAtEnd == null) loadAtEnd = defaultValue;
-            stateManager.putTypedInternalRouteState(inRoute, InternalStates.LOAD_AT_END, Capacity.addup(loadAtEnd, job2insert.getSize()));
+            stateManager.getRouteStateCapacity(inRoute, InternalStates.LOAD_AT_END, loadAtEnd);
+            loadAtEnd.add(job2insert.getSize());
+            stateManager.putInternalRouteStateCapacity(inRoute, InternalStates.LOAD_AT_END, loadAtEnd);
         }
     }
 
@@ -17,7 +17,8 @@
  */
 package com.graphhopper.jsprit.core.algorithm.state;
 
-import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -28,32 +29,41 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author schroeder
  */
-class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implements ActivityVisitor, StateUpdater {
+class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implements ActivityVisitor, IncrementalStateUpdater {
 
     private StateManager stateManager;
 
     private VehicleRoute route;
 
-    private Capacity maxLoad;
+    private MutableCapacity maxLoad = new MutableCapacity();
 
-    private Capacity defaultValue;
+    private MutableCapacity load = new MutableCapacity();
 
     public UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute(StateManager stateManager) {
         this.stateManager = stateManager;
-        defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public void begin(VehicleRoute route) {
         this.route = route;
-        maxLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
-        if (maxLoad == null) maxLoad = defaultValue;
+        stateManager.getRouteStateCapacity(route, InternalStates.LOAD_AT_BEGINNING, maxLoad);
+    }
+
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        if (index == 0) {
+            begin(route);
+            return;
+        }
+        this.route = route;
+        stateManager.getActivityStateCapacity(route.getActivities().get(index - 1), InternalStates.PAST_MAXLOAD, maxLoad);
     }
 
     @Override
     public void visit(TourActivity act) {
-        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class));
-        stateManager.putInternalTypedActivityState(act, InternalStates.PAST_MAXLOAD, maxLoad);
+        stateManager.getActivityStateCapacity(act, InternalStates.LOAD, load);
+        maxLoad.max(load);
+        stateManager.putInternalActivityStateCapacity(act, InternalStates.PAST_MAXLOAD, maxLoad);
 //		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
 //		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can never be bigger than vehicleCap";
     }
@@ -61,4 +71,25 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute implement
     @Override
     public void finish() {
     }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        if (insertedJob instanceof Delivery) return 0;
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
+    }
 }
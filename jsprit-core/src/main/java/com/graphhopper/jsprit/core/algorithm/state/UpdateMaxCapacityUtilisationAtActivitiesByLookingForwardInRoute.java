@@ -17,7 +17,8 @@
  */
 package com.graphhopper.jsprit.core.algorithm.state;
 
-import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -39,33 +40,38 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author schroeder
  */
-class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements ReverseActivityVisitor, StateUpdater {
+class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements ReverseActivityVisitor, IncrementalStateUpdater {
 
     private StateManager stateManager;
 
     private VehicleRoute route;
 
-    private Capacity maxLoad;
+    private MutableCapacity maxLoad = new MutableCapacity();
 
-    private Capacity defaultValue;
+    private MutableCapacity load = new MutableCapacity();
+
+    private MutableCapacity previousMaxLoad = new MutableCapacity();
+
+    private boolean converged = false;
 
     public UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute(StateManager stateManager) {
         super();
         this.stateManager = stateManager;
-        defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public void begin(VehicleRoute route) {
         this.route = route;
-        maxLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_END, Capacity.class);
-        if (maxLoad == null) maxLoad = defaultValue;
+        stateManager.getRouteStateCapacity(route, InternalStates.LOAD_AT_END, maxLoad);
     }
 
     @Override
     public void visit(TourActivity act) {
-        maxLoad = Capacity.max(maxLoad, stateManager.getActivityState(act, InternalStates.LOAD, Capacity.class));
-        stateManager.putInternalTypedActivityState(act, InternalStates.FUTURE_MAXLOAD, maxLoad);
+        stateManager.getActivityStateCapacity(act, InternalStates.LOAD, load);
+        maxLoad.max(load);
+        stateManager.getActivityStateCapacity(act, InternalStates.FUTURE_MAXLOAD, previousMaxLoad);
+        converged = previousMaxLoad.isEqual(maxLoad);
+        stateManager.putInternalActivityStateCapacity(act, InternalStates.FUTURE_MAXLOAD, maxLoad);
 //		assert maxLoad.isLessOrEqual(route.getVehicle().getType().getCapacityDimensions()) : "maxLoad can in every capacity dimension never be bigger than vehicleCap";
 //		assert maxLoad.isGreaterOrEqual(Capacity.Builder.newInstance().build()) : "maxLoad can never be smaller than 0";
     }
@@ -73,4 +79,33 @@ class UpdateMaxCapacityUtilisationAtActivitiesByLookingForwardInRoute implements
     @Override
     public void finish() {
     }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.BACKWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return true;
+    }
+
+    /**
+     * A delivery changes the load at beginning and thus the loads at all activities.
+     */
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        if (insertedJob instanceof Delivery) return 0;
+        return insertionIndex;
+    }
+
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        begin(route);
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
 }
@@ -17,7 +17,8 @@
  */
 package com.graphhopper.jsprit.core.algorithm.state;
 
-import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -32,40 +33,73 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author stefan
  */
-class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, StateUpdater {
+class UpdateMaxCapacityUtilisationAtRoute implements ActivityVisitor, IncrementalStateUpdater {
 
     private StateManager stateManager;
 
-    private Capacity currentLoad = Capacity.Builder.newInstance().build();
+    private MutableCapacity currentLoad = new MutableCapacity();
 
     private VehicleRoute route;
 
-    private Capacity maxLoad;
-
-    private Capacity defaultValue;
+    private MutableCapacity maxLoad = new MutableCapacity();
 
     public UpdateMaxCapacityUtilisationAtRoute(StateManager stateManager) {
         super();
         this.stateManager = stateManager;
-        defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public void begin(VehicleRoute route) {
-        currentLoad = stateManager.getRouteState(route, InternalStates.LOAD_AT_BEGINNING, Capacity.class);
-        if (currentLoad == null) currentLoad = defaultValue;
-        maxLoad = currentLoad;
+        stateManager.getRouteStateCapacity(route, InternalStates.LOAD_AT_BEGINNING, currentLoad);
+        maxLoad.set(currentLoad);
+        this.route = route;
+    }
+
+    /**
+     * Resumes with the load and the past maximum load at activity index-1, i.e. it depends on the states memorized by
+     * {@link UpdateLoads} and {@link UpdateMaxCapacityUtilisationAtActivitiesByLookingBackwardInRoute}.
+     */
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        if (index == 0) {
+            begin(route);
+            return;
+        }
+        TourActivity prevAct = route.getActivities().get(index - 1);
+        stateManager.getActivityStateCapacity(prevAct, InternalStates.LOAD, currentLoad);
+        stateManager.getActivityStateCapacity(prevAct, InternalStates.PAST_MAXLOAD, maxLoad);
         this.route = route;
     }
 
     @Override
     public void visit(TourActivity act) {
-        currentLoad = Capacity.addup(currentLoad, act.getSize());
-        maxLoad = Capacity.max(maxLoad, currentLoad);
+        currentLoad.add(act.getSize());
+        maxLoad.max(currentLoad);
     }
 
     @Override
     public void finish() {
-        stateManager.putTypedInternalRouteState(route, InternalStates.MAXLOAD, maxLoad);
+        stateManager.putInternalRouteStateCapacity(route, InternalStates.MAXLOAD, maxLoad);
+    }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        if (insertedJob instanceof Delivery) return 0;
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
     }
 }
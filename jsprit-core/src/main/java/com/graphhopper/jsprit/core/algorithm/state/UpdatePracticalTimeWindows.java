@@ -19,6 +19,7 @@ package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ReverseActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -28,7 +29,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
  *
  * @author schroeder
  */
-class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater {
+class UpdatePracticalTimeWindows implements ReverseActivityVisitor, IncrementalStateUpdater {
 
     private StateManager states;
 
@@ -42,6 +43,8 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
 
     private TourActivity prevAct;
 
+    private boolean converged = false;
+
     public UpdatePracticalTimeWindows(StateManager states, VehicleRoutingTransportCosts tpCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
         this.states = states;
@@ -61,7 +64,8 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
         double potentialLatestArrivalTimeAtCurrAct = latestArrTimeAtPrevAct - transportCosts.getBackwardTransportTime(activity.getLocation(), prevAct.getLocation(), latestArrTimeAtPrevAct, route.getDriver(), route.getVehicle()) - activityCosts.getActivityDuration(activity,latestArrTimeAtPrevAct,route.getDriver(),route.getVehicle());
         double latestArrivalTime = Math.min(activity.getTheoreticalLatestOperationStartTime(), potentialLatestArrivalTimeAtCurrAct);
 
-        states.putInternalTypedActivityState(activity, InternalStates.LATEST_OPERATION_START_TIME, latestArrivalTime);
+        converged = states.getActivityStateDouble(activity, InternalStates.LATEST_OPERATION_START_TIME, Double.NaN) == latestArrivalTime;
+        states.putInternalActivityStateDouble(activity, InternalStates.LATEST_OPERATION_START_TIME, latestArrivalTime);
 
         latestArrTimeAtPrevAct = latestArrivalTime;
         prevAct = activity;
@@ -70,4 +74,29 @@ class UpdatePracticalTimeWindows implements ReverseActivityVisitor, StateUpdater
     @Override
     public void finish() {
     }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.BACKWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return true;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        return insertionIndex;
+    }
+
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        begin(route);
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
 }
@@ -19,6 +19,7 @@
 package com.graphhopper.jsprit.core.algorithm.state;
 
 import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -26,7 +27,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 /**
  * Update to update required skills on route
  */
-public class UpdateSkills implements StateUpdater, ActivityVisitor {
+public class UpdateSkills implements IncrementalStateUpdater, ActivityVisitor {
 
     private Skills.Builder skillBuilder;
 
@@ -44,6 +45,17 @@ public class UpdateSkills implements StateUpdater, ActivityVisitor {
         skillBuilder = Skills.Builder.newInstance();
     }
 
+    /**
+     * Since inserting a job can only add skills, it resumes with the skills memorized for the whole route.
+     */
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        begin(route);
+        if (index == 0) return;
+        Skills skills = statesManager.getRouteState(route, InternalStates.SKILLS, Skills.class);
+        if (skills != null) skillBuilder.addAllSkills(skills.values());
+    }
+
     @Override
     public void visit(TourActivity activity) {
         if (activity instanceof TourActivity.JobActivity) {
@@ -57,4 +69,24 @@ public class UpdateSkills implements StateUpdater, ActivityVisitor {
         Skills skills = skillBuilder.build();
         statesManager.putTypedInternalRouteState(route, InternalStates.SKILLS, skills);
     }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
+    }
 }
@@ -20,6 +20,7 @@ package com.graphhopper.jsprit.core.algorithm.state;
 import com.graphhopper.jsprit.core.problem.cost.ForwardTransportCost;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
@@ -32,7 +33,7 @@ import com.graphhopper.jsprit.core.util.ActivityTimeTracker;
  * <p>Thus it modifies <code>stateManager.getRouteState(route, StateTypes.COSTS)</code> and <br>
  * <code>stateManager.getActivityState(activity, StateTypes.COSTS)</code>
  */
-public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
+public class UpdateVariableCosts implements ActivityVisitor, IncrementalStateUpdater {
 
     private VehicleRoutingActivityCosts activityCost;
 
@@ -83,6 +84,25 @@ public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
         startTimeAtPrevAct = timeTracker.getActEndTime();
     }
 
+    /**
+     * Resumes at activity index, i.e. it continues with the costs memorized at activity index-1 and its end time.
+     * <p>
+     * <p>Note that this assumes that activity times are updated with the same activity policy, i.e. that the end time
+     * of the activity at index-1 has been set by {@link UpdateActivityTimes}.
+     */
+    @Override
+    public void resume(VehicleRoute route, int index) {
+        if (index == 0) {
+            begin(route);
+            return;
+        }
+        vehicleRoute = route;
+        prevAct = route.getActivities().get(index - 1);
+        timeTracker.resume(route, prevAct);
+        startTimeAtPrevAct = timeTracker.getActEndTime();
+        totalOperationCost = states.getActivityStateDouble(prevAct, InternalStates.COSTS, 0.);
+    }
+
     @Override
     public void visit(TourActivity act) {
         timeTracker.visit(act);
@@ -93,7 +113,7 @@ public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
         totalOperationCost += transportCost;
         totalOperationCost += actCost;
 
-        states.putInternalTypedActivityState(act, InternalStates.COSTS, totalOperationCost);
+        states.putInternalActivityStateDouble(act, InternalStates.COSTS, totalOperationCost);
 
         prevAct = act;
         startTimeAtPrevAct = timeTracker.getActEndTime();
@@ -108,7 +128,7 @@ public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
         totalOperationCost += transportCost;
         totalOperationCost += actCost;
 
-        states.putTypedInternalRouteState(vehicleRoute, InternalStates.COSTS, totalOperationCost);
+        states.putInternalRouteStateDouble(vehicleRoute, InternalStates.COSTS, totalOperationCost);
 
         startTimeAtPrevAct = 0.0;
         prevAct = null;
@@ -116,4 +136,24 @@ public class UpdateVariableCosts implements ActivityVisitor, StateUpdater {
         totalOperationCost = 0.0;
     }
 
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public boolean supportsEarlyExit() {
+        return false;
+    }
+
+    @Override
+    public int getFirstAffectedIndex(VehicleRoute route, Job insertedJob, int insertionIndex) {
+        return insertionIndex;
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return false;
+    }
+
 }
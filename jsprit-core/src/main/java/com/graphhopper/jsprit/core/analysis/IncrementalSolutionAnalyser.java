@@ -0,0 +1,623 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.analysis;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.cost.TransportDistance;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Pickup;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliveryActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.*;
+
+/**
+ * Calculates route and solution statistics like {@link SolutionAnalyser}, but only analyses routes whose content has
+ * changed since the last call of {@link #informSolutionChanged(VehicleRoutingProblemSolution)}. This makes it cheap
+ * to analyse the solutions of subsequent iterations, e.g. for live dashboards.
+ * <p>
+ * <p>A route is considered unchanged if it is operated by the same vehicle and driver, departs at the same time and
+ * has the same sequence of activities (identified by their index) with the same time windows. Note that this also
+ * holds for copies of a route. Statistics of changed routes are calculated from scratch, and solution totals are
+ * maintained as running sums, i.e. the statistics of new routes are added and those of routes that disappeared are
+ * subtracted. To avoid accumulating rounding errors, totals are summed up again from the route statistics every
+ * {@link #RESUM_INTERVAL} calls.
+ * <p>
+ * <p>In contrast to {@link SolutionAnalyser}, statistics are only provided at route and solution level, and arrival
+ * and end times of the analysed activities are not changed. Activities start as soon as their time windows open.
+ */
+public class IncrementalSolutionAnalyser {
+
+    static final int RESUM_INTERVAL = 1000;
+
+    private static class RouteKey {
+
+        private final Vehicle vehicle;
+
+        private final String driverId;
+
+        private final double departureTime;
+
+        private final int[] activityIndices;
+
+        private final double[] timeWindows;
+
+        private final int hashCode;
+
+        private RouteKey(VehicleRoute route) {
+            vehicle = route.getVehicle();
+            driverId = route.getDriver() != null ? route.getDriver().getId() : null;
+            departureTime = route.getDepartureTime();
+            List<TourActivity> activities = route.getActivities();
+            activityIndices = new int[activities.size()];
+            timeWindows = new double[activities.size() * 2];
+            int i = 0;
+            for (TourActivity act : activities) {
+                activityIndices[i] = act.getIndex();
+                timeWindows[i * 2] = act.getTheoreticalEarliestOperationStartTime();
+                timeWindows[i * 2 + 1] = act.getTheoreticalLatestOperationStartTime();
+                i++;
+            }
+            int result = vehicle != null ? vehicle.hashCode() : 0;
+            result = 31 * result + Arrays.hashCode(activityIndices);
+            long temp = Double.doubleToLongBits(departureTime);
+            hashCode = 31 * result + (int) (temp ^ (temp >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RouteKey)) return false;
+            RouteKey routeKey = (RouteKey) o;
+            if (hashCode != routeKey.hashCode) return false;
+            if (Double.compare(routeKey.departureTime, departureTime) != 0) return false;
+            if (vehicle != null ? !vehicle.equals(routeKey.vehicle) : routeKey.vehicle != null) return false;
+            if (driverId != null ? !driverId.equals(routeKey.driverId) : routeKey.driverId != null) return false;
+            return Arrays.equals(activityIndices, routeKey.activityIndices) && Arrays.equals(timeWindows, routeKey.timeWindows);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class RouteStatistics {
+
+        double distance;
+
+        double transportTime;
+
+        double waitingTime;
+
+        double serviceTime;
+
+        double operationTime;
+
+        double timeWindowViolation;
+
+        double variableTransportCosts;
+
+        double fixedCosts;
+
+        boolean skillConstraintViolated;
+
+        int noPickups;
+
+        int noDeliveries;
+
+        Capacity loadAtBeginning;
+
+        Capacity loadAtEnd;
+
+        Capacity maxLoad;
+
+        Capacity capacityViolation;
+
+        Capacity loadPickedUp;
+
+        Capacity loadDelivered;
+
+    }
+
+    private final VehicleRoutingTransportCosts transportCosts;
+
+    private final VehicleRoutingActivityCosts activityCosts;
+
+    private final TransportDistance distanceCalculator;
+
+    private Map<RouteKey, RouteStatistics> statisticsByKey = new HashMap<RouteKey, RouteStatistics>();
+
+    private List<RouteStatistics> duplicateStatistics = new ArrayList<RouteStatistics>();
+
+    private final Map<VehicleRoute, RouteStatistics> statisticsByRoute = new IdentityHashMap<VehicleRoute, RouteStatistics>();
+
+    private int noCalls;
+
+    private int noRecalculatedRoutes;
+
+    private double distance;
+    private double transportTime;
+    private double waitingTime;
+    private double serviceTime;
+    private double operationTime;
+    private double timeWindowViolation;
+    private double variableTransportCosts;
+    private double fixedCosts;
+    private int noRoutesWithSkillConstraintViolation;
+    private int noPickups;
+    private int noDeliveries;
+    private Capacity loadAtBeginning;
+    private Capacity loadAtEnd;
+    private Capacity capacityViolation;
+    private Capacity loadPickedUp;
+    private Capacity loadDelivered;
+
+    public IncrementalSolutionAnalyser(VehicleRoutingProblem vrp, TransportDistance distanceCalculator) {
+        this.transportCosts = vrp.getTransportCosts();
+        this.activityCosts = vrp.getActivityCosts();
+        this.distanceCalculator = distanceCalculator;
+        clearTotals();
+    }
+
+    /**
+     * Sets the solution to be analysed and calculates the statistics of all routes that have changed since the last
+     * call.
+     *
+     * @param solution to be analysed
+     */
+    public void informSolutionChanged(VehicleRoutingProblemSolution solution) {
+        noCalls++;
+        noRecalculatedRoutes = 0;
+        Map<RouteKey, RouteStatistics> oldStatistics = statisticsByKey;
+        List<RouteStatistics> oldDuplicates = duplicateStatistics;
+        statisticsByKey = new HashMap<RouteKey, RouteStatistics>();
+        duplicateStatistics = new ArrayList<RouteStatistics>();
+        statisticsByRoute.clear();
+        for (VehicleRoute route : solution.getRoutes()) {
+            RouteKey key = new RouteKey(route);
+            RouteStatistics statistics = oldStatistics.remove(key);
+            if (statistics == null) {
+                statistics = analyse(route);
+                add(statistics, 1);
+                noRecalculatedRoutes++;
+            }
+            if (statisticsByKey.containsKey(key)) {
+                //the very same route occurs twice, i.e. it cannot be identified by its key in the next call
+                duplicateStatistics.add(statistics);
+            } else statisticsByKey.put(key, statistics);
+            statisticsByRoute.put(route, statistics);
+        }
+        for (RouteStatistics removed : oldStatistics.values()) {
+            add(removed, -1);
+        }
+        for (RouteStatistics removed : oldDuplicates) {
+            add(removed, -1);
+        }
+        if (noCalls % RESUM_INTERVAL == 0) {
+            clearTotals();
+            for (RouteStatistics statistics : statisticsByRoute.values()) {
+                add(statistics, 1);
+            }
+        }
+    }
+
+    /**
+     * @return number of routes that have been analysed in the last call of
+     * {@link #informSolutionChanged(VehicleRoutingProblemSolution)}, i.e. the number of changed routes
+     */
+    public int getNumberOfRecalculatedRoutes() {
+        return noRecalculatedRoutes;
+    }
+
+    private void clearTotals() {
+        distance = 0.;
+        transportTime = 0.;
+        waitingTime = 0.;
+        serviceTime = 0.;
+        operationTime = 0.;
+        timeWindowViolation = 0.;
+        variableTransportCosts = 0.;
+        fixedCosts = 0.;
+        noRoutesWithSkillConstraintViolation = 0;
+        noPickups = 0;
+        noDeliveries = 0;
+        loadAtBeginning = Capacity.Builder.newInstance().build();
+        loadAtEnd = Capacity.Builder.newInstance().build();
+        capacityViolation = Capacity.Builder.newInstance().build();
+        loadPickedUp = Capacity.Builder.newInstance().build();
+        loadDelivered = Capacity.Builder.newInstance().build();
+    }
+
+    private void add(RouteStatistics statistics, int sign) {
+        distance += sign * statistics.distance;
+        transportTime += sign * statistics.transportTime;
+        waitingTime += sign * statistics.waitingTime;
+        serviceTime += sign * statistics.serviceTime;
+        operationTime += sign * statistics.operationTime;
+        timeWindowViolation += sign * statistics.timeWindowViolation;
+        variableTransportCosts += sign * statistics.variableTransportCosts;
+        fixedCosts += sign * statistics.fixedCosts;
+        if (statistics.skillConstraintViolated) noRoutesWithSkillConstraintViolation += sign;
+        noPickups += sign * statistics.noPickups;
+        noDeliveries += sign * statistics.noDeliveries;
+        loadAtBeginning = addup(loadAtBeginning, statistics.loadAtBeginning, sign);
+        loadAtEnd = addup(loadAtEnd, statistics.loadAtEnd, sign);
+        capacityViolation = addup(capacityViolation, statistics.capacityViolation, sign);
+        loadPickedUp = addup(loadPickedUp, statistics.loadPickedUp, sign);
+        loadDelivered = addup(loadDelivered, statistics.loadDelivered, sign);
+    }
+
+    private static Capacity addup(Capacity total, Capacity capacity, int sign) {
+        if (sign > 0) return Capacity.addup(total, capacity);
+        return Capacity.subtract(total, capacity);
+    }
+
+    private RouteStatistics analyse(VehicleRoute route) {
+        RouteStatistics statistics = new RouteStatistics();
+        Vehicle vehicle = route.getVehicle();
+        Driver driver = route.getDriver();
+
+        Capacity loadAtBeginning = Capacity.Builder.newInstance().build();
+        Capacity loadAtEnd = Capacity.Builder.newInstance().build();
+        for (Job job : route.getTourActivities().getJobs()) {
+            if (job instanceof Delivery) {
+                loadAtBeginning = Capacity.addup(loadAtBeginning, job.getSize());
+            } else if (job instanceof Pickup || job instanceof Service) {
+                loadAtEnd = Capacity.addup(loadAtEnd, job.getSize());
+            }
+        }
+        Capacity load = loadAtBeginning;
+        Capacity maxLoad = loadAtBeginning;
+        Capacity pickedUp = Capacity.Builder.newInstance().build();
+        Capacity delivered = Capacity.Builder.newInstance().build();
+
+        TourActivity prevAct = route.getStart();
+        double prevActDeparture = route.getDepartureTime();
+        for (TourActivity act : route.getActivities()) {
+            double transportTime = transportCosts.getTransportTime(prevAct.getLocation(), act.getLocation(), prevActDeparture, driver, vehicle);
+            double arrTime = prevActDeparture + transportTime;
+            double operationStartTime = Math.max(act.getTheoreticalEarliestOperationStartTime(), arrTime);
+            double duration = activityCosts.getActivityDuration(act, arrTime, driver, vehicle);
+
+            statistics.distance += distanceCalculator.getDistance(prevAct.getLocation(), act.getLocation(), prevActDeparture, vehicle);
+            statistics.transportTime += transportTime;
+            statistics.waitingTime += operationStartTime - arrTime;
+            statistics.serviceTime += duration;
+            statistics.timeWindowViolation += Math.max(0, arrTime - act.getTheoreticalLatestOperationStartTime());
+            statistics.variableTransportCosts += transportCosts.getTransportCost(prevAct.getLocation(), act.getLocation(), prevActDeparture, driver, vehicle);
+            statistics.variableTransportCosts += activityCosts.getActivityCost(act, arrTime, driver, vehicle);
+
+            load = Capacity.addup(load, act.getSize());
+            maxLoad = Capacity.max(maxLoad, load);
+            if (act instanceof PickupActivity) {
+                statistics.noPickups++;
+                pickedUp = Capacity.addup(pickedUp, ((PickupActivity) act).getJob().getSize());
+            } else if (act instanceof DeliveryActivity) {
+                statistics.noDeliveries++;
+                delivered = Capacity.addup(delivered, ((DeliveryActivity) act).getJob().getSize());
+            }
+            if (act instanceof TourActivity.JobActivity && !statistics.skillConstraintViolated) {
+                for (String skill : ((TourActivity.JobActivity) act).getJob().getRequiredSkills().values()) {
+                    if (!vehicle.getSkills().containsSkill(skill)) {
+                        statistics.skillConstraintViolated = true;
+                        break;
+                    }
+                }
+            }
+            prevAct = act;
+            prevActDeparture = operationStartTime + duration;
+        }
+        TourActivity end = route.getEnd();
+        double transportTime = transportCosts.getTransportTime(prevAct.getLocation(), end.getLocation(), prevActDeparture, driver, vehicle);
+        double arrTimeAtEnd = prevActDeparture + transportTime;
+        statistics.distance += distanceCalculator.getDistance(prevAct.getLocation(), end.getLocation(), prevActDeparture, vehicle);
+        statistics.transportTime += transportTime;
+        statistics.timeWindowViolation += Math.max(0, arrTimeAtEnd - end.getTheoreticalLatestOperationStartTime());
+        statistics.variableTransportCosts += transportCosts.getTransportCost(prevAct.getLocation(), end.getLocation(), prevActDeparture, driver, vehicle);
+        statistics.variableTransportCosts += activityCosts.getActivityCost(end, arrTimeAtEnd, driver, vehicle);
+        statistics.operationTime = arrTimeAtEnd - route.getDepartureTime();
+        statistics.fixedCosts = vehicle.getType().getVehicleCostParams().fix;
+
+        statistics.loadAtBeginning = loadAtBeginning;
+        statistics.loadAtEnd = loadAtEnd;
+        statistics.maxLoad = maxLoad;
+        statistics.capacityViolation = Capacity.max(Capacity.Builder.newInstance().build(), Capacity.subtract(maxLoad, vehicle.getType().getCapacityDimensions()));
+        statistics.loadPickedUp = pickedUp;
+        statistics.loadDelivered = delivered;
+        return statistics;
+    }
+
+    private RouteStatistics getStatistics(VehicleRoute route) {
+        if (route == null) throw new IllegalArgumentException("route is missing.");
+        RouteStatistics statistics = statisticsByRoute.get(route);
+        if (statistics == null)
+            throw new IllegalArgumentException("route is not part of the analysed solution. call informSolutionChanged(...) first.");
+        return statistics;
+    }
+
+    /**
+     * @param route to get the distance from
+     * @return total distance of route
+     */
+    public Double getDistance(VehicleRoute route) {
+        return getStatistics(route).distance;
+    }
+
+    /**
+     * @param route to get the total transport time from
+     * @return total transport time of route
+     */
+    public Double getTransportTime(VehicleRoute route) {
+        return getStatistics(route).transportTime;
+    }
+
+    /**
+     * @param route to get the total waiting time from
+     * @return total waiting time of route, i.e. sum of waiting times at activities
+     */
+    public Double getWaitingTime(VehicleRoute route) {
+        return getStatistics(route).waitingTime;
+    }
+
+    /**
+     * @param route to get the total service time from
+     * @return total service time of route
+     */
+    public Double getServiceTime(VehicleRoute route) {
+        return getStatistics(route).serviceTime;
+    }
+
+    /**
+     * @param route to get the operation time from
+     * @return operation time of route, i.e. arrival time at end minus departure time
+     */
+    public Double getOperationTime(VehicleRoute route) {
+        return getStatistics(route).operationTime;
+    }
+
+    /**
+     * @param route to get the time window violation from
+     * @return time violation of route, i.e. sum of individual activity time window violations
+     */
+    public Double getTimeWindowViolation(VehicleRoute route) {
+        return getStatistics(route).timeWindowViolation;
+    }
+
+    /**
+     * @param route to get the variable costs from
+     * @return variable transport and activity costs of route
+     */
+    public Double getVariableTransportCosts(VehicleRoute route) {
+        return getStatistics(route).variableTransportCosts;
+    }
+
+    /**
+     * @param route to get the fixed costs from
+     * @return fixed costs of the vehicle operating the route
+     */
+    public Double getFixedCosts(VehicleRoute route) {
+        return getStatistics(route).fixedCosts;
+    }
+
+    /**
+     * @param route to check skill constraint
+     * @return true if vehicle does not have the required skills to conduct all activities of route
+     */
+    public Boolean hasSkillConstraintViolation(VehicleRoute route) {
+        return getStatistics(route).skillConstraintViolated;
+    }
+
+    /**
+     * @param route to get the number of pickups from
+     * @return number of pickups of route
+     */
+    public Integer getNumberOfPickups(VehicleRoute route) {
+        return getStatistics(route).noPickups;
+    }
+
+    /**
+     * @param route to get the number of deliveries from
+     * @return number of deliveries of route
+     */
+    public Integer getNumberOfDeliveries(VehicleRoute route) {
+        return getStatistics(route).noDeliveries;
+    }
+
+    /**
+     * @param route to get the load at beginning from
+     * @return load at start location of route
+     */
+    public Capacity getLoadAtBeginning(VehicleRoute route) {
+        return getStatistics(route).loadAtBeginning;
+    }
+
+    /**
+     * @param route to get the load at the end from
+     * @return load at end location of route
+     */
+    public Capacity getLoadAtEnd(VehicleRoute route) {
+        return getStatistics(route).loadAtEnd;
+    }
+
+    /**
+     * @param route to get max load from
+     * @return max load of route, i.e. for each capacity dimension the max value
+     */
+    public Capacity getMaxLoad(VehicleRoute route) {
+        return getStatistics(route).maxLoad;
+    }
+
+    /**
+     * @param route to get the capacity violation from
+     * @return capacity violation of route, i.e. maxLoad - vehicleCapacity
+     */
+    public Capacity getCapacityViolation(VehicleRoute route) {
+        return getStatistics(route).capacityViolation;
+    }
+
+    /**
+     * @param route to get the picked up load from
+     * @return load picked up on route
+     */
+    public Capacity getLoadPickedUp(VehicleRoute route) {
+        return getStatistics(route).loadPickedUp;
+    }
+
+    /**
+     * @param route to get the delivered load from
+     * @return load delivered on route
+     */
+    public Capacity getLoadDelivered(VehicleRoute route) {
+        return getStatistics(route).loadDelivered;
+    }
+
+    /**
+     * @return total distance of solution
+     */
+    public Double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return total transport time of solution
+     */
+    public Double getTransportTime() {
+        return transportTime;
+    }
+
+    /**
+     * @return total waiting time of solution
+     */
+    public Double getWaitingTime() {
+        return waitingTime;
+    }
+
+    /**
+     * @return total service time of solution
+     */
+    public Double getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * @return total operation time of solution
+     */
+    public Double getOperationTime() {
+        return operationTime;
+    }
+
+    /**
+     * @return max operation time of the routes of solution
+     */
+    public Double getMaxOperationTime() {
+        double maxOperationTime = 0.;
+        for (RouteStatistics statistics : statisticsByRoute.values()) {
+            maxOperationTime = Math.max(maxOperationTime, statistics.operationTime);
+        }
+        return maxOperationTime;
+    }
+
+    /**
+     * @return total time window violation of solution
+     */
+    public Double getTimeWindowViolation() {
+        return timeWindowViolation;
+    }
+
+    /**
+     * @return total variable transport and activity costs of solution
+     */
+    public Double getVariableTransportCosts() {
+        return variableTransportCosts;
+    }
+
+    /**
+     * @return total fixed costs of solution
+     */
+    public Double getFixedCosts() {
+        return fixedCosts;
+    }
+
+    /**
+     * @return true if skill constraint is violated on at least one route
+     */
+    public Boolean hasSkillConstraintViolation() {
+        return noRoutesWithSkillConstraintViolation > 0;
+    }
+
+    /**
+     * @return total number of pickups of solution
+     */
+    public Integer getNumberOfPickups() {
+        return noPickups;
+    }
+
+    /**
+     * @return total number of deliveries of solution
+     */
+    public Integer getNumberOfDeliveries() {
+        return noDeliveries;
+    }
+
+    /**
+     * @return total load at beginning of routes
+     */
+    public Capacity getLoadAtBeginning() {
+        return loadAtBeginning;
+    }
+
+    /**
+     * @return total load at end of routes
+     */
+    public Capacity getLoadAtEnd() {
+        return loadAtEnd;
+    }
+
+    /**
+     * @return total capacity violation of solution
+     */
+    public Capacity getCapacityViolation() {
+        return capacityViolation;
+    }
+
+    /**
+     * @return total load picked up
+     */
+    public Capacity getLoadPickedUp() {
+        return loadPickedUp;
+    }
+
+    /**
+     * @return total load delivered
+     */
+    public Capacity getLoadDelivered() {
+        return loadDelivered;
+    }
+
+}
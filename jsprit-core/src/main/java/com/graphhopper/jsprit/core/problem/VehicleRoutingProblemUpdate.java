@@ -0,0 +1,354 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.problem.constraint.ServedActivitiesConstraint;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+
+import java.util.*;
+
+/**
+ * Update of a problem that has already been solved, e.g. because new jobs arrive while vehicles are on their way.
+ * <p>
+ * <p>It takes the problem and its (best) solution together with a delta, i.e. jobs that have been added or removed,
+ * vehicles that are not available anymore and activities that have already been served, and creates the updated
+ * problem as well as a solution of the updated problem the search can be continued from (warm start):
+ * <p>
+ * <pre>
+ *     VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+ *         .addJob(newJob).removeJob("cancelledJob").setServedActivities("vehicle1", 2).build();
+ *     StateManager stateManager = new StateManager(update.getProblem());
+ *     ConstraintManager constraintManager = new ConstraintManager(update.getProblem(), stateManager);
+ *     constraintManager.addConstraint(update.getServedActivitiesConstraint(), ConstraintManager.Priority.CRITICAL);
+ *     VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(update.getProblem())
+ *         .setStateAndConstraintManager(stateManager, constraintManager).buildAlgorithm();
+ *     vra.addInitialSolution(update.getSolution());
+ * </pre>
+ * <p>
+ * <p>The updated problem reuses jobs, vehicles and costs of the original problem, i.e. nothing needs to be read or
+ * calculated again. Since indices are assigned when jobs and vehicles are added to a problem, retained jobs and
+ * vehicles get new (again consecutive) indices, thus the original problem should not be used anymore. Jobs with
+ * served activities as well as jobs of initial routes of the original problem become jobs of initial routes of the
+ * updated problem, i.e. they are never removed from their routes again.
+ * <p>
+ * <p>Costs of the warm start solution are not updated. They are calculated when the solution is added to the
+ * algorithm.
+ * <p>
+ * <p>Since the updated problem is a new problem, the algorithm solving it builds everything it precomputes per
+ * problem again. In particular, {@link com.graphhopper.jsprit.core.algorithm.box.Jsprit} builds the job neighborhoods
+ * of its radial ruin strategies by calculating the distances of all pairs of jobs and memorizing the nearest half of
+ * the jobs for each job, i.e. it takes O(n^2 log n) time and O(n^2) memory for n jobs. For large problems that are
+ * updated frequently, this can dominate the time to re-optimize. Use lazy neighborhoods (Jsprit.Parameter.LAZY_NEIGHBORHOODS)
+ * to only calculate the neighbors of jobs that are actually ruined.
+ */
+public class VehicleRoutingProblemUpdate {
+
+    public static class Builder {
+
+        /**
+         * Returns a new builder.
+         *
+         * @param vrp      the problem that has been solved
+         * @param solution the solution the search continues from
+         * @return builder
+         */
+        public static Builder newInstance(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution) {
+            return new Builder(vrp, solution);
+        }
+
+        private final VehicleRoutingProblem vrp;
+
+        private final VehicleRoutingProblemSolution solution;
+
+        private final List<Job> addedJobs = new ArrayList<Job>();
+
+        private final Set<String> removedJobIds = new HashSet<String>();
+
+        private final Set<String> removedVehicleIds = new HashSet<String>();
+
+        private final Map<String, Integer> servedActivities = new HashMap<String, Integer>();
+
+        private Builder(VehicleRoutingProblem vrp, VehicleRoutingProblemSolution solution) {
+            this.vrp = vrp;
+            this.solution = solution;
+        }
+
+        /**
+         * Adds a new job. It is unassigned in the warm start solution.
+         *
+         * @param job the new job
+         * @return this builder
+         */
+        public Builder addJob(Job job) {
+            addedJobs.add(job);
+            return this;
+        }
+
+        public Builder addAllJobs(Collection<? extends Job> jobs) {
+            for (Job job : jobs) addJob(job);
+            return this;
+        }
+
+        /**
+         * Removes a job from problem and solution.
+         *
+         * @param jobId id of the job to be removed
+         * @return this builder
+         */
+        public Builder removeJob(String jobId) {
+            removedJobIds.add(jobId);
+            return this;
+        }
+
+        /**
+         * Removes a vehicle that is not available anymore. Jobs of its route that have not been served yet are
+         * unassigned in the warm start solution, served ones are dropped.
+         *
+         * @param vehicleId id of the vehicle to be removed
+         * @return this builder
+         */
+        public Builder removeVehicle(String vehicleId) {
+            removedVehicleIds.add(vehicleId);
+            return this;
+        }
+
+        /**
+         * Sets the number of activities at the beginning of the route of the specified vehicle that have already
+         * been served. They are fixed in the updated problem.
+         *
+         * @param vehicleId            id of the vehicle the route belongs to
+         * @param nuOfServedActivities number of served activities
+         * @return this builder
+         */
+        public Builder setServedActivities(String vehicleId, int nuOfServedActivities) {
+            if (nuOfServedActivities < 0)
+                throw new IllegalArgumentException("number of served activities must not be negative");
+            servedActivities.put(vehicleId, nuOfServedActivities);
+            return this;
+        }
+
+        /**
+         * Builds the update.
+         *
+         * @return the update
+         * @throws IllegalArgumentException if a served job is removed, if unknown jobs or routes are referred to, or
+         *                                  if a vehicle is removed that still carries a picked up shipment
+         */
+        public VehicleRoutingProblemUpdate build() {
+            Map<String, VehicleRoute> routes = new LinkedHashMap<String, VehicleRoute>();
+            for (VehicleRoute route : solution.getRoutes()) {
+                routes.put(route.getVehicle().getId(), route);
+            }
+            for (String vehicleId : servedActivities.keySet()) {
+                VehicleRoute route = routes.get(vehicleId);
+                if (route == null)
+                    throw new IllegalArgumentException("solution does not contain a route of vehicle " + vehicleId);
+                if (servedActivities.get(vehicleId) > route.getActivities().size())
+                    throw new IllegalArgumentException("route of vehicle " + vehicleId + " has less activities than served ones");
+            }
+
+            List<Job> oldJobs = new ArrayList<Job>(vrp.getJobsInclusiveInitialJobsInRoutes().values());
+            Set<String> fixedJobIds = new HashSet<String>();
+            for (VehicleRoute initialRoute : vrp.getInitialVehicleRoutes()) {
+                for (Job job : initialRoute.getTourActivities().getJobs()) {
+                    if (job instanceof Break) continue;
+                    fixedJobIds.add(job.getId());
+                    if (!vrp.getJobsInclusiveInitialJobsInRoutes().containsKey(job.getId())) oldJobs.add(job);
+                }
+            }
+            Collections.sort(oldJobs, new Comparator<Job>() {
+                @Override
+                public int compare(Job o1, Job o2) {
+                    return Integer.compare(o1.getIndex(), o2.getIndex());
+                }
+            });
+            Set<String> oldJobIds = new HashSet<String>();
+            for (Job job : oldJobs) oldJobIds.add(job.getId());
+            for (String jobId : removedJobIds) {
+                if (!oldJobIds.contains(jobId))
+                    throw new IllegalArgumentException("problem does not contain job " + jobId);
+            }
+
+            List<TourActivity.JobActivity> served = new ArrayList<TourActivity.JobActivity>();
+            Set<String> servedJobIds = new HashSet<String>();
+            for (VehicleRoute route : routes.values()) {
+                Integer nuOfServed = servedActivities.get(route.getVehicle().getId());
+                if (nuOfServed == null) continue;
+                Set<String> openShipments = new HashSet<String>();
+                for (TourActivity act : route.getActivities().subList(0, nuOfServed)) {
+                    Job job = ((TourActivity.JobActivity) act).getJob();
+                    if (removedJobIds.contains(job.getId()))
+                        throw new IllegalArgumentException("job " + job.getId() + " has already been served. it cannot be removed.");
+                    served.add((TourActivity.JobActivity) act);
+                    servedJobIds.add(job.getId());
+                    if (act instanceof PickupShipment) openShipments.add(job.getId());
+                    else if (act instanceof DeliverShipment) openShipments.remove(job.getId());
+                }
+                if (!openShipments.isEmpty() && removedVehicleIds.contains(route.getVehicle().getId()))
+                    throw new IllegalArgumentException("vehicle " + route.getVehicle().getId() + " cannot be removed since it has picked up shipments " + openShipments + " that are not delivered yet.");
+            }
+
+            Set<String> droppedJobIds = new HashSet<String>(removedJobIds);
+            for (String vehicleId : removedVehicleIds) {
+                VehicleRoute route = routes.get(vehicleId);
+                if (route == null) continue;
+                Integer nuOfServed = servedActivities.get(vehicleId);
+                if (nuOfServed == null) continue;
+                for (TourActivity act : route.getActivities().subList(0, nuOfServed)) {
+                    droppedJobIds.add(((TourActivity.JobActivity) act).getJob().getId());
+                }
+            }
+            fixedJobIds.addAll(servedJobIds);
+            fixedJobIds.removeAll(droppedJobIds);
+
+            VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+                .setFleetSize(vrp.getFleetSize())
+                .setRoutingCost(vrp.getTransportCosts())
+                .setActivityCosts(vrp.getActivityCosts());
+            for (Vehicle vehicle : vrp.getVehicles()) {
+                if (!removedVehicleIds.contains(vehicle.getId())) vrpBuilder.addVehicle(vehicle);
+            }
+            for (Job job : oldJobs) {
+                if (!droppedJobIds.contains(job.getId())) vrpBuilder.addJob(job);
+            }
+            for (Job job : addedJobs) vrpBuilder.addJob(job);
+            for (VehicleRoute route : routes.values()) {
+                if (removedVehicleIds.contains(route.getVehicle().getId())) continue;
+                Integer nuOfServed = servedActivities.get(route.getVehicle().getId());
+                VehicleRoute.Builder initialRoute = VehicleRoute.Builder.newInstance(route.getVehicle())
+                    .setDepartureTime(route.getDepartureTime());
+                boolean hasFixedActivities = false;
+                for (int i = 0; i < route.getActivities().size(); i++) {
+                    TourActivity act = route.getActivities().get(i);
+                    Job job = ((TourActivity.JobActivity) act).getJob();
+                    boolean servedBreak = job instanceof Break && nuOfServed != null && i < nuOfServed;
+                    if (fixedJobIds.contains(job.getId()) || servedBreak) {
+                        addActivity(initialRoute, act);
+                        hasFixedActivities = true;
+                    }
+                }
+                if (hasFixedActivities) vrpBuilder.addInitialVehicleRoute(initialRoute.build());
+            }
+            VehicleRoutingProblem updatedProblem = vrpBuilder.build();
+
+            List<VehicleRoute> warmStartRoutes = new ArrayList<VehicleRoute>();
+            Set<Job> unassignedJobs = new LinkedHashSet<Job>();
+            for (Job job : solution.getUnassignedJobs()) {
+                if (!droppedJobIds.contains(job.getId())) unassignedJobs.add(job);
+            }
+            for (VehicleRoute route : routes.values()) {
+                if (removedVehicleIds.contains(route.getVehicle().getId())) {
+                    for (Job job : route.getTourActivities().getJobs()) {
+                        if (!droppedJobIds.contains(job.getId()) && !(job instanceof Break)) unassignedJobs.add(job);
+                    }
+                    continue;
+                }
+                VehicleRoute.Builder warmStartRoute = VehicleRoute.Builder.newInstance(route.getVehicle())
+                    .setJobActivityFactory(updatedProblem.getJobActivityFactory())
+                    .setDepartureTime(route.getDepartureTime());
+                for (TourActivity act : route.getActivities()) {
+                    if (!droppedJobIds.contains(((TourActivity.JobActivity) act).getJob().getId())) {
+                        addActivity(warmStartRoute, act);
+                    }
+                }
+                VehicleRoute warmStart = warmStartRoute.build();
+                if (!warmStart.isEmpty()) warmStartRoutes.add(warmStart);
+            }
+            unassignedJobs.addAll(addedJobs);
+            VehicleRoutingProblemSolution warmStartSolution = new VehicleRoutingProblemSolution(warmStartRoutes, unassignedJobs, solution.getCost());
+            return new VehicleRoutingProblemUpdate(updatedProblem, warmStartSolution, new ServedActivitiesConstraint(activitiesOf(updatedProblem, served, droppedJobIds)));
+        }
+
+        /*
+         * the served activities are activities of the original problem. returns the corresponding activities of the
+         * updated problem, which have been assigned new indices.
+         */
+        private static List<TourActivity> activitiesOf(VehicleRoutingProblem updatedProblem, List<TourActivity.JobActivity> served, Set<String> droppedJobIds) {
+            List<TourActivity> activities = new ArrayList<TourActivity>();
+            for (TourActivity.JobActivity act : served) {
+                if (droppedJobIds.contains(act.getJob().getId())) continue;
+                for (AbstractActivity updatedAct : updatedProblem.getActivities(act.getJob())) {
+                    if (updatedAct.getName().equals(act.getName())) activities.add(updatedAct);
+                }
+            }
+            return activities;
+        }
+
+        private static void addActivity(VehicleRoute.Builder routeBuilder, TourActivity act) {
+            Job job = ((TourActivity.JobActivity) act).getJob();
+            TimeWindow timeWindow = TimeWindow.newInstance(act.getTheoreticalEarliestOperationStartTime(), act.getTheoreticalLatestOperationStartTime());
+            if (job instanceof Break) {
+                routeBuilder.addBreak((Break) job, timeWindow, act.getLocation());
+            } else if (act instanceof PickupShipment) {
+                routeBuilder.addPickup((Shipment) job, timeWindow);
+            } else if (act instanceof DeliverShipment) {
+                routeBuilder.addDelivery((Shipment) job, timeWindow);
+            } else {
+                routeBuilder.addService((Service) job, timeWindow);
+            }
+        }
+
+    }
+
+    private final VehicleRoutingProblem problem;
+
+    private final VehicleRoutingProblemSolution solution;
+
+    private final ServedActivitiesConstraint servedActivitiesConstraint;
+
+    private VehicleRoutingProblemUpdate(VehicleRoutingProblem problem, VehicleRoutingProblemSolution solution, ServedActivitiesConstraint servedActivitiesConstraint) {
+        this.problem = problem;
+        this.solution = solution;
+        this.servedActivitiesConstraint = servedActivitiesConstraint;
+    }
+
+    /**
+     * @return the updated problem
+     */
+    public VehicleRoutingProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return the solution of the updated problem the search continues from
+     */
+    public VehicleRoutingProblemSolution getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the constraint that keeps served activities at the beginning of their routes. It needs to be added to
+     * the constraint manager of the algorithm solving the updated problem.
+     *
+     * @return constraint for served activities
+     */
+    public ServedActivitiesConstraint getServedActivitiesConstraint() {
+        return servedActivitiesConstraint;
+    }
+
+}
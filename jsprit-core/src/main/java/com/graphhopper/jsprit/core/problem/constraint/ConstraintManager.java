@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.problem.constraint;
 
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
@@ -64,6 +65,8 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
 
     private final DependencyType[] dependencyTypes;
 
+    private SearchMetricsListener metricsListener;
+
     public ConstraintManager(VehicleRoutingProblem vrp, RouteAndActivityStateGetter stateManager) {
         this.vrp = vrp;
         this.stateManager = stateManager;
@@ -96,6 +99,46 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
 //        return actLevelConstraintManager.g;
 //    }
 
+    /**
+     * Sets a listener that is informed each time a hard constraint rejects an insertion. Default is null.
+     *
+     * @param metricsListener the listener
+     */
+    public void setMetricsListener(SearchMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        actLevelConstraintManager.setMetricsListener(metricsListener);
+        hardRouteConstraintManager.setMetricsListener(metricsListener);
+    }
+
+    public SearchMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets whether hard activity constraints are reordered within their priority at runtime. If true, evaluation time
+     * and rejections of each constraint are counted, and constraints that are expected to reject insertions fastest
+     * are evaluated first. Default is false, i.e. constraints are evaluated in the order they were added.
+     *
+     * @param adaptiveOrdering true if hard activity constraints are to be ordered adaptively
+     */
+    public void setAdaptiveHardActivityConstraintOrdering(boolean adaptiveOrdering) {
+        actLevelConstraintManager.setAdaptiveOrdering(adaptiveOrdering);
+    }
+
+    public boolean isAdaptiveHardActivityConstraintOrdering() {
+        return actLevelConstraintManager.isAdaptiveOrdering();
+    }
+
+    /**
+     * Returns the counters of all hard activity constraints in the order they are currently evaluated. Counters are
+     * only recorded if adaptive ordering is switched on.
+     *
+     * @return counters of hard activity constraints
+     */
+    public List<HardActivityConstraintStatistics> getHardActivityConstraintStatistics() {
+        return actLevelConstraintManager.getStatistics();
+    }
+
     public DependencyType[] getDependencyTypes() {
         return dependencyTypes;
     }
@@ -193,6 +236,17 @@ public class ConstraintManager implements HardActivityConstraint, HardRouteConst
         return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
     }
 
+    /**
+     * Same as {@link #fulfilled(JobInsertionContext, TourActivity, TourActivity, TourActivity, double)}, but adds the
+     * names of the hard activity constraints that reject the insertion to failedConstraints.
+     *
+     * @param failedConstraints collection the names of rejecting constraints are added to
+     * @return status of the hard activity constraints
+     */
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedConstraints) {
+        return actLevelConstraintManager.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+    }
+
     public Collection<Constraint> getConstraints() {
         List<Constraint> constraints = new ArrayList<Constraint>();
         constraints.addAll(actLevelConstraintManager.getAllConstraints());
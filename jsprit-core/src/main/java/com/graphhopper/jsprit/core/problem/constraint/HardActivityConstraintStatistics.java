@@ -0,0 +1,183 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of a hard activity constraint that are recorded when {@link ConstraintManager} orders hard activity
+ * constraints adaptively (see {@link ConstraintManager#setAdaptiveHardActivityConstraintOrdering(boolean)}).
+ * <p>
+ * <p>Evaluation times are measured for every {@link #SAMPLING_INTERVAL}th evaluation only, since measuring time might
+ * take longer than evaluating cheap constraints. Since insertions might be evaluated concurrently, counters are
+ * striped by thread, i.e. threads usually count in different cache lines and do not contend.
+ */
+public class HardActivityConstraintStatistics {
+
+    /*
+     * Counter that is split into cells on separate cache lines. A thread always counts in the cell of its id.
+     */
+    private static final class StripedCounter {
+
+        private static final int NU_CELLS = 16;
+
+        private static final int CELL_SIZE = 8;
+
+        private final AtomicLongArray cells = new AtomicLongArray(NU_CELLS * CELL_SIZE);
+
+        /*
+         * returns the count of the cell of the calling thread
+         */
+        long incrementAndGet() {
+            return cells.incrementAndGet(cell());
+        }
+
+        void add(long x) {
+            cells.addAndGet(cell(), x);
+        }
+
+        long get() {
+            long sum = 0;
+            for (int i = 0; i < NU_CELLS; i++) sum += cells.get(i * CELL_SIZE);
+            return sum;
+        }
+
+        private static int cell() {
+            return ((int) Thread.currentThread().getId() & (NU_CELLS - 1)) * CELL_SIZE;
+        }
+
+    }
+
+    /**
+     * Number of evaluations per measured evaluation. It is a power of two.
+     */
+    public static final int SAMPLING_INTERVAL = 64;
+
+    private final HardActivityConstraint constraint;
+
+    private final ConstraintManager.Priority priority;
+
+    private final StripedCounter evaluations = new StripedCounter();
+
+    private final StripedCounter rejections = new StripedCounter();
+
+    private final StripedCounter breaks = new StripedCounter();
+
+    private final StripedCounter measuredEvaluations = new StripedCounter();
+
+    private final StripedCounter measuredNanos = new StripedCounter();
+
+    HardActivityConstraintStatistics(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
+        this.constraint = constraint;
+        this.priority = priority;
+    }
+
+    /**
+     * Counts an evaluation.
+     *
+     * @return number of evaluations counted by the calling thread (or by threads sharing its counter cell)
+     */
+    long informEvaluation() {
+        return evaluations.incrementAndGet();
+    }
+
+    /**
+     * @param nuOfEvaluations number of evaluations as returned by informEvaluation()
+     * @return true if this evaluation is to be measured
+     */
+    static boolean isMeasured(long nuOfEvaluations) {
+        return (nuOfEvaluations & (SAMPLING_INTERVAL - 1)) == 0;
+    }
+
+    void informMeasured(long nanos) {
+        measuredEvaluations.incrementAndGet();
+        measuredNanos.add(nanos);
+    }
+
+    void informRejection(HardActivityConstraint.ConstraintsStatus status) {
+        rejections.incrementAndGet();
+        if (status.equals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK)) breaks.incrementAndGet();
+    }
+
+    /**
+     * Returns the expected time it takes to find a rejection that ends the evaluation of the constraints of this
+     * priority, i.e. average evaluation time divided by the share of evaluations that end it. Constraints with lower
+     * values are evaluated first. Constraints never ending an evaluation or never measured get Double.MAX_VALUE.
+     *
+     * @return expected time per ending rejection in nanoseconds
+     */
+    double getExpectedNanosPerRejection() {
+        long endingRejections = priority.equals(ConstraintManager.Priority.LOW) ? rejections.get() : breaks.get();
+        if (endingRejections == 0 || measuredEvaluations.get() == 0) return Double.MAX_VALUE;
+        return getAverageEvaluationNanos() * evaluations.get() / endingRejections;
+    }
+
+    public HardActivityConstraint getConstraint() {
+        return constraint;
+    }
+
+    public ConstraintManager.Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return number of evaluations
+     */
+    public long getNuOfEvaluations() {
+        return evaluations.get();
+    }
+
+    /**
+     * @return number of evaluations that returned NOT_FULFILLED or NOT_FULFILLED_BREAK
+     */
+    public long getNuOfRejections() {
+        return rejections.get();
+    }
+
+    /**
+     * @return number of evaluations that returned NOT_FULFILLED_BREAK
+     */
+    public long getNuOfBreaks() {
+        return breaks.get();
+    }
+
+    /**
+     * @return share of evaluations that rejected the insertion
+     */
+    public double getRejectionRate() {
+        long n = evaluations.get();
+        if (n == 0) return 0.;
+        return (double) rejections.get() / n;
+    }
+
+    /**
+     * @return average time of measured evaluations in nanoseconds
+     */
+    public double getAverageEvaluationNanos() {
+        long n = measuredEvaluations.get();
+        if (n == 0) return 0.;
+        return (double) measuredNanos.get() / n;
+    }
+
+    @Override
+    public String toString() {
+        return "[constraint=" + constraint.getClass().getSimpleName() + "][priority=" + priority + "][evaluations=" + getNuOfEvaluations()
+            + "][rejections=" + getNuOfRejections() + "][avgNanos=" + getAverageEvaluationNanos() + "]";
+    }
+
+}
@@ -17,13 +17,11 @@
  */
 package com.graphhopper.jsprit.core.problem.constraint;
 
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 
 class HardActivityLevelConstraintManager implements HardActivityConstraint {
@@ -34,16 +32,77 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
     private Collection<HardActivityConstraint> lowPrioConstraints = new ArrayList<HardActivityConstraint>();
 
+    private SearchMetricsListener metricsListener;
+
+    /**
+     * Number of evaluations of the first constraint of a priority (counted per thread) after which the constraints of
+     * this priority are reordered.
+     */
+    static final int REORDERING_INTERVAL = 10000;
+
+    private static final Comparator<HardActivityConstraintStatistics> EXPECTED_NANOS_PER_REJECTION = new Comparator<HardActivityConstraintStatistics>() {
+
+        @Override
+        public int compare(HardActivityConstraintStatistics o1, HardActivityConstraintStatistics o2) {
+            return Double.compare(o1.getExpectedNanosPerRejection(), o2.getExpectedNanosPerRejection());
+        }
+
+    };
+
+    private volatile boolean adaptiveOrdering = false;
+
+    private volatile HardActivityConstraintStatistics[] adaptiveCriticalConstraints = new HardActivityConstraintStatistics[0];
+
+    private volatile HardActivityConstraintStatistics[] adaptiveHighPrioConstraints = new HardActivityConstraintStatistics[0];
+
+    private volatile HardActivityConstraintStatistics[] adaptiveLowPrioConstraints = new HardActivityConstraintStatistics[0];
+
+    void setAdaptiveOrdering(boolean adaptiveOrdering) {
+        this.adaptiveOrdering = adaptiveOrdering;
+    }
+
+    boolean isAdaptiveOrdering() {
+        return adaptiveOrdering;
+    }
+
+    void setMetricsListener(SearchMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
     public void addConstraint(HardActivityConstraint constraint, ConstraintManager.Priority priority) {
+        HardActivityConstraintStatistics statistics = new HardActivityConstraintStatistics(constraint, priority);
         if (priority.equals(ConstraintManager.Priority.CRITICAL)) {
             criticalConstraints.add(constraint);
+            adaptiveCriticalConstraints = append(adaptiveCriticalConstraints, statistics);
         } else if (priority.equals(ConstraintManager.Priority.HIGH)) {
             highPrioConstraints.add(constraint);
+            adaptiveHighPrioConstraints = append(adaptiveHighPrioConstraints, statistics);
         } else {
             lowPrioConstraints.add(constraint);
+            adaptiveLowPrioConstraints = append(adaptiveLowPrioConstraints, statistics);
         }
     }
 
+    private static HardActivityConstraintStatistics[] append(HardActivityConstraintStatistics[] constraints, HardActivityConstraintStatistics statistics) {
+        HardActivityConstraintStatistics[] appended = Arrays.copyOf(constraints, constraints.length + 1);
+        appended[constraints.length] = statistics;
+        return appended;
+    }
+
+    /**
+     * Returns the counters of all constraints in the order they are currently evaluated. Counters are only recorded in
+     * adaptive ordering mode.
+     *
+     * @return counters of all constraints
+     */
+    List<HardActivityConstraintStatistics> getStatistics() {
+        List<HardActivityConstraintStatistics> statistics = new ArrayList<HardActivityConstraintStatistics>();
+        statistics.addAll(Arrays.asList(adaptiveCriticalConstraints));
+        statistics.addAll(Arrays.asList(adaptiveHighPrioConstraints));
+        statistics.addAll(Arrays.asList(adaptiveLowPrioConstraints));
+        return Collections.unmodifiableList(statistics);
+    }
+
     Collection<HardActivityConstraint> getCriticalConstraints() {
         return Collections.unmodifiableCollection(criticalConstraints);
     }
@@ -66,39 +125,141 @@ class HardActivityLevelConstraintManager implements HardActivityConstraint {
 
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
-        ConstraintsStatus notFulfilled = null;
-        for (HardActivityConstraint c : criticalConstraints) {
-            ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+        return fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, null);
+    }
+
+    /**
+     * Same as fulfilled(...), but adds the names of the constraints that reject the insertion to failedConstraints
+     * if it is not null, i.e. the name of the constraint returning NOT_FULFILLED_BREAK, or the names of all
+     * constraints of the rejecting priority returning NOT_FULFILLED.
+     */
+    ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedConstraints) {
+        if (adaptiveOrdering) return adaptivelyFulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+        ConstraintsStatus status = fulfilledAll(criticalConstraints, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+        if (!status.equals(ConstraintsStatus.FULFILLED)) return status;
+
+        status = fulfilledAll(highPrioConstraints, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+        if (!status.equals(ConstraintsStatus.FULFILLED)) return status;
+
+        for (HardActivityConstraint constraint : lowPrioConstraints) {
+            status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                informRejected(constraint);
+                if (failedConstraints != null) failedConstraints.add(constraint.getClass().getSimpleName());
                 return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    notFulfilled = status;
-                }
             }
         }
-        if (notFulfilled != null) return notFulfilled;
 
-        for (HardActivityConstraint c : highPrioConstraints) {
+        return ConstraintsStatus.FULFILLED;
+    }
+
+    /*
+     * evaluates all constraints of a priority unless one of them returns NOT_FULFILLED_BREAK
+     */
+    private ConstraintsStatus fulfilledAll(Collection<HardActivityConstraint> constraints, JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedConstraints) {
+        ConstraintsStatus notFulfilled = ConstraintsStatus.FULFILLED;
+        List<String> failed = null;
+        for (HardActivityConstraint c : constraints) {
             ConstraintsStatus status = c.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
             if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                informRejected(c);
+                if (failedConstraints != null) failedConstraints.add(c.getClass().getSimpleName());
                 return status;
-            } else {
-                if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
-                    notFulfilled = status;
-                }
+            } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                informRejected(c);
+                failed = addName(failed, c, failedConstraints);
+                notFulfilled = status;
             }
         }
-        if (notFulfilled != null) return notFulfilled;
+        if (failed != null) failedConstraints.addAll(failed);
+        return notFulfilled;
+    }
 
-        for (HardActivityConstraint constraint : lowPrioConstraints) {
-            ConstraintsStatus status = constraint.fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
-            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK) || status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+    /**
+     * Evaluates constraints like fulfilled(...) does, but in the order of their expected time per rejection that ends
+     * the evaluation of their priority. Critical and high priority constraints are all evaluated unless one of them
+     * returns NOT_FULFILLED_BREAK, and low priority constraints until the first rejection. Thus, the order of
+     * critical and high priority constraints does not change the result, whereas low priority constraints must not
+     * be order dependent for reordering to be safe (which is the case if NOT_FULFILLED_BREAK is only returned if
+     * there is no feasible insertion position after the current one).
+     */
+    private ConstraintsStatus adaptivelyFulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedConstraints) {
+        ConstraintsStatus status = adaptivelyFulfilledAll(adaptiveCriticalConstraints, ConstraintManager.Priority.CRITICAL, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+        if (!status.equals(ConstraintsStatus.FULFILLED)) return status;
+
+        status = adaptivelyFulfilledAll(adaptiveHighPrioConstraints, ConstraintManager.Priority.HIGH, iFacts, prevAct, newAct, nextAct, prevActDepTime, failedConstraints);
+        if (!status.equals(ConstraintsStatus.FULFILLED)) return status;
+
+        HardActivityConstraintStatistics[] constraints = adaptiveLowPrioConstraints;
+        for (int i = 0; i < constraints.length; i++) {
+            status = evaluate(constraints, i, ConstraintManager.Priority.LOW, iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (!status.equals(ConstraintsStatus.FULFILLED)) {
+                if (failedConstraints != null) failedConstraints.add(constraints[i].getConstraint().getClass().getSimpleName());
                 return status;
             }
         }
-
         return ConstraintsStatus.FULFILLED;
     }
 
+    private ConstraintsStatus adaptivelyFulfilledAll(HardActivityConstraintStatistics[] constraints, ConstraintManager.Priority priority, JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime, Collection<String> failedConstraints) {
+        ConstraintsStatus notFulfilled = ConstraintsStatus.FULFILLED;
+        List<String> failed = null;
+        for (int i = 0; i < constraints.length; i++) {
+            HardActivityConstraintStatistics c = constraints[i];
+            ConstraintsStatus status = evaluate(constraints, i, priority, iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            if (status.equals(ConstraintsStatus.NOT_FULFILLED_BREAK)) {
+                if (failedConstraints != null) failedConstraints.add(c.getConstraint().getClass().getSimpleName());
+                return status;
+            } else if (status.equals(ConstraintsStatus.NOT_FULFILLED)) {
+                failed = addName(failed, c.getConstraint(), failedConstraints);
+                notFulfilled = status;
+            }
+        }
+        if (failed != null) failedConstraints.addAll(failed);
+        return notFulfilled;
+    }
+
+    private static List<String> addName(List<String> failed, HardActivityConstraint constraint, Collection<String> failedConstraints) {
+        if (failedConstraints == null) return null;
+        if (failed == null) failed = new ArrayList<String>(2);
+        failed.add(constraint.getClass().getSimpleName());
+        return failed;
+    }
+
+    private void informRejected(HardActivityConstraint constraint) {
+        if (metricsListener != null) metricsListener.informHardConstraintRejected(constraint);
+    }
+
+    /*
+     * evaluates the i-th constraint. every REORDERING_INTERVAL evaluations of the first constraint, the constraints are
+     * reordered for subsequent evaluations.
+     */
+    private ConstraintsStatus evaluate(HardActivityConstraintStatistics[] constraints, int i, ConstraintManager.Priority priority, JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        HardActivityConstraintStatistics c = constraints[i];
+        long nuOfEvaluations = c.informEvaluation();
+        ConstraintsStatus status;
+        if (HardActivityConstraintStatistics.isMeasured(nuOfEvaluations)) {
+            long start = System.nanoTime();
+            status = c.getConstraint().fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+            c.informMeasured(System.nanoTime() - start);
+        } else {
+            status = c.getConstraint().fulfilled(iFacts, prevAct, newAct, nextAct, prevActDepTime);
+        }
+        if (!status.equals(ConstraintsStatus.FULFILLED)) {
+            c.informRejection(status);
+            informRejected(c.getConstraint());
+        }
+        if (i == 0 && nuOfEvaluations % REORDERING_INTERVAL == 0) reorder(constraints, priority);
+        return status;
+    }
+
+    private void reorder(HardActivityConstraintStatistics[] constraints, ConstraintManager.Priority priority) {
+        if (constraints.length < 2) return;
+        HardActivityConstraintStatistics[] reordered = Arrays.copyOf(constraints, constraints.length);
+        Arrays.sort(reordered, EXPECTED_NANOS_PER_REJECTION);
+        if (priority.equals(ConstraintManager.Priority.CRITICAL)) adaptiveCriticalConstraints = reordered;
+        else if (priority.equals(ConstraintManager.Priority.HIGH)) adaptiveHighPrioConstraints = reordered;
+        else adaptiveLowPrioConstraints = reordered;
+    }
+
 }
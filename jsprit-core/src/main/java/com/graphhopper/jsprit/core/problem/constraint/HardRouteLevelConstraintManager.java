@@ -17,6 +17,7 @@
  */
 package com.graphhopper.jsprit.core.problem.constraint;
 
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 
 import java.util.ArrayList;
@@ -28,6 +29,12 @@ class HardRouteLevelConstraintManager implements HardRouteConstraint {
 
     private Collection<HardRouteConstraint> hardConstraints = new ArrayList<HardRouteConstraint>();
 
+    private SearchMetricsListener metricsListener;
+
+    void setMetricsListener(SearchMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
     public void addConstraint(HardRouteConstraint constraint) {
         hardConstraints.add(constraint);
     }
@@ -40,6 +47,7 @@ class HardRouteLevelConstraintManager implements HardRouteConstraint {
     public boolean fulfilled(JobInsertionContext insertionContext) {
         for (HardRouteConstraint constraint : hardConstraints) {
             if (!constraint.fulfilled(insertionContext)) {
+                if (metricsListener != null) metricsListener.informHardConstraintRejected(constraint);
                 return false;
             }
         }
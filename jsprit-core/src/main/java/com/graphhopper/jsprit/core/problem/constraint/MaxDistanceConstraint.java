@@ -70,10 +70,10 @@ public class MaxDistanceConstraint implements HardActivityConstraint {
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         if (!hasMaxDistance(iFacts.getNewVehicle())) return ConstraintsStatus.FULFILLED;
-        Double currentDistance = 0d;
+        double currentDistance = 0d;
         boolean routeIsEmpty = iFacts.getRoute().isEmpty();
         if (!routeIsEmpty) {
-            currentDistance = stateManager.getRouteState(iFacts.getRoute(), iFacts.getNewVehicle(), distanceId, Double.class);
+            currentDistance = stateManager.getRouteStateDouble(iFacts.getRoute(), iFacts.getNewVehicle(), distanceId, 0d);
         }
         double maxDistance = getMaxDistance(iFacts.getNewVehicle());
         if (currentDistance > maxDistance) return ConstraintsStatus.NOT_FULFILLED_BREAK;
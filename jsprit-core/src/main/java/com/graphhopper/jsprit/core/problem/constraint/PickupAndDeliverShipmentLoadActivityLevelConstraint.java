@@ -24,6 +24,7 @@ import com.graphhopper.jsprit.core.problem.solution.route.activity.DeliverShipme
 import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.Start;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 
@@ -39,6 +40,8 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private Capacity defaultValue;
 
     /**
@@ -52,6 +55,9 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
     public PickupAndDeliverShipmentLoadActivityLevelConstraint(RouteAndActivityStateGetter stateManager) {
         super();
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
         defaultValue = Capacity.Builder.newInstance().build();
     }
 
@@ -63,6 +69,29 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
         if (!(newAct instanceof PickupShipment) && !(newAct instanceof DeliverShipment)) {
             return ConstraintsStatus.FULFILLED;
         }
+        if (primitiveStates == null) return fulfilledWithCapacityStates(iFacts, prevAct, newAct);
+        Capacity size = newAct.getSize();
+        Capacity vehicleCapacity = iFacts.getNewVehicle().getType().getCapacityDimensions();
+        int nuDimensions = Math.max(size.getNuOfDimensions(), primitiveStates.getNuCapacityDimensions());
+        for (int i = 0; i < nuDimensions; i++) {
+            int loadAtPrevAct;
+            if (prevAct instanceof Start) {
+                loadAtPrevAct = primitiveStates.getRouteStateCapacityDimension(iFacts.getRoute(), InternalStates.LOAD_AT_BEGINNING, i);
+            } else {
+                loadAtPrevAct = primitiveStates.getActivityStateCapacityDimension(prevAct, InternalStates.LOAD, i);
+            }
+            if (newAct instanceof PickupShipment) {
+                if (loadAtPrevAct + size.get(i) > vehicleCapacity.get(i)) {
+                    return ConstraintsStatus.NOT_FULFILLED;
+                }
+            } else if (loadAtPrevAct - size.get(i) > vehicleCapacity.get(i)) {
+                return ConstraintsStatus.NOT_FULFILLED_BREAK;
+            }
+        }
+        return ConstraintsStatus.FULFILLED;
+    }
+
+    private ConstraintsStatus fulfilledWithCapacityStates(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct) {
         Capacity loadAtPrevAct;
         if (prevAct instanceof Start) {
             loadAtPrevAct = stateManager.getRouteState(iFacts.getRoute(), InternalStates.LOAD_AT_BEGINNING, Capacity.class);
@@ -83,5 +112,4 @@ public class PickupAndDeliverShipmentLoadActivityLevelConstraint implements Hard
         return ConstraintsStatus.FULFILLED;
     }
 
-
 }
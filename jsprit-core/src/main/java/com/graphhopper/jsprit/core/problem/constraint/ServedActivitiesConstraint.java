@@ -0,0 +1,61 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Ensures that no activity is inserted before or in between activities that have already been served, i.e. that
+ * served activities remain the first activities of their routes.
+ * <p>
+ * <p>Activities are identified by their index, thus the constraint also recognizes copies of served activities. It
+ * only works with activities of the problem it has been created for, since indices are assigned by the problem.
+ */
+public class ServedActivitiesConstraint implements HardActivityConstraint {
+
+    private final BitSet servedActivities = new BitSet();
+
+    /**
+     * @param servedActivities served activities of the problem the constraint is used for
+     */
+    public ServedActivitiesConstraint(Collection<? extends TourActivity> servedActivities) {
+        for (TourActivity act : servedActivities) {
+            this.servedActivities.set(act.getIndex());
+        }
+    }
+
+    /**
+     * @param act the activity
+     * @return true if the specified activity has already been served
+     */
+    public boolean isServed(TourActivity act) {
+        int index = act.getIndex();
+        return index >= 0 && servedActivities.get(index);
+    }
+
+    @Override
+    public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        if (isServed(nextAct)) return ConstraintsStatus.NOT_FULFILLED;
+        return ConstraintsStatus.FULFILLED;
+    }
+
+}
@@ -21,6 +21,7 @@ import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
 import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.*;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 
@@ -35,16 +36,55 @@ public class ServiceLoadActivityLevelConstraint implements HardActivityConstrain
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private Capacity defaultValue;
 
     public ServiceLoadActivityLevelConstraint(RouteAndActivityStateGetter stateManager) {
         super();
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
         defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+        if (primitiveStates == null) return fulfilledWithCapacityStates(iFacts, prevAct, newAct);
+        Capacity size = newAct.getSize();
+        Capacity vehicleCapacity = iFacts.getNewVehicle().getType().getCapacityDimensions();
+        int nuDimensions = Math.max(size.getNuOfDimensions(), primitiveStates.getNuCapacityDimensions());
+        if (newAct instanceof PickupService || newAct instanceof ServiceActivity) {
+            for (int i = 0; i < nuDimensions; i++) {
+                int futureMaxLoad;
+                if (prevAct instanceof Start) {
+                    futureMaxLoad = primitiveStates.getRouteStateCapacityDimension(iFacts.getRoute(), InternalStates.MAXLOAD, i);
+                } else {
+                    futureMaxLoad = primitiveStates.getActivityStateCapacityDimension(prevAct, InternalStates.FUTURE_MAXLOAD, i);
+                }
+                if (size.get(i) + futureMaxLoad > vehicleCapacity.get(i)) {
+                    return ConstraintsStatus.NOT_FULFILLED;
+                }
+            }
+        }
+        if (newAct instanceof DeliverService) {
+            for (int i = 0; i < nuDimensions; i++) {
+                int prevMaxLoad;
+                if (prevAct instanceof Start) {
+                    prevMaxLoad = primitiveStates.getRouteStateCapacityDimension(iFacts.getRoute(), InternalStates.LOAD_AT_BEGINNING, i);
+                } else {
+                    prevMaxLoad = primitiveStates.getActivityStateCapacityDimension(prevAct, InternalStates.PAST_MAXLOAD, i);
+                }
+                if (prevMaxLoad - size.get(i) > vehicleCapacity.get(i)) {
+                    return ConstraintsStatus.NOT_FULFILLED_BREAK;
+                }
+            }
+        }
+        return ConstraintsStatus.FULFILLED;
+    }
+
+    private ConstraintsStatus fulfilledWithCapacityStates(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct) {
         Capacity futureMaxLoad;
         Capacity prevMaxLoad;
         if (prevAct instanceof Start) {
@@ -57,7 +97,6 @@ public class ServiceLoadActivityLevelConstraint implements HardActivityConstrain
             if (futureMaxLoad == null) futureMaxLoad = defaultValue;
             prevMaxLoad = stateManager.getActivityState(prevAct, InternalStates.PAST_MAXLOAD, Capacity.class);
             if (prevMaxLoad == null) prevMaxLoad = defaultValue;
-
         }
         if (newAct instanceof PickupService || newAct instanceof ServiceActivity) {
             if (!Capacity.addup(newAct.getSize(), futureMaxLoad).isLessOrEqual(iFacts.getNewVehicle().getType().getCapacityDimensions())) {
@@ -18,11 +18,13 @@
 package com.graphhopper.jsprit.core.problem.constraint;
 
 import com.graphhopper.jsprit.core.algorithm.state.InternalStates;
+import com.graphhopper.jsprit.core.algorithm.state.StateId;
 import com.graphhopper.jsprit.core.problem.Capacity;
 import com.graphhopper.jsprit.core.problem.job.Delivery;
 import com.graphhopper.jsprit.core.problem.job.Pickup;
 import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 /**
@@ -37,16 +39,22 @@ public class ServiceLoadRouteLevelConstraint implements HardRouteConstraint {
 
     private RouteAndActivityStateGetter stateManager;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private Capacity defaultValue;
 
     public ServiceLoadRouteLevelConstraint(RouteAndActivityStateGetter stateManager) {
         super();
         this.stateManager = stateManager;
+        if (stateManager instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) stateManager;
+        }
         this.defaultValue = Capacity.Builder.newInstance().build();
     }
 
     @Override
     public boolean fulfilled(JobInsertionContext insertionContext) {
+        if (primitiveStates != null) return fulfilledWithPrimitiveStates(insertionContext);
         Capacity maxLoadAtRoute = stateManager.getRouteState(insertionContext.getRoute(), InternalStates.MAXLOAD, Capacity.class);
         if (maxLoadAtRoute == null) maxLoadAtRoute = defaultValue;
         Capacity capacityDimensions = insertionContext.getNewVehicle().getType().getCapacityDimensions();
@@ -69,4 +77,25 @@ public class ServiceLoadRouteLevelConstraint implements HardRouteConstraint {
         return true;
     }
 
+    private boolean fulfilledWithPrimitiveStates(JobInsertionContext insertionContext) {
+        Capacity size = insertionContext.getJob().getSize();
+        Capacity capacityDimensions = insertionContext.getNewVehicle().getType().getCapacityDimensions();
+        int nuDimensions = Math.max(size.getNuOfDimensions(), primitiveStates.getNuCapacityDimensions());
+        for (int i = 0; i < nuDimensions; i++) {
+            if (primitiveStates.getRouteStateCapacityDimension(insertionContext.getRoute(), InternalStates.MAXLOAD, i) > capacityDimensions.get(i)) {
+                return false;
+            }
+        }
+        StateId loadId;
+        if (insertionContext.getJob() instanceof Delivery) loadId = InternalStates.LOAD_AT_BEGINNING;
+        else if (insertionContext.getJob() instanceof Pickup || insertionContext.getJob() instanceof Service) loadId = InternalStates.LOAD_AT_END;
+        else return true;
+        for (int i = 0; i < nuDimensions; i++) {
+            if (primitiveStates.getRouteStateCapacityDimension(insertionContext.getRoute(), loadId, i) + size.get(i) > capacityDimensions.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
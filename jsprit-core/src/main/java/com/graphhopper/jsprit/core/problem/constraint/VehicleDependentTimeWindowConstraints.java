@@ -25,6 +25,7 @@ import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.End;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.solution.route.state.PrimitiveRouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 
 
@@ -35,6 +36,8 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
 
     private RouteAndActivityStateGetter states;
 
+    private PrimitiveRouteAndActivityStateGetter primitiveStates;
+
     private VehicleRoutingTransportCosts routingCosts;
 
     private VehicleRoutingActivityCosts activityCosts;
@@ -42,6 +45,9 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
     public VehicleDependentTimeWindowConstraints(RouteAndActivityStateGetter states, VehicleRoutingTransportCosts routingCosts, VehicleRoutingActivityCosts activityCosts) {
         super();
         this.states = states;
+        if (states instanceof PrimitiveRouteAndActivityStateGetter) {
+            primitiveStates = (PrimitiveRouteAndActivityStateGetter) states;
+        }
         this.routingCosts = routingCosts;
         this.activityCosts = activityCosts;
     }
@@ -49,7 +55,7 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
     @Override
     public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
         double latestVehicleArrival = iFacts.getNewVehicle().getLatestArrival();
-        Double latestArrTimeAtNextAct;
+        double latestArrTimeAtNextAct;
         Location nextActLocation;
         if (nextAct instanceof End) {
             latestArrTimeAtNextAct = latestVehicleArrival;
@@ -58,9 +64,12 @@ public class VehicleDependentTimeWindowConstraints implements HardActivityConstr
                 nextActLocation = newAct.getLocation();
             }
         } else {
-            latestArrTimeAtNextAct = states.getActivityState(nextAct, iFacts.getNewVehicle(), InternalStates.LATEST_OPERATION_START_TIME, Double.class);
-            if (latestArrTimeAtNextAct == null) {//otherwise set it to theoretical_latest_operation_startTime
-                latestArrTimeAtNextAct = nextAct.getTheoreticalLatestOperationStartTime();
+            //if not set, use theoretical_latest_operation_startTime
+            if (primitiveStates != null) {
+                latestArrTimeAtNextAct = primitiveStates.getActivityStateDouble(nextAct, iFacts.getNewVehicle(), InternalStates.LATEST_OPERATION_START_TIME, nextAct.getTheoreticalLatestOperationStartTime());
+            } else {
+                Double latestArrTime = states.getActivityState(nextAct, iFacts.getNewVehicle(), InternalStates.LATEST_OPERATION_START_TIME, Double.class);
+                latestArrTimeAtNextAct = latestArrTime != null ? latestArrTime : nextAct.getTheoreticalLatestOperationStartTime();
             }
             nextActLocation = nextAct.getLocation();
         }
@@ -38,7 +38,19 @@ public class VehicleRoutingProblemSolution {
      * @return solution
      */
     public static VehicleRoutingProblemSolution copyOf(VehicleRoutingProblemSolution solution2copy) {
-        return new VehicleRoutingProblemSolution(solution2copy);
+        return new VehicleRoutingProblemSolution(solution2copy, false);
+    }
+
+    /**
+     * Makes a copy of the solution whose routes share their activities with the routes of the original solution
+     * until they are changed (see {@link VehicleRoute#lazyCopyOf(VehicleRoute)}). Thus, only routes that are
+     * actually changed are copied physically.
+     *
+     * @param solution2copy solution to be copied
+     * @return solution
+     */
+    public static VehicleRoutingProblemSolution lazyCopyOf(VehicleRoutingProblemSolution solution2copy) {
+        return new VehicleRoutingProblemSolution(solution2copy, true);
     }
 
     private final Collection<VehicleRoute> routes;
@@ -47,10 +59,10 @@ public class VehicleRoutingProblemSolution {
 
     private double cost;
 
-    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution) {
+    private VehicleRoutingProblemSolution(VehicleRoutingProblemSolution solution, boolean lazy) {
         routes = new ArrayList<VehicleRoute>();
         for (VehicleRoute r : solution.getRoutes()) {
-            VehicleRoute route = VehicleRoute.copyOf(r);
+            VehicleRoute route = lazy ? VehicleRoute.lazyCopyOf(r) : VehicleRoute.copyOf(r);
             routes.add(route);
         }
         this.cost = solution.getCost();
@@ -48,6 +48,19 @@ public class VehicleRoute {
         return new VehicleRoute(route);
     }
 
+    /**
+     * Returns a copy of this vehicleRoute that shares its tour-activities with the original route until one of both
+     * routes is changed (see {@link TourActivities#lazyCopyOf(TourActivities)}). Start and end are copied immediately.
+     *
+     * @param route route to copy
+     * @return copied route
+     * @throws IllegalArgumentException if route is null
+     */
+    public static VehicleRoute lazyCopyOf(VehicleRoute route) {
+        if (route == null) throw new IllegalArgumentException("route must not be null");
+        return new VehicleRoute(route, TourActivities.lazyCopyOf(route.getTourActivities()));
+    }
+
     /**
      * Returns an empty route.
      * <p>
@@ -341,9 +354,13 @@ public class VehicleRoute {
      * @param route to copy
      */
     private VehicleRoute(VehicleRoute route) {
+        this(route, TourActivities.copyOf(route.getTourActivities()));
+    }
+
+    private VehicleRoute(VehicleRoute route, TourActivities tourActivities) {
         this.start = Start.copyOf(route.getStart());
         this.end = End.copyOf(route.getEnd());
-        this.tourActivities = TourActivities.copyOf(route.getTourActivities());
+        this.tourActivities = tourActivities;
         this.vehicle = route.getVehicle();
         this.driver = route.getDriver();
     }
@@ -413,6 +430,7 @@ public class VehicleRoute {
      * @param vehicleDepTime of employed vehicle
      */
     public void setVehicleAndDepartureTime(Vehicle vehicle, double vehicleDepTime) {
+        tourActivities.unshare();
         this.vehicle = vehicle;
         setStartAndEnd(vehicle, vehicleDepTime);
     }
@@ -21,6 +21,8 @@ import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity.JobActivity;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -29,10 +31,38 @@ import java.util.*;
 
 public class TourActivities {
 
+    /**
+     * Version of empty tours.
+     */
+    public static final long EMPTY_VERSION = 0L;
+
+    private static final AtomicLong versions = new AtomicLong(EMPTY_VERSION);
+
     public static TourActivities copyOf(TourActivities tourActivities) {
         return new TourActivities(tourActivities);
     }
 
+    /**
+     * Returns a copy that shares activities and jobs with the specified tour until one of both is changed. The tour
+     * that is changed first copies its activities before, i.e. the other tour remains as it is.
+     * <p>
+     * <p>Note that activities are shared, thus changing the fields of an activity directly (except for times that
+     * are recalculated anyway) affects both tours as long as none of them has been changed with the methods of
+     * this class.
+     *
+     * @param tourActivities the tour to be copied
+     * @return copy sharing activities with tourActivities
+     */
+    public static TourActivities lazyCopyOf(TourActivities tourActivities) {
+        TourActivities copy = new TourActivities();
+        copy.tourActivities = tourActivities.tourActivities;
+        copy.jobs = tourActivities.jobs;
+        copy.owners = tourActivities.owners;
+        copy.owners.incrementAndGet();
+        copy.version = tourActivities.version;
+        return copy;
+    }
+
     public static class ReverseActivityIterator implements Iterator<TourActivity> {
 
         private List<TourActivity> acts;
@@ -67,9 +97,13 @@ public class TourActivities {
         }
     }
 
-    private final ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+    private ArrayList<TourActivity> tourActivities = new ArrayList<TourActivity>();
+
+    private Set<Job> jobs = new HashSet<Job>();
 
-    private final Set<Job> jobs = new HashSet<Job>();
+    private AtomicInteger owners = new AtomicInteger(1);
+
+    private long version = EMPTY_VERSION;
 
     private ReverseActivityIterator backward;
 
@@ -79,6 +113,7 @@ public class TourActivities {
             this.tourActivities.add(newAct);
             addJob(newAct);
         }
+        this.version = tour2copy.version;
     }
 
     public TourActivities() {
@@ -90,9 +125,45 @@ public class TourActivities {
     }
 
     public Iterator<TourActivity> iterator() {
+        unshare();
+        changed();
         return tourActivities.iterator();
     }
 
+    /**
+     * Returns the version of this tour. It changes whenever the tour is changed and is retained by copies, i.e. tours
+     * with equal versions consist of equal sequences of activities. All empty tours have version {@link #EMPTY_VERSION}.
+     *
+     * @return version of this tour
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void changed() {
+        if (tourActivities.isEmpty()) version = EMPTY_VERSION;
+        else version = versions.incrementAndGet();
+    }
+
+    /**
+     * Copies activities and jobs if they are shared with other tours (see {@link #lazyCopyOf(TourActivities)}), such
+     * that this tour can be changed without changing others. Methods changing the tour call this themselves.
+     */
+    public void unshare() {
+        if (owners.get() == 1) return;
+        ArrayList<TourActivity> sharedActivities = tourActivities;
+        tourActivities = new ArrayList<TourActivity>(sharedActivities.size());
+        jobs = new HashSet<Job>();
+        for (TourActivity tourAct : sharedActivities) {
+            TourActivity newAct = tourAct.duplicate();
+            tourActivities.add(newAct);
+            addJob(newAct);
+        }
+        owners.decrementAndGet();
+        owners = new AtomicInteger(1);
+        backward = null;
+    }
+
     public boolean isEmpty() {
         return (tourActivities.size() == 0);
     }
@@ -127,6 +198,7 @@ public class TourActivities {
         if (!jobs.contains(job)) {
             return false;
         } else {
+            unshare();
             jobRemoved = jobs.remove(job);
         }
         boolean activityRemoved = false;
@@ -142,6 +214,7 @@ public class TourActivities {
             }
         }
         assert jobRemoved == activityRemoved : "job removed, but belonging activity not.";
+        changed();
         return activityRemoved;
     }
 
@@ -161,6 +234,12 @@ public class TourActivities {
         }
         boolean jobIsAlsoAssociateToOtherActs = false;
         boolean actRemoved = false;
+        if (owners.get() > 1) {
+            int index = indexOf(activity);
+            if (index < 0) return false;
+            unshare();
+            activity = tourActivities.get(index);
+        }
         List<TourActivity> acts = new ArrayList<TourActivity>(tourActivities);
         for (TourActivity act : acts) {
             if (act == activity) {
@@ -177,6 +256,7 @@ public class TourActivities {
         if (!jobIsAlsoAssociateToOtherActs && actRemoved) {
             jobs.remove(job);
         }
+        if (actRemoved) changed();
         return actRemoved;
     }
 
@@ -194,6 +274,7 @@ public class TourActivities {
     public void addActivity(int insertionIndex, TourActivity act) {
 
         assert insertionIndex >= 0 : "insertionIndex < 0, this cannot be";
+        unshare();
 
 		/*
          * if 1 --> between start and act(0) --> act(0)
@@ -208,6 +289,7 @@ public class TourActivities {
             tourActivities.add(act);
         }
         addJob(act);
+        changed();
     }
 
     /**
@@ -220,8 +302,17 @@ public class TourActivities {
     public void addActivity(TourActivity act) {
         if (tourActivities.contains(act))
             throw new IllegalArgumentException("act " + act + " already in tour. cannot add act twice.");
+        unshare();
         tourActivities.add(act);
         addJob(act);
+        changed();
+    }
+
+    private int indexOf(TourActivity activity) {
+        for (int i = 0; i < tourActivities.size(); i++) {
+            if (tourActivities.get(i) == activity) return i;
+        }
+        return -1;
     }
 
     private void addJob(TourActivity act) {
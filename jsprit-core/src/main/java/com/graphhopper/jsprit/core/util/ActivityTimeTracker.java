@@ -79,6 +79,21 @@ public class ActivityTimeTracker implements ActivityVisitor {
         beginFirst = true;
     }
 
+    /**
+     * Begins tracking after prevAct, i.e. it assumes that the end time of prevAct is already known and continues
+     * with the activity subsequent to prevAct.
+     *
+     * @param route   the route to be tracked
+     * @param prevAct the activity after which tracking is resumed
+     */
+    public void resume(VehicleRoute route, TourActivity prevAct) {
+        this.prevAct = prevAct;
+        startAtPrevAct = prevAct.getEndTime();
+        actEndTime = startAtPrevAct;
+        this.route = route;
+        beginFirst = true;
+    }
+
     @Override
     public void visit(TourActivity activity) {
         if (!beginFirst) throw new IllegalStateException("never called begin. this however is essential here");
@@ -0,0 +1,514 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Dense, int-indexed time and distance matrix that stores values row-major in a single primitive array per indicator,
+ * i.e. a lookup is a single array access at from * noLocations + to. Symmetric matrices are stored as full squares to
+ * keep lookups branch-free.
+ * <p>
+ * <p>Values can be stored with double, float or scaled int precision. Float and int precision halve the memory footprint
+ * compared to double precision (and are a quarter of the size of {@link FastVehicleRoutingTransportCostsMatrix}).
+ * <p>
+ * <p>The matrix can be written to a binary file with {@link #write(File)}. {@link #load(File)} reads it into heap
+ * memory, whereas {@link #map(File)} memory-maps it read-only. Mapping opens even multi-GB matrices in milliseconds
+ * since pages are loaded lazily, and the operating system shares the pages between all JVMs that map the same file.
+ * <p>
+ * <p>File format (big endian): int magic, int version, int noLocations, int precision, double scale, int reserved,
+ * int reserved, followed by noLocations^2 distances and noLocations^2 times, each row-major with the given precision.
+ */
+public class DenseVehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRoutingTransportCosts {
+
+    /**
+     * Precision values are stored with.
+     */
+    public static enum Precision {
+
+        DOUBLE(8), FLOAT(4), INT(4);
+
+        private final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+    }
+
+    /**
+     * Builder that builds the matrix.
+     */
+    public static class Builder {
+
+        private final int noLocations;
+
+        private final boolean isSymmetric;
+
+        private Precision precision = Precision.DOUBLE;
+
+        private double scale = 1.;
+
+        private Values distances;
+
+        private Values times;
+
+        /**
+         * Creates a new builder returning the matrix-builder.
+         * <p>If you want to consider symmetric matrices, set isSymmetric to true.
+         *
+         * @param noLocations number of locations
+         * @param isSymmetric true if matrix is symmetric, false otherwise
+         * @return builder
+         */
+        public static Builder newInstance(int noLocations, boolean isSymmetric) {
+            return new Builder(noLocations, isSymmetric);
+        }
+
+        private Builder(int noLocations, boolean isSymmetric) {
+            if ((long) noLocations * noLocations > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("too many locations for a heap matrix: " + noLocations);
+            this.noLocations = noLocations;
+            this.isSymmetric = isSymmetric;
+        }
+
+        /**
+         * Sets the precision values are stored with. Default is {@link Precision#DOUBLE}. It must be set before
+         * any value is added.
+         *
+         * @param precision the precision
+         * @return builder
+         */
+        public Builder setPrecision(Precision precision) {
+            if (distances != null) throw new IllegalStateException("precision must be set before values are added");
+            this.precision = precision;
+            return this;
+        }
+
+        /**
+         * Sets the scale of {@link Precision#INT}, i.e. values are stored as Math.round(value * scale). Default is 1.
+         *
+         * @param scale the scale
+         * @return builder
+         */
+        public Builder setScale(double scale) {
+            if (distances != null) throw new IllegalStateException("scale must be set before values are added");
+            if (scale <= 0) throw new IllegalArgumentException("scale must be positive");
+            this.scale = scale;
+            return this;
+        }
+
+        /**
+         * Adds a transport-distance for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param distance  the distance to be added
+         * @return builder
+         */
+        public Builder addTransportDistance(int fromIndex, int toIndex, double distance) {
+            init();
+            add(distances, fromIndex, toIndex, distance);
+            return this;
+        }
+
+        /**
+         * Adds transport-time for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param time      the time to be added
+         * @return builder
+         */
+        public Builder addTransportTime(int fromIndex, int toIndex, double time) {
+            init();
+            add(times, fromIndex, toIndex, time);
+            return this;
+        }
+
+        public Builder addTransportTimeAndDistance(int fromIndex, int toIndex, double time, double distance) {
+            addTransportTime(fromIndex, toIndex, time);
+            addTransportDistance(fromIndex, toIndex, distance);
+            return this;
+        }
+
+        private void add(Values values, int fromIndex, int toIndex, double value) {
+            if (fromIndex < 0 || toIndex < 0 || fromIndex >= noLocations || toIndex >= noLocations)
+                throw new IllegalArgumentException("index of from " + fromIndex + " or to " + toIndex + " is not in [0," + noLocations + ")");
+            values.set(fromIndex * noLocations + toIndex, value);
+            if (isSymmetric) values.set(toIndex * noLocations + fromIndex, value);
+        }
+
+        private void init() {
+            if (distances != null) return;
+            int size = noLocations * noLocations;
+            distances = newHeapValues(precision, scale, size);
+            times = newHeapValues(precision, scale, size);
+        }
+
+        /**
+         * Builds the matrix.
+         *
+         * @return matrix
+         */
+        public DenseVehicleRoutingTransportCostsMatrix build() {
+            init();
+            return new DenseVehicleRoutingTransportCostsMatrix(noLocations, precision, scale, distances, times);
+        }
+
+    }
+
+    /*
+     * Values are addressed by a row-major index into a single array of noLocations^2 values.
+     */
+    private static abstract class Values {
+
+        abstract double get(int index);
+
+        abstract void set(int index, double value);
+
+    }
+
+    private static final class DoubleValues extends Values {
+
+        private final double[] values;
+
+        DoubleValues(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, double value) {
+            values[index] = value;
+        }
+
+    }
+
+    private static final class FloatValues extends Values {
+
+        private final float[] values;
+
+        FloatValues(float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        double get(int index) {
+            return values[index];
+        }
+
+        @Override
+        void set(int index, double value) {
+            values[index] = (float) value;
+        }
+
+    }
+
+    private static final class IntValues extends Values {
+
+        private final int[] values;
+
+        private final double scale;
+
+        private final double inverseScale;
+
+        IntValues(int[] values, double scale) {
+            this.values = values;
+            this.scale = scale;
+            this.inverseScale = 1. / scale;
+        }
+
+        @Override
+        double get(int index) {
+            return values[index] * inverseScale;
+        }
+
+        @Override
+        void set(int index, double value) {
+            long scaled = Math.round(value * scale);
+            if (scaled > Integer.MAX_VALUE || scaled < Integer.MIN_VALUE)
+                throw new IllegalArgumentException("value " + value + " exceeds int range with scale " + scale);
+            values[index] = (int) scaled;
+        }
+
+    }
+
+    private static final class MappedValues extends Values {
+
+        private final ByteBuffer buffer;
+
+        private final Precision precision;
+
+        private final double inverseScale;
+
+        MappedValues(ByteBuffer buffer, Precision precision, double scale) {
+            this.buffer = buffer;
+            this.precision = precision;
+            this.inverseScale = 1. / scale;
+        }
+
+        @Override
+        double get(int index) {
+            switch (precision) {
+                case DOUBLE:
+                    return buffer.getDouble(index << 3);
+                case FLOAT:
+                    return buffer.getFloat(index << 2);
+                default:
+                    return buffer.getInt(index << 2) * inverseScale;
+            }
+        }
+
+        @Override
+        void set(int index, double value) {
+            throw new UnsupportedOperationException("mapped matrix is read-only");
+        }
+
+    }
+
+    static final int MAGIC = 0x4a53504d;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 32;
+
+    private static Values newHeapValues(Precision precision, double scale, int size) {
+        switch (precision) {
+            case DOUBLE:
+                return new DoubleValues(new double[size]);
+            case FLOAT:
+                return new FloatValues(new float[size]);
+            default:
+                return new IntValues(new int[size], scale);
+        }
+    }
+
+    /**
+     * Reads the matrix from file into heap memory.
+     *
+     * @param file the file written by {@link #write(File)}
+     * @return matrix
+     * @throws IOException if file cannot be read or is not a matrix file
+     */
+    public static DenseVehicleRoutingTransportCostsMatrix load(File file) throws IOException {
+        DenseVehicleRoutingTransportCostsMatrix mapped = map(file);
+        int size = mapped.noLocations * mapped.noLocations;
+        Values distances = newHeapValues(mapped.precision, mapped.scale, size);
+        Values times = newHeapValues(mapped.precision, mapped.scale, size);
+        copy(((MappedValues) mapped.distances).buffer, distances, mapped.precision);
+        copy(((MappedValues) mapped.times).buffer, times, mapped.precision);
+        return new DenseVehicleRoutingTransportCostsMatrix(mapped.noLocations, mapped.precision, mapped.scale, distances, times);
+    }
+
+    private static void copy(ByteBuffer from, Values to, Precision precision) {
+        ByteBuffer buffer = from.duplicate().order(ByteOrder.BIG_ENDIAN);
+        buffer.position(0);
+        switch (precision) {
+            case DOUBLE:
+                buffer.asDoubleBuffer().get(((DoubleValues) to).values);
+                break;
+            case FLOAT:
+                buffer.asFloatBuffer().get(((FloatValues) to).values);
+                break;
+            default:
+                buffer.asIntBuffer().get(((IntValues) to).values);
+        }
+    }
+
+    /**
+     * Memory-maps the matrix read-only. Values are read lazily from the operating system's page cache which is shared
+     * between processes mapping the same file.
+     *
+     * @param file the file written by {@link #write(File)}
+     * @return matrix
+     * @throws IOException if file cannot be read or is not a matrix file
+     */
+    public static DenseVehicleRoutingTransportCostsMatrix map(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) throw new IOException(file + " is not a matrix file");
+            if (header.getInt(4) != VERSION)
+                throw new IOException("unsupported matrix file version " + header.getInt(4));
+            int noLocations = header.getInt(8);
+            int precisionOrdinal = header.getInt(12);
+            if (precisionOrdinal < 0 || precisionOrdinal >= Precision.values().length)
+                throw new IOException("unknown precision " + precisionOrdinal);
+            Precision precision = Precision.values()[precisionOrdinal];
+            double scale = header.getDouble(16);
+            long blockBytes = (long) noLocations * noLocations * precision.bytes;
+            if (blockBytes > Integer.MAX_VALUE)
+                throw new IOException("matrix with " + noLocations + " locations exceeds max block size");
+            if (channel.size() != HEADER_BYTES + 2 * blockBytes)
+                throw new IOException("matrix file " + file + " is truncated");
+            MappedByteBuffer distances = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, blockBytes);
+            MappedByteBuffer times = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + blockBytes, blockBytes);
+            return new DenseVehicleRoutingTransportCostsMatrix(noLocations, precision, scale,
+                new MappedValues(distances, precision, scale), new MappedValues(times, precision, scale));
+        } finally {
+            raf.close();
+        }
+    }
+
+    private final int noLocations;
+
+    private final Precision precision;
+
+    private final double scale;
+
+    private final Values distances;
+
+    private final Values times;
+
+    private DenseVehicleRoutingTransportCostsMatrix(int noLocations, Precision precision, double scale, Values distances, Values times) {
+        this.noLocations = noLocations;
+        this.precision = precision;
+        this.scale = scale;
+        this.distances = distances;
+        this.times = times;
+    }
+
+    /**
+     * Writes the matrix to file.
+     *
+     * @param file the file to write to
+     * @throws IOException if file cannot be written
+     */
+    public void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(noLocations);
+            out.writeInt(precision.ordinal());
+            out.writeDouble(scale);
+            out.writeInt(0);
+            out.writeInt(0);
+            writeValues(out, distances);
+            writeValues(out, times);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeValues(DataOutputStream out, Values values) throws IOException {
+        int size = noLocations * noLocations;
+        for (int i = 0; i < size; i++) {
+            double value = values.get(i);
+            switch (precision) {
+                case DOUBLE:
+                    out.writeDouble(value);
+                    break;
+                case FLOAT:
+                    out.writeFloat((float) value);
+                    break;
+                default:
+                    out.writeInt((int) Math.round(value * scale));
+            }
+        }
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the scale of {@link Precision#INT}, i.e. values are stored as Math.round(value * scale).
+     *
+     * @return the scale
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+    /**
+     * Returns the distance from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the distance
+     * @throws IllegalArgumentException if an index is not in [0,noLocations)
+     */
+    public double getDistance(int fromIndex, int toIndex) {
+        return distances.get(index(fromIndex, toIndex));
+    }
+
+    /**
+     * Returns the transport time from to to.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the transport time
+     * @throws IllegalArgumentException if an index is not in [0,noLocations)
+     */
+    public double getTransportTime(int fromIndex, int toIndex) {
+        return times.get(index(fromIndex, toIndex));
+    }
+
+    private int index(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex < 0 || fromIndex >= noLocations || toIndex >= noLocations)
+            throw new IllegalArgumentException("index of from " + fromIndex + " or to " + toIndex + " is not in [0," + noLocations + ")");
+        return fromIndex * noLocations + toIndex;
+    }
+
+    private int index(Location from, Location to) {
+        if (from.getIndex() < 0 || to.getIndex() < 0 || from.getIndex() >= noLocations || to.getIndex() >= noLocations)
+            throw new IllegalArgumentException("index of from " + from + " or to " + to + " is not in [0," + noLocations + ")");
+        return from.getIndex() * noLocations + to.getIndex();
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        return times.get(index(from, to));
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return distances.get(index(from, to));
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        int index = index(from, to);
+        if (vehicle == null) return distances.get(index);
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * distances.get(index) + costParams.perTransportTimeUnit * times.get(index);
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Int-indexed transport costs that precompute the transport costs of an index-based matrix, e.g.
+ * {@link FastVehicleRoutingTransportCostsMatrix} or {@link DenseVehicleRoutingTransportCostsMatrix}, per vehicle type.
+ * <p>
+ * <p>A cost lookup thus reads a single value of a row-major array instead of computing
+ * distance * perDistanceUnit + time * perTransportTimeUnit. Fused matrices are built lazily the first time a vehicle
+ * type is asked for, and types with equal {@link VehicleTypeImpl.VehicleCostParams} share one matrix. Each fused
+ * matrix takes noLocations * noLocations * 8 bytes. Once the memory budget is used up, costs of further types are
+ * taken from the underlying matrix.
+ * <p>
+ * <p>Transport costs must neither depend on departure time nor on the driver, and must only depend on the cost
+ * parameters of the vehicle type. Locations must have an index, and vehicle type keys must have the index assigned by
+ * {@link com.graphhopper.jsprit.core.problem.VehicleRoutingProblem.Builder#build()}.
+ */
+public class FusedCostsVehicleRoutingTransportCosts extends AbstractForwardVehicleRoutingTransportCosts {
+
+    private static final double[] NO_MATRIX = new double[0];
+
+    private final VehicleRoutingTransportCosts matrix;
+
+    private final int noLocations;
+
+    private final long maxBytes;
+
+    private final Location[] locations;
+
+    private final Map<VehicleTypeImpl.VehicleCostParams, double[]> fusedMatrices = new HashMap<VehicleTypeImpl.VehicleCostParams, double[]>();
+
+    private volatile double[][] fusedMatricesByTypeIndex = new double[0][];
+
+    private long usedBytes = 0;
+
+    /**
+     * Creates fused transport costs.
+     *
+     * @param matrix      the underlying index-based matrix
+     * @param noLocations number of locations of the matrix
+     * @param maxBytes    memory budget of all fused matrices in bytes
+     */
+    public FusedCostsVehicleRoutingTransportCosts(VehicleRoutingTransportCosts matrix, int noLocations, long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("memory budget must not be negative");
+        this.matrix = matrix;
+        this.noLocations = noLocations;
+        this.maxBytes = maxBytes;
+        this.locations = new Location[noLocations];
+        for (int i = 0; i < noLocations; i++) {
+            locations[i] = Location.newInstance(i);
+        }
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (vehicle == null) return matrix.getTransportCost(from, to, departureTime, driver, vehicle);
+        int typeIndex = vehicle.getVehicleTypeIdentifier().getIndex();
+        double[][] fused = fusedMatricesByTypeIndex;
+        double[] costs = typeIndex < fused.length ? fused[typeIndex] : null;
+        if (costs == null) costs = fuse(vehicle, typeIndex);
+        int fromIndex = from.getIndex();
+        int toIndex = to.getIndex();
+        if (costs == NO_MATRIX || fromIndex < 0 || toIndex < 0 || fromIndex >= noLocations || toIndex >= noLocations) {
+            return matrix.getTransportCost(from, to, departureTime, driver, vehicle);
+        }
+        return costs[fromIndex * noLocations + toIndex];
+    }
+
+    private synchronized double[] fuse(Vehicle vehicle, int typeIndex) {
+        double[][] fused = fusedMatricesByTypeIndex;
+        if (typeIndex < fused.length && fused[typeIndex] != null) return fused[typeIndex];
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        double[] costs = fusedMatrices.get(costParams);
+        if (costs == null) {
+            long bytes = 8L * noLocations * noLocations;
+            if (usedBytes + bytes > maxBytes || (long) noLocations * noLocations > Integer.MAX_VALUE) {
+                costs = NO_MATRIX;
+            } else {
+                costs = new double[noLocations * noLocations];
+                for (int from = 0; from < noLocations; from++) {
+                    for (int to = 0; to < noLocations; to++) {
+                        costs[from * noLocations + to] = matrix.getTransportCost(locations[from], locations[to], 0., null, vehicle);
+                    }
+                }
+                usedBytes += bytes;
+            }
+            fusedMatrices.put(costParams, costs);
+        }
+        double[][] grown = typeIndex < fused.length ? fused.clone() : Arrays.copyOf(fused, typeIndex + 1);
+        grown[typeIndex] = costs;
+        fusedMatricesByTypeIndex = grown;
+        return costs;
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        return matrix.getTransportTime(from, to, departureTime, driver, vehicle);
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return matrix.getDistance(from, to, departureTime, vehicle);
+    }
+
+    /**
+     * @return memory used by fused matrices in bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+}
@@ -29,6 +29,20 @@ public class RandomNumberGeneration {
         return new Random(DEFAULT_SEED);
     }
 
+    /**
+     * Returns a splittable generator seeded with the default seed. Split it to get one stream per thread (see
+     * {@link SplitMixRandom#split()}).
+     *
+     * @return splittable generator
+     */
+    public static SplitMixRandom newSplittableInstance() {
+        return new SplitMixRandom(DEFAULT_SEED);
+    }
+
+    public static SplitMixRandom newSplittableInstance(long seed) {
+        return new SplitMixRandom(seed);
+    }
+
     public static Random getRandom() {
         return random;
     }
@@ -0,0 +1,130 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import java.util.Random;
+
+/**
+ * Splittable random number generator based on SplitMix64 (Steele, Lea and Flood 2014), i.e. the algorithm of
+ * java.util.SplittableRandom which is not available in Java 7.
+ * <p>
+ * <p>{@link #split()} creates a new generator whose stream is statistically independent of this one. Thus, a single
+ * seed can be split into one stream per thread, island or random walk, and as long as streams are split in the same
+ * order, runs are reproducible no matter how the streams are scheduled. {@link #mix64(long)} additionally allows to
+ * derive random numbers from a key without any generator state, e.g. to draw from several threads concurrently.
+ * <p>
+ * <p>In contrast to {@link Random}, instances are not thread-safe. Each stream is meant to be used by a single thread,
+ * and does not synchronize.
+ */
+public class SplitMixRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /**
+     * Scrambles z, i.e. maps keys that differ in a single bit to unrelated values.
+     *
+     * @param z the key
+     * @return mixed bits
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param bits random bits, e.g. from {@link #mix64(long)}
+     * @return double in [0,1) made of the upper 53 bits
+     */
+    public static double toDouble(long bits) {
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    private long state;
+
+    private long gamma;
+
+    public SplitMixRandom(long seed) {
+        super(seed);
+        this.state = seed;
+        this.gamma = GOLDEN_GAMMA;
+    }
+
+    private SplitMixRandom(long seed, long gamma) {
+        super(seed);
+        this.state = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Creates a new generator that shares no state with this one. It advances this generator, thus subsequent splits
+     * return different streams.
+     *
+     * @return new independent generator
+     */
+    public SplitMixRandom split() {
+        return new SplitMixRandom(nextLong(), mixGamma(nextState()));
+    }
+
+    private long nextState() {
+        return state += gamma;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        this.state = seed;
+        this.gamma = GOLDEN_GAMMA;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return mix32(nextState()) >>> (32 - bits);
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(nextState());
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextState());
+    }
+
+    @Override
+    public double nextDouble() {
+        return toDouble(mix64(nextState()));
+    }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+
+import java.util.Arrays;
+
+
+/**
+ * Int-indexed matrix with time-dependent transport times, e.g. to consider rush hours.
+ * <p>
+ * <p>The planning horizon is divided into noBuckets time buckets of equal length. For each relation, there is one
+ * transport time per bucket which applies to departures at the beginning of the bucket. Transport times of departures
+ * in between are interpolated linearly, departures before the first bucket get the time of the first bucket, and
+ * departures after the beginning of the last bucket the time of the last bucket. Distances do not depend on time.
+ * <p>
+ * <p>Times are stored in a single primitive array with the buckets of a relation next to each other, i.e. a forward
+ * lookup reads two adjacent values.
+ * <p>
+ * <p>The matrix satisfies the FIFO property, i.e. departing later never means arriving earlier. To ensure this,
+ * build() increases the time of a bucket if it is lower than the time of the previous bucket minus the bucket
+ * length. Since arrival times thus do not decrease with departure times, the backward transport time (the time it
+ * takes to arrive at a given arrival time when departing as late as possible) is the exact inverse of the
+ * interpolation. It starts at the bucket of the arrival time and steps backwards as long as arrivals of the bucket
+ * are too late, i.e. it needs to look at more than two buckets only if transport times exceed the bucket length.
+ */
+public class TimeDependentVehicleRoutingTransportCostsMatrix implements VehicleRoutingTransportCosts {
+
+    /**
+     * Builder that builds the matrix.
+     */
+    public static class Builder {
+
+        private final int noLocations;
+
+        private final boolean isSymmetric;
+
+        private final double bucketLength;
+
+        private final int noBuckets;
+
+        private final double[] distances;
+
+        private final double[] times;
+
+        /**
+         * Creates a new builder returning the matrix-builder.
+         * <p>If you want to consider symmetric matrices, set isSymmetric to true.
+         *
+         * @param noLocations  number of locations
+         * @param isSymmetric  true if matrix is symmetric, false otherwise
+         * @param bucketLength length of a time bucket
+         * @param noBuckets    number of time buckets
+         * @return builder
+         */
+        public static Builder newInstance(int noLocations, boolean isSymmetric, double bucketLength, int noBuckets) {
+            return new Builder(noLocations, isSymmetric, bucketLength, noBuckets);
+        }
+
+        private Builder(int noLocations, boolean isSymmetric, double bucketLength, int noBuckets) {
+            if (bucketLength <= 0) throw new IllegalArgumentException("bucketLength must be positive");
+            if (noBuckets < 1) throw new IllegalArgumentException("there must be at least one bucket");
+            if ((long) noLocations * noLocations * noBuckets > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("too many locations and buckets for a heap matrix: " + noLocations + " locations, " + noBuckets + " buckets");
+            this.noLocations = noLocations;
+            this.isSymmetric = isSymmetric;
+            this.bucketLength = bucketLength;
+            this.noBuckets = noBuckets;
+            distances = new double[noLocations * noLocations];
+            times = new double[noLocations * noLocations * noBuckets];
+        }
+
+        /**
+         * Adds a transport-distance for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param distance  the distance to be added
+         * @return builder
+         */
+        public Builder addTransportDistance(int fromIndex, int toIndex, double distance) {
+            distances[fromIndex * noLocations + toIndex] = distance;
+            if (isSymmetric) distances[toIndex * noLocations + fromIndex] = distance;
+            return this;
+        }
+
+        /**
+         * Adds the transport-time for departures at the beginning of the specified bucket, i.e. at bucket * bucketLength.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param bucket    the time bucket
+         * @param time      the time to be added
+         * @return builder
+         */
+        public Builder addTransportTime(int fromIndex, int toIndex, int bucket, double time) {
+            if (bucket < 0 || bucket >= noBuckets) throw new IllegalArgumentException("bucket " + bucket + " does not exist");
+            if (time < 0) throw new IllegalArgumentException("time must not be negative");
+            times[(fromIndex * noLocations + toIndex) * noBuckets + bucket] = time;
+            if (isSymmetric) times[(toIndex * noLocations + fromIndex) * noBuckets + bucket] = time;
+            return this;
+        }
+
+        /**
+         * Adds the transport-times of all buckets for a particular relation.
+         *
+         * @param fromIndex from location index
+         * @param toIndex   to location index
+         * @param times     one time per bucket
+         * @return builder
+         */
+        public Builder addTransportTimes(int fromIndex, int toIndex, double... times) {
+            if (times.length != noBuckets)
+                throw new IllegalArgumentException("number of times (" + times.length + ") does not match number of buckets (" + noBuckets + ")");
+            for (int bucket = 0; bucket < noBuckets; bucket++) {
+                addTransportTime(fromIndex, toIndex, bucket, times[bucket]);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the matrix and makes its times FIFO-consistent.
+         *
+         * @return matrix
+         */
+        public TimeDependentVehicleRoutingTransportCostsMatrix build() {
+            for (int offset = 0; offset < times.length; offset += noBuckets) {
+                for (int bucket = 1; bucket < noBuckets; bucket++) {
+                    times[offset + bucket] = Math.max(times[offset + bucket], times[offset + bucket - 1] - bucketLength);
+                }
+            }
+            return new TimeDependentVehicleRoutingTransportCostsMatrix(this);
+        }
+
+    }
+
+    private final int noLocations;
+
+    private final double bucketLength;
+
+    private final int noBuckets;
+
+    private final double[] distances;
+
+    private final double[] times;
+
+    private TimeDependentVehicleRoutingTransportCostsMatrix(Builder builder) {
+        this.noLocations = builder.noLocations;
+        this.bucketLength = builder.bucketLength;
+        this.noBuckets = builder.noBuckets;
+        this.distances = Arrays.copyOf(builder.distances, builder.distances.length);
+        this.times = Arrays.copyOf(builder.times, builder.times.length);
+    }
+
+    private static void checkIndices(Location from, Location to) {
+        if (from.getIndex() < 0 || to.getIndex() < 0)
+            throw new IllegalArgumentException("index of from " + from + " to " + to + " < 0 ");
+    }
+
+    /**
+     * Returns the transport time from fromIndex to toIndex when departing at departureTime.
+     *
+     * @param fromIndex     from location index
+     * @param toIndex       to location index
+     * @param departureTime the departure time
+     * @return the transport time
+     */
+    public double getTransportTime(int fromIndex, int toIndex, double departureTime) {
+        int offset = (fromIndex * noLocations + toIndex) * noBuckets;
+        if (departureTime <= 0) return times[offset];
+        double position = departureTime / bucketLength;
+        if (position >= noBuckets - 1) return times[offset + noBuckets - 1];
+        int bucket = (int) position;
+        double time = times[offset + bucket];
+        return time + (times[offset + bucket + 1] - time) * (position - bucket);
+    }
+
+    /**
+     * Returns the transport time from fromIndex to toIndex when departing as late as possible to arrive at
+     * arrivalTime.
+     *
+     * @param fromIndex   from location index
+     * @param toIndex     to location index
+     * @param arrivalTime the arrival time
+     * @return the transport time
+     */
+    public double getBackwardTransportTime(int fromIndex, int toIndex, double arrivalTime) {
+        int offset = (fromIndex * noLocations + toIndex) * noBuckets;
+        double lastTime = times[offset + noBuckets - 1];
+        if (arrivalTime >= (noBuckets - 1) * bucketLength + lastTime) return lastTime;
+        //arrivals of buckets do not decrease and are not earlier than their departures,
+        //thus the latest bucket whose arrival is not too late is at most the bucket of arrivalTime
+        int bucket = (int) Math.min(noBuckets - 2, Math.floor(arrivalTime / bucketLength));
+        while (bucket >= 0 && bucket * bucketLength + times[offset + bucket] > arrivalTime) {
+            bucket--;
+        }
+        if (bucket < 0) return times[offset];
+        double bucketArrival = bucket * bucketLength + times[offset + bucket];
+        double nextBucketArrival = (bucket + 1) * bucketLength + times[offset + bucket + 1];
+        double departureTime = bucket * bucketLength + (arrivalTime - bucketArrival) * bucketLength / (nextBucketArrival - bucketArrival);
+        return arrivalTime - departureTime;
+    }
+
+    /**
+     * Returns the distance from fromIndex to toIndex.
+     *
+     * @param fromIndex from location index
+     * @param toIndex   to location index
+     * @return the distance
+     */
+    public double getDistance(int fromIndex, int toIndex) {
+        return distances[fromIndex * noLocations + toIndex];
+    }
+
+    @Override
+    public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
+        return getDistance(from.getIndex(), to.getIndex());
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        checkIndices(from, to);
+        return getTransportTime(from.getIndex(), to.getIndex(), departureTime);
+    }
+
+    @Override
+    public double getBackwardTransportTime(Location from, Location to, double arrivalTime, Driver driver, Vehicle vehicle) {
+        checkIndices(from, to);
+        return getBackwardTransportTime(from.getIndex(), to.getIndex(), arrivalTime);
+    }
+
+    @Override
+    public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        checkIndices(from, to);
+        return getCost(from.getIndex(), to.getIndex(), getTransportTime(from.getIndex(), to.getIndex(), departureTime), vehicle);
+    }
+
+    @Override
+    public double getBackwardTransportCost(Location from, Location to, double arrivalTime, Driver driver, Vehicle vehicle) {
+        checkIndices(from, to);
+        return getCost(from.getIndex(), to.getIndex(), getBackwardTransportTime(from.getIndex(), to.getIndex(), arrivalTime), vehicle);
+    }
+
+    private double getCost(int fromIndex, int toIndex, double time, Vehicle vehicle) {
+        if (vehicle == null) return getDistance(fromIndex, toIndex);
+        VehicleTypeImpl.VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
+        return costParams.perDistanceUnit * getDistance(fromIndex, toIndex) + costParams.perTransportTimeUnit * time;
+    }
+
+    public int getNoLocations() {
+        return noLocations;
+    }
+
+    public double getBucketLength() {
+        return bucketLength;
+    }
+
+    public int getNoBuckets() {
+        return noBuckets;
+    }
+
+}
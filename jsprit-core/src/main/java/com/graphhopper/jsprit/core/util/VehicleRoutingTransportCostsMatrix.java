@@ -25,8 +25,7 @@ import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl.VehicleCostPa
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 
 /**
@@ -36,6 +35,10 @@ import java.util.Map;
  * you set a particular distance, this expects distance-entries for all relations. This counts also
  * for a particular time. If the method getTransportCosts(...) is then invoked for a relation, where no distance can be found, an
  * IllegalStateException will be thrown. Thus if you want to only use distances only, do not use addTransportTime(...).
+ * <p>When building the matrix, location ids are interned into dense indices. If the relations cover a sufficient share
+ * of all id pairs, values are stored in primitive arrays, thus lookups neither allocate nor box. Sparse relations (e.g.
+ * depot to customers only) are kept in a map keyed by the pair of interned indices. If locations have an index
+ * ({@link Location#getIndex()}), it is used to resolve the interned index without hashing the id.
  *
  * @author schroeder
  */
@@ -95,6 +98,96 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
     }
 
 
+    /*
+     * values of all relations, addressed by interned from and to index. NaN means unknown.
+     */
+    private static abstract class RelationValues {
+
+        abstract double get(int fromIndex, int toIndex);
+
+    }
+
+    private static class DenseRelationValues extends RelationValues {
+
+        private final double[] values;
+
+        private final int noIds;
+
+        DenseRelationValues(double[] values, int noIds) {
+            this.values = values;
+            this.noIds = noIds;
+        }
+
+        @Override
+        double get(int fromIndex, int toIndex) {
+            return values[fromIndex * noIds + toIndex];
+        }
+
+    }
+
+    /*
+     * open addressing hash table with linear probing from relation key (fromIndex * noIds + toIndex) to value. keys are
+     * non-negative, so -1 marks an empty slot. it is filled to at most half of its capacity.
+     */
+    private static class SparseRelationValues extends RelationValues {
+
+        private static final long EMPTY = -1L;
+
+        private final long[] keys;
+
+        private final double[] values;
+
+        private final int mask;
+
+        private final int noIds;
+
+        SparseRelationValues(int noRelations, int noIds) {
+            int capacity = Integer.highestOneBit(Math.max(2, noRelations) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new double[capacity];
+            this.mask = capacity - 1;
+            this.noIds = noIds;
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /*
+         * puts value unless the relation already has a value
+         */
+        void putIfAbsent(int fromIndex, int toIndex, double value) {
+            long key = (long) fromIndex * noIds + toIndex;
+            int slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) return;
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        @Override
+        double get(int fromIndex, int toIndex) {
+            long key = (long) fromIndex * noIds + toIndex;
+            int slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) return values[slot];
+                slot = (slot + 1) & mask;
+            }
+            return Double.NaN;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+    }
+
+    /*
+     * relations must cover at least this share of all id pairs to be stored in an array. a hash table entry costs four
+     * times the 8 bytes of an array element, since the table stores a key with each value and is at most half full.
+     */
+    static final double MIN_DENSE_FILL_RATIO = 0.25;
+
     /**
      * Builder that builds the matrix.
      *
@@ -184,48 +277,135 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
 
     }
 
-    private Map<RelationKey, Double> distances = new HashMap<RelationKey, Double>();
+    private final boolean isSymmetric;
 
-    private Map<RelationKey, Double> times = new HashMap<RelationKey, Double>();
+    private final boolean timesSet;
 
-    private boolean isSymmetric;
+    private final boolean distancesSet;
 
-    private boolean timesSet;
+    private final Map<String, Integer> idIndex = new HashMap<String, Integer>();
 
-    private boolean distancesSet;
+    private final String[] ids;
+
+    private final int noIds;
+
+    private final RelationValues distances;
+
+    private final RelationValues times;
+
+    /*
+     * internal index + 1 by Location.getIndex(), 0 means unknown. it is filled lazily and replaced when it grows,
+     * thus racing threads can only lose entries, which are then resolved by id again.
+     */
+    private volatile int[] idIndexByLocationIndex = new int[0];
 
     private VehicleRoutingTransportCostsMatrix(Builder builder) {
         this.isSymmetric = builder.isSymmetric;
-        distances.putAll(builder.distances);
-        times.putAll(builder.times);
         timesSet = builder.timesSet;
         distancesSet = builder.distancesSet;
+        List<String> idList = new ArrayList<String>();
+        intern(builder.distances.keySet(), idList);
+        intern(builder.times.keySet(), idList);
+        ids = idList.toArray(new String[idList.size()]);
+        noIds = ids.length;
+        distances = toRelationValues(builder.distances);
+        times = toRelationValues(builder.times);
     }
 
+    private void intern(Collection<RelationKey> keys, List<String> idList) {
+        for (RelationKey key : keys) {
+            intern(key.from, idList);
+            intern(key.to, idList);
+        }
+    }
 
-    @Override
-    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        return getTime(from.getId(), to.getId());
+    private void intern(String id, List<String> idList) {
+        if (idIndex.containsKey(id)) return;
+        idIndex.put(id, idList.size());
+        idList.add(id);
     }
 
+    private RelationValues toRelationValues(Map<RelationKey, Double> values) {
+        long noPairs = (long) noIds * noIds;
+        long noRelations = isSymmetric ? 2L * values.size() : values.size();
+        if (noPairs <= Integer.MAX_VALUE - 8 && noRelations >= MIN_DENSE_FILL_RATIO * noPairs) {
+            return new DenseRelationValues(toArray(values), noIds);
+        }
+        return toSparseValues(values, (int) noRelations);
+    }
 
-    private double getTime(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
-        if (!timesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (times.containsKey(key)) return times.get(key);
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = times.get(key);
-            if (time == null) {
-                time = times.get(RelationKey.newKey(toId, fromId));
+    private SparseRelationValues toSparseValues(Map<RelationKey, Double> values, int noRelations) {
+        SparseRelationValues sparseValues = new SparseRelationValues(noRelations, noIds);
+        for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+            sparseValues.putIfAbsent(idIndex.get(e.getKey().from), idIndex.get(e.getKey().to), e.getValue());
+        }
+        if (isSymmetric) {
+            for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+                sparseValues.putIfAbsent(idIndex.get(e.getKey().to), idIndex.get(e.getKey().from), e.getValue());
             }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("time value for relation from " + fromId + " to " + toId + " does not exist");
         }
+        return sparseValues;
+    }
+
+    private double[] toArray(Map<RelationKey, Double> values) {
+        double[] arr = new double[noIds * noIds];
+        Arrays.fill(arr, Double.NaN);
+        for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+            arr[idIndex.get(e.getKey().from) * noIds + idIndex.get(e.getKey().to)] = e.getValue();
+        }
+        if (isSymmetric) {
+            for (Map.Entry<RelationKey, Double> e : values.entrySet()) {
+                int reverse = idIndex.get(e.getKey().to) * noIds + idIndex.get(e.getKey().from);
+                if (Double.isNaN(arr[reverse])) arr[reverse] = e.getValue();
+            }
+        }
+        return arr;
+    }
+
+    private int index(Location location) {
+        int locationIndex = location.getIndex();
+        if (locationIndex >= 0) {
+            int[] cache = idIndexByLocationIndex;
+            if (locationIndex < cache.length) {
+                int index = cache[locationIndex] - 1;
+                if (index >= 0 && ids[index].equals(location.getId())) return index;
+            }
+        }
+        Integer index = idIndex.get(location.getId());
+        if (index == null) return -1;
+        if (locationIndex >= 0) memorize(locationIndex, index);
+        return index;
+    }
+
+    private void memorize(int locationIndex, int index) {
+        int[] cache = idIndexByLocationIndex;
+        if (locationIndex >= cache.length) {
+            cache = Arrays.copyOf(cache, Math.max(locationIndex + 1, cache.length * 2));
+            cache[locationIndex] = index + 1;
+            idIndexByLocationIndex = cache;
+        } else cache[locationIndex] = index + 1;
+    }
+
+    @Override
+    public double getTransportTime(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
+        if (!timesSet) return 0.0;
+        return get(times, "time", from.getId(), to.getId(), index(from), index(to));
+    }
+
+    private double get(RelationValues values, String indicator, String fromId, String toId, int fromIndex, int toIndex) {
+        if (fromIndex == toIndex && fromIndex >= 0) return 0.0;
+        double value = fromIndex < 0 || toIndex < 0 ? Double.NaN : values.get(fromIndex, toIndex);
+        if (Double.isNaN(value)) {
+            if (fromId.equals(toId)) return 0.0;
+            throw new IllegalStateException(indicator + " value for relation from " + fromId + " to " + toId + " does not exist");
+        }
+        return value;
+    }
+
+    private int index(String id) {
+        Integer index = idIndex.get(id);
+        if (index == null) return -1;
+        return index;
     }
 
     /**
@@ -237,34 +417,25 @@ public class VehicleRoutingTransportCostsMatrix extends AbstractForwardVehicleRo
      * @throws IllegalStateException if distance of fromId -> toId is not found
      */
     public double getDistance(String fromId, String toId) {
-        if (fromId.equals(toId)) return 0.0;
         if (!distancesSet) return 0.0;
-        RelationKey key = RelationKey.newKey(fromId, toId);
-        if (!isSymmetric) {
-            if (distances.containsKey(key)) return distances.get(key);
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        } else {
-            Double time = distances.get(key);
-            if (time == null) {
-                time = distances.get(RelationKey.newKey(toId, fromId));
-            }
-            if (time != null) return time;
-            else
-                throw new IllegalStateException("distance value for relation from " + fromId + " to " + toId + " does not exist");
-        }
+        return get(distances, "distance", fromId, toId, index(fromId), index(toId));
     }
 
     @Override
     public double getTransportCost(Location from, Location to, double departureTime, Driver driver, Vehicle vehicle) {
-        if (vehicle == null) return getDistance(from.getId(), to.getId());
+        int fromIndex = index(from);
+        int toIndex = index(to);
+        double distance = distancesSet ? get(distances, "distance", from.getId(), to.getId(), fromIndex, toIndex) : 0.0;
+        if (vehicle == null) return distance;
         VehicleCostParams costParams = vehicle.getType().getVehicleCostParams();
-        return costParams.perDistanceUnit * getDistance(from.getId(), to.getId()) + costParams.perTransportTimeUnit * getTime(from.getId(), to.getId());
+        double time = timesSet ? get(times, "time", from.getId(), to.getId(), fromIndex, toIndex) : 0.0;
+        return costParams.perDistanceUnit * distance + costParams.perTransportTimeUnit * time;
     }
 
     @Override
     public double getDistance(Location from, Location to, double departureTime, Vehicle vehicle) {
-        return getDistance(from.getId(), to.getId());
+        if (!distancesSet) return 0.0;
+        return get(distances, "distance", from.getId(), to.getId(), index(from), index(to));
     }
 
 }
@@ -0,0 +1,136 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveStrategyWeightingTest {
+
+    private SearchStrategyManager createManager() {
+        SearchStrategyManager manager = new SearchStrategyManager();
+        SearchStrategy good = mock(SearchStrategy.class);
+        SearchStrategy bad = mock(SearchStrategy.class);
+        when(good.getId()).thenReturn("good");
+        when(bad.getId()).thenReturn("bad");
+        manager.addStrategy(good, 0.5);
+        manager.addStrategy(bad, 0.5);
+        return manager;
+    }
+
+    private VehicleRoutingProblemSolution solution(double costs) {
+        return new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), Collections.<Job>emptyList(), costs);
+    }
+
+    private void runIteration(AdaptiveStrategyWeighting weighting, int iteration, Collection<VehicleRoutingProblemSolution> solutions, String strategyId, double costs, boolean accepted) {
+        weighting.informIterationStarts(iteration, null, solutions);
+        weighting.informSelectedStrategy(new SearchStrategy.DiscoveredSolution(solution(costs), accepted, strategyId), null, solutions);
+    }
+
+    @Test
+    public void improvingStrategyShouldGainWeight() {
+        SearchStrategyManager manager = createManager();
+        AdaptiveStrategyWeighting weighting = new AdaptiveStrategyWeighting(manager);
+        weighting.setSegmentLength(10);
+        weighting.setReactionFactor(0.5);
+        List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(solution(100.));
+        weighting.informAlgorithmStarts(null, null, solutions);
+
+        double costs = 100.;
+        for (int i = 1; i <= 10; i++) {
+            if (i % 2 == 0) {
+                costs -= 1.;
+                runIteration(weighting, i, solutions, "good", costs, true);
+            } else {
+                runIteration(weighting, i, solutions, "bad", costs + 10., false);
+            }
+        }
+        assertTrue(manager.getWeight("good") > 0.5);
+        assertTrue(manager.getWeight("bad") < 0.5);
+        assertEquals(1., manager.getWeight("good") + manager.getWeight("bad"), 0.01);
+    }
+
+    @Test
+    public void weightsShouldNotDropBelowMinShare() {
+        SearchStrategyManager manager = createManager();
+        AdaptiveStrategyWeighting weighting = new AdaptiveStrategyWeighting(manager);
+        weighting.setSegmentLength(2);
+        weighting.setReactionFactor(1.);
+        weighting.setMinWeightShare(0.2);
+        List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(solution(100.));
+        weighting.informAlgorithmStarts(null, null, solutions);
+
+        for (int i = 1; i <= 20; i++) {
+            if (i % 2 == 0) runIteration(weighting, i, solutions, "good", 200. - i, true);
+            else runIteration(weighting, i, solutions, "bad", 300., false);
+        }
+        assertEquals(0.1, manager.getWeight("bad"), 0.001);
+    }
+
+    @Test
+    public void trajectoryShouldContainInitialWeightsAndOneSnapshotPerSegment() {
+        SearchStrategyManager manager = createManager();
+        AdaptiveStrategyWeighting weighting = new AdaptiveStrategyWeighting(manager);
+        weighting.setSegmentLength(5);
+        List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(solution(100.));
+        weighting.informAlgorithmStarts(null, null, solutions);
+        for (int i = 1; i <= 12; i++) {
+            runIteration(weighting, i, solutions, i % 2 == 0 ? "good" : "bad", 100. - i, true);
+        }
+        List<AdaptiveStrategyWeighting.WeightSnapshot> trajectory = weighting.getWeightTrajectory();
+        assertEquals(3, trajectory.size());
+        assertEquals(0, trajectory.get(0).getIteration());
+        assertEquals(0.5, trajectory.get(0).getWeights().get("good"), 0.001);
+        assertEquals(5, trajectory.get(1).getIteration());
+        assertEquals(10, trajectory.get(2).getIteration());
+    }
+
+    @Test
+    public void whenAlgorithmRestarts_initialWeightsShouldBeRestored() {
+        SearchStrategyManager manager = createManager();
+        AdaptiveStrategyWeighting weighting = new AdaptiveStrategyWeighting(manager);
+        weighting.setSegmentLength(1);
+        weighting.setReactionFactor(1.);
+        List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(solution(100.));
+        weighting.informAlgorithmStarts(null, null, solutions);
+        runIteration(weighting, 1, solutions, "good", 90., true);
+        runIteration(weighting, 2, solutions, "bad", 120., false);
+
+        weighting.informAlgorithmStarts(null, null, solutions);
+        assertEquals(0.5, manager.getWeight("good"), 0.001);
+        assertEquals(0.5, manager.getWeight("bad"), 0.001);
+        assertEquals(1, weighting.getWeightTrajectory().size());
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm;
+
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class IslandVehicleRoutingAlgorithmTest {
+
+    @Test
+    public void whenRunningIslands_solutionsOfAllIslandsShouldBeReturned() {
+        VehicleRoutingProblem vrp = createProblem();
+        IslandVehicleRoutingAlgorithm islands = Jsprit.Builder.newInstance(vrp).buildIslandAlgorithm(3);
+        islands.setMaxIterations(20);
+        islands.setMigrationInterval(5);
+        Collection<VehicleRoutingProblemSolution> solutions = islands.searchSolutions();
+        Assert.assertTrue(solutions.size() >= 3);
+        VehicleRoutingProblemSolution best = Solutions.bestOf(solutions);
+        Assert.assertTrue(best.getUnassignedJobs().isEmpty());
+    }
+
+    @Test
+    public void eachIslandShouldGetItsOwnRandomStream() {
+        VehicleRoutingProblem vrp = createProblem();
+        final Random[] randoms = new Random[2];
+        IslandVehicleRoutingAlgorithm islands = new IslandVehicleRoutingAlgorithm(vrp, new IslandVehicleRoutingAlgorithm.IslandFactory() {
+
+            @Override
+            public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp, int island, Random random) {
+                randoms[island] = random;
+                return Jsprit.Builder.newInstance(vrp).setRandom(random).buildAlgorithm();
+            }
+
+        }, 2);
+        islands.setMaxIterations(5);
+        islands.searchSolutions();
+        Assert.assertNotNull(randoms[0]);
+        Assert.assertNotNull(randoms[1]);
+        Assert.assertNotSame(randoms[0], randoms[1]);
+    }
+
+    @Test
+    public void whenNeighbourHasNotPublishedNewSolution_itShouldNotBeImportedAgain() {
+        AtomicReferenceArray<VehicleRoutingProblemSolution> emigrants = new AtomicReferenceArray<VehicleRoutingProblemSolution>(2);
+        emigrants.set(1, new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 10.));
+        IslandVehicleRoutingAlgorithm.Migration migration = new IslandVehicleRoutingAlgorithm.Migration(0, emigrants, 1);
+
+        Collection<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+        solutions.add(new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 100.));
+        migration.informIterationEnds(1, null, solutions);
+        Assert.assertEquals(1, solutions.size());
+        Assert.assertEquals(10., solutions.iterator().next().getCost(), 0.01);
+
+        solutions.clear();
+        solutions.add(new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 50.));
+        migration.informIterationEnds(2, null, solutions);
+        Assert.assertEquals(1, solutions.size());
+        Assert.assertEquals(50., solutions.iterator().next().getCost(), 0.01);
+
+        emigrants.set(1, new VehicleRoutingProblemSolution(Collections.<VehicleRoute>emptyList(), 20.));
+        migration.informIterationEnds(3, null, solutions);
+        Assert.assertEquals(20., solutions.iterator().next().getCost(), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSharingStateManager_itShouldThrowException() {
+        VehicleRoutingProblem vrp = createProblem();
+        Jsprit.Builder.newInstance(vrp).setStateAndConstraintManager(new StateManager(vrp), null).buildIslandAlgorithm(2);
+    }
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 5).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        return vrpBuilder.build();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.acceptor;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithmFactory;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class SchrimpfInitialThresholdGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build());
+        for (int i = 0; i < 10; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(i * 3 % 7, i * 5 % 11)).build());
+        }
+        return vrpBuilder.build();
+    }
+
+    @Test
+    public void whenEstimateIsPersisted_itShouldBeUsedWithoutWalk() throws Exception {
+        File file = folder.newFile("thresholds.properties");
+        SchrimpfThresholdEstimates estimates = SchrimpfThresholdEstimates.load(file);
+        estimates.put("family", 42.);
+        estimates.save();
+
+        SchrimpfAcceptance schrimpfAcceptance = new SchrimpfAcceptance(1, 0.1);
+        SchrimpfInitialThresholdGenerator generator = new SchrimpfInitialThresholdGenerator(schrimpfAcceptance, 10);
+        generator.setEstimates(SchrimpfThresholdEstimates.load(file), "family");
+        generator.setWalkAlgorithmFactory(new VehicleRoutingAlgorithmFactory() {
+
+            @Override
+            public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+                throw new IllegalStateException("walk should not be run");
+            }
+
+        });
+        generator.informAlgorithmStarts(createProblem(), null, Collections.<VehicleRoutingProblemSolution>emptyList());
+        assertEquals(42., schrimpfAcceptance.getInitialThreshold(), 0.01);
+    }
+
+    @Test
+    public void whenThereIsNoEstimate_walkEstimateShouldBePersisted() throws Exception {
+        File file = new File(folder.getRoot(), "thresholds.properties");
+        SchrimpfAcceptance schrimpfAcceptance = new SchrimpfAcceptance(1, 0.1);
+        SchrimpfInitialThresholdGenerator generator = new SchrimpfInitialThresholdGenerator(schrimpfAcceptance, 10);
+        generator.setEstimates(SchrimpfThresholdEstimates.load(file), "family");
+        generator.informAlgorithmStarts(createProblem(), null, Collections.<VehicleRoutingProblemSolution>emptyList());
+
+        Double persisted = SchrimpfThresholdEstimates.load(file).get("family");
+        assertNotNull(persisted);
+        assertEquals(schrimpfAcceptance.getInitialThreshold(), persisted, 0.0001);
+        assertNull(SchrimpfThresholdEstimates.load(file).get("otherFamily"));
+    }
+
+    @Test
+    public void parallelWalksShouldDetermineThreshold() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            SchrimpfAcceptance schrimpfAcceptance = new SchrimpfAcceptance(1, 0.1);
+            schrimpfAcceptance.setInitialThreshold(-1.);
+            SchrimpfInitialThresholdGenerator generator = new SchrimpfInitialThresholdGenerator(schrimpfAcceptance, 10);
+            generator.setExecutor(executor, 3);
+            generator.informAlgorithmStarts(createProblem(), null, Collections.<VehicleRoutingProblemSolution>emptyList());
+            assertTrue(schrimpfAcceptance.getInitialThreshold() >= 0.);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
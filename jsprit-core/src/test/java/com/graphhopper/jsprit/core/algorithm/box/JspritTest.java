@@ -27,12 +27,18 @@ import com.graphhopper.jsprit.core.algorithm.recreate.listener.JobInsertedListen
 import com.graphhopper.jsprit.core.algorithm.ruin.listener.RuinListener;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
 import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Pickup;
 import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
 import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
 import com.graphhopper.jsprit.core.util.RandomNumberGeneration;
+import com.graphhopper.jsprit.core.util.Solutions;
 import junit.framework.Assert;
 import org.junit.Test;
 
@@ -477,6 +483,176 @@ public class JspritTest {
         Assert.assertTrue(true);
     }
 
+    @Test
+    public void whenUsingPrimitiveStates_insertionsShouldBeEqualToObjectStates() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 4).addCapacityDimension(1, 3).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        for (int i = 0; i < 10; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1).addSizeDimension(1, i % 2)
+                .setLocation(Location.newInstance(i, 10 - i)).setTimeWindow(TimeWindow.newInstance(0, 20 + i * 5)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 2)
+            .setPickupLocation(Location.newInstance(3, 3)).setDeliveryLocation(Location.newInstance(8, 1)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        final List<Double> objectCosts = recordInsertionCosts(vrp, Jsprit.Parameter.PRIMITIVE_STATES, false);
+        RandomNumberGeneration.reset();
+        final List<Double> primitiveCosts = recordInsertionCosts(vrp, Jsprit.Parameter.PRIMITIVE_STATES, true);
+
+        Assert.assertEquals(objectCosts.size(), primitiveCosts.size());
+        for (int i = 0; i < objectCosts.size(); i++) {
+            Assert.assertEquals(objectCosts.get(i), primitiveCosts.get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void whenUsingIncrementalStateUpdates_insertionsShouldBeEqualToFullUpdates() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 5).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(10, 10)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE);
+        for (int i = 0; i < 6; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i, 10 - i)).setTimeWindow(TimeWindow.newInstance(10 + i * 3, 40 + i * 5)).build());
+            vrpBuilder.addJob(Delivery.Builder.newInstance("d" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(10 - i, i)).build());
+            vrpBuilder.addJob(Pickup.Builder.newInstance("p" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i, i)).setTimeWindow(TimeWindow.newInstance(0, 60 + i * 10)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 2)
+            .setPickupLocation(Location.newInstance(3, 3)).setDeliveryLocation(Location.newInstance(8, 1)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        final List<Double> fullCosts = recordInsertionCosts(vrp, Jsprit.Parameter.INCREMENTAL_STATE_UPDATES, false);
+        RandomNumberGeneration.reset();
+        final List<Double> incrementalCosts = recordInsertionCosts(vrp, Jsprit.Parameter.INCREMENTAL_STATE_UPDATES, true);
+
+        Assert.assertEquals(fullCosts.size(), incrementalCosts.size());
+        for (int i = 0; i < fullCosts.size(); i++) {
+            Assert.assertEquals(fullCosts.get(i), incrementalCosts.get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void whenUsingCopyOnWriteSolutions_insertionsShouldBeEqualToDeepCopies() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 4).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(10, 10)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2);
+        for (int i = 0; i < 8; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i, 10 - i)).setTimeWindow(TimeWindow.newInstance(5 + i * 3, 50 + i * 5)).build());
+            vrpBuilder.addJob(Pickup.Builder.newInstance("p" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i, i)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 2)
+            .setPickupLocation(Location.newInstance(3, 3)).setDeliveryLocation(Location.newInstance(8, 1)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        final List<Double> deepCopyCosts = recordInsertionCosts(vrp, Jsprit.Parameter.COPY_ON_WRITE_SOLUTIONS, false);
+        RandomNumberGeneration.reset();
+        final List<Double> copyOnWriteCosts = recordInsertionCosts(vrp, Jsprit.Parameter.COPY_ON_WRITE_SOLUTIONS, true);
+
+        Assert.assertEquals(deepCopyCosts.size(), copyOnWriteCosts.size());
+        for (int i = 0; i < deepCopyCosts.size(); i++) {
+            Assert.assertEquals(deepCopyCosts.get(i), copyOnWriteCosts.get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void whenUsingInsertionCostsCache_insertionsShouldBeEqualToUncachedInsertions() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 4).build();
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(10, 10)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v1).addVehicle(v2);
+        for (int i = 0; i < 8; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i, 10 - i)).setTimeWindow(TimeWindow.newInstance(5 + i * 3, 50 + i * 5)).build());
+            vrpBuilder.addJob(Delivery.Builder.newInstance("d" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(10 - i, i)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 2)
+            .setPickupLocation(Location.newInstance(3, 3)).setDeliveryLocation(Location.newInstance(8, 1)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        final List<Double> uncachedCosts = recordInsertionCosts(vrp, Jsprit.Parameter.INSERTION_COSTS_CACHE, false);
+        RandomNumberGeneration.reset();
+        final List<Double> cachedCosts = recordInsertionCosts(vrp, Jsprit.Parameter.INSERTION_COSTS_CACHE, true);
+
+        Assert.assertEquals(uncachedCosts.size(), cachedCosts.size());
+        for (int i = 0; i < uncachedCosts.size(); i++) {
+            Assert.assertEquals(uncachedCosts.get(i), cachedCosts.get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void whenFilteringRoutesByLowerBounds_insertionsShouldBeEqualToUnfilteredInsertions() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 3).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance();
+        for (int i = 0; i < 4; i++) {
+            vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v" + i).setType(type).setStartLocation(Location.newInstance(i * 30, i % 2 * 30)).build());
+        }
+        for (int i = 0; i < 12; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(i * 8, (i * 7) % 40)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh").addSizeDimension(0, 1)
+            .setPickupLocation(Location.newInstance(3, 3)).setDeliveryLocation(Location.newInstance(80, 20)).build());
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        // without noise, since skipped evaluations do not draw random noise
+        RandomNumberGeneration.reset();
+        final List<Double> unfilteredCosts = recordInsertionCosts(Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "0.").buildAlgorithm());
+        RandomNumberGeneration.reset();
+        final List<Double> filteredCosts = recordInsertionCosts(Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.INSERTION_NOISE_PROB, "0.")
+            .setProperty(Jsprit.Parameter.ROUTE_CANDIDATE_FILTER, "true").buildAlgorithm());
+
+        Assert.assertEquals(unfilteredCosts.size(), filteredCosts.size());
+        for (int i = 0; i < unfilteredCosts.size(); i++) {
+            Assert.assertEquals(unfilteredCosts.get(i), filteredCosts.get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void whenUsingForkJoinInsertion_allJobsShouldBeInserted() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 20).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+            .addVehicle(VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build());
+        Random random = new Random(3);
+        for (int i = 0; i < 260; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .setProperty(Jsprit.Parameter.THREADS, "2")
+            .setProperty(Jsprit.Parameter.FORK_JOIN_INSERTION, "true").buildAlgorithm();
+        vra.setMaxIterations(5);
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+        Assert.assertTrue(solution.getUnassignedJobs().isEmpty());
+    }
+
+    private List<Double> recordInsertionCosts(VehicleRoutingProblem vrp, Jsprit.Parameter parameter, boolean value) {
+        return recordInsertionCosts(Jsprit.Builder.newInstance(vrp).setProperty(parameter, String.valueOf(value)).buildAlgorithm());
+    }
+
+    private List<Double> recordInsertionCosts(VehicleRoutingAlgorithm vra) {
+        vra.setMaxIterations(50);
+        final List<Double> costs = new ArrayList<Double>();
+        vra.addListener(new BeforeJobInsertionListener() {
+            @Override
+            public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+                costs.add(data.getInsertionCost());
+            }
+        });
+        vra.searchSolutions();
+        return costs;
+    }
+
     @Test
     public void compare() {
         String s1 = "s2234";
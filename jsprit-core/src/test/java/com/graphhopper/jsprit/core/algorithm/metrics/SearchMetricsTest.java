@@ -0,0 +1,133 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.metrics;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ServiceLoadRouteLevelConstraint;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+public class SearchMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void whenRunningAlgorithm_hotPathShouldBeRecorded() {
+        VehicleRoutingProblem vrp = createProblem();
+        SearchMetrics metrics = new SearchMetrics();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(new Random(42)).setMetricsListener(metrics).buildAlgorithm();
+        vra.setMaxIterations(50);
+        vra.searchSolutions();
+
+        SearchMetricsSnapshot snapshot = metrics.getSnapshot();
+        long strategyRuns = 0;
+        for (SearchMetricsSnapshot.Timing timing : snapshot.getStrategyTimes().values()) strategyRuns += timing.getCount();
+        Assert.assertEquals(50, strategyRuns);
+        Assert.assertEquals(50, snapshot.getSolutionCopyTime().getCount());
+        Assert.assertEquals(snapshot.getStrategyTimes().keySet(), snapshot.getRuinTimes().keySet());
+        Assert.assertEquals(snapshot.getStrategyTimes().keySet(), snapshot.getRecreateTimes().keySet());
+        Assert.assertTrue(snapshot.getInsertionCostEvaluations() > 0);
+        Assert.assertTrue(snapshot.getStateUpdateTimes().containsKey("UpdateLoads"));
+        Assert.assertTrue(snapshot.getHardConstraintRejections().get(ServiceLoadRouteLevelConstraint.class.getSimpleName()) > 0);
+    }
+
+    @Test
+    public void whenRecordingMetrics_solutionShouldNotChange() {
+        VehicleRoutingProblem vrp = createProblem();
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setRandom(new Random(42)).buildAlgorithm();
+        vra.setMaxIterations(50);
+        VehicleRoutingProblemSolution expected = Solutions.bestOf(vra.searchSolutions());
+
+        VehicleRoutingAlgorithm vraWithMetrics = Jsprit.Builder.newInstance(vrp).setRandom(new Random(42)).setMetricsListener(new SearchMetrics()).buildAlgorithm();
+        vraWithMetrics.setMaxIterations(50);
+        VehicleRoutingProblemSolution actual = Solutions.bestOf(vraWithMetrics.searchSolutions());
+        Assert.assertEquals(expected.getCost(), actual.getCost(), 0.001);
+    }
+
+    @Test
+    public void whenAlgorithmEnds_snapshotShouldBeWrittenToSinks() throws IOException {
+        VehicleRoutingProblem vrp = createProblem();
+        File csv = folder.newFile("metrics.csv");
+        File json = folder.newFile("metrics.json");
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.addSink(new CsvSearchMetricsSink(csv));
+        metrics.addSink(new JsonSearchMetricsSink(json));
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp).setMetricsListener(metrics).buildAlgorithm();
+        vra.setMaxIterations(10);
+        vra.searchSolutions();
+
+        List<String> lines = Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals("metric,name,count,nanos", lines.get(0));
+        Assert.assertTrue(lines.contains("insertionCostEvaluation,," + metrics.getSnapshot().getInsertionCostEvaluations() + ","));
+        String content = new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.startsWith("{\"strategies\":{"));
+        Assert.assertTrue(content.contains("\"insertionCostEvaluations\":" + metrics.getSnapshot().getInsertionCostEvaluations()));
+    }
+
+    @Test
+    public void whenReset_allMetricsShouldBeCleared() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.informRuin("radial", 10);
+        metrics.informInsertionCostsEvaluated();
+        metrics.informSolutionCopied(5);
+        metrics.reset();
+        SearchMetricsSnapshot snapshot = metrics.getSnapshot();
+        Assert.assertTrue(snapshot.getRuinTimes().isEmpty());
+        Assert.assertEquals(0, snapshot.getInsertionCostEvaluations());
+        Assert.assertEquals(0, snapshot.getSolutionCopyTime().getCount());
+    }
+
+    @Test
+    public void jsonShouldEscapeNames() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.informRecreate("a\"b", 3);
+        String json = JsonSearchMetricsSink.toJson(metrics.getSnapshot());
+        Assert.assertTrue(json.contains("\"recreate\":{\"a\\\"b\":{\"count\":1,\"nanos\":3}}"));
+    }
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 5).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        Random random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        return vrpBuilder.build();
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.InfiniteFleetManagerFactory;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleFleetManager;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BestInsertionForkJoinTest {
+
+    @Test
+    public void whenInsertingJobs_itShouldInsertLikeBestInsertion() {
+        VehicleRoutingProblem vrp = createProblem();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<Double> expected = new ArrayList<Double>();
+            Collection<VehicleRoute> expectedRoutes = insert(vrp, null, expected);
+            List<Double> actual = new ArrayList<Double>();
+            Collection<VehicleRoute> actualRoutes = insert(vrp, pool, actual);
+
+            Assert.assertEquals(expectedRoutes.size(), actualRoutes.size());
+            Assert.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.assertEquals(expected.get(i), actual.get(i), 0.001);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void whenJobCannotBeInserted_itShouldBeReturned() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 1).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        Service tooBig = Service.Builder.newInstance("s").addSizeDimension(0, 2).setLocation(Location.newInstance(1, 1)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(v).addJob(tooBig).build();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            StateManager stateManager = new StateManager(vrp);
+            ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+            constraintManager.addLoadConstraint();
+            stateManager.updateLoadStates();
+            VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+            InsertionStrategy insertion = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+                .setForkJoinMode(pool, 4).build();
+            Collection<Job> unassigned = insertion.insertJobs(new ArrayList<VehicleRoute>(), vrp.getJobs().values());
+            Assert.assertEquals(1, unassigned.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Collection<VehicleRoute> insert(VehicleRoutingProblem vrp, ForkJoinPool pool, final List<Double> insertionCosts) {
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        stateManager.updateLoadStates();
+        VehicleFleetManager fleetManager = new InfiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        InsertionBuilder builder = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager);
+        if (pool != null) builder.setForkJoinMode(pool, 4);
+        AbstractInsertionStrategy insertion = (AbstractInsertionStrategy) builder.build();
+        insertion.setRandom(new Random(42));
+        insertion.addListener(stateManager);
+        insertion.addListener(new BeforeJobInsertionListener() {
+            @Override
+            public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+                insertionCosts.add(data.getInsertionCost());
+            }
+        });
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        insertion.insertJobs(routes, vrp.getJobs().values());
+        return routes;
+    }
+
+    private VehicleRoutingProblem createProblem() {
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 5).build();
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(v);
+        Random random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        return vrpBuilder.build();
+    }
+
+}
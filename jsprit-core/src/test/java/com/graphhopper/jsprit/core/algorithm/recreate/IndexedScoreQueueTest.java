@@ -0,0 +1,76 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IndexedScoreQueueTest {
+
+    @Test
+    public void peekShouldReturnIndexWithHighestScore() {
+        IndexedScoreQueue queue = new IndexedScoreQueue(5);
+        queue.put(1, 3.);
+        queue.put(2, 7.);
+        queue.put(3, 5.);
+        assertEquals(2, queue.peek());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void whenUpdatingScores_peekShouldReflectThem() {
+        IndexedScoreQueue queue = new IndexedScoreQueue(5);
+        queue.put(1, 3.);
+        queue.put(2, 7.);
+        queue.put(3, 5.);
+        queue.put(1, 10.);
+        assertEquals(1, queue.peek());
+        queue.put(1, 0.);
+        assertEquals(2, queue.peek());
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    public void whenRemovingIndices_queueShouldBeConsistent() {
+        IndexedScoreQueue queue = new IndexedScoreQueue(5);
+        queue.put(0, 1.);
+        queue.put(1, 3.);
+        queue.put(2, 7.);
+        queue.put(3, 5.);
+        queue.remove(2);
+        assertFalse(queue.contains(2));
+        assertEquals(3, queue.peek());
+        queue.remove(3);
+        assertEquals(1, queue.peek());
+        queue.remove(1);
+        queue.remove(0);
+        assertTrue(queue.isEmpty());
+        assertEquals(-1, queue.peek());
+    }
+
+    @Test
+    public void equalScoresShouldBeOrderedByIndex() {
+        IndexedScoreQueue queue = new IndexedScoreQueue(5);
+        queue.put(4, 1.);
+        queue.put(2, 1.);
+        queue.put(3, 1.);
+        assertEquals(2, queue.peek());
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.driver.Driver;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupService;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class InsertionCostsCacheTest {
+
+    private static class CountingCalculator implements JobInsertionCostsCalculator {
+
+        int calls = 0;
+
+        double costs = 10.;
+
+        @Override
+        public InsertionData getInsertionData(VehicleRoute currentRoute, Job newJob, Vehicle newVehicle, double newVehicleDepartureTime, Driver newDriver, double bestKnownCosts) {
+            calls++;
+            if (costs >= bestKnownCosts) return new InsertionData.NoInsertionFound();
+            InsertionData iData = new InsertionData(costs, InsertionData.NO_INDEX, 0, newVehicle, newDriver);
+            iData.getEvents().add(new InsertActivity(currentRoute, newVehicle, new PickupService((Service) newJob), 0));
+            iData.getEvents().add(new SwitchVehicle(currentRoute, newVehicle, newVehicleDepartureTime));
+            iData.setVehicleDepartureTime(newVehicleDepartureTime);
+            return iData;
+        }
+
+    }
+
+    private Service service;
+
+    private Service newService;
+
+    private VehicleImpl vehicle;
+
+    private VehicleRoute route;
+
+    private CountingCalculator calculator;
+
+    private InsertionCostsCache cache;
+
+    private JobInsertionCostsCalculator cachingCalculator;
+
+    @Before
+    public void doBefore() {
+        vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        service = Service.Builder.newInstance("s1").setLocation(Location.newInstance(1, 0)).build();
+        newService = Service.Builder.newInstance("s2").setLocation(Location.newInstance(2, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(service).addJob(newService).build();
+        route = VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory()).addService(service).build();
+        calculator = new CountingCalculator();
+        cache = new InsertionCostsCache();
+        cachingCalculator = new CachingJobInsertionCostsCalculator(calculator, cache);
+    }
+
+    private InsertionData insertionData(VehicleRoute route, double bestKnownCosts) {
+        return cachingCalculator.getInsertionData(route, newService, vehicle, 0., route.getDriver(), bestKnownCosts);
+    }
+
+    @Test
+    public void whenRouteIsCopied_insertionDataShouldBeTakenFromCache() {
+        InsertionData first = insertionData(route, Double.MAX_VALUE);
+        VehicleRoute copiedRoute = VehicleRoute.copyOf(route);
+        InsertionData second = insertionData(copiedRoute, Double.MAX_VALUE);
+
+        Assert.assertEquals(1, calculator.calls);
+        Assert.assertEquals(first.getInsertionCost(), second.getInsertionCost(), 0.01);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void whenInsertionDataAreTakenFromCache_theyShouldBeBoundToCurrentRoute() {
+        InsertionData first = insertionData(route, Double.MAX_VALUE);
+        VehicleRoute copiedRoute = VehicleRoute.copyOf(route);
+        InsertionData second = insertionData(copiedRoute, Double.MAX_VALUE);
+
+        InsertActivity firstInsertion = (InsertActivity) first.getEvents().get(0);
+        InsertActivity secondInsertion = (InsertActivity) second.getEvents().get(0);
+        Assert.assertSame(copiedRoute, secondInsertion.getVehicleRoute());
+        Assert.assertSame(copiedRoute, ((SwitchVehicle) second.getEvents().get(1)).getRoute());
+        Assert.assertNotSame(firstInsertion.getActivity(), secondInsertion.getActivity());
+        Assert.assertEquals(firstInsertion.getIndex(), secondInsertion.getIndex());
+    }
+
+    @Test
+    public void whenRouteIsChanged_insertionDataShouldBeCalculatedAgain() {
+        insertionData(route, Double.MAX_VALUE);
+        route.getTourActivities().removeJob(service);
+        insertionData(route, Double.MAX_VALUE);
+
+        Assert.assertEquals(2, calculator.calls);
+    }
+
+    @Test
+    public void whenCachedCostsAreNotBetterThanBestKnownCosts_noInsertionShouldBeFound() {
+        insertionData(route, Double.MAX_VALUE);
+        InsertionData iData = insertionData(route, 5.);
+
+        Assert.assertEquals(1, calculator.calls);
+        Assert.assertTrue(iData instanceof InsertionData.NoInsertionFound);
+    }
+
+    @Test
+    public void whenNoInsertionWasFoundWithLowerBestKnownCosts_insertionDataShouldBeCalculatedAgain() {
+        insertionData(route, 5.);
+        InsertionData iData = insertionData(route, Double.MAX_VALUE);
+
+        Assert.assertEquals(2, calculator.calls);
+        Assert.assertEquals(10., iData.getInsertionCost(), 0.01);
+        insertionData(route, 3.);
+        Assert.assertEquals(2, calculator.calls);
+    }
+
+    @Test
+    public void whenInsertionStarts_entriesOfOtherRoutesShouldBeEvicted() {
+        insertionData(route, Double.MAX_VALUE);
+        VehicleRoute otherRoute = VehicleRoute.Builder.newInstance(vehicle).addService(newService).build();
+        cache.informInsertionStarts(Arrays.asList(otherRoute), Collections.<Job>emptyList());
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenJobIsInserted_entriesOfPreviousRouteVersionShouldBeEvicted() {
+        cache.informInsertionStarts(Arrays.asList(route), Collections.<Job>emptyList());
+        InsertionData iData = insertionData(route, Double.MAX_VALUE);
+        TourActivity act = ((InsertActivity) iData.getEvents().get(0)).getActivity();
+        route.getTourActivities().addActivity(0, act);
+        cache.informJobInserted(newService, route, iData.getInsertionCost(), 0.);
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void whenCacheIsDeactivated_insertionDataShouldAlwaysBeCalculated() {
+        cache.setActive(false);
+        insertionData(route, Double.MAX_VALUE);
+        insertionData(route, Double.MAX_VALUE);
+
+        Assert.assertEquals(2, calculator.calls);
+        Assert.assertEquals(0, cache.size());
+    }
+
+}
@@ -21,6 +21,7 @@ package com.graphhopper.jsprit.core.algorithm.recreate;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
 import com.graphhopper.jsprit.core.algorithm.recreate.listener.BeforeJobInsertionListener;
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.VehicleSwitchedListener;
 import com.graphhopper.jsprit.core.algorithm.state.StateId;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.algorithm.state.StateUpdater;
@@ -44,8 +45,7 @@ import com.graphhopper.jsprit.core.util.Solutions;
 import junit.framework.Assert;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.*;
 
 public class RegretInsertionTest {
 
@@ -125,6 +125,168 @@ public class RegretInsertionTest {
         Assert.assertEquals(2, solution.getRoutes().size());
     }
 
+    @Test
+    public void noRoutesShouldBeCorrectWithKBest() {
+        Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 10)).build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 5)).build();
+
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addVehicle(v).build();
+
+        VehicleFleetManager fm = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        JobInsertionCostsCalculator calculator = getCalculator(vrp);
+        RegretInsertionKBest regretInsertion = new RegretInsertionKBest(calculator, vrp, fm, 2);
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+
+        regretInsertion.insertJobs(routes, vrp.getJobs().values());
+        Assert.assertEquals(1, routes.size());
+        Assert.assertEquals(2, routes.iterator().next().getActivities().size());
+    }
+
+    @Test
+    public void s1ShouldBeAddedFirstWithKBest() {
+        Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 10)).build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, 5)).build();
+
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        final VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2).addVehicle(v).build();
+
+        VehicleFleetManager fm = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        JobInsertionCostsCalculator calculator = getCalculator(vrp);
+        RegretInsertionKBest regretInsertion = new RegretInsertionKBest(calculator, vrp, fm, 2);
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+
+        CkeckJobSequence position = new CkeckJobSequence(2, s1);
+        regretInsertion.addListener(position);
+        regretInsertion.insertJobs(routes, vrp.getJobs().values());
+        Assert.assertTrue(position.isCorrect());
+    }
+
+    @Test
+    public void solutionWithKBestRegretMustBeCorrect() {
+        Service s1 = Service.Builder.newInstance("s1").setLocation(Location.newInstance(0, 10)).build();
+        Service s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(0, -10)).build();
+
+        VehicleImpl v1 = VehicleImpl.Builder.newInstance("v1").setStartLocation(Location.newInstance(0, 5)).build();
+        VehicleImpl v2 = VehicleImpl.Builder.newInstance("v2").setStartLocation(Location.newInstance(0, -5)).build();
+        final VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addJob(s1).addJob(s2)
+            .addVehicle(v1).addVehicle(v2).setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).build();
+
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp,stateManager);
+
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(vrp)
+            .addCoreStateAndConstraintStuff(true)
+            .setProperty(Jsprit.Parameter.REGRET_CANDIDATE_ROUTES, "3")
+            .setStateAndConstraintManager(stateManager, constraintManager).buildAlgorithm();
+
+        VehicleRoutingProblemSolution solution = Solutions.bestOf(vra.searchSolutions());
+
+        Assert.assertEquals(2, solution.getRoutes().size());
+        Assert.assertEquals(0, solution.getUnassignedJobs().size());
+    }
+
+    @Test
+    public void whenKIsSmallerThanNoRoutes_eachJobShouldBeInsertedOrUnassignedExactlyOnce() {
+        VehicleRoutingProblem vrp = createProblemWithManyRoutes();
+        List<Job> inserted = new ArrayList<Job>();
+        Collection<VehicleRoute> routes = new ArrayList<VehicleRoute>();
+        List<VehicleRoute> switchedRoutes = new ArrayList<VehicleRoute>();
+        Collection<Job> unassigned = insertWithRegret(vrp, 2, inserted, routes, switchedRoutes);
+
+        Assert.assertTrue(routes.size() > 2);
+        Assert.assertFalse(switchedRoutes.isEmpty());
+        Assert.assertFalse(unassigned.isEmpty());
+        Set<Job> handled = new HashSet<Job>(inserted);
+        Assert.assertEquals(inserted.size(), handled.size());
+        for (Job job : unassigned) {
+            Assert.assertTrue(handled.add(job));
+        }
+        Assert.assertEquals(vrp.getJobs().size(), handled.size());
+        int noServedJobs = 0;
+        for (VehicleRoute route : routes) {
+            noServedJobs += route.getActivities().size();
+            for (TourActivity act : route.getActivities()) {
+                Assert.assertTrue(inserted.contains(((TourActivity.JobActivity) act).getJob()));
+            }
+        }
+        Assert.assertEquals(inserted.size(), noServedJobs);
+    }
+
+    @Test
+    public void whenKCoversAllRoutes_itShouldInsertInTheSameOrderAsFastRegret() {
+        VehicleRoutingProblem vrp = createProblemWithManyRoutes();
+        List<Job> expected = new ArrayList<Job>();
+        Collection<Job> expectedUnassigned = insertWithRegret(vrp, 0, expected, new ArrayList<VehicleRoute>(), new ArrayList<VehicleRoute>());
+        List<Job> actual = new ArrayList<Job>();
+        Collection<Job> actualUnassigned = insertWithRegret(vrp, vrp.getVehicles().size(), actual, new ArrayList<VehicleRoute>(), new ArrayList<VehicleRoute>());
+
+        Assert.assertEquals(ids(expected), ids(actual));
+        Assert.assertEquals(new HashSet<Job>(expectedUnassigned), new HashSet<Job>(actualUnassigned));
+    }
+
+    private List<String> ids(List<Job> jobs) {
+        List<String> ids = new ArrayList<String>();
+        for (Job job : jobs) ids.add(job.getId());
+        return ids;
+    }
+
+    /*
+     * k = 0 runs RegretInsertionFast
+     */
+    private Collection<Job> insertWithRegret(VehicleRoutingProblem vrp, int k, final List<Job> inserted, Collection<VehicleRoute> routes, final List<VehicleRoute> switchedRoutes) {
+        StateManager stateManager = new StateManager(vrp);
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        stateManager.updateLoadStates();
+        VehicleFleetManager fleetManager = new FiniteFleetManagerFactory(vrp.getVehicles()).createFleetManager();
+        InsertionBuilder builder = new InsertionBuilder(vrp, fleetManager, stateManager, constraintManager)
+            .setInsertionStrategy(InsertionBuilder.Strategy.REGRET);
+        if (k > 0) builder.setRegretCandidateRoutes(k);
+        else builder.setFastRegret(true);
+        AbstractInsertionStrategy insertion = (AbstractInsertionStrategy) builder.build();
+        Assert.assertEquals(k > 0 ? RegretInsertionKBest.class : RegretInsertionFast.class, insertion.getClass());
+        insertion.addListener(stateManager);
+        insertion.addListener(new VehicleSwitched(fleetManager));
+        insertion.addListener(new BeforeJobInsertionListener() {
+            @Override
+            public void informBeforeJobInsertion(Job job, InsertionData data, VehicleRoute route) {
+                inserted.add(job);
+            }
+        });
+        insertion.addListener(new VehicleSwitchedListener() {
+            @Override
+            public void vehicleSwitched(VehicleRoute vehicleRoute, Vehicle oldVehicle, Vehicle newVehicle) {
+                if (!(oldVehicle instanceof VehicleImpl.NoVehicle)) switchedRoutes.add(vehicleRoute);
+            }
+        });
+        return insertion.insertJobs(routes, vrp.getJobs().values());
+    }
+
+    /*
+     * small and large vehicles at different depots do not suffice to serve all jobs, and two jobs do not fit into any
+     * vehicle. thus many routes are opened, vehicles are switched and jobs are left unassigned.
+     */
+    private VehicleRoutingProblem createProblemWithManyRoutes() {
+        VehicleType small = VehicleTypeImpl.Builder.newInstance("small").addCapacityDimension(0, 4).setCostPerDistance(1.).build();
+        VehicleType large = VehicleTypeImpl.Builder.newInstance("large").addCapacityDimension(0, 8).setCostPerDistance(1.5).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE);
+        Random random = new Random(7);
+        for (int i = 0; i < 10; i++) {
+            Location depot = Location.newInstance(random.nextInt(100), random.nextInt(100));
+            vrpBuilder.addVehicle(VehicleImpl.Builder.newInstance("v" + i).setType(i % 2 == 0 ? small : large)
+                .setStartLocation(depot).build());
+        }
+        for (int i = 0; i < 70; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1 + random.nextInt(2))
+                .setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        vrpBuilder.addJob(Service.Builder.newInstance("tooBig1").addSizeDimension(0, 9).setLocation(Location.newInstance(50, 50)).build());
+        vrpBuilder.addJob(Service.Builder.newInstance("tooBig2").addSizeDimension(0, 9).setLocation(Location.newInstance(20, 80)).build());
+        return vrpBuilder.build();
+    }
+
     static class JobInRouteUpdater implements StateUpdater, ActivityVisitor {
 
         private StateManager stateManager;
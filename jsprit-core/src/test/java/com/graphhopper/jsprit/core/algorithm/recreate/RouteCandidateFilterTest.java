@@ -0,0 +1,164 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupService;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class RouteCandidateFilterTest {
+
+    private static Service service(String id, double x, double y) {
+        return Service.Builder.newInstance(id).setLocation(Location.newInstance(x, y)).build();
+    }
+
+    private static VehicleImpl vehicle(String id, double x, double y) {
+        return VehicleImpl.Builder.newInstance(id).setStartLocation(Location.newInstance(x, y)).build();
+    }
+
+    @Test
+    public void whenLowerBoundOfDetourExceedsBestKnownCosts_routeShouldBeSkipped() {
+        VehicleImpl v = vehicle("v", 0, 0);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(service("s1", 0, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(Integer.MAX_VALUE);
+        filter.setDistanceFactor(1.);
+
+        Assert.assertFalse(filter.isCandidate(route, service("far", 100, 5), v, 50.));
+        Assert.assertTrue(filter.isCandidate(route, service("near", 1, 5), v, 50.));
+        Assert.assertTrue(filter.isCandidate(route, service("far", 100, 5), v, Double.MAX_VALUE));
+    }
+
+    @Test
+    public void whenDistanceFactorIsNotSet_routeShouldNotBeSkipped() {
+        VehicleImpl v = vehicle("v", 0, 0);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(service("s1", 0, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(Integer.MAX_VALUE);
+
+        Assert.assertTrue(filter.isCandidate(route, service("far", 100, 5), v, 50.));
+    }
+
+    @Test
+    public void whenEvaluatingAnotherVehicle_lowerBoundShouldNotBeApplied() {
+        VehicleImpl v = vehicle("v", 0, 0);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(service("s1", 0, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(Integer.MAX_VALUE);
+        filter.setDistanceFactor(1.);
+
+        Assert.assertTrue(filter.isCandidate(route, service("far", 100, 5), vehicle("v2", 100, 0), 50.));
+    }
+
+    @Test
+    public void whenRouteIsEmpty_itShouldAlwaysBeCandidate() {
+        RouteCandidateFilter filter = new RouteCandidateFilter(1);
+        filter.setDistanceFactor(1.);
+
+        Assert.assertTrue(filter.isCandidate(VehicleRoute.emptyRoute(), service("far", 100, 5), null, 0.));
+    }
+
+    @Test
+    public void whenJobHasNoCoordinate_routeShouldAlwaysBeCandidate() {
+        VehicleImpl v = vehicle("v", 0, 0);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(v).addService(service("s1", 0, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(Integer.MAX_VALUE);
+        filter.setDistanceFactor(1.);
+        Service noCoordinate = Service.Builder.newInstance("s").setLocation(Location.newInstance("loc")).build();
+
+        Assert.assertTrue(filter.isCandidate(route, noCoordinate, v, 0.));
+    }
+
+    @Test
+    public void whenMaxCandidateRoutesIsOne_onlyClosestRouteShouldBeCandidate() {
+        VehicleImpl v1 = vehicle("v1", 0, 0);
+        VehicleImpl v2 = vehicle("v2", 50, 0);
+        VehicleRoute route1 = VehicleRoute.Builder.newInstance(v1).addService(service("s1", 0, 10)).build();
+        VehicleRoute route2 = VehicleRoute.Builder.newInstance(v2).addService(service("s2", 50, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(1);
+        filter.informInsertionStarts(Arrays.asList(route1, route2), Collections.<Job>emptyList());
+        Service job = service("s", 45, 12);
+
+        Assert.assertFalse(filter.isCandidate(route1, job, v1, Double.MAX_VALUE));
+        Assert.assertTrue(filter.isCandidate(route2, job, v2, Double.MAX_VALUE));
+    }
+
+    @Test
+    public void whenRouteChanges_candidatesShouldBeUpdated() {
+        VehicleImpl v1 = vehicle("v1", 0, 0);
+        VehicleImpl v2 = vehicle("v2", 50, 0);
+        VehicleRoute route1 = VehicleRoute.Builder.newInstance(v1).addService(service("s1", 0, 10)).build();
+        VehicleRoute route2 = VehicleRoute.Builder.newInstance(v2).addService(service("s2", 50, 10)).build();
+        RouteCandidateFilter filter = new RouteCandidateFilter(1);
+        filter.informInsertionStarts(Arrays.asList(route1, route2), Collections.<Job>emptyList());
+        Service job = service("s", 20, 12);
+        Assert.assertTrue(filter.isCandidate(route1, job, v1, Double.MAX_VALUE));
+
+        Service inserted = service("s3", 21, 12);
+        route2.getTourActivities().addActivity(0, new PickupService(inserted));
+        filter.informJobInserted(inserted, route2, 0., 0.);
+
+        Assert.assertFalse(filter.isCandidate(route1, job, v1, Double.MAX_VALUE));
+        Assert.assertTrue(filter.isCandidate(route2, job, v2, Double.MAX_VALUE));
+    }
+
+    @Test
+    public void lowerBoundShouldNeverExceedActualDetour() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            VehicleImpl v = vehicle("v", random.nextDouble() * 100, random.nextDouble() * 100);
+            VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v);
+            int nuOfServices = 1 + random.nextInt(5);
+            for (int i = 0; i < nuOfServices; i++) {
+                routeBuilder.addService(service("s" + i, random.nextDouble() * 100, random.nextDouble() * 100));
+            }
+            VehicleRoute route = routeBuilder.build();
+            Service job = service("job", random.nextDouble() * 200 - 50, random.nextDouble() * 200 - 50);
+
+            List<Location> stops = new ArrayList<Location>();
+            stops.add(v.getStartLocation());
+            for (TourActivity act : route.getActivities()) stops.add(act.getLocation());
+            stops.add(v.getEndLocation());
+            double minDetour = Double.MAX_VALUE;
+            for (int i = 0; i < stops.size() - 1; i++) {
+                double detour = distance(stops.get(i), job.getLocation()) + distance(job.getLocation(), stops.get(i + 1))
+                    - distance(stops.get(i), stops.get(i + 1));
+                minDetour = Math.min(minDetour, detour);
+            }
+
+            RouteCandidateFilter filter = new RouteCandidateFilter(Integer.MAX_VALUE);
+            filter.setDistanceFactor(1.);
+            Assert.assertTrue(filter.isCandidate(route, job, v, minDetour + 1e-6));
+        }
+    }
+
+    private static double distance(Location from, Location to) {
+        return EuclideanDistanceCalculator.calculateDistance(from.getCoordinate(), to.getCoordinate());
+    }
+
+}
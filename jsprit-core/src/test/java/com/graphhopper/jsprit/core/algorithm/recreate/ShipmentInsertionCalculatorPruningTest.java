@@ -0,0 +1,153 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.recreate;
+
+import com.graphhopper.jsprit.core.algorithm.recreate.listener.InsertionListeners;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.algorithm.state.UpdateVehicleDependentPracticalTimeWindows;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
+import com.graphhopper.jsprit.core.problem.driver.DriverImpl;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.CostFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShipmentInsertionCalculatorPruningTest {
+
+    private VehicleRoutingTransportCosts routingCosts = CostFactory.createManhattanCosts();
+
+    private Shipment shipment(String id, String from, String to) {
+        return Shipment.Builder.newInstance(id).addSizeDimension(0, 1).setPickupLocation(Location.newInstance(from)).setDeliveryLocation(Location.newInstance(to)).build();
+    }
+
+    private InsertionData[] calculate(int capacity, Shipment[] inRoute, Shipment toInsert) {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, capacity).setCostPerDistance(1).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("0,0")).setType(type).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).setRoutingCost(routingCosts);
+        for (Shipment s : inRoute) vrpBuilder.addJob(s);
+        vrpBuilder.addJob(toInsert);
+        VehicleRoutingProblem vrp = vrpBuilder.build();
+
+        VehicleRoute route = VehicleRoute.emptyRoute();
+        route.setVehicleAndDepartureTime(vehicle, 0.0);
+        Inserter inserter = new Inserter(new InsertionListeners(), vrp);
+        int index = 0;
+        for (Shipment s : inRoute) {
+            inserter.insertJob(s, new InsertionData(0, index, index, vehicle, null), route);
+            index++;
+        }
+        //like insertion calculators do, set the time windows of the inserted activities
+        for (TourActivity act : route.getActivities()) {
+            Shipment s = (Shipment) ((TourActivity.JobActivity) act).getJob();
+            TimeWindow timeWindow = act instanceof PickupShipment ? s.getPickupTimeWindow() : s.getDeliveryTimeWindow();
+            act.setTheoreticalEarliestOperationStartTime(timeWindow.getStart());
+            act.setTheoreticalLatestOperationStartTime(timeWindow.getEnd());
+        }
+
+        StateManager stateManager = new StateManager(vrp);
+        stateManager.updateLoadStates();
+        stateManager.updateTimeWindowStates();
+        stateManager.addStateUpdater(new UpdateVehicleDependentPracticalTimeWindows(stateManager, routingCosts, vrp.getActivityCosts()));
+        stateManager.informInsertionStarts(Arrays.asList(route), null);
+
+        ConstraintManager constraintManager = new ConstraintManager(vrp, stateManager);
+        constraintManager.addLoadConstraint();
+        constraintManager.addTimeWindowConstraint();
+
+        ActivityInsertionCostsCalculator activityInsertionCostsCalculator = new LocalActivityInsertionCostsCalculator(routingCosts, vrp.getActivityCosts(), stateManager);
+        ShipmentInsertionCalculator calculator = new ShipmentInsertionCalculator(routingCosts, vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager);
+        calculator.setJobActivityFactory(vrp.getJobActivityFactory());
+        ShipmentInsertionCalculator prunedCalculator = new ShipmentInsertionCalculator(routingCosts, vrp.getActivityCosts(), activityInsertionCostsCalculator, constraintManager);
+        prunedCalculator.setJobActivityFactory(vrp.getJobActivityFactory());
+        prunedCalculator.setPruning(stateManager);
+
+        return new InsertionData[]{
+            calculator.getInsertionData(route, toInsert, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE),
+            prunedCalculator.getInsertionData(route, toInsert, vehicle, 0.0, DriverImpl.noDriver(), Double.MAX_VALUE)
+        };
+    }
+
+    private void assertSameInsertion(InsertionData[] iData) {
+        assertEquals(iData[0] instanceof InsertionData.NoInsertionFound, iData[1] instanceof InsertionData.NoInsertionFound);
+        if (iData[0] instanceof InsertionData.NoInsertionFound) return;
+        assertEquals(iData[0].getInsertionCost(), iData[1].getInsertionCost(), 0.01);
+        assertEquals(iData[0].getPickupInsertionIndex(), iData[1].getPickupInsertionIndex());
+        assertEquals(iData[0].getDeliveryInsertionIndex(), iData[1].getDeliveryInsertionIndex());
+    }
+
+    @Test
+    public void whenCapacityIsSufficient_itShouldFindSameInsertion() {
+        Shipment[] inRoute = {shipment("s1", "0,10", "10,0"), shipment("s2", "10,10", "0,0")};
+        InsertionData[] iData = calculate(3, inRoute, shipment("s3", "0,0", "9,9"));
+        assertSameInsertion(iData);
+        assertTrue(!(iData[1] instanceof InsertionData.NoInsertionFound));
+    }
+
+    @Test
+    public void whenCapacityIsBindingInBetween_itShouldFindSameInsertion() {
+        Shipment[] inRoute = {shipment("s1", "0,10", "10,0"), shipment("s2", "10,10", "0,0")};
+        InsertionData[] iData = calculate(2, inRoute, shipment("s3", "0,5", "10,5"));
+        assertSameInsertion(iData);
+    }
+
+    @Test
+    public void whenCapacityIsNotSufficient_itShouldReturnNoInsertion() {
+        Shipment[] inRoute = {shipment("s1", "0,10", "10,0"), shipment("s2", "10,10", "0,0")};
+        Shipment s3 = Shipment.Builder.newInstance("s3").addSizeDimension(0, 2).setPickupLocation(Location.newInstance("0,0")).setDeliveryLocation(Location.newInstance("9,9")).build();
+        InsertionData[] iData = calculate(1, inRoute, s3);
+        assertTrue(iData[1] instanceof InsertionData.NoInsertionFound);
+        assertSameInsertion(iData);
+    }
+
+    @Test
+    public void whenDeliveryTimeWindowIsTight_itShouldFindSameInsertion() {
+        Shipment[] inRoute = {shipment("s1", "0,10", "10,0"), shipment("s2", "10,10", "0,0")};
+        Shipment s3 = Shipment.Builder.newInstance("s3").addSizeDimension(0, 1).setPickupLocation(Location.newInstance("0,5"))
+            .setDeliveryLocation(Location.newInstance("5,5")).setDeliveryTimeWindow(TimeWindow.newInstance(0, 15)).build();
+        assertSameInsertion(calculate(3, inRoute, s3));
+    }
+
+    @Test
+    public void whenTimeWindowOfRouteActivityIsTight_itShouldFindSameInsertion() {
+        //route is p1, p2, d2, d1 and d1 is reached at 50, i.e. there is no slack left
+        Shipment s1 = Shipment.Builder.newInstance("s1").addSizeDimension(0, 1).setPickupLocation(Location.newInstance("0,10"))
+            .setDeliveryLocation(Location.newInstance("10,0")).setDeliveryTimeWindow(TimeWindow.newInstance(0, 50)).build();
+        Shipment[] inRoute = {s1, shipment("s2", "10,10", "0,0")};
+        //delivering s3 between d2 and d1 costs as much as delivering it after d1, but delays d1
+        InsertionData[] iData = calculate(3, inRoute, shipment("s3", "0,5", "12,0"));
+        assertSameInsertion(iData);
+        assertEquals(0, iData[1].getPickupInsertionIndex());
+        assertEquals(4, iData[1].getDeliveryInsertionIndex());
+    }
+
+}
@@ -23,6 +23,8 @@ import com.graphhopper.jsprit.core.problem.JobActivityFactory;
 import com.graphhopper.jsprit.core.problem.Location;
 import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
 import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraint;
+import com.graphhopper.jsprit.core.problem.constraint.HardActivityConstraintStatistics;
 import com.graphhopper.jsprit.core.problem.cost.AbstractForwardVehicleRoutingTransportCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingActivityCosts;
 import com.graphhopper.jsprit.core.problem.cost.VehicleRoutingTransportCosts;
@@ -33,6 +35,7 @@ import com.graphhopper.jsprit.core.problem.job.Service;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
@@ -47,11 +50,21 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 
 public class TestCalculatesServiceInsertion {
 
+    static class RejectingConstraint implements HardActivityConstraint {
+
+        @Override
+        public ConstraintsStatus fulfilled(JobInsertionContext iFacts, TourActivity prevAct, TourActivity newAct, TourActivity nextAct, double prevActDepTime) {
+            return ConstraintsStatus.NOT_FULFILLED;
+        }
+
+    }
+
     ServiceInsertionCalculator serviceInsertion;
 
     VehicleRoutingTransportCosts costs;
@@ -264,4 +277,50 @@ public class TestCalculatesServiceInsertion {
         JobInsertionContext iContex = new JobInsertionContext(route, job, newVehicle, mock(Driver.class), 0.0);
         assertEquals(8.0, accessEgressCalc.getCosts(iContex), 0.01);
     }
+
+    private ServiceInsertionCalculator adaptiveServiceInsertion(ConstraintManager cManager) {
+        cManager.setAdaptiveHardActivityConstraintOrdering(true);
+        ServiceInsertionCalculator calculator = new ServiceInsertionCalculator(costs, vrp.getActivityCosts(), new LocalActivityInsertionCostsCalculator(costs, vrp.getActivityCosts(), states), cManager);
+        calculator.setJobActivityFactory(vrp.getJobActivityFactory());
+        return calculator;
+    }
+
+    @Test
+    public void whenOrderingConstraintsAdaptively_itShouldCalculateTheSameCostsAndRecordStatistics() {
+        ConstraintManager cManager = new ConstraintManager(vrp, states);
+        cManager.addLoadConstraint();
+        cManager.addTimeWindowConstraint();
+        ServiceInsertionCalculator adaptiveInsertion = adaptiveServiceInsertion(cManager);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).addService(third).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = adaptiveInsertion.getInsertionData(route, second, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertEquals(0.0, iData.getInsertionCost(), 0.2);
+        assertEquals(1, iData.getDeliveryInsertionIndex());
+        long evaluations = 0;
+        for (HardActivityConstraintStatistics statistics : cManager.getHardActivityConstraintStatistics()) {
+            evaluations += statistics.getNuOfEvaluations();
+        }
+        assertTrue(evaluations > 0);
+    }
+
+    @Test
+    public void whenOrderingConstraintsAdaptively_itShouldRecordFailedConstraintNames() {
+        ConstraintManager cManager = new ConstraintManager(vrp, states);
+        cManager.addLoadConstraint();
+        cManager.addTimeWindowConstraint();
+        cManager.addConstraint(new RejectingConstraint(), ConstraintManager.Priority.LOW);
+        ServiceInsertionCalculator adaptiveInsertion = adaptiveServiceInsertion(cManager);
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle, driver).setJobActivityFactory(vrp.getJobActivityFactory()).addService(first).build();
+        states.informInsertionStarts(Arrays.asList(route), null);
+
+        InsertionData iData = adaptiveInsertion.getInsertionData(route, second, vehicle, vehicle.getEarliestDeparture(), null, Double.MAX_VALUE);
+        assertTrue(iData instanceof InsertionData.NoInsertionFound);
+        assertTrue(iData.getFailedConstraintNames().contains(RejectingConstraint.class.getSimpleName()));
+        HardActivityConstraintStatistics rejecting = null;
+        for (HardActivityConstraintStatistics statistics : cManager.getHardActivityConstraintStatistics()) {
+            if (statistics.getConstraint() instanceof RejectingConstraint) rejecting = statistics;
+        }
+        assertEquals(2, rejecting.getNuOfRejections());
+    }
 }
@@ -28,6 +28,7 @@ import junit.framework.Assert;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Random;
 
 /**
  * Created by schroeder on 06/03/15.
@@ -86,4 +87,24 @@ public class DBSCANClustererTest {
         Assert.assertEquals(3, cluster.size());
 
     }
+
+    @Test
+    public void whenCostsAreEuclidean_clustersShouldBeEqualToClustersWithoutSpatialIndex() {
+        Random random = new Random(1);
+        VehicleImpl v = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(v);
+        for (int i = 0; i < 100; i++) {
+            routeBuilder.addService(Service.Builder.newInstance("s" + i).setLocation(Location.newInstance(random.nextInt(100), random.nextInt(100))).build());
+        }
+        VehicleRoute r = routeBuilder.build();
+
+        DBSCANClusterer indexed = new DBSCANClusterer(new EuclideanCosts());
+        indexed.setMinPts(2);
+        indexed.setEpsDistance(8);
+        DBSCANClusterer bruteForce = new DBSCANClusterer(new EuclideanCosts() {
+        });
+        bruteForce.setMinPts(2);
+        bruteForce.setEpsDistance(8);
+        Assert.assertEquals(bruteForce.getClusters(r), indexed.getClusters(r));
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.EuclideanDistanceCalculator;
+import com.graphhopper.jsprit.core.util.VehicleRoutingTransportCostsMatrix;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class JobKDTreeTest {
+
+    private VehicleRoutingProblem vrp;
+
+    @Before
+    public void doBefore() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(1);
+        for (int i = 0; i < 300; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextDouble() * 100, random.nextDouble() * 100)).build());
+        }
+        vrp = builder.build();
+    }
+
+    @Test
+    public void rangeQueryShouldReturnAllJobsWithinRadius() {
+        JobKDTree tree = JobKDTree.of(vrp);
+        Coordinate center = Coordinate.newInstance(40, 60);
+        List<Job> result = new ArrayList<Job>();
+        tree.withinRadius(center, 15, 1., null, result);
+        Set<Job> expected = new HashSet<Job>();
+        for (Job job : vrp.getJobs().values()) {
+            if (EuclideanDistanceCalculator.calculateDistance(center, JobKDTree.getCoordinate(job)) <= 15) expected.add(job);
+        }
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, new HashSet<Job>(result));
+        Assert.assertEquals(expected.size(), result.size());
+    }
+
+    @Test
+    public void nearestQueryShouldReturnKNearestJobs() {
+        JobKDTree tree = JobKDTree.of(vrp);
+        Job target = vrp.getJobs().get("s0");
+        KNearestSelection selection = new KNearestSelection(10);
+        tree.nearest(JobKDTree.getCoordinate(target), target, selection);
+        int[] nearest = selection.toSortedArray();
+        List<Double> distances = new ArrayList<Double>();
+        for (Job job : vrp.getJobs().values()) {
+            if (job != target) distances.add(new EuclideanServiceDistance().getDistance(target, job));
+        }
+        Collections.sort(distances);
+        Map<Integer, Job> jobsByIndex = new HashMap<Integer, Job>();
+        for (Job job : vrp.getJobs().values()) jobsByIndex.put(job.getIndex(), job);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(distances.get(i), new EuclideanServiceDistance().getDistance(target, jobsByIndex.get(nearest[i])), 0.0001);
+        }
+    }
+
+    @Test
+    public void treeShouldBeSharedPerProblem() {
+        Assert.assertSame(JobKDTree.of(vrp), JobKDTree.of(vrp));
+    }
+
+    @Test
+    public void whenDistanceIsBasedOnEuclideanCosts_itShouldBeEuclidean() {
+        Assert.assertTrue(JobKDTree.isEuclidean(new AvgServiceAndShipmentDistance(vrp.getTransportCosts())));
+        Assert.assertTrue(JobKDTree.isEuclidean(new EuclideanServiceDistance()));
+        Assert.assertFalse(JobKDTree.isEuclidean(new AvgServiceAndShipmentDistance(VehicleRoutingTransportCostsMatrix.Builder.newInstance(true).build())));
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.algorithm.ruin;
+
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.AvgServiceAndShipmentDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.EuclideanServiceDistance;
+import com.graphhopper.jsprit.core.algorithm.ruin.distance.JobDistance;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.util.EuclideanCosts;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class JobNeighborhoodsLazyTest {
+
+    VehicleRoutingProblem vrp;
+
+    @Before
+    public void doBefore() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            builder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1)
+                .setLocation(Location.newInstance(random.nextInt(50), random.nextInt(50))).build());
+        }
+        vrp = builder.build();
+    }
+
+    @Test
+    public void whenUsingKDTree_neighborsShouldHaveSameDistancesAsOptimizedNeighborhoods() {
+        assertSameNeighborDistances(new EuclideanServiceDistance());
+    }
+
+    @Test
+    public void whenUsingAvgDistanceOverEuclideanCosts_neighborsShouldHaveSameDistancesAsOptimizedNeighborhoods() {
+        AvgServiceAndShipmentDistance jobDistance = new AvgServiceAndShipmentDistance(new EuclideanCosts());
+        assertTrue(JobKDTree.isEuclidean(jobDistance));
+        assertSameNeighborDistances(jobDistance);
+    }
+
+    @Test
+    public void whenUsingOtherJobDistance_neighborsShouldHaveSameDistancesAsOptimizedNeighborhoods() {
+        assertSameNeighborDistances(new JobDistance() {
+            @Override
+            public double getDistance(Job i, Job j) {
+                return Math.abs(((Service) i).getLocation().getCoordinate().getX() - ((Service) j).getLocation().getCoordinate().getX());
+            }
+        });
+    }
+
+    @Test
+    public void whenCacheIsFull_leastRecentlyUsedNeighborsShouldBeEvicted() {
+        JobNeighborhoodsLazy jn = new JobNeighborhoodsLazy(vrp, new EuclideanServiceDistance(), 10, 2);
+        jn.initialise();
+        Job s0 = vrp.getJobs().get("s0");
+        int[] first = jn.getNeighbors(s0);
+        assertSame(first, jn.getNeighbors(s0));
+        jn.getNeighbors(vrp.getJobs().get("s1"));
+        jn.getNeighbors(vrp.getJobs().get("s2"));
+        assertNotSame(first, jn.getNeighbors(s0));
+    }
+
+    @Test
+    public void whenInitialisingInParallel_neighborsShouldBePreloaded() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            JobNeighborhoodsLazy jn = new JobNeighborhoodsLazy(vrp, new EuclideanServiceDistance(), 10, 1000, executor, 2);
+            jn.initialise();
+            JobNeighborhoodsLazy sequential = new JobNeighborhoodsLazy(vrp, new EuclideanServiceDistance(), 10, 1000);
+            sequential.initialise();
+            for (Job job : vrp.getJobs().values()) {
+                assertEquals(10, jn.getNeighbors(job).length);
+            }
+            assertEquals(sequential.getMaxDistance(), jn.getMaxDistance(), 0.001);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void whenRequestingMoreNeighborsThanExisting_itShouldReturnMaxNeighbors() {
+        JobNeighborhoodsLazy jn = new JobNeighborhoodsLazy(vrp, new EuclideanServiceDistance(), 5, 100);
+        jn.initialise();
+        Iterator<Job> iter = jn.getNearestNeighborsIterator(100, vrp.getJobs().get("s0"));
+        List<Job> jobs = new ArrayList<Job>();
+        while (iter.hasNext()) jobs.add(iter.next());
+        assertEquals(5, jobs.size());
+    }
+
+    private void assertSameNeighborDistances(JobDistance jobDistance) {
+        JobNeighborhoodsOptimized expected = new JobNeighborhoodsOptimized(vrp, jobDistance, 20);
+        expected.initialise();
+        JobNeighborhoodsLazy actual = new JobNeighborhoodsLazy(vrp, jobDistance, 20, 50);
+        actual.initialise();
+        for (Job job : vrp.getJobs().values()) {
+            Iterator<Job> expectedIter = expected.getNearestNeighborsIterator(20, job);
+            Iterator<Job> actualIter = actual.getNearestNeighborsIterator(20, job);
+            int count = 0;
+            while (expectedIter.hasNext()) {
+                double expectedDistance = jobDistance.getDistance(job, expectedIter.next());
+                double actualDistance = jobDistance.getDistance(job, actualIter.next());
+                assertEquals(expectedDistance, actualDistance, 0.0001);
+                count++;
+            }
+            assertEquals(20, count);
+        }
+    }
+
+}
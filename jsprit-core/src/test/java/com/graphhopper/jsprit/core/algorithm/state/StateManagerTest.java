@@ -17,10 +17,13 @@
  */
 package com.graphhopper.jsprit.core.algorithm.state;
 
+import com.graphhopper.jsprit.core.algorithm.metrics.SearchMetricsListener;
 import com.graphhopper.jsprit.core.problem.*;
 import com.graphhopper.jsprit.core.problem.job.Job;
 import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.route.RouteVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.ActivityVisitor;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.ServiceActivity;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
@@ -35,8 +38,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
 
 public class StateManagerTest {
 
@@ -356,4 +360,145 @@ public class StateManagerTest {
         }
         stateManager.putTypedInternalRouteState(route,myState,1.);
     }
+
+    @Test
+    public void whenPrimitiveActivityStateIsSetWithTypedMethod_itMustBeSetCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityStateDouble(activity, id, 5.);
+        assertEquals(5., stateManager.getActivityStateDouble(activity, id, 0.), 0.01);
+        assertEquals(5., stateManager.getActivityState(activity, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenPrimitiveActivityStateIsSetWithGenericMethod_itMustBeReadableWithTypedMethod() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityState(activity, id, 5.);
+        assertEquals(5., stateManager.getActivityStateDouble(activity, id, 0.), 0.01);
+    }
+
+    @Test
+    public void whenPrimitiveActivityStateIsNotSet_itShouldReturnDefaultValue() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        assertEquals(-1., stateManager.getActivityStateDouble(activity, id, -1.), 0.01);
+        assertNull(stateManager.getActivityState(activity, id, Double.class));
+    }
+
+    @Test
+    public void whenPrimitiveActivityStateIsReplacedByObject_itShouldReturnObject() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityState(activity, id, 5.);
+        stateManager.putActivityState(activity, id, true);
+        assertTrue(stateManager.getActivityState(activity, id, Boolean.class));
+    }
+
+    @Test
+    public void whenPrimitiveVehicleDependentActivityStateIsSet_itMustBeSetCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).build();
+        StateManager stateManager = new StateManager(vrp, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityStateDouble(activity, vehicle, id, 5.);
+        assertTrue(stateManager.hasActivityState(activity, vehicle, id));
+        assertEquals(5., stateManager.getActivityStateDouble(activity, vehicle, id, 0.), 0.01);
+        assertEquals(5., stateManager.getActivityState(activity, vehicle, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenPrimitiveRouteStateIsSet_itMustBeSetCorrectly() {
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putRouteStateDouble(route, id, 10.);
+        assertEquals(10., stateManager.getRouteStateDouble(route, id, 0.), 0.01);
+        assertEquals(10., stateManager.getRouteState(route, id, Double.class), 0.01);
+    }
+
+    @Test
+    public void whenPrimitiveRouteStateIsSetWithCapacity_itMustBeSetCorrectly() {
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        VehicleTypeImpl type = VehicleTypeImpl.Builder.newInstance("t").addCapacityDimension(0, 10).addCapacityDimension(1, 10).build();
+        VehicleImpl vehicle = VehicleImpl.Builder.newInstance("v").setType(type).setStartLocation(Location.newInstance("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).build();
+        StateManager stateManager = new StateManager(vrp, true);
+        StateId id = stateManager.createStateId("myState");
+        Capacity capacity = Capacity.Builder.newInstance().addDimension(0, 500).addDimension(1, 400).build();
+        stateManager.putRouteState(route, id, capacity);
+        assertEquals(capacity, stateManager.getRouteState(route, id, Capacity.class));
+        assertEquals(500, stateManager.getRouteStateCapacityDimension(route, id, 0));
+        assertEquals(400, stateManager.getRouteStateCapacityDimension(route, id, 1));
+        assertEquals(0, stateManager.getRouteStateCapacityDimension(route, id, 2));
+    }
+
+    @Test
+    public void whenPrimitiveActivityStateIsSetWithCapacityExceedingProblemDimensions_itMustBeSetCorrectly() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        Capacity capacity = Capacity.Builder.newInstance().addDimension(0, 1).addDimension(3, 2).build();
+        stateManager.putActivityState(activity, id, capacity);
+        assertEquals(capacity, stateManager.getActivityState(activity, id, Capacity.class));
+        assertEquals(2, stateManager.getActivityStateCapacityDimension(activity, id, 3));
+        assertEquals(4, stateManager.getNuCapacityDimensions());
+    }
+
+    @Test
+    public void whenPrimitiveStatesAreCleared_theyShouldNotBeAvailableAnymore() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        StateManager stateManager = new StateManager(vrpMock, true);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityStateDouble(activity, id, 5.);
+        stateManager.putRouteState(route, id, Capacity.Builder.newInstance().addDimension(0, 5).build());
+        stateManager.clear();
+        assertNull(stateManager.getActivityState(activity, id, Double.class));
+        assertNull(stateManager.getRouteState(route, id, Capacity.class));
+    }
+
+    @Test
+    public void whenTypedMethodsAreUsedWithoutPrimitiveStates_theyShouldWork() {
+        TourActivity activity = mock(TourActivity.class);
+        when(activity.getIndex()).thenReturn(1);
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        StateManager stateManager = new StateManager(vrpMock);
+        StateId id = stateManager.createStateId("myState");
+        stateManager.putActivityStateDouble(activity, id, 5.);
+        stateManager.putRouteState(route, id, Capacity.Builder.newInstance().addDimension(0, 5).build());
+        assertEquals(5., stateManager.getActivityState(activity, id, Double.class), 0.01);
+        assertEquals(5., stateManager.getActivityStateDouble(activity, id, 0.), 0.01);
+        assertEquals(5, stateManager.getRouteStateCapacityDimension(route, id, 0));
+    }
+
+    @Test
+    public void whenMetricsListenerIsSet_onlyEvery64thActivityPassShouldBeMeasured() {
+        VehicleRoute route = getRoute(mock(Vehicle.class));
+        StateManager stateManager = new StateManager(vrpMock);
+        SearchMetricsListener metricsListener = mock(SearchMetricsListener.class);
+        stateManager.setMetricsListener(metricsListener);
+        ActivityVisitor activityVisitor = mock(ActivityVisitor.class);
+        RouteVisitor routeVisitor = mock(RouteVisitor.class);
+        stateManager.addActivityVisitor(activityVisitor);
+        stateManager.addRouteVisitor(routeVisitor);
+        for (int i = 0; i < 128; i++) {
+            stateManager.informJobInserted(route.getTourActivities().getJobs().iterator().next(), route, 0., 0.);
+        }
+        verify(activityVisitor, times(128)).visit(any(TourActivity.class));
+        verify(metricsListener, times(2)).informStateUpdated(eq(activityVisitor), anyLong());
+        verify(metricsListener, times(128)).informStateUpdated(eq(routeVisitor), anyLong());
+    }
 }
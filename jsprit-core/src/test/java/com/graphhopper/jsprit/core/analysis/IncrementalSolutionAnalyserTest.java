@@ -0,0 +1,159 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.analysis;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.ManhattanCosts;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalSolutionAnalyserTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private VehicleImpl vehicle;
+
+    private VehicleImpl vehicle2;
+
+    private Service s1, s2, s3, s4;
+
+    private Shipment shipment1, shipment2;
+
+    @Before
+    public void doBefore() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").setFixedCost(100.).setCostPerDistance(2.).addCapacityDimension(0, 15).build();
+        vehicle = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(-5, 0))
+            .addSkill("skill1").addSkill("skill2").build();
+        vehicle2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(5, 0)).build();
+
+        s1 = Service.Builder.newInstance("s1").setTimeWindow(TimeWindow.newInstance(10, 20))
+            .setLocation(Location.newInstance(-10, 1)).addSizeDimension(0, 2).addRequiredSkill("skill1").build();
+        s2 = Service.Builder.newInstance("s2").setLocation(Location.newInstance(-10, 10)).addSizeDimension(0, 3).build();
+        shipment1 = Shipment.Builder.newInstance("ship1").setPickupLocation(Location.newInstance(-15, 2))
+            .setDeliveryLocation(Location.newInstance(-16, 5)).addSizeDimension(0, 10)
+            .setPickupServiceTime(20.).setDeliveryServiceTime(20.).build();
+        s3 = Service.Builder.newInstance("s3").setTimeWindow(TimeWindow.newInstance(10, 20))
+            .setLocation(Location.newInstance(10, 1)).addSizeDimension(0, 2).addRequiredSkill("skill3").build();
+        s4 = Service.Builder.newInstance("s4").setLocation(Location.newInstance(10, 10)).addSizeDimension(0, 3).build();
+        shipment2 = Shipment.Builder.newInstance("ship2").setPickupLocation(Location.newInstance(15, 2))
+            .setDeliveryLocation(Location.newInstance(16, 5)).addSizeDimension(0, 10)
+            .setPickupServiceTime(20.).setDeliveryServiceTime(20.).build();
+
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addVehicle(vehicle2)
+            .addJob(s1).addJob(s2).addJob(shipment1).addJob(s3).addJob(s4).addJob(shipment2);
+        vrpBuilder.setRoutingCost(new ManhattanCosts(vrpBuilder.getLocations()));
+        vrp = vrpBuilder.build();
+    }
+
+    private VehicleRoute route1() {
+        return VehicleRoute.Builder.newInstance(vehicle).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(s1).addPickup(shipment1).addDelivery(shipment1).addService(s2).build();
+    }
+
+    private VehicleRoute route2() {
+        return VehicleRoute.Builder.newInstance(vehicle2).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(s3).addPickup(shipment2).addDelivery(shipment2).addService(s4).build();
+    }
+
+    private void assertSameStatistics(VehicleRoutingProblemSolution solution, IncrementalSolutionAnalyser incrementalAnalyser) {
+        SolutionAnalyser analyser = new SolutionAnalyser(vrp, solution, vrp.getTransportCosts());
+        assertEquals(analyser.getDistance(), incrementalAnalyser.getDistance(), 0.01);
+        assertEquals(analyser.getTransportTime(), incrementalAnalyser.getTransportTime(), 0.01);
+        assertEquals(analyser.getWaitingTime(), incrementalAnalyser.getWaitingTime(), 0.01);
+        assertEquals(analyser.getServiceTime(), incrementalAnalyser.getServiceTime(), 0.01);
+        assertEquals(analyser.getOperationTime(), incrementalAnalyser.getOperationTime(), 0.01);
+        assertEquals(analyser.getMaxOperationTime(), incrementalAnalyser.getMaxOperationTime(), 0.01);
+        assertEquals(analyser.getTimeWindowViolation(), incrementalAnalyser.getTimeWindowViolation(), 0.01);
+        assertEquals(analyser.getVariableTransportCosts(), incrementalAnalyser.getVariableTransportCosts(), 0.01);
+        assertEquals(analyser.getFixedCosts(), incrementalAnalyser.getFixedCosts(), 0.01);
+        assertEquals(analyser.hasSkillConstraintViolation(), incrementalAnalyser.hasSkillConstraintViolation());
+        assertEquals(analyser.getNumberOfPickups(), incrementalAnalyser.getNumberOfPickups());
+        assertEquals(analyser.getNumberOfDeliveries(), incrementalAnalyser.getNumberOfDeliveries());
+        assertEquals(analyser.getCapacityViolation(), incrementalAnalyser.getCapacityViolation());
+        assertEquals(analyser.getLoadPickedUp(), incrementalAnalyser.getLoadPickedUp());
+        assertEquals(analyser.getLoadDelivered(), incrementalAnalyser.getLoadDelivered());
+        for (VehicleRoute route : solution.getRoutes()) {
+            assertEquals(analyser.getDistance(route), incrementalAnalyser.getDistance(route), 0.01);
+            assertEquals(analyser.getWaitingTime(route), incrementalAnalyser.getWaitingTime(route), 0.01);
+            assertEquals(analyser.getTimeWindowViolation(route), incrementalAnalyser.getTimeWindowViolation(route), 0.01);
+            assertEquals(analyser.hasSkillConstraintViolation(route), incrementalAnalyser.hasSkillConstraintViolation(route));
+            assertEquals(analyser.getMaxLoad(route), incrementalAnalyser.getMaxLoad(route));
+            assertEquals(analyser.getLoadAtBeginning(route), incrementalAnalyser.getLoadAtBeginning(route));
+            assertEquals(analyser.getLoadAtEnd(route), incrementalAnalyser.getLoadAtEnd(route));
+        }
+    }
+
+    @Test
+    public void statisticsShouldEqualThoseOfSolutionAnalyser() {
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(Arrays.asList(route1(), route2()), 42);
+        IncrementalSolutionAnalyser analyser = new IncrementalSolutionAnalyser(vrp, vrp.getTransportCosts());
+        analyser.informSolutionChanged(solution);
+        assertEquals(2, analyser.getNumberOfRecalculatedRoutes());
+        assertSameStatistics(solution, analyser);
+    }
+
+    @Test
+    public void whenSolutionIsCopied_itShouldNotRecalculateRoutes() {
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(Arrays.asList(route1(), route2()), 42);
+        IncrementalSolutionAnalyser analyser = new IncrementalSolutionAnalyser(vrp, vrp.getTransportCosts());
+        analyser.informSolutionChanged(solution);
+        VehicleRoutingProblemSolution copy = VehicleRoutingProblemSolution.copyOf(solution);
+        analyser.informSolutionChanged(copy);
+        assertEquals(0, analyser.getNumberOfRecalculatedRoutes());
+        assertSameStatistics(copy, analyser);
+    }
+
+    @Test
+    public void whenOneRouteChanges_itShouldOnlyRecalculateThisRoute() {
+        IncrementalSolutionAnalyser analyser = new IncrementalSolutionAnalyser(vrp, vrp.getTransportCosts());
+        analyser.informSolutionChanged(new VehicleRoutingProblemSolution(Arrays.asList(route1(), route2()), 42));
+
+        VehicleRoute changedRoute2 = VehicleRoute.Builder.newInstance(vehicle2).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addPickup(shipment2).addService(s4).addDelivery(shipment2).build();
+        VehicleRoutingProblemSolution changed = new VehicleRoutingProblemSolution(Arrays.asList(route1(), changedRoute2), 42);
+        analyser.informSolutionChanged(changed);
+        assertEquals(1, analyser.getNumberOfRecalculatedRoutes());
+        assertSameStatistics(changed, analyser);
+    }
+
+    @Test
+    public void whenRouteIsRemoved_totalsShouldBeReduced() {
+        IncrementalSolutionAnalyser analyser = new IncrementalSolutionAnalyser(vrp, vrp.getTransportCosts());
+        analyser.informSolutionChanged(new VehicleRoutingProblemSolution(Arrays.asList(route1(), route2()), 42));
+
+        VehicleRoutingProblemSolution reduced = new VehicleRoutingProblemSolution(Collections.singletonList(route1()), 42);
+        analyser.informSolutionChanged(reduced);
+        assertEquals(0, analyser.getNumberOfRecalculatedRoutes());
+        assertSameStatistics(reduced, analyser);
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem;
+
+import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
+import com.graphhopper.jsprit.core.algorithm.box.Jsprit;
+import com.graphhopper.jsprit.core.algorithm.state.StateManager;
+import com.graphhopper.jsprit.core.problem.constraint.ConstraintManager;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Solutions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class VehicleRoutingProblemUpdateTest {
+
+    private VehicleRoutingProblem vrp;
+
+    private VehicleRoutingProblemSolution solution;
+
+    private VehicleImpl v1;
+
+    private VehicleImpl v2;
+
+    @Before
+    public void doBefore() {
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("type").addCapacityDimension(0, 10).build();
+        v1 = VehicleImpl.Builder.newInstance("v1").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        v2 = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(Location.newInstance(0, 0)).build();
+        VehicleRoutingProblem.Builder vrpBuilder = VehicleRoutingProblem.Builder.newInstance()
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).addVehicle(v1).addVehicle(v2);
+        for (int i = 1; i <= 4; i++) {
+            vrpBuilder.addJob(Service.Builder.newInstance("s" + i).addSizeDimension(0, 1).setLocation(Location.newInstance(i * 10, 0)).build());
+        }
+        vrpBuilder.addJob(Shipment.Builder.newInstance("sh1").addSizeDimension(0, 1)
+            .setPickupLocation(Location.newInstance(0, 10)).setDeliveryLocation(Location.newInstance(0, 20)).build());
+        vrp = vrpBuilder.build();
+        VehicleRoute r1 = VehicleRoute.Builder.newInstance(v1).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addService(service("s1")).addService(service("s2")).build();
+        VehicleRoute r2 = VehicleRoute.Builder.newInstance(v2).setJobActivityFactory(vrp.getJobActivityFactory())
+            .addPickup(shipment("sh1")).addService(service("s3")).addDelivery(shipment("sh1")).build();
+        solution = new VehicleRoutingProblemSolution(Arrays.asList(r1, r2), Collections.<Job>singletonList(vrp.getJobs().get("s4")), 100.);
+    }
+
+    private Service service(String id) {
+        return (Service) vrp.getJobs().get(id);
+    }
+
+    private Shipment shipment(String id) {
+        return (Shipment) vrp.getJobs().get(id);
+    }
+
+    private static VehicleRoute routeOf(VehicleRoutingProblemSolution solution, String vehicleId) {
+        for (VehicleRoute route : solution.getRoutes()) {
+            if (route.getVehicle().getId().equals(vehicleId)) return route;
+        }
+        return null;
+    }
+
+    private static String jobIdOf(TourActivity act) {
+        return ((TourActivity.JobActivity) act).getJob().getId();
+    }
+
+    @Test
+    public void addedJobsShouldBeUnassignedAndIndexedConsecutively() {
+        Service s5 = Service.Builder.newInstance("s5").setLocation(Location.newInstance(50, 0)).build();
+        VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+            .removeJob("s2").addJob(s5).build();
+        VehicleRoutingProblem updated = update.getProblem();
+        assertEquals(5, updated.getJobs().size());
+        assertFalse(updated.getJobs().containsKey("s2"));
+        assertEquals(5, s5.getIndex());
+        assertEquals(1, updated.getJobs().get("s1").getIndex());
+        assertEquals(2, updated.getJobs().get("s3").getIndex());
+        assertTrue(update.getSolution().getUnassignedJobs().contains(s5));
+        assertTrue(update.getSolution().getUnassignedJobs().contains(updated.getJobs().get("s4")));
+        VehicleRoute r1 = routeOf(update.getSolution(), "v1");
+        assertEquals(1, r1.getActivities().size());
+        assertEquals("s1", jobIdOf(r1.getActivities().get(0)));
+    }
+
+    @Test
+    public void warmStartActivitiesShouldBeIndexedByUpdatedProblem() {
+        VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+            .removeJob("s1").build();
+        for (VehicleRoute route : update.getSolution().getRoutes()) {
+            for (TourActivity act : route.getActivities()) {
+                Job job = ((TourActivity.JobActivity) act).getJob();
+                boolean indexFound = false;
+                for (TourActivity jobAct : update.getProblem().copyAndGetActivities(job)) {
+                    if (jobAct.getIndex() == act.getIndex()) indexFound = true;
+                }
+                assertTrue(indexFound);
+            }
+        }
+    }
+
+    @Test
+    public void servedJobsShouldBeInInitialRoutes() {
+        VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+            .setServedActivities("v2", 1).build();
+        VehicleRoutingProblem updated = update.getProblem();
+        assertEquals(1, updated.getInitialVehicleRoutes().size());
+        VehicleRoute initialRoute = updated.getInitialVehicleRoutes().iterator().next();
+        assertEquals("v2", initialRoute.getVehicle().getId());
+        assertEquals(2, initialRoute.getActivities().size());
+        assertFalse(updated.getJobs().containsKey("sh1"));
+        assertTrue(updated.getJobsInclusiveInitialJobsInRoutes().containsKey("sh1"));
+        VehicleRoute r2 = routeOf(update.getSolution(), "v2");
+        assertTrue(update.getServedActivitiesConstraint().isServed(r2.getActivities().get(0)));
+        assertFalse(update.getServedActivitiesConstraint().isServed(r2.getActivities().get(1)));
+        assertFalse(update.getServedActivitiesConstraint().isServed(r2.getActivities().get(2)));
+        assertTrue(update.getServedActivitiesConstraint().isServed(initialRoute.getActivities().get(0)));
+        assertFalse(update.getServedActivitiesConstraint().isServed(initialRoute.getActivities().get(1)));
+        assertFalse(update.getServedActivitiesConstraint().isServed(r2.getEnd()));
+    }
+
+    @Test
+    public void jobsOfRemovedVehicleShouldBeUnassigned() {
+        VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+            .setServedActivities("v1", 1).removeVehicle("v1").build();
+        VehicleRoutingProblem updated = update.getProblem();
+        assertEquals(1, updated.getVehicles().size());
+        assertFalse(updated.getJobsInclusiveInitialJobsInRoutes().containsKey("s1"));
+        assertNull(routeOf(update.getSolution(), "v1"));
+        assertTrue(update.getSolution().getUnassignedJobs().contains(updated.getJobs().get("s2")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removingServedJobShouldFail() {
+        VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution).setServedActivities("v1", 1).removeJob("s1").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removingVehicleCarryingShipmentShouldFail() {
+        VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution).setServedActivities("v2", 2).removeVehicle("v2").build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removingUnknownJobShouldFail() {
+        VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution).removeJob("unknown").build();
+    }
+
+    @Test
+    public void whenContinuingSearch_servedActivitiesShouldRemainFirstAndNewJobsShouldBeInserted() {
+        Service s5 = Service.Builder.newInstance("s5").addSizeDimension(0, 1).setLocation(Location.newInstance(5, 0)).build();
+        VehicleRoutingProblemUpdate update = VehicleRoutingProblemUpdate.Builder.newInstance(vrp, solution)
+            .setServedActivities("v1", 2).setServedActivities("v2", 1).addJob(s5).build();
+        VehicleRoutingProblem updated = update.getProblem();
+        StateManager stateManager = new StateManager(updated);
+        ConstraintManager constraintManager = new ConstraintManager(updated, stateManager);
+        constraintManager.addConstraint(update.getServedActivitiesConstraint(), ConstraintManager.Priority.CRITICAL);
+        VehicleRoutingAlgorithm vra = Jsprit.Builder.newInstance(updated)
+            .setStateAndConstraintManager(stateManager, constraintManager).buildAlgorithm();
+        vra.setMaxIterations(50);
+        vra.addInitialSolution(update.getSolution());
+        VehicleRoutingProblemSolution best = Solutions.bestOf(vra.searchSolutions());
+        assertTrue(best.getUnassignedJobs().isEmpty());
+        VehicleRoute r1 = routeOf(best, "v1");
+        assertEquals("s1", jobIdOf(r1.getActivities().get(0)));
+        assertEquals("s2", jobIdOf(r1.getActivities().get(1)));
+        VehicleRoute r2 = routeOf(best, "v2");
+        assertEquals("sh1", jobIdOf(r2.getActivities().get(0)));
+    }
+
+}
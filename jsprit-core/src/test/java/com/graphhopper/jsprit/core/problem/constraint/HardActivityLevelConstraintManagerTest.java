@@ -0,0 +1,90 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.problem.constraint;
+
+import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HardActivityLevelConstraintManagerTest {
+
+    private HardActivityConstraint constraint(HardActivityConstraint.ConstraintsStatus status) {
+        HardActivityConstraint c = mock(HardActivityConstraint.class);
+        when(c.fulfilled(any(JobInsertionContext.class), any(TourActivity.class), any(TourActivity.class), any(TourActivity.class), anyDouble())).thenReturn(status);
+        return c;
+    }
+
+    @Test
+    public void whenAdaptiveOrderingIsOff_countersShouldNotBeRecorded() {
+        HardActivityLevelConstraintManager man = new HardActivityLevelConstraintManager();
+        man.addConstraint(constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED), ConstraintManager.Priority.LOW);
+        man.fulfilled(null, null, null, null, 0.);
+        assertEquals(1, man.getStatistics().size());
+        assertEquals(0, man.getStatistics().get(0).getNuOfEvaluations());
+    }
+
+    @Test
+    public void whenAdaptiveOrderingIsOn_countersShouldBeRecorded() {
+        HardActivityLevelConstraintManager man = new HardActivityLevelConstraintManager();
+        man.setAdaptiveOrdering(true);
+        man.addConstraint(constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED), ConstraintManager.Priority.LOW);
+        man.addConstraint(constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED), ConstraintManager.Priority.LOW);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, man.fulfilled(null, null, null, null, 0.));
+        }
+        HardActivityConstraintStatistics rejecting = man.getStatistics().get(1);
+        assertEquals(10, rejecting.getNuOfEvaluations());
+        assertEquals(10, rejecting.getNuOfRejections());
+        assertEquals(1., rejecting.getRejectionRate(), 0.01);
+        assertEquals(0., man.getStatistics().get(0).getRejectionRate(), 0.01);
+    }
+
+    @Test
+    public void rejectingLowPrioConstraintShouldBeMovedToTheFront() {
+        HardActivityLevelConstraintManager man = new HardActivityLevelConstraintManager();
+        man.setAdaptiveOrdering(true);
+        HardActivityConstraint fulfilling = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        HardActivityConstraint rejecting = constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED);
+        man.addConstraint(fulfilling, ConstraintManager.Priority.LOW);
+        man.addConstraint(rejecting, ConstraintManager.Priority.LOW);
+        for (int i = 0; i < HardActivityLevelConstraintManager.REORDERING_INTERVAL + 1; i++) {
+            assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, man.fulfilled(null, null, null, null, 0.));
+        }
+        assertSame(rejecting, man.getStatistics().get(0).getConstraint());
+        assertSame(fulfilling, man.getStatistics().get(1).getConstraint());
+    }
+
+    @Test
+    public void breakingCriticalConstraintShouldStillEndEvaluation() {
+        HardActivityLevelConstraintManager man = new HardActivityLevelConstraintManager();
+        man.setAdaptiveOrdering(true);
+        man.addConstraint(constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED), ConstraintManager.Priority.CRITICAL);
+        man.addConstraint(constraint(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK), ConstraintManager.Priority.CRITICAL);
+        HardActivityConstraint low = constraint(HardActivityConstraint.ConstraintsStatus.FULFILLED);
+        man.addConstraint(low, ConstraintManager.Priority.LOW);
+        assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK, man.fulfilled(null, null, null, null, 0.));
+        assertEquals(0, man.getStatistics().get(2).getNuOfEvaluations());
+    }
+
+}
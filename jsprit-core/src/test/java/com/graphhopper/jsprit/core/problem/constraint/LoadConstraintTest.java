@@ -18,12 +18,14 @@
 
 package com.graphhopper.jsprit.core.problem.constraint;
 
+import com.graphhopper.jsprit.core.algorithm.state.StateId;
 import com.graphhopper.jsprit.core.algorithm.state.StateManager;
 import com.graphhopper.jsprit.core.problem.*;
 import com.graphhopper.jsprit.core.problem.job.*;
 import com.graphhopper.jsprit.core.problem.misc.JobInsertionContext;
 import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
 import com.graphhopper.jsprit.core.problem.solution.route.activity.*;
+import com.graphhopper.jsprit.core.problem.solution.route.state.RouteAndActivityStateGetter;
 import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
 import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
 import org.junit.Before;
@@ -945,4 +947,52 @@ pickup(s1) pickup(s2) delivery(s2) deliver(s1)
 
     }
 
+    @Test
+    public void whenStateGetterHasNoPrimitiveStates_loadConstraintsShouldGiveSameResults() {
+        stateManager.informInsertionStarts(Arrays.asList(serviceRoute, shipment_route), Collections.<Job>emptyList());
+        RouteAndActivityStateGetter genericStates = genericStateGetter();
+
+        Service service = mock(Service.class);
+        Capacity serviceSize = Capacity.Builder.newInstance().addDimension(0, 6).build();
+        when(service.getSize()).thenReturn(serviceSize);
+        ServiceActivity serviceAct = mock(ServiceActivity.class);
+        when(serviceAct.getSize()).thenReturn(serviceSize);
+        JobInsertionContext serviceContext = new JobInsertionContext(serviceRoute, service, serviceRoute.getVehicle(), null, 0.);
+        assertFalse(new ServiceLoadRouteLevelConstraint(genericStates).fulfilled(serviceContext));
+        assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED, new ServiceLoadActivityLevelConstraint(genericStates)
+            .fulfilled(serviceContext, serviceRoute.getStart(), serviceAct, serviceRoute.getActivities().get(0), 0.));
+
+        Shipment shipment = mock(Shipment.class);
+        when(shipment.getSize()).thenReturn(Capacity.Builder.newInstance().addDimension(0, 21).build());
+        JobInsertionContext shipmentContext = new JobInsertionContext(shipment_route, shipment, shipment_route.getVehicle(), null, 0.);
+        assertEquals(HardActivityConstraint.ConstraintsStatus.NOT_FULFILLED_BREAK, new PickupAndDeliverShipmentLoadActivityLevelConstraint(genericStates)
+            .fulfilled(shipmentContext, shipment_route.getActivities().get(3), new DeliverShipment(shipment), shipment_route.getEnd(), 0.));
+    }
+
+    private RouteAndActivityStateGetter genericStateGetter() {
+        return new RouteAndActivityStateGetter() {
+
+            @Override
+            public <T> T getActivityState(TourActivity act, StateId stateId, Class<T> type) {
+                return stateManager.getActivityState(act, stateId, type);
+            }
+
+            @Override
+            public <T> T getActivityState(TourActivity act, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return stateManager.getActivityState(act, vehicle, stateId, type);
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, StateId stateId, Class<T> type) {
+                return stateManager.getRouteState(route, stateId, type);
+            }
+
+            @Override
+            public <T> T getRouteState(VehicleRoute route, Vehicle vehicle, StateId stateId, Class<T> type) {
+                return stateManager.getRouteState(route, vehicle, stateId, type);
+            }
+
+        };
+    }
+
 }
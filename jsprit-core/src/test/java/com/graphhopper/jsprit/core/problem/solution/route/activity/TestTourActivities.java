@@ -235,4 +235,69 @@ public class TestTourActivities {
         assertTrue(copiedTour.servesJob(s));
     }
 
+    @Test
+    public void whenCopyingLazily_activitiesShouldBeSharedUntilTourIsChanged() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.lazyCopyOf(tour);
+
+        assertSame(act, copiedTour.getActivities().get(0));
+        assertTrue(copiedTour.servesJob(service));
+    }
+
+    @Test
+    public void whenChangingLazyCopy_originalTourShouldRemainUnchanged() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.lazyCopyOf(tour);
+        Service anotherService = Service.Builder.newInstance("s2").setLocation(Location.newInstance("loc2")).build();
+        copiedTour.addActivity(ServiceActivity.newInstance(anotherService));
+
+        assertEquals(2, copiedTour.getActivities().size());
+        assertNotSame(act, copiedTour.getActivities().get(0));
+        assertEquals(1, tour.getActivities().size());
+        assertSame(act, tour.getActivities().get(0));
+        assertFalse(tour.servesJob(anotherService));
+    }
+
+    @Test
+    public void whenChangingOriginalTour_lazyCopyShouldRemainUnchanged() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.lazyCopyOf(tour);
+        tour.removeJob(service);
+
+        assertTrue(tour.isEmpty());
+        assertEquals(1, copiedTour.getActivities().size());
+        assertTrue(copiedTour.servesJob(service));
+    }
+
+    @Test
+    public void whenRemovingSharedActivityFromLazyCopy_itShouldBeRemovedFromCopyOnly() {
+        tour.addActivity(act);
+        TourActivities copiedTour = TourActivities.lazyCopyOf(tour);
+
+        assertTrue(copiedTour.removeActivity(act));
+        assertTrue(copiedTour.isEmpty());
+        assertFalse(copiedTour.servesJob(service));
+        assertSame(act, tour.getActivities().get(0));
+        assertTrue(tour.servesJob(service));
+    }
+
+    @Test
+    public void whenTourIsChanged_versionShouldChange() {
+        assertEquals(TourActivities.EMPTY_VERSION, tour.getVersion());
+        tour.addActivity(act);
+        long version = tour.getVersion();
+        assertNotEquals(TourActivities.EMPTY_VERSION, version);
+        tour.removeJob(service);
+        assertEquals(TourActivities.EMPTY_VERSION, tour.getVersion());
+        tour.addActivity(act);
+        assertNotEquals(version, tour.getVersion());
+    }
+
+    @Test
+    public void whenCopyingTour_versionShouldBeRetained() {
+        tour.addActivity(act);
+        assertEquals(tour.getVersion(), TourActivities.copyOf(tour).getVersion());
+        assertEquals(tour.getVersion(), TourActivities.lazyCopyOf(tour).getVersion());
+    }
+
 }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DenseVehicleRoutingTransportCostsMatrixTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void whenAddingDistanceToSymmetricMatrix_itShouldReturnCorrectValues() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true)
+            .addTransportDistance(1, 2, 2.).build();
+        assertEquals(2., matrix.getTransportCost(loc(1), loc(2), 0.0, null, null), 0.1);
+        assertEquals(2., matrix.getDistance(2, 1), 0.1);
+    }
+
+    @Test
+    public void whenAddingDistanceToAsymmetricMatrix_itShouldReturnCorrectValues() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false)
+            .addTransportDistance(1, 2, 2.).build();
+        assertEquals(2., matrix.getDistance(1, 2), 0.1);
+        assertEquals(0., matrix.getDistance(2, 1), 0.1);
+    }
+
+    @Test
+    public void whenUsingFloatPrecision_itShouldReturnCorrectValues() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false)
+            .setPrecision(DenseVehicleRoutingTransportCostsMatrix.Precision.FLOAT)
+            .addTransportTimeAndDistance(1, 2, 2.5, 100.25).build();
+        assertEquals(2.5, matrix.getTransportTime(loc(1), loc(2), 0.0, null, null), 0.0001);
+        assertEquals(100.25, matrix.getDistance(1, 2), 0.0001);
+    }
+
+    @Test
+    public void whenUsingIntPrecision_valuesShouldBeRoundedToScale() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false)
+            .setPrecision(DenseVehicleRoutingTransportCostsMatrix.Precision.INT).setScale(10)
+            .addTransportTimeAndDistance(1, 2, 2.54, 100.25).build();
+        assertEquals(2.5, matrix.getTransportTime(1, 2), 0.0001);
+        assertEquals(100.3, matrix.getDistance(1, 2), 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAddingValueOutOfRange_itShouldThrowException() {
+        DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).addTransportDistance(0, 3, 2.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingDistanceOfIndexOutOfRange_itShouldThrowException() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false)
+            .addTransportDistance(1, 0, 2.).build();
+        matrix.getDistance(loc(0), loc(4), 0.0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenRequestingDistanceOfNegativeIndex_itShouldThrowException() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).build();
+        matrix.getDistance(loc(1), Location.newInstance("noIndex"), 0.0, null);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenSettingPrecisionAfterAddingValues_itShouldThrowException() {
+        DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false).addTransportDistance(1, 2, 2.)
+            .setPrecision(DenseVehicleRoutingTransportCostsMatrix.Precision.FLOAT);
+    }
+
+    @Test
+    public void whenAddingTimeAndDistance_itShouldCalculateCostsWithVehicleCostParams() {
+        DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, true)
+            .addTransportTimeAndDistance(1, 2, 2., 100.).build();
+        Vehicle vehicle = mock(Vehicle.class);
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).setCostPerTransportTime(2.).build();
+        when(vehicle.getType()).thenReturn(type);
+        assertEquals(104., matrix.getTransportCost(loc(2), loc(1), 0.0, null, vehicle), 0.1);
+    }
+
+    @Test
+    public void whenWritingAndMapping_itShouldReturnSameValues() throws IOException {
+        for (DenseVehicleRoutingTransportCostsMatrix.Precision precision : DenseVehicleRoutingTransportCostsMatrix.Precision.values()) {
+            DenseVehicleRoutingTransportCostsMatrix matrix = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(4, false)
+                .setPrecision(precision).setScale(100)
+                .addTransportTimeAndDistance(0, 3, 12.25, 42.5)
+                .addTransportTimeAndDistance(3, 0, 13.75, 41.5)
+                .addTransportTimeAndDistance(2, 1, 7., 8.).build();
+            File file = folder.newFile("matrix-" + precision + ".bin");
+            matrix.write(file);
+            DenseVehicleRoutingTransportCostsMatrix mapped = DenseVehicleRoutingTransportCostsMatrix.map(file);
+            DenseVehicleRoutingTransportCostsMatrix loaded = DenseVehicleRoutingTransportCostsMatrix.load(file);
+            assertEquals(precision, mapped.getPrecision());
+            assertEquals(4, loaded.getNoLocations());
+            for (int from = 0; from < 4; from++) {
+                for (int to = 0; to < 4; to++) {
+                    assertEquals(matrix.getDistance(from, to), mapped.getDistance(from, to), 0.0001);
+                    assertEquals(matrix.getTransportTime(from, to), mapped.getTransportTime(from, to), 0.0001);
+                    assertEquals(matrix.getDistance(from, to), loaded.getDistance(from, to), 0.0001);
+                    assertEquals(matrix.getTransportTime(from, to), loaded.getTransportTime(from, to), 0.0001);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void whenMappingOtherFile_itShouldThrowException() throws IOException {
+        File file = folder.newFile("other.bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[64]);
+        out.close();
+        DenseVehicleRoutingTransportCostsMatrix.map(file);
+    }
+
+    private Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeKey;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FusedCostsVehicleRoutingTransportCostsTest {
+
+    private FastVehicleRoutingTransportCostsMatrix matrix() {
+        FastVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = FastVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false);
+        matrixBuilder.addTransportTimeAndDistance(1, 2, 2., 100.);
+        matrixBuilder.addTransportTimeAndDistance(2, 1, 4., 50.);
+        return matrixBuilder.build();
+    }
+
+    private Vehicle vehicle(int typeIndex, double perDistanceUnit, double perTransportTimeUnit) {
+        VehicleTypeKey typeKey = mock(VehicleTypeKey.class);
+        when(typeKey.getIndex()).thenReturn(typeIndex);
+        VehicleType type = mock(VehicleType.class);
+        when(type.getVehicleCostParams()).thenReturn(VehicleTypeImpl.VehicleCostParams.newInstance(0, perTransportTimeUnit, perDistanceUnit));
+        Vehicle vehicle = mock(Vehicle.class);
+        when(vehicle.getType()).thenReturn(type);
+        when(vehicle.getVehicleTypeIdentifier()).thenReturn(typeKey);
+        return vehicle;
+    }
+
+    private Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+    @Test
+    public void fusedCostsShouldEqualCostsOfMatrix() {
+        FastVehicleRoutingTransportCostsMatrix matrix = matrix();
+        FusedCostsVehicleRoutingTransportCosts fused = new FusedCostsVehicleRoutingTransportCosts(matrix, 3, Long.MAX_VALUE);
+        Vehicle v1 = vehicle(1, 2., 1.);
+        Vehicle v2 = vehicle(2, 1., 10.);
+        assertEquals(matrix.getTransportCost(loc(1), loc(2), 0., null, v1), fused.getTransportCost(loc(1), loc(2), 0., null, v1), 0.01);
+        assertEquals(matrix.getTransportCost(loc(2), loc(1), 0., null, v1), fused.getTransportCost(loc(2), loc(1), 0., null, v1), 0.01);
+        assertEquals(matrix.getTransportCost(loc(1), loc(2), 0., null, v2), fused.getTransportCost(loc(1), loc(2), 0., null, v2), 0.01);
+        assertEquals(matrix.getTransportCost(loc(2), loc(1), 0., null, v2), fused.getTransportCost(loc(2), loc(1), 0., null, v2), 0.01);
+        assertEquals(2 * 8 * 9, fused.getUsedBytes());
+    }
+
+    @Test
+    public void typesWithEqualCostParamsShouldShareMatrix() {
+        FusedCostsVehicleRoutingTransportCosts fused = new FusedCostsVehicleRoutingTransportCosts(matrix(), 3, Long.MAX_VALUE);
+        assertEquals(202., fused.getTransportCost(loc(1), loc(2), 0., null, vehicle(1, 2., 1.)), 0.01);
+        assertEquals(202., fused.getTransportCost(loc(1), loc(2), 0., null, vehicle(2, 2., 1.)), 0.01);
+        assertEquals(8 * 9, fused.getUsedBytes());
+    }
+
+    @Test
+    public void whenBudgetIsExceeded_costsShouldBeTakenFromMatrix() {
+        FusedCostsVehicleRoutingTransportCosts fused = new FusedCostsVehicleRoutingTransportCosts(matrix(), 3, 8 * 9);
+        assertEquals(202., fused.getTransportCost(loc(1), loc(2), 0., null, vehicle(1, 2., 1.)), 0.01);
+        assertEquals(140., fused.getTransportCost(loc(1), loc(2), 0., null, vehicle(2, 1., 20.)), 0.01);
+        assertEquals(8 * 9, fused.getUsedBytes());
+    }
+
+    @Test
+    public void whenVehicleIsNull_costsShouldBeTakenFromMatrix() {
+        FusedCostsVehicleRoutingTransportCosts fused = new FusedCostsVehicleRoutingTransportCosts(matrix(), 3, Long.MAX_VALUE);
+        assertEquals(100., fused.getTransportCost(loc(1), loc(2), 0., null, null), 0.01);
+        assertEquals(0, fused.getUsedBytes());
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SplitMixRandomTest {
+
+    @Test
+    public void sameSeedShouldGiveSameStream() {
+        SplitMixRandom r1 = new SplitMixRandom(42);
+        SplitMixRandom r2 = new SplitMixRandom(42);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(r1.nextLong(), r2.nextLong());
+            assertEquals(r1.nextInt(10), r2.nextInt(10));
+        }
+    }
+
+    @Test
+    public void whenSettingSeed_streamShouldStartOver() {
+        SplitMixRandom r = new SplitMixRandom(42);
+        long first = r.nextLong();
+        r.nextDouble();
+        r.setSeed(42);
+        assertEquals(first, r.nextLong());
+    }
+
+    @Test
+    public void splitsShouldBeReproducibleAndDifferent() {
+        SplitMixRandom root1 = new SplitMixRandom(42);
+        SplitMixRandom root2 = new SplitMixRandom(42);
+        SplitMixRandom a1 = root1.split();
+        SplitMixRandom b1 = root1.split();
+        SplitMixRandom a2 = root2.split();
+        SplitMixRandom b2 = root2.split();
+        Set<Long> firstNumbers = new HashSet<Long>();
+        for (int i = 0; i < 10; i++) {
+            long a = a1.nextLong();
+            long b = b1.nextLong();
+            assertEquals(a, a2.nextLong());
+            assertEquals(b, b2.nextLong());
+            assertNotEquals(a, b);
+            firstNumbers.add(a);
+        }
+        assertEquals(10, firstNumbers.size());
+    }
+
+    @Test
+    public void drawsShouldBeInRange() {
+        SplitMixRandom r = RandomNumberGeneration.newSplittableInstance();
+        for (int i = 0; i < 1000; i++) {
+            double d = r.nextDouble();
+            assertTrue(d >= 0. && d < 1.);
+            int n = r.nextInt(7);
+            assertTrue(n >= 0 && n < 7);
+            assertTrue(SplitMixRandom.toDouble(SplitMixRandom.mix64(i)) < 1.);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.core.util;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimeDependentVehicleRoutingTransportCostsMatrixTest {
+
+    private static Location loc(int index) {
+        return Location.Builder.newInstance().setIndex(index).build();
+    }
+
+    private TimeDependentVehicleRoutingTransportCostsMatrix rushHourMatrix() {
+        return TimeDependentVehicleRoutingTransportCostsMatrix.Builder.newInstance(3, false, 100., 4)
+            .addTransportDistance(0, 1, 50.)
+            .addTransportTimes(0, 1, 10., 30., 20., 10.)
+            .addTransportTimes(1, 2, 250., 5., 5., 5.)
+            .build();
+    }
+
+    @Test
+    public void transportTimesShouldBeInterpolatedBetweenBuckets() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        assertEquals(10., matrix.getTransportTime(0, 1, 0.), 0.001);
+        assertEquals(20., matrix.getTransportTime(0, 1, 50.), 0.001);
+        assertEquals(30., matrix.getTransportTime(0, 1, 100.), 0.001);
+        assertEquals(25., matrix.getTransportTime(0, 1, 150.), 0.001);
+        assertEquals(20., matrix.getTransportTime(loc(0), loc(1), 200., null, null), 0.001);
+    }
+
+    @Test
+    public void transportTimesOutsideOfBucketsShouldBeConstant() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        assertEquals(10., matrix.getTransportTime(0, 1, -50.), 0.001);
+        assertEquals(10., matrix.getTransportTime(0, 1, 300.), 0.001);
+        assertEquals(10., matrix.getTransportTime(0, 1, 10000.), 0.001);
+    }
+
+    @Test
+    public void whenTimesViolateFifo_theyShouldBeIncreased() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        assertEquals(250., matrix.getTransportTime(1, 2, 0.), 0.001);
+        assertEquals(150., matrix.getTransportTime(1, 2, 100.), 0.001);
+        assertEquals(50., matrix.getTransportTime(1, 2, 200.), 0.001);
+        assertEquals(5., matrix.getTransportTime(1, 2, 300.), 0.001);
+    }
+
+    @Test
+    public void symmetricMatrixShouldReturnSameTimesInBothDirections() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = TimeDependentVehicleRoutingTransportCostsMatrix.Builder.newInstance(2, true, 60., 2)
+            .addTransportTimes(0, 1, 10., 20.).addTransportDistance(0, 1, 5.).build();
+        assertEquals(15., matrix.getTransportTime(1, 0, 30.), 0.001);
+        assertEquals(5., matrix.getDistance(1, 0), 0.001);
+    }
+
+    @Test
+    public void backwardTransportTimeShouldInvertForwardTransportTime() {
+        Random random = new Random(4711);
+        int noLocations = 5;
+        TimeDependentVehicleRoutingTransportCostsMatrix.Builder builder = TimeDependentVehicleRoutingTransportCostsMatrix.Builder.newInstance(noLocations, false, 60., 24);
+        for (int from = 0; from < noLocations; from++) {
+            for (int to = 0; to < noLocations; to++) {
+                for (int bucket = 0; bucket < 24; bucket++) {
+                    builder.addTransportTime(from, to, bucket, random.nextDouble() * 200.);
+                }
+            }
+        }
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = builder.build();
+        for (int i = 0; i < 10000; i++) {
+            int from = random.nextInt(noLocations);
+            int to = random.nextInt(noLocations);
+            double departureTime = random.nextDouble() * 1600. - 100.;
+            double arrivalTime = departureTime + matrix.getTransportTime(from, to, departureTime);
+            double latestDepartureTime = arrivalTime - matrix.getBackwardTransportTime(from, to, arrivalTime);
+            assertEquals(arrivalTime, latestDepartureTime + matrix.getTransportTime(from, to, latestDepartureTime), 1e-6);
+        }
+    }
+
+    @Test
+    public void backwardTransportTimeShouldReturnTimeOfLatestDeparture() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        //departures in [50,100] arrive at 70 + 1.2 * (d - 50), i.e. departing at 75 means arriving at 100
+        assertEquals(25., matrix.getBackwardTransportTime(0, 1, 100.), 0.001);
+        assertEquals(10., matrix.getBackwardTransportTime(0, 1, 5.), 0.001);
+        assertEquals(10., matrix.getBackwardTransportTime(0, 1, 1000.), 0.001);
+    }
+
+    @Test
+    public void whenArrivalTimesAreEqual_backwardTransportTimeShouldReturnTimeOfLatestDeparture() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        //departures in [0,200] arrive at 250
+        assertEquals(50., matrix.getBackwardTransportTime(1, 2, 250.), 0.001);
+    }
+
+    @Test
+    public void costsShouldConsiderTimeOfDeparture() {
+        TimeDependentVehicleRoutingTransportCostsMatrix matrix = rushHourMatrix();
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("t").setCostPerDistance(1.).setCostPerTransportTime(2.).build();
+        Vehicle vehicle = mock(Vehicle.class);
+        when(vehicle.getType()).thenReturn(type);
+        assertEquals(50. + 2. * 10., matrix.getTransportCost(loc(0), loc(1), 0., null, vehicle), 0.001);
+        assertEquals(50. + 2. * 30., matrix.getTransportCost(loc(0), loc(1), 100., null, vehicle), 0.001);
+        assertEquals(50. + 2. * 25., matrix.getBackwardTransportCost(loc(0), loc(1), 100., null, vehicle), 0.001);
+    }
+
+}
@@ -258,4 +258,55 @@ public class VehicleRoutingTransportCostsMatrixTest {
         assertEquals(1., matrix.getTransportCost(loc("to"), loc("from"), 0.0, null, vehicle), 0.1);
     }
 
+    @Test
+    public void whenLocationsHaveIndices_itShouldReturnValuesOfTheirIds() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("a", "b", 1.);
+        matrixBuilder.addTransportDistance("b", "a", 2.);
+        matrixBuilder.addTransportDistance("a", "c", 3.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        Location a = Location.Builder.newInstance().setId("a").setIndex(5).build();
+        Location b = Location.Builder.newInstance().setId("b").setIndex(0).build();
+        Location c = Location.Builder.newInstance().setId("c").setIndex(0).build();
+        assertEquals(1., matrix.getDistance(a, b, 0.0, null), 0.01);
+        assertEquals(2., matrix.getDistance(b, a, 0.0, null), 0.01);
+        assertEquals(3., matrix.getDistance(a, c, 0.0, null), 0.01);
+        assertEquals(1., matrix.getDistance(a, b, 0.0, null), 0.01);
+        assertEquals(0., matrix.getDistance(c, c, 0.0, null), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRelationDoesNotExist_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(false);
+        matrixBuilder.addTransportDistance("a", "b", 1.);
+        VehicleRoutingTransportCostsMatrix matrix = matrixBuilder.build();
+        matrix.getDistance(loc("a"), loc("unknown"), 0.0, null);
+    }
+
+    private VehicleRoutingTransportCostsMatrix sparseMatrix(int noCustomers) {
+        VehicleRoutingTransportCostsMatrix.Builder matrixBuilder = VehicleRoutingTransportCostsMatrix.Builder.newInstance(true);
+        for (int i = 0; i < noCustomers; i++) {
+            matrixBuilder.addTransportDistance("depot", "c" + i, i);
+            matrixBuilder.addTransportTime("c" + i, "depot", 2. * i);
+        }
+        return matrixBuilder.build();
+    }
+
+    @Test
+    public void whenRelationsAreSparseOverManyIds_itShouldReturnCorrectValues() {
+        //dense arrays would need 50001^2 entries which exceeds the max array size
+        VehicleRoutingTransportCostsMatrix matrix = sparseMatrix(50000);
+        assertEquals(49999., matrix.getDistance("depot", "c49999"), 0.01);
+        assertEquals(49999., matrix.getDistance("c49999", "depot"), 0.01);
+        assertEquals(42., matrix.getDistance(loc("c42"), loc("depot"), 0.0, null), 0.01);
+        assertEquals(84., matrix.getTransportTime(loc("depot"), loc("c42"), 0.0, null, null), 0.01);
+        assertEquals(0., matrix.getDistance("c42", "c42"), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenRelationsAreSparseAndRelationDoesNotExist_itShouldThrowException() {
+        VehicleRoutingTransportCostsMatrix matrix = sparseMatrix(50000);
+        matrix.getDistance("c1", "c2");
+    }
+
 }
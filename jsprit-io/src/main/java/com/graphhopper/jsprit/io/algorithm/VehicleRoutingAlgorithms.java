@@ -60,6 +60,8 @@ import org.apache.commons.configuration.XMLConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.net.URL;
 import java.util.*;
@@ -601,7 +603,7 @@ public class VehicleRoutingAlgorithms {
         List<HierarchicalConfiguration> strategyConfigs = config.configurationsAt("strategy.searchStrategies.searchStrategy");
         for (HierarchicalConfiguration strategyConfig : strategyConfigs) {
             String name = getName(strategyConfig);
-            SolutionAcceptor acceptor = getAcceptor(strategyConfig, vrp, algorithmListeners, definedClasses, solutionMemory);
+            SolutionAcceptor acceptor = getAcceptor(strategyConfig, config, algorithmListeners, definedClasses, solutionMemory, executorService, nuOfThreads);
             SolutionSelector selector = getSelector(strategyConfig, vrp, algorithmListeners, definedClasses);
 
             SearchStrategy strategy = new SearchStrategy(name, selector, acceptor, costCalculator);
@@ -790,7 +792,23 @@ public class VehicleRoutingAlgorithms {
         return new ModKey(name, id);
     }
 
-    private static SolutionAcceptor getAcceptor(HierarchicalConfiguration strategyConfig, VehicleRoutingProblem vrp, Set<PrioritizedVRAListener> algorithmListeners, TypedMap typedMap, int solutionMemory) {
+    /*
+     * the random walk of the initial threshold runs the configured search strategies, but accepts every new solution
+     * and runs until its iterations are done
+     */
+    private static XMLConfiguration createWalkConfig(XMLConfiguration config) {
+        XMLConfiguration walkConfig = (XMLConfiguration) config.clone();
+        List<HierarchicalConfiguration> strategyConfigs = walkConfig.configurationsAt("strategy.searchStrategies.searchStrategy");
+        for (HierarchicalConfiguration strategyConfig : strategyConfigs) {
+            strategyConfig.clearTree("acceptor");
+            strategyConfig.addProperty("acceptor[@name]", "acceptNewRemoveFirst");
+        }
+        walkConfig.clearTree("prematureBreak");
+        walkConfig.clearTree("terminationCriteria");
+        return walkConfig;
+    }
+
+    private static SolutionAcceptor getAcceptor(HierarchicalConfiguration strategyConfig, XMLConfiguration config, Set<PrioritizedVRAListener> algorithmListeners, TypedMap typedMap, int solutionMemory, ExecutorService executorService, int nuOfThreads) {
         String acceptorName = strategyConfig.getString("acceptor[@name]");
         if (acceptorName == null) throw new IllegalStateException("no solution acceptor is defined");
         String acceptorId = strategyConfig.getString("acceptor[@id]");
@@ -819,6 +837,26 @@ public class VehicleRoutingAlgorithms {
             SchrimpfAcceptance schrimpf = new SchrimpfAcceptance(solutionMemory, alpha);
             if (nuWarmupIterations != null) {
                 SchrimpfInitialThresholdGenerator iniThresholdGenerator = new SchrimpfInitialThresholdGenerator(schrimpf, Integer.parseInt(nuWarmupIterations));
+                if (executorService != null) iniThresholdGenerator.setExecutor(executorService, nuOfThreads);
+                final XMLConfiguration walkConfig = createWalkConfig(config);
+                iniThresholdGenerator.setWalkAlgorithmFactory(new VehicleRoutingAlgorithmFactory() {
+
+                    @Override
+                    public VehicleRoutingAlgorithm createAlgorithm(VehicleRoutingProblem vrp) {
+                        return createAlgo(vrp, walkConfig, 0, null);
+                    }
+
+                });
+                String estimatesFile = strategyConfig.getString("acceptor.estimates");
+                if (estimatesFile != null) {
+                    String instanceFamily = strategyConfig.getString("acceptor.estimates[@family]");
+                    if (instanceFamily == null) throw new IllegalStateException("acceptor.estimates[@family] is missing");
+                    try {
+                        iniThresholdGenerator.setEstimates(SchrimpfThresholdEstimates.load(new File(estimatesFile)), instanceFamily);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
                 algorithmListeners.add(new PrioritizedVRAListener(Priority.LOW, iniThresholdGenerator));
             } else {
                 double threshold = strategyConfig.getDouble("acceptor.initialThreshold");
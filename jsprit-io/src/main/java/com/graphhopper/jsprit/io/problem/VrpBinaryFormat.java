@@ -0,0 +1,71 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+/**
+ * Constants of the binary problem format written by {@link VrpBinaryWriter} and read by {@link VrpBinaryReader}.
+ * <p>
+ * <p>A file (big endian) starts with int magic and int version, followed by records. Each record consists of a byte
+ * tag, an int length and length bytes of payload, i.e. readers can skip records they do not know. Locations are
+ * written once into a locations table (one location record each) before the first record that refers to them, and
+ * are then referred to by their int position in that table. An embedded matrix consists of a header record and one
+ * record per row. The last record is {@link #END}.
+ */
+final class VrpBinaryFormat {
+
+    static final int MAGIC = 0x4a535042;
+
+    static final int VERSION = 1;
+
+    static final byte END = 0;
+
+    static final byte PROBLEM = 1;
+
+    static final byte LOCATION = 2;
+
+    static final byte VEHICLE_TYPE = 3;
+
+    static final byte VEHICLE = 4;
+
+    static final byte SERVICE = 5;
+
+    static final byte SHIPMENT = 6;
+
+    static final byte INITIAL_ROUTE = 7;
+
+    static final byte MATRIX = 8;
+
+    static final byte MATRIX_ROW = 9;
+
+    static final byte SOLUTION = 10;
+
+    static final byte ACT_SERVICE = 0;
+
+    static final byte ACT_PICKUP_SHIPMENT = 1;
+
+    static final byte ACT_DELIVER_SHIPMENT = 2;
+
+    static final byte ACT_BREAK = 3;
+
+    static final int NO_LOCATION = -1;
+
+    private VrpBinaryFormat() {
+
+    }
+
+}
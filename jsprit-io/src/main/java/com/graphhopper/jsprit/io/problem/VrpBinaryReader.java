@@ -0,0 +1,377 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem.FleetSize;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.DenseVehicleRoutingTransportCostsMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reads problems and solutions written by {@link VrpBinaryWriter} (see {@link VrpBinaryFormat}).
+ * <p>
+ * <p>Records are read one after another and jobs and vehicles are added to the problem builder as soon as their
+ * record has been read, i.e. apart from the locations table, vehicles and types the reader does not hold more than
+ * one record in memory. An embedded matrix is set as routing costs of the builder. Records the reader does not know
+ * are skipped.
+ */
+public class VrpBinaryReader {
+
+    private static Logger logger = LoggerFactory.getLogger(VrpBinaryReader.class);
+
+    private final VehicleRoutingProblem.Builder vrpBuilder;
+
+    private final Collection<VehicleRoutingProblemSolution> solutions;
+
+    private VrpXMLReader.ServiceBuilderFactory serviceBuilderFactory = new VrpXMLReader.DefaultServiceBuilderFactory();
+
+    private List<Location> locations;
+
+    private Map<String, VehicleType> types;
+
+    private Map<String, Vehicle> vehicles;
+
+    private Map<String, Job> frozenJobs;
+
+    private Map<String, Job> jobs;
+
+    private DenseVehicleRoutingTransportCostsMatrix.Builder matrixBuilder;
+
+    private DenseVehicleRoutingTransportCostsMatrix.Precision matrixPrecision;
+
+    private int noMatrixLocations;
+
+    private double matrixScale;
+
+    public VrpBinaryReader(VehicleRoutingProblem.Builder vrpBuilder, Collection<VehicleRoutingProblemSolution> solutions) {
+        this.vrpBuilder = vrpBuilder;
+        this.solutions = solutions;
+    }
+
+    public VrpBinaryReader(VehicleRoutingProblem.Builder vrpBuilder) {
+        this(vrpBuilder, null);
+    }
+
+    public void read(String filename) {
+        logger.debug("read vrp: {}", filename);
+        try {
+            InputStream fileIn = new FileInputStream(filename);
+            try {
+                read(fileIn);
+            } finally {
+                fileIn.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads problem (and solutions) from the specified stream. The stream is not closed.
+     *
+     * @param inputStream the stream to read from
+     * @throws IOException if reading fails or the stream is not in binary format
+     */
+    public void read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+        if (in.readInt() != VrpBinaryFormat.MAGIC) throw new IOException("stream is not in binary vrp format");
+        int version = in.readInt();
+        if (version != VrpBinaryFormat.VERSION) throw new IOException("unsupported binary vrp format version " + version);
+        locations = new ArrayList<Location>();
+        types = new HashMap<String, VehicleType>();
+        vehicles = new HashMap<String, Vehicle>();
+        frozenJobs = new HashMap<String, Job>();
+        jobs = null;
+        matrixBuilder = null;
+        boolean end = false;
+        while (!end) {
+            byte tag = in.readByte();
+            int length = in.readInt();
+            switch (tag) {
+                case VrpBinaryFormat.END:
+                    end = true;
+                    break;
+                case VrpBinaryFormat.PROBLEM:
+                    vrpBuilder.setFleetSize(FleetSize.valueOf(in.readUTF()));
+                    break;
+                case VrpBinaryFormat.LOCATION:
+                    readLocation(in);
+                    break;
+                case VrpBinaryFormat.VEHICLE_TYPE:
+                    readType(in);
+                    break;
+                case VrpBinaryFormat.VEHICLE:
+                    readVehicle(in);
+                    break;
+                case VrpBinaryFormat.SERVICE:
+                    readService(in);
+                    break;
+                case VrpBinaryFormat.SHIPMENT:
+                    readShipment(in);
+                    break;
+                case VrpBinaryFormat.INITIAL_ROUTE:
+                    vrpBuilder.addInitialVehicleRoute(readRoute(in, true));
+                    break;
+                case VrpBinaryFormat.MATRIX:
+                    readMatrix(in);
+                    break;
+                case VrpBinaryFormat.MATRIX_ROW:
+                    readMatrixRow(in);
+                    break;
+                case VrpBinaryFormat.SOLUTION:
+                    if (solutions == null) skip(in, length);
+                    else readSolution(in);
+                    break;
+                default:
+                    logger.debug("skip unknown record {}", tag);
+                    skip(in, length);
+            }
+        }
+        if (matrixBuilder != null) vrpBuilder.setRoutingCost(matrixBuilder.build());
+        locations = null;
+        types = null;
+        vehicles = null;
+        frozenJobs = null;
+        jobs = null;
+        matrixBuilder = null;
+    }
+
+    private static void skip(DataInputStream in, int length) throws IOException {
+        int skipped = 0;
+        while (skipped < length) {
+            int n = in.skipBytes(length - skipped);
+            if (n <= 0) throw new EOFException();
+            skipped += n;
+        }
+    }
+
+    private void readLocation(DataInputStream in) throws IOException {
+        Location.Builder builder = Location.Builder.newInstance().setId(in.readUTF());
+        String name = readNullable(in);
+        if (name != null) builder.setName(name);
+        int index = in.readInt();
+        if (index != Location.NO_INDEX) builder.setIndex(index);
+        if (in.readBoolean()) builder.setCoordinate(Coordinate.newInstance(in.readDouble(), in.readDouble()));
+        locations.add(builder.build());
+    }
+
+    private Location getLocation(int index) {
+        if (index < 0 || index >= locations.size())
+            throw new IllegalArgumentException("location " + index + " is not in locations table");
+        return locations.get(index);
+    }
+
+    private void readType(DataInputStream in) throws IOException {
+        VehicleTypeImpl.Builder builder = VehicleTypeImpl.Builder.newInstance(in.readUTF());
+        String profile = readNullable(in);
+        if (profile != null) builder.setProfile(profile);
+        int nuOfDimensions = in.readInt();
+        for (int i = 0; i < nuOfDimensions; i++) builder.addCapacityDimension(i, in.readInt());
+        builder.setFixedCost(in.readDouble());
+        builder.setCostPerDistance(in.readDouble());
+        builder.setCostPerTransportTime(in.readDouble());
+        builder.setCostPerWaitingTime(in.readDouble());
+        builder.setCostPerServiceTime(in.readDouble());
+        builder.setMaxVelocity(in.readDouble());
+        VehicleType type = builder.build();
+        types.put(type.getTypeId(), type);
+    }
+
+    private void readVehicle(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        VehicleImpl.Builder builder = VehicleImpl.Builder.newInstance(id);
+        String typeId = in.readUTF();
+        VehicleType type = types.get(typeId);
+        if (type == null) throw new IllegalArgumentException("vehicleType with typeId " + typeId + " is missing.");
+        builder.setType(type);
+        builder.setStartLocation(getLocation(in.readInt()));
+        int end = in.readInt();
+        if (end != VrpBinaryFormat.NO_LOCATION) builder.setEndLocation(getLocation(end));
+        builder.setEarliestStart(in.readDouble());
+        builder.setLatestArrival(in.readDouble());
+        builder.setReturnToDepot(in.readBoolean());
+        int nuOfSkills = in.readInt();
+        for (int i = 0; i < nuOfSkills; i++) builder.addSkill(in.readUTF());
+        if (in.readBoolean()) {
+            Break.Builder breakBuilder = Break.Builder.newInstance(in.readUTF());
+            breakBuilder.setServiceTime(in.readDouble());
+            int nuOfTimeWindows = in.readInt();
+            for (int i = 0; i < nuOfTimeWindows; i++) breakBuilder.addTimeWindow(in.readDouble(), in.readDouble());
+            int location = in.readInt();
+            if (location != VrpBinaryFormat.NO_LOCATION) breakBuilder.setLocation(getLocation(location));
+            builder.setBreak(breakBuilder.build());
+        }
+        VehicleImpl vehicle = builder.build();
+        vrpBuilder.addVehicle(vehicle);
+        vehicles.put(id, vehicle);
+    }
+
+    private void readService(DataInputStream in) throws IOException {
+        boolean frozen = in.readBoolean();
+        String type = in.readUTF();
+        Service.Builder builder = serviceBuilderFactory.createBuilder(type, in.readUTF(), null);
+        String name = readNullable(in);
+        if (name != null) builder.setName(name);
+        builder.setLocation(getLocation(in.readInt()));
+        builder.setServiceTime(in.readDouble());
+        int nuOfDimensions = in.readInt();
+        for (int i = 0; i < nuOfDimensions; i++) builder.addSizeDimension(i, in.readInt());
+        int nuOfTimeWindows = in.readInt();
+        for (int i = 0; i < nuOfTimeWindows; i++) builder.addTimeWindow(in.readDouble(), in.readDouble());
+        int nuOfSkills = in.readInt();
+        for (int i = 0; i < nuOfSkills; i++) builder.addRequiredSkill(in.readUTF());
+        builder.setPriority(in.readInt());
+        double maxTimeInVehicle = in.readDouble();
+        if (maxTimeInVehicle != Double.MAX_VALUE) builder.setMaxTimeInVehicle(maxTimeInVehicle);
+        addJob(builder.build(), frozen);
+    }
+
+    private void readShipment(DataInputStream in) throws IOException {
+        boolean frozen = in.readBoolean();
+        Shipment.Builder builder = Shipment.Builder.newInstance(in.readUTF());
+        String name = readNullable(in);
+        if (name != null) builder.setName(name);
+        builder.setPickupLocation(getLocation(in.readInt()));
+        builder.setDeliveryLocation(getLocation(in.readInt()));
+        builder.setPickupServiceTime(in.readDouble());
+        builder.setDeliveryServiceTime(in.readDouble());
+        int nuOfDimensions = in.readInt();
+        for (int i = 0; i < nuOfDimensions; i++) builder.addSizeDimension(i, in.readInt());
+        int nuOfPickupTimeWindows = in.readInt();
+        for (int i = 0; i < nuOfPickupTimeWindows; i++) builder.addPickupTimeWindow(in.readDouble(), in.readDouble());
+        int nuOfDeliveryTimeWindows = in.readInt();
+        for (int i = 0; i < nuOfDeliveryTimeWindows; i++)
+            builder.addDeliveryTimeWindow(in.readDouble(), in.readDouble());
+        int nuOfSkills = in.readInt();
+        for (int i = 0; i < nuOfSkills; i++) builder.addRequiredSkill(in.readUTF());
+        builder.setPriority(in.readInt());
+        double maxTimeInVehicle = in.readDouble();
+        if (maxTimeInVehicle != Double.MAX_VALUE) builder.setMaxTimeInVehicle(maxTimeInVehicle);
+        addJob(builder.build(), frozen);
+    }
+
+    private void addJob(Job job, boolean frozen) {
+        //jobs of initial routes do not belong to the jobs that can be assigned, see VrpXMLReader
+        if (frozen) frozenJobs.put(job.getId(), job);
+        else vrpBuilder.addJob(job);
+        jobs = null;
+    }
+
+    private Job getJob(String jobId, boolean initialRoute) {
+        Job job = frozenJobs.get(jobId);
+        if (job != null || initialRoute) return job;
+        if (jobs == null) {
+            jobs = new HashMap<String, Job>();
+            for (Job j : vrpBuilder.getAddedJobs()) jobs.put(j.getId(), j);
+        }
+        return jobs.get(jobId);
+    }
+
+    private VehicleRoute readRoute(DataInputStream in, boolean initialRoute) throws IOException {
+        String vehicleId = in.readUTF();
+        Vehicle vehicle = vehicles.get(vehicleId);
+        if (vehicle == null) throw new IllegalArgumentException("vehicle " + vehicleId + " is missing.");
+        VehicleRoute.Builder routeBuilder = VehicleRoute.Builder.newInstance(vehicle);
+        routeBuilder.setDepartureTime(in.readDouble());
+        int nuOfActivities = in.readInt();
+        for (int i = 0; i < nuOfActivities; i++) {
+            byte type = in.readByte();
+            String jobId = in.readUTF();
+            if (type == VrpBinaryFormat.ACT_BREAK) {
+                routeBuilder.addBreak(vehicle.getBreak());
+                continue;
+            }
+            Job job = getJob(jobId, initialRoute);
+            if (job == null) throw new IllegalArgumentException("job " + jobId + " is missing.");
+            if (type == VrpBinaryFormat.ACT_PICKUP_SHIPMENT) routeBuilder.addPickup((Shipment) job);
+            else if (type == VrpBinaryFormat.ACT_DELIVER_SHIPMENT) routeBuilder.addDelivery((Shipment) job);
+            else routeBuilder.addService((Service) job);
+        }
+        return routeBuilder.build();
+    }
+
+    private void readSolution(DataInputStream in) throws IOException {
+        double cost = in.readDouble();
+        int nuOfRoutes = in.readInt();
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>(nuOfRoutes);
+        for (int i = 0; i < nuOfRoutes; i++) routes.add(readRoute(in, false));
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(routes, cost);
+        int nuOfUnassignedJobs = in.readInt();
+        for (int i = 0; i < nuOfUnassignedJobs; i++) {
+            String jobId = in.readUTF();
+            Job job = getJob(jobId, false);
+            if (job == null) throw new IllegalArgumentException("cannot find unassignedJob with id " + jobId);
+            solution.getUnassignedJobs().add(job);
+        }
+        solutions.add(solution);
+    }
+
+    private void readMatrix(DataInputStream in) throws IOException {
+        noMatrixLocations = in.readInt();
+        matrixPrecision = DenseVehicleRoutingTransportCostsMatrix.Precision.valueOf(in.readUTF());
+        matrixScale = in.readDouble();
+        matrixBuilder = DenseVehicleRoutingTransportCostsMatrix.Builder.newInstance(noMatrixLocations, false)
+            .setPrecision(matrixPrecision).setScale(matrixScale);
+    }
+
+    private void readMatrixRow(DataInputStream in) throws IOException {
+        if (matrixBuilder == null) throw new IOException("matrix row without matrix");
+        int from = in.readInt();
+        for (int to = 0; to < noMatrixLocations; to++) {
+            double distance;
+            double time;
+            switch (matrixPrecision) {
+                case DOUBLE:
+                    distance = in.readDouble();
+                    time = in.readDouble();
+                    break;
+                case FLOAT:
+                    distance = in.readFloat();
+                    time = in.readFloat();
+                    break;
+                default:
+                    distance = in.readInt() / matrixScale;
+                    time = in.readInt() / matrixScale;
+            }
+            matrixBuilder.addTransportTimeAndDistance(from, to, time, distance);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        if (in.readBoolean()) return in.readUTF();
+        return null;
+    }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.PickupShipment;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.DenseVehicleRoutingTransportCostsMatrix;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes problems and solutions in the binary format read by {@link VrpBinaryReader} (see {@link VrpBinaryFormat}).
+ * <p>
+ * <p>Records are streamed one after another, i.e. apart from the locations table the writer does not hold more than
+ * one record in memory. If the transport costs of the problem are a {@link DenseVehicleRoutingTransportCostsMatrix},
+ * the matrix is embedded row by row with its precision.
+ * <p>
+ * <p>User data of locations, jobs, vehicles and types is not written.
+ */
+public class VrpBinaryWriter {
+
+    private static Logger logger = LoggerFactory.getLogger(VrpBinaryWriter.class);
+
+    private final VehicleRoutingProblem vrp;
+
+    private final Collection<VehicleRoutingProblemSolution> solutions;
+
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(1024);
+
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private final ByteArrayOutputStream locationBytes = new ByteArrayOutputStream(64);
+
+    private final DataOutputStream locationRecord = new DataOutputStream(locationBytes);
+
+    private DataOutputStream out;
+
+    private Map<Location, Integer> locationIndices;
+
+    public VrpBinaryWriter(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        this.vrp = vrp;
+        this.solutions = solutions;
+    }
+
+    public VrpBinaryWriter(VehicleRoutingProblem vrp) {
+        this(vrp, null);
+    }
+
+    public void write(String filename) {
+        logger.debug("write vrp: {}", filename);
+        try {
+            OutputStream fileOut = new FileOutputStream(filename);
+            try {
+                write(fileOut);
+            } finally {
+                fileOut.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes problem (and solutions) to the specified stream. The stream is flushed, but not closed.
+     *
+     * @param outputStream the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        locationIndices = new HashMap<Location, Integer>();
+        out.writeInt(VrpBinaryFormat.MAGIC);
+        out.writeInt(VrpBinaryFormat.VERSION);
+
+        record.writeUTF(vrp.getFleetSize().toString());
+        flush(VrpBinaryFormat.PROBLEM);
+
+        writeVehiclesAndTheirTypes();
+
+        Set<Job> frozenJobs = new LinkedHashSet<Job>();
+        for (VehicleRoute route : vrp.getInitialVehicleRoutes()) {
+            for (Job job : route.getTourActivities().getJobs()) {
+                if (!(job instanceof Break)) frozenJobs.add(job);
+            }
+        }
+        for (Job job : vrp.getJobs().values()) writeJob(job, false);
+        for (Job job : frozenJobs) writeJob(job, true);
+
+        for (VehicleRoute route : vrp.getInitialVehicleRoutes()) {
+            writeRoute(route);
+            flush(VrpBinaryFormat.INITIAL_ROUTE);
+        }
+
+        if (vrp.getTransportCosts() instanceof DenseVehicleRoutingTransportCostsMatrix) {
+            writeMatrix((DenseVehicleRoutingTransportCostsMatrix) vrp.getTransportCosts());
+        }
+
+        if (solutions != null) {
+            for (VehicleRoutingProblemSolution solution : solutions) writeSolution(solution);
+        }
+
+        out.writeByte(VrpBinaryFormat.END);
+        out.writeInt(0);
+        out.flush();
+        locationIndices = null;
+    }
+
+    private void flush(byte tag) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(recordBytes.size());
+        recordBytes.writeTo(out);
+        recordBytes.reset();
+    }
+
+    private int locationIndex(Location location) throws IOException {
+        Integer index = locationIndices.get(location);
+        if (index != null) return index;
+        index = locationIndices.size();
+        locationIndices.put(location, index);
+        locationRecord.writeUTF(location.getId());
+        writeNullable(locationRecord, location.getName());
+        locationRecord.writeInt(location.getIndex());
+        locationRecord.writeBoolean(location.getCoordinate() != null);
+        if (location.getCoordinate() != null) {
+            locationRecord.writeDouble(location.getCoordinate().getX());
+            locationRecord.writeDouble(location.getCoordinate().getY());
+        }
+        out.writeByte(VrpBinaryFormat.LOCATION);
+        out.writeInt(locationBytes.size());
+        locationBytes.writeTo(out);
+        locationBytes.reset();
+        return index;
+    }
+
+    private void writeVehiclesAndTheirTypes() throws IOException {
+        for (VehicleType type : vrp.getTypes()) {
+            record.writeUTF(type.getTypeId());
+            writeNullable(record, type.getProfile());
+            writeCapacity(type.getCapacityDimensions());
+            VehicleTypeImpl.VehicleCostParams costs = type.getVehicleCostParams();
+            record.writeDouble(costs.fix);
+            record.writeDouble(costs.perDistanceUnit);
+            record.writeDouble(costs.perTransportTimeUnit);
+            record.writeDouble(costs.perWaitingTimeUnit);
+            record.writeDouble(costs.perServiceTimeUnit);
+            record.writeDouble(type.getMaxVelocity());
+            flush(VrpBinaryFormat.VEHICLE_TYPE);
+        }
+        for (Vehicle vehicle : vrp.getVehicles()) {
+            int start = locationIndex(vehicle.getStartLocation());
+            int end = vehicle.isReturnToDepot() ? locationIndex(vehicle.getEndLocation()) : VrpBinaryFormat.NO_LOCATION;
+            Break aBreak = vehicle.getBreak();
+            int breakLocation = VrpBinaryFormat.NO_LOCATION;
+            if (aBreak != null && aBreak.getLocation() != null) breakLocation = locationIndex(aBreak.getLocation());
+            record.writeUTF(vehicle.getId());
+            record.writeUTF(vehicle.getType().getTypeId());
+            record.writeInt(start);
+            record.writeInt(end);
+            record.writeDouble(vehicle.getEarliestDeparture());
+            record.writeDouble(vehicle.getLatestArrival());
+            record.writeBoolean(vehicle.isReturnToDepot());
+            writeSkills(vehicle.getSkills());
+            record.writeBoolean(aBreak != null);
+            if (aBreak != null) {
+                record.writeUTF(aBreak.getId());
+                record.writeDouble(aBreak.getServiceDuration());
+                writeTimeWindows(aBreak.getTimeWindows());
+                record.writeInt(breakLocation);
+            }
+            flush(VrpBinaryFormat.VEHICLE);
+        }
+    }
+
+    private void writeJob(Job job, boolean frozen) throws IOException {
+        if (job instanceof Shipment) {
+            Shipment shipment = (Shipment) job;
+            int pickupLocation = locationIndex(shipment.getPickupLocation());
+            int deliveryLocation = locationIndex(shipment.getDeliveryLocation());
+            record.writeBoolean(frozen);
+            record.writeUTF(shipment.getId());
+            writeNullable(record, shipment.getName());
+            record.writeInt(pickupLocation);
+            record.writeInt(deliveryLocation);
+            record.writeDouble(shipment.getPickupServiceTime());
+            record.writeDouble(shipment.getDeliveryServiceTime());
+            writeCapacity(shipment.getSize());
+            writeTimeWindows(shipment.getPickupTimeWindows());
+            writeTimeWindows(shipment.getDeliveryTimeWindows());
+            writeSkills(shipment.getRequiredSkills());
+            record.writeInt(shipment.getPriority());
+            record.writeDouble(shipment.getMaxTimeInVehicle());
+            flush(VrpBinaryFormat.SHIPMENT);
+        } else if (job instanceof Service) {
+            Service service = (Service) job;
+            int location = locationIndex(service.getLocation());
+            record.writeBoolean(frozen);
+            record.writeUTF(service.getType());
+            record.writeUTF(service.getId());
+            writeNullable(record, service.getName());
+            record.writeInt(location);
+            record.writeDouble(service.getServiceDuration());
+            writeCapacity(service.getSize());
+            writeTimeWindows(service.getTimeWindows());
+            writeSkills(service.getRequiredSkills());
+            record.writeInt(service.getPriority());
+            record.writeDouble(service.getMaxTimeInVehicle());
+            flush(VrpBinaryFormat.SERVICE);
+        } else throw new IllegalArgumentException("job " + job.getId() + " is neither a service nor a shipment");
+    }
+
+    private void writeRoute(VehicleRoute route) throws IOException {
+        record.writeUTF(route.getVehicle().getId());
+        record.writeDouble(route.getDepartureTime());
+        record.writeInt(route.getActivities().size());
+        for (TourActivity act : route.getActivities()) {
+            Job job = ((TourActivity.JobActivity) act).getJob();
+            if (job instanceof Break) record.writeByte(VrpBinaryFormat.ACT_BREAK);
+            else if (job instanceof Shipment) {
+                if (act instanceof PickupShipment) record.writeByte(VrpBinaryFormat.ACT_PICKUP_SHIPMENT);
+                else record.writeByte(VrpBinaryFormat.ACT_DELIVER_SHIPMENT);
+            } else record.writeByte(VrpBinaryFormat.ACT_SERVICE);
+            record.writeUTF(job.getId());
+        }
+    }
+
+    private void writeSolution(VehicleRoutingProblemSolution solution) throws IOException {
+        record.writeDouble(solution.getCost());
+        record.writeInt(solution.getRoutes().size());
+        for (VehicleRoute route : solution.getRoutes()) writeRoute(route);
+        record.writeInt(solution.getUnassignedJobs().size());
+        for (Job job : solution.getUnassignedJobs()) record.writeUTF(job.getId());
+        flush(VrpBinaryFormat.SOLUTION);
+    }
+
+    private void writeMatrix(DenseVehicleRoutingTransportCostsMatrix matrix) throws IOException {
+        int noLocations = matrix.getNoLocations();
+        DenseVehicleRoutingTransportCostsMatrix.Precision precision = matrix.getPrecision();
+        record.writeInt(noLocations);
+        record.writeUTF(precision.toString());
+        record.writeDouble(matrix.getScale());
+        flush(VrpBinaryFormat.MATRIX);
+        for (int from = 0; from < noLocations; from++) {
+            record.writeInt(from);
+            for (int to = 0; to < noLocations; to++) {
+                writeValue(matrix.getDistance(from, to), precision, matrix.getScale());
+                writeValue(matrix.getTransportTime(from, to), precision, matrix.getScale());
+            }
+            flush(VrpBinaryFormat.MATRIX_ROW);
+        }
+    }
+
+    private void writeValue(double value, DenseVehicleRoutingTransportCostsMatrix.Precision precision, double scale) throws IOException {
+        switch (precision) {
+            case DOUBLE:
+                record.writeDouble(value);
+                break;
+            case FLOAT:
+                record.writeFloat((float) value);
+                break;
+            default:
+                record.writeInt((int) Math.round(value * scale));
+        }
+    }
+
+    private void writeCapacity(Capacity capacity) throws IOException {
+        record.writeInt(capacity.getNuOfDimensions());
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) record.writeInt(capacity.get(i));
+    }
+
+    private void writeTimeWindows(Collection<TimeWindow> timeWindows) throws IOException {
+        record.writeInt(timeWindows.size());
+        for (TimeWindow timeWindow : timeWindows) {
+            record.writeDouble(timeWindow.getStart());
+            record.writeDouble(timeWindow.getEnd());
+        }
+    }
+
+    private void writeSkills(Skills skills) throws IOException {
+        record.writeInt(skills.values().size());
+        for (String skill : skills.values()) record.writeUTF(skill);
+    }
+
+    private static void writeNullable(DataOutputStream data, String string) throws IOException {
+        data.writeBoolean(string != null);
+        if (string != null) data.writeUTF(string);
+    }
+
+}
@@ -0,0 +1,320 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem.FleetSize;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.util.Resource;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Reads problems (and solutions) in the xml format of {@link VrpXMLReader} with a StAX (javax.xml.stream) parser in a
+ * single forward pass, i.e. without building a document first.
+ * <p>
+ * <p>Only the element of a single vehicle, type, job, route or solution is held in memory while it is read. It is
+ * turned into a configuration node and built by the same code {@link VrpXMLReader} uses. Jobs are built as soon as
+ * their element ends, vehicles as soon as their type is known (the schema lists vehicles before types).
+ * <p>
+ * <p>If schema validation is activated (see {@link #setSchemaValidation(boolean)}), the events of the parser are
+ * passed to a validator while they are read. Thus the file is still read only once.
+ */
+public class VrpStaxReader {
+
+    /*
+     * Passes each event the reader advances to on to a schema validator.
+     */
+    private static final class SchemaValidationFilter implements StreamFilter {
+
+        private final ValidatorHandler validator;
+
+        private boolean documentStarted = false;
+
+        private boolean documentEnded = false;
+
+        SchemaValidationFilter(Schema schema) {
+            this.validator = schema.newValidatorHandler();
+        }
+
+        @Override
+        public boolean accept(XMLStreamReader reader) {
+            try {
+                if (!documentStarted) {
+                    validator.startDocument();
+                    documentStarted = true;
+                }
+                switch (reader.getEventType()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement(reader);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement(reader);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        validator.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        endDocument();
+                        break;
+                }
+            } catch (SAXException e) {
+                throw new RuntimeException(e);
+            }
+            return true;
+        }
+
+        void endDocument() throws SAXException {
+            if (!documentStarted || documentEnded) return;
+            validator.endDocument();
+            documentEnded = true;
+        }
+
+        private void startElement(XMLStreamReader reader) throws SAXException {
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                validator.startPrefixMapping(nonNull(reader.getNamespacePrefix(i)), nonNull(reader.getNamespaceURI(i)));
+            }
+            AttributesImpl attributes = new AttributesImpl();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                QName name = reader.getAttributeName(i);
+                attributes.addAttribute(nonNull(name.getNamespaceURI()), name.getLocalPart(), qualifiedName(name),
+                    reader.getAttributeType(i), reader.getAttributeValue(i));
+            }
+            QName name = reader.getName();
+            validator.startElement(nonNull(name.getNamespaceURI()), name.getLocalPart(), qualifiedName(name), attributes);
+        }
+
+        private void endElement(XMLStreamReader reader) throws SAXException {
+            QName name = reader.getName();
+            validator.endElement(nonNull(name.getNamespaceURI()), name.getLocalPart(), qualifiedName(name));
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                validator.endPrefixMapping(nonNull(reader.getNamespacePrefix(i)));
+            }
+        }
+
+        private static String qualifiedName(QName name) {
+            if (name.getPrefix() == null || name.getPrefix().isEmpty()) return name.getLocalPart();
+            return name.getPrefix() + ":" + name.getLocalPart();
+        }
+
+        private static String nonNull(String s) {
+            return s == null ? "" : s;
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(VrpStaxReader.class);
+
+    private final VehicleRoutingProblem.Builder vrpBuilder;
+
+    private final Collection<VehicleRoutingProblemSolution> solutions;
+
+    private boolean schemaValidation = false;
+
+    private VrpXMLReader elementReader;
+
+    private Map<String, VehicleType> types;
+
+    private List<HierarchicalConfiguration> vehiclesWithoutType;
+
+    public VrpStaxReader(VehicleRoutingProblem.Builder vrpBuilder, Collection<VehicleRoutingProblemSolution> solutions) {
+        this.vrpBuilder = vrpBuilder;
+        this.solutions = solutions;
+    }
+
+    public VrpStaxReader(VehicleRoutingProblem.Builder vrpBuilder) {
+        this(vrpBuilder, null);
+    }
+
+    /**
+     * Activates or deactivates the validation against vrp_xml_schema.xsd. Unlike {@link VrpXMLReader}, files are
+     * not validated by default.
+     *
+     * @param schemaValidation the schemaValidation to set
+     */
+    public void setSchemaValidation(boolean schemaValidation) {
+        this.schemaValidation = schemaValidation;
+    }
+
+    public void read(String filename) {
+        logger.debug("read vrp: {}", filename);
+        try {
+            InputStream in = new FileInputStream(filename);
+            try {
+                read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void read(InputStream fileContents) {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        elementReader = new VrpXMLReader(vrpBuilder, solutions);
+        types = new HashMap<String, VehicleType>();
+        vehiclesWithoutType = new ArrayList<HierarchicalConfiguration>();
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(fileContents);
+            SchemaValidationFilter validationFilter = null;
+            if (schemaValidation) {
+                Schema schema = loadSchema();
+                if (schema != null) {
+                    validationFilter = new SchemaValidationFilter(schema);
+                    reader = factory.createFilteredReader(reader, validationFilter);
+                }
+            }
+            try {
+                read(reader);
+                if (validationFilter != null) validationFilter.endDocument();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        } catch (SAXException e) {
+            throw new RuntimeException(e);
+        }
+        elementReader.addJobsAndTheirLocationsToVrp();
+        elementReader = null;
+        types = null;
+        vehiclesWithoutType = null;
+    }
+
+    private static Schema loadSchema() {
+        InputStream resource = Resource.getAsInputStream("vrp_xml_schema.xsd");
+        if (resource == null) {
+            logger.debug("cannot find schema-xsd file (vrp_xml_schema.xsd). try to read xml without xml-file-validation.");
+            return null;
+        }
+        try {
+            try {
+                return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(new StreamSource(resource));
+            } finally {
+                resource.close();
+            }
+        } catch (SAXException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+        String section = null;
+        boolean fleetSizeRead = false;
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                if (depth == 1) {
+                    if (reader.getLocalName().equals("vehicleTypes")) addVehiclesWithoutType();
+                    section = null;
+                }
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) continue;
+            depth++;
+            String name = reader.getLocalName();
+            if (depth == 2) {
+                section = name;
+                if (name.equals("initialRoutes") || name.equals("solutions")) addVehiclesWithoutType();
+            } else if (depth == 3) {
+                HierarchicalConfiguration.Node element = readElement(reader);
+                depth--;
+                if (section.equals("problemType") && name.equals("fleetSize")) {
+                    elementReader.readFleetSize((String) element.getValue());
+                    fleetSizeRead = true;
+                    continue;
+                }
+                HierarchicalConfiguration config = new HierarchicalConfiguration();
+                config.setRootNode(element);
+                if (section.equals("vehicles") && name.equals("vehicle")) {
+                    if (types.isEmpty()) vehiclesWithoutType.add(config);
+                    else elementReader.readVehicle(config, types);
+                } else if (section.equals("vehicleTypes") && name.equals("type")) {
+                    VehicleType type = elementReader.readType(config);
+                    types.put(type.getTypeId(), type);
+                } else if (section.equals("services") && name.equals("service")) elementReader.readService(config);
+                else if (section.equals("shipments") && name.equals("shipment")) elementReader.readShipment(config);
+                else if (section.equals("initialRoutes") && name.equals("route")) elementReader.readInitialRoute(config);
+                else if (section.equals("solutions") && name.equals("solution") && solutions != null)
+                    elementReader.readSolution(config);
+            }
+        }
+        if (!fleetSizeRead) vrpBuilder.setFleetSize(FleetSize.INFINITE);
+        addVehiclesWithoutType();
+    }
+
+    /*
+     * Reads the element the reader is positioned at (START_ELEMENT) including its children into a node as
+     * XMLConfiguration would build it, i.e. with trimmed text and attributes that are not split. The reader is
+     * positioned at its END_ELEMENT afterwards.
+     */
+    static HierarchicalConfiguration.Node readElement(XMLStreamReader reader) throws XMLStreamException {
+        HierarchicalConfiguration.Node node = new HierarchicalConfiguration.Node(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            node.addAttribute(new HierarchicalConfiguration.Node(reader.getAttributeLocalName(i), reader.getAttributeValue(i)));
+        }
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                node.addChild(readElement(reader));
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String value = text.toString().trim();
+                if (!value.isEmpty()) node.setValue(value);
+                return node;
+            }
+        }
+    }
+
+    private void addVehiclesWithoutType() {
+        for (HierarchicalConfiguration vehicle : vehiclesWithoutType) elementReader.readVehicle(vehicle, types);
+        vehiclesWithoutType.clear();
+    }
+
+}
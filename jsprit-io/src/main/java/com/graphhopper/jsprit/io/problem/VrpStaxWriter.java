@@ -0,0 +1,372 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Capacity;
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.Skills;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TourActivity;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.util.Solutions;
+import com.graphhopper.jsprit.core.util.VehicleIndexComparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Writes problems and solutions in the xml format of {@link VrpXMLWriter} with a StAX (javax.xml.stream) writer,
+ * i.e. elements are streamed to the output as they are written and no document is built in memory.
+ */
+public class VrpStaxWriter {
+
+    private static Logger logger = LoggerFactory.getLogger(VrpStaxWriter.class);
+
+    private static final String NAMESPACE = "http://www.w3schools.com";
+
+    private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+
+    private static final String INDENT = "     ";
+
+    private final VehicleRoutingProblem vrp;
+
+    private final Collection<VehicleRoutingProblemSolution> solutions;
+
+    private XMLStreamWriter writer;
+
+    private int depth;
+
+    private boolean hasChildren;
+
+    public VrpStaxWriter(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions, boolean onlyBestSolution) {
+        this.vrp = vrp;
+        if (onlyBestSolution && solutions != null && !solutions.isEmpty()) {
+            this.solutions = Collections.singletonList(Solutions.bestOf(solutions));
+        } else this.solutions = solutions;
+    }
+
+    public VrpStaxWriter(VehicleRoutingProblem vrp, Collection<VehicleRoutingProblemSolution> solutions) {
+        this(vrp, solutions, false);
+    }
+
+    public VrpStaxWriter(VehicleRoutingProblem vrp) {
+        this(vrp, null, false);
+    }
+
+    public void write(String filename) {
+        if (!filename.endsWith(".xml")) filename += ".xml";
+        logger.debug("write vrp: {}", filename);
+        try {
+            OutputStream out = new FileOutputStream(filename);
+            try {
+                write(out);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes problem (and solutions) to the specified stream. The stream is flushed, but not closed.
+     *
+     * @param outputStream the stream to write to
+     */
+    public void write(OutputStream outputStream) {
+        try {
+            Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, "UTF-8"), 1 << 16);
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            depth = 0;
+            writer.writeStartDocument("UTF-8", "1.0");
+            start("problem");
+            writer.writeDefaultNamespace(NAMESPACE);
+            writer.writeNamespace("xsi", XSI_NAMESPACE);
+            writer.writeAttribute("xsi", XSI_NAMESPACE, "schemaLocation", NAMESPACE + " vrp_xml_schema.xsd");
+
+            start("problemType");
+            element("fleetSize", vrp.getFleetSize().toString());
+            end();
+
+            writeVehiclesAndTheirTypes();
+
+            List<Job> jobs = new ArrayList<Job>(vrp.getJobs().values());
+            for (VehicleRoute r : vrp.getInitialVehicleRoutes()) {
+                jobs.addAll(r.getTourActivities().getJobs());
+            }
+            writeServices(jobs);
+            writeShipments(jobs);
+
+            if (!vrp.getInitialVehicleRoutes().isEmpty()) {
+                start("initialRoutes");
+                for (VehicleRoute route : vrp.getInitialVehicleRoutes()) writeRoute(route);
+                end();
+            }
+
+            if (solutions != null) {
+                start("solutions");
+                for (VehicleRoutingProblemSolution solution : solutions) writeSolution(solution);
+                end();
+            }
+
+            end();
+            writer.writeEndDocument();
+            writer.flush();
+            out.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void start(String name) throws XMLStreamException {
+        newLine();
+        writer.writeStartElement(name);
+        depth++;
+        hasChildren = false;
+    }
+
+    private void end() throws XMLStreamException {
+        depth--;
+        if (hasChildren) newLine();
+        writer.writeEndElement();
+        hasChildren = true;
+    }
+
+    private void element(String name, String text) throws XMLStreamException {
+        if (text == null) return;
+        start(name);
+        writer.writeCharacters(text);
+        depth--;
+        writer.writeEndElement();
+        hasChildren = true;
+    }
+
+    private void element(String name, double value) throws XMLStreamException {
+        element(name, String.valueOf(value));
+    }
+
+    private void newLine() throws XMLStreamException {
+        writer.writeCharacters("\n");
+        for (int i = 0; i < depth; i++) writer.writeCharacters(INDENT);
+    }
+
+    private void writeLocation(String name, Location location) throws XMLStreamException {
+        start(name);
+        element("id", location.getId());
+        if (location.getCoordinate() != null) {
+            start("coord");
+            writer.writeAttribute("x", String.valueOf(location.getCoordinate().getX()));
+            writer.writeAttribute("y", String.valueOf(location.getCoordinate().getY()));
+            end();
+        }
+        if (location.getIndex() != Location.NO_INDEX) element("index", String.valueOf(location.getIndex()));
+        end();
+    }
+
+    private void writeTimeWindows(Collection<TimeWindow> timeWindows) throws XMLStreamException {
+        start("timeWindows");
+        for (TimeWindow tw : timeWindows) {
+            start("timeWindow");
+            element("start", tw.getStart());
+            element("end", tw.getEnd());
+            end();
+        }
+        end();
+    }
+
+    private void writeCapacity(Capacity capacity) throws XMLStreamException {
+        start("capacity-dimensions");
+        for (int i = 0; i < capacity.getNuOfDimensions(); i++) {
+            start("dimension");
+            writer.writeAttribute("index", String.valueOf(i));
+            writer.writeCharacters(String.valueOf(capacity.get(i)));
+            depth--;
+            writer.writeEndElement();
+            hasChildren = true;
+        }
+        end();
+    }
+
+    private void writeVehiclesAndTheirTypes() throws XMLStreamException {
+        if (vrp.getVehicles().isEmpty()) return;
+        start("vehicles");
+        for (Vehicle vehicle : vrp.getVehicles()) {
+            start("vehicle");
+            element("id", vehicle.getId());
+            element("typeId", vehicle.getType().getTypeId());
+            writeLocation("startLocation", vehicle.getStartLocation());
+            writeLocation("endLocation", vehicle.getEndLocation());
+            start("timeSchedule");
+            element("start", vehicle.getEarliestDeparture());
+            element("end", vehicle.getLatestArrival());
+            end();
+            if (vehicle.getBreak() != null) {
+                start("breaks");
+                writeTimeWindows(vehicle.getBreak().getTimeWindows());
+                element("duration", vehicle.getBreak().getServiceDuration());
+                element("id", vehicle.getBreak().getId());
+                end();
+            }
+            element("returnToDepot", String.valueOf(vehicle.isReturnToDepot()));
+            element("skills", createSkillString(vehicle.getSkills()));
+            end();
+        }
+        end();
+
+        start("vehicleTypes");
+        for (VehicleType type : vrp.getTypes()) {
+            start("type");
+            element("id", type.getTypeId());
+            writeCapacity(type.getCapacityDimensions());
+            start("costs");
+            element("fixed", type.getVehicleCostParams().fix);
+            element("distance", type.getVehicleCostParams().perDistanceUnit);
+            element("time", type.getVehicleCostParams().perTransportTimeUnit);
+            element("service", type.getVehicleCostParams().perServiceTimeUnit);
+            element("wait", type.getVehicleCostParams().perWaitingTimeUnit);
+            end();
+            end();
+        }
+        end();
+    }
+
+    private void writeServices(List<Job> jobs) throws XMLStreamException {
+        boolean started = false;
+        for (Job j : jobs) {
+            if (!(j instanceof Service) || j instanceof Break) continue;
+            if (!started) {
+                start("services");
+                started = true;
+            }
+            Service service = (Service) j;
+            start("service");
+            writer.writeAttribute("id", service.getId());
+            writer.writeAttribute("type", service.getType());
+            writeLocation("location", service.getLocation());
+            writeCapacity(service.getSize());
+            element("duration", service.getServiceDuration());
+            writeTimeWindows(service.getTimeWindows());
+            element("requiredSkills", createSkillString(service.getRequiredSkills()));
+            writeName(service);
+            end();
+        }
+        if (started) end();
+    }
+
+    private void writeShipments(List<Job> jobs) throws XMLStreamException {
+        boolean started = false;
+        for (Job j : jobs) {
+            if (!(j instanceof Shipment)) continue;
+            if (!started) {
+                start("shipments");
+                started = true;
+            }
+            Shipment shipment = (Shipment) j;
+            start("shipment");
+            writer.writeAttribute("id", shipment.getId());
+            start("pickup");
+            writeLocation("location", shipment.getPickupLocation());
+            element("duration", shipment.getPickupServiceTime());
+            writeTimeWindows(shipment.getPickupTimeWindows());
+            end();
+            start("delivery");
+            writeLocation("location", shipment.getDeliveryLocation());
+            element("duration", shipment.getDeliveryServiceTime());
+            writeTimeWindows(shipment.getDeliveryTimeWindows());
+            end();
+            writeCapacity(shipment.getSize());
+            element("requiredSkills", createSkillString(shipment.getRequiredSkills()));
+            writeName(shipment);
+            end();
+        }
+        if (started) end();
+    }
+
+    private void writeName(Job job) throws XMLStreamException {
+        if (job.getName() != null && !job.getName().equals("no-name")) element("name", job.getName());
+    }
+
+    private void writeRoute(VehicleRoute route) throws XMLStreamException {
+        start("route");
+        element("driverId", route.getDriver().getId());
+        element("vehicleId", route.getVehicle().getId());
+        element("start", route.getStart().getEndTime());
+        for (TourActivity act : route.getTourActivities().getActivities()) {
+            start("act");
+            writer.writeAttribute("type", act.getName());
+            if (act instanceof TourActivity.JobActivity) {
+                Job job = ((TourActivity.JobActivity) act).getJob();
+                if (job instanceof Break) element("breakId", job.getId());
+                else if (job instanceof Service) element("serviceId", job.getId());
+                else if (job instanceof Shipment) element("shipmentId", job.getId());
+                else
+                    throw new IllegalStateException("cannot write solution correctly since job-type is not know. make sure you use either service or shipment, or another writer");
+            }
+            element("arrTime", act.getArrTime());
+            element("endTime", act.getEndTime());
+            end();
+        }
+        element("end", route.getEnd().getArrTime());
+        end();
+    }
+
+    private void writeSolution(VehicleRoutingProblemSolution solution) throws XMLStreamException {
+        start("solution");
+        element("cost", solution.getCost());
+        start("routes");
+        List<VehicleRoute> routes = new ArrayList<VehicleRoute>(solution.getRoutes());
+        Collections.sort(routes, new VehicleIndexComparator());
+        for (VehicleRoute route : routes) writeRoute(route);
+        end();
+        start("unassignedJobs");
+        for (Job unassignedJob : solution.getUnassignedJobs()) {
+            start("job");
+            writer.writeAttribute("id", unassignedJob.getId());
+            end();
+        }
+        end();
+        end();
+    }
+
+    private static String createSkillString(Skills skills) {
+        if (skills.values().size() == 0) return null;
+        StringBuilder skillString = new StringBuilder();
+        for (String skill : skills.values()) {
+            if (skillString.length() > 0) skillString.append(", ");
+            skillString.append(skill);
+        }
+        return skillString.toString();
+    }
+
+}
@@ -21,6 +21,8 @@ import com.graphhopper.jsprit.core.algorithm.SearchStrategy;
 import com.graphhopper.jsprit.core.algorithm.SearchStrategyModule;
 import com.graphhopper.jsprit.core.algorithm.VehicleRoutingAlgorithm;
 import com.graphhopper.jsprit.core.algorithm.acceptor.GreedyAcceptance;
+import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfAcceptance;
+import com.graphhopper.jsprit.core.algorithm.acceptor.SchrimpfThresholdEstimates;
 import com.graphhopper.jsprit.core.algorithm.acceptor.SolutionAcceptor;
 import com.graphhopper.jsprit.core.algorithm.listener.IterationEndsListener;
 import com.graphhopper.jsprit.core.algorithm.listener.SearchStrategyModuleListener;
@@ -40,9 +42,14 @@ import com.graphhopper.jsprit.io.algorithm.VehicleRoutingAlgorithms.TypedMap.Str
 import com.graphhopper.jsprit.io.problem.VrpXMLReader;
 import junit.framework.Assert;
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.XMLConfiguration;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -58,6 +65,9 @@ public class TestAlgorithmReader {
 
     Collection<VehicleRoutingProblemSolution> solutions;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void doBefore() throws ConfigurationException {
         config = new AlgorithmConfig();
@@ -269,6 +279,53 @@ public class TestAlgorithmReader {
         assertEquals(3, nOfModules);
     }
 
+    private AlgorithmConfig getSchrimpfConfig(File estimates, String instanceFamily) {
+        AlgorithmConfig algoConfig = new AlgorithmConfig();
+        new AlgorithmConfigXmlReader(algoConfig).setSchemaValidation(false).read(getClass().getResource("algorithmConfigForReaderTest2.xml"));
+        XMLConfiguration xmlConfig = algoConfig.getXMLConfiguration();
+        xmlConfig.setProperty("maxIterations", "5");
+        xmlConfig.setProperty("prematureBreak.iterations", "5");
+        for (int i = 0; i < 2; i++) {
+            String acceptor = "strategy.searchStrategies.searchStrategy(" + i + ").acceptor";
+            xmlConfig.setProperty(acceptor + "[@name]", "schrimpfAcceptance");
+            xmlConfig.addProperty(acceptor + ".alpha", "0.1");
+            xmlConfig.addProperty(acceptor + ".warmup", "10");
+            xmlConfig.addProperty(acceptor + ".estimates", estimates.getAbsolutePath());
+            if (instanceFamily != null) xmlConfig.addProperty(acceptor + ".estimates[@family]", instanceFamily);
+        }
+        return algoConfig;
+    }
+
+    private double getInitialThreshold(VehicleRoutingAlgorithm vra) {
+        return ((SchrimpfAcceptance) vra.getSearchStrategyManager().getStrategies().get(0).getSolutionAcceptor()).getInitialThreshold();
+    }
+
+    @Test
+    public void whenWarmingUpSchrimpfAcceptance_itShouldWalkAndPersistInitialThreshold() throws IOException {
+        File file = new File(folder.getRoot(), "thresholds.properties");
+        VehicleRoutingAlgorithm vra = VehicleRoutingAlgorithms.createAlgorithm(vrp, getSchrimpfConfig(file, "finite"));
+        vra.searchSolutions();
+        Double estimate = SchrimpfThresholdEstimates.load(file).get("finite");
+        Assert.assertNotNull(estimate);
+        assertEquals(estimate, getInitialThreshold(vra), 0.01);
+    }
+
+    @Test
+    public void whenEstimateOfInstanceFamilyIsPersisted_itShouldBeTheInitialThreshold() throws IOException {
+        File file = new File(folder.getRoot(), "thresholds.properties");
+        SchrimpfThresholdEstimates estimates = SchrimpfThresholdEstimates.load(file);
+        estimates.put("finite", 123.);
+        estimates.save();
+        VehicleRoutingAlgorithm vra = VehicleRoutingAlgorithms.createAlgorithm(vrp, getSchrimpfConfig(file, "finite"));
+        vra.searchSolutions();
+        assertEquals(123., getInitialThreshold(vra), 0.01);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenInstanceFamilyOfEstimatesIsMissing_itShouldThrowException() {
+        VehicleRoutingAlgorithms.createAlgorithm(vrp, getSchrimpfConfig(new File(folder.getRoot(), "thresholds.properties"), null));
+    }
+
     @Test
     public void readerTest_whenReadingAlgoWithSchemaValidation_itReadsCorrectly() {
         AlgorithmConfig algoConfig = new AlgorithmConfig();
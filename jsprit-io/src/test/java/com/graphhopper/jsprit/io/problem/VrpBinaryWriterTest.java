@@ -0,0 +1,290 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.Location;
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Delivery;
+import com.graphhopper.jsprit.core.problem.job.Pickup;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleType;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleTypeImpl;
+import com.graphhopper.jsprit.core.util.Coordinate;
+import com.graphhopper.jsprit.core.util.DenseVehicleRoutingTransportCostsMatrix;
+import com.graphhopper.jsprit.io.util.TestUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VrpBinaryWriterTest {
+
+    @Test
+    public void whenWritingServices_itReadsThemCorrectly() throws IOException {
+        VehicleRoutingProblem.Builder builder = vehicleBuilder();
+        Service s1 = Service.Builder.newInstance("1").setName("cleaning").addSizeDimension(0, 1).addSizeDimension(1, 3)
+            .setLocation(TestUtils.loc("loc", Coordinate.newInstance(1, 2))).setServiceTime(2.0)
+            .addTimeWindow(0, 10).addTimeWindow(20, 30).addRequiredSkill("drill").setPriority(1).build();
+        Pickup s2 = Pickup.Builder.newInstance("2").addSizeDimension(0, 1)
+            .setLocation(Location.Builder.newInstance().setId("loc2").setIndex(3).build()).build();
+        Delivery s3 = Delivery.Builder.newInstance("3").addSizeDimension(0, 2).setLocation(TestUtils.loc("loc"))
+            .setMaxTimeInVehicle(100.).build();
+        VehicleRoutingProblem vrp = builder.addJob(s1).addJob(s2).addJob(s3).build();
+
+        VehicleRoutingProblem readVrp = writeAndRead(vrp, null);
+        assertEquals(3, readVrp.getJobs().size());
+        Service s1Read = (Service) readVrp.getJobs().get("1");
+        assertEquals("cleaning", s1Read.getName());
+        assertEquals("service", s1Read.getType());
+        assertEquals(s1.getSize(), s1Read.getSize());
+        assertEquals(s1.getLocation(), s1Read.getLocation());
+        assertEquals(2.0, s1Read.getServiceDuration(), 0.);
+        assertEquals(new ArrayList<TimeWindow>(s1.getTimeWindows()), new ArrayList<TimeWindow>(s1Read.getTimeWindows()));
+        assertTrue(s1Read.getRequiredSkills().containsSkill("drill"));
+        assertEquals(1, s1Read.getPriority());
+
+        Service s2Read = (Service) readVrp.getJobs().get("2");
+        assertTrue(s2Read instanceof Pickup);
+        assertEquals(3, s2Read.getLocation().getIndex());
+        assertNull(s2Read.getLocation().getCoordinate());
+
+        Service s3Read = (Service) readVrp.getJobs().get("3");
+        assertTrue(s3Read instanceof Delivery);
+        assertEquals(100., s3Read.getMaxTimeInVehicle(), 0.);
+    }
+
+    @Test
+    public void whenWritingShipments_itReadsThemCorrectly() throws IOException {
+        VehicleRoutingProblem.Builder builder = vehicleBuilder();
+        Shipment shipment = Shipment.Builder.newInstance("1").setName("parcel").addSizeDimension(0, 10)
+            .setPickupLocation(TestUtils.loc("pick", Coordinate.newInstance(1, 1)))
+            .setDeliveryLocation(TestUtils.loc("deliver", Coordinate.newInstance(2, 2)))
+            .setPickupServiceTime(5.).setDeliveryServiceTime(6.)
+            .addPickupTimeWindow(1, 2).addDeliveryTimeWindow(3, 4).addDeliveryTimeWindow(5, 6)
+            .addRequiredSkill("cooling").setPriority(3).setMaxTimeInVehicle(50.).build();
+        VehicleRoutingProblem vrp = builder.addJob(shipment).build();
+
+        Shipment read = (Shipment) writeAndRead(vrp, null).getJobs().get("1");
+        assertEquals("parcel", read.getName());
+        assertEquals(shipment.getSize(), read.getSize());
+        assertEquals(shipment.getPickupLocation(), read.getPickupLocation());
+        assertEquals(shipment.getDeliveryLocation(), read.getDeliveryLocation());
+        assertEquals(5., read.getPickupServiceTime(), 0.);
+        assertEquals(6., read.getDeliveryServiceTime(), 0.);
+        assertEquals(new ArrayList<TimeWindow>(shipment.getPickupTimeWindows()), new ArrayList<TimeWindow>(read.getPickupTimeWindows()));
+        assertEquals(new ArrayList<TimeWindow>(shipment.getDeliveryTimeWindows()), new ArrayList<TimeWindow>(read.getDeliveryTimeWindows()));
+        assertTrue(read.getRequiredSkills().containsSkill("cooling"));
+        assertEquals(3, read.getPriority());
+        assertEquals(50., read.getMaxTimeInVehicle(), 0.);
+    }
+
+    @Test
+    public void whenWritingVehicles_itReadsThemAndTheirTypesCorrectly() throws IOException {
+        VehicleRoutingProblem.Builder builder = vehicleBuilder();
+        VehicleType type = VehicleTypeImpl.Builder.newInstance("big").addCapacityDimension(0, 100).addCapacityDimension(1, 5)
+            .setFixedCost(100.).setCostPerDistance(2.).setCostPerTransportTime(3.).setCostPerWaitingTime(.5)
+            .setCostPerServiceTime(.7).setMaxVelocity(12.).setProfile("truck").build();
+        Break aBreak = Break.Builder.newInstance("lunch").setServiceTime(30.).addTimeWindow(100, 200).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v2").setType(type).setStartLocation(TestUtils.loc("start"))
+            .setEndLocation(TestUtils.loc("end")).setEarliestStart(10.).setLatestArrival(1000.).addSkill("drill")
+            .setBreak(aBreak).build();
+        Vehicle openVehicle = VehicleImpl.Builder.newInstance("v3").setType(type).setStartLocation(TestUtils.loc("start"))
+            .setReturnToDepot(false).build();
+        VehicleRoutingProblem vrp = builder.addVehicle(vehicle).addVehicle(openVehicle)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).build();
+
+        VehicleRoutingProblem readVrp = writeAndRead(vrp, null);
+        assertEquals(VehicleRoutingProblem.FleetSize.FINITE, readVrp.getFleetSize());
+        assertEquals(3, readVrp.getVehicles().size());
+        Vehicle read = getVehicle(readVrp, "v2");
+        VehicleType readType = read.getType();
+        assertEquals(type, readType);
+        assertEquals(type.getCapacityDimensions(), readType.getCapacityDimensions());
+        assertEquals(12., readType.getMaxVelocity(), 0.);
+        assertEquals(.7, readType.getVehicleCostParams().perServiceTimeUnit, 0.);
+        assertEquals("start", read.getStartLocation().getId());
+        assertEquals("end", read.getEndLocation().getId());
+        assertEquals(10., read.getEarliestDeparture(), 0.);
+        assertEquals(1000., read.getLatestArrival(), 0.);
+        assertTrue(read.getSkills().containsSkill("drill"));
+        assertEquals("lunch", read.getBreak().getId());
+        assertEquals(30., read.getBreak().getServiceDuration(), 0.);
+        assertEquals(TimeWindow.newInstance(100, 200), read.getBreak().getTimeWindow());
+
+        Vehicle readOpen = getVehicle(readVrp, "v3");
+        assertFalse(readOpen.isReturnToDepot());
+        assertNull(readOpen.getBreak());
+    }
+
+    @Test
+    public void whenWritingEqualLocations_theyAreReadAsOneLocation() throws IOException {
+        VehicleRoutingProblem.Builder builder = vehicleBuilder();
+        builder.addJob(Service.Builder.newInstance("1").setLocation(TestUtils.loc("loc")).build());
+        builder.addJob(Service.Builder.newInstance("2").setLocation(TestUtils.loc("loc")).build());
+        VehicleRoutingProblem readVrp = writeAndRead(builder.build(), null);
+        assertSame(((Service) readVrp.getJobs().get("1")).getLocation(), ((Service) readVrp.getJobs().get("2")).getLocation());
+    }
+
+    @Test
+    public void whenWritingInitialRoutes_theirJobsAreNotUnassignedJobs() throws IOException {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(TestUtils.loc("start")).build();
+        Service service = Service.Builder.newInstance("1").setLocation(TestUtils.loc("loc")).build();
+        Shipment shipment = Shipment.Builder.newInstance("2").setPickupLocation(TestUtils.loc("pick"))
+            .setDeliveryLocation(TestUtils.loc("deliver")).build();
+        Service other = Service.Builder.newInstance("3").setLocation(TestUtils.loc("loc")).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle).addPickup(shipment).addService(service)
+            .addDelivery(shipment).build();
+        VehicleRoutingProblem vrp = builder.addInitialVehicleRoute(route).addJob(other).build();
+
+        VehicleRoutingProblem readVrp = writeAndRead(vrp, null);
+        assertEquals(1, readVrp.getJobs().size());
+        assertTrue(readVrp.getJobs().containsKey("3"));
+        assertEquals(1, readVrp.getInitialVehicleRoutes().size());
+        VehicleRoute readRoute = readVrp.getInitialVehicleRoutes().iterator().next();
+        assertEquals("v", readRoute.getVehicle().getId());
+        assertEquals(3, readRoute.getActivities().size());
+        assertEquals("pickupShipment", readRoute.getActivities().get(0).getName());
+        assertEquals("service", readRoute.getActivities().get(1).getName());
+        assertEquals("deliverShipment", readRoute.getActivities().get(2).getName());
+    }
+
+    @Test
+    public void whenWritingSolutions_itReadsThemCorrectly() throws IOException {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        Break aBreak = Break.Builder.newInstance("lunch").setServiceTime(30.).addTimeWindow(100, 200).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(TestUtils.loc("start")).setBreak(aBreak).build();
+        Service service = Service.Builder.newInstance("1").setLocation(TestUtils.loc("loc")).build();
+        Service unassigned = Service.Builder.newInstance("2").setLocation(TestUtils.loc("loc2")).build();
+        Shipment shipment = Shipment.Builder.newInstance("3").setPickupLocation(TestUtils.loc("pick"))
+            .setDeliveryLocation(TestUtils.loc("deliver")).build();
+        VehicleRoutingProblem vrp = builder.addVehicle(vehicle).addJob(service).addJob(unassigned).addJob(shipment)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle).setDepartureTime(5.).addService(service)
+            .addPickup(shipment).addBreak(aBreak).addDelivery(shipment).build();
+        VehicleRoutingProblemSolution solution = new VehicleRoutingProblemSolution(Arrays.asList(route), 42.);
+        solution.getUnassignedJobs().add(unassigned);
+
+        List<VehicleRoutingProblemSolution> readSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+        writeAndRead(vrp, readSolutions, Collections.singletonList(solution));
+        assertEquals(1, readSolutions.size());
+        VehicleRoutingProblemSolution read = readSolutions.get(0);
+        assertEquals(42., read.getCost(), 0.);
+        assertEquals(1, read.getRoutes().size());
+        VehicleRoute readRoute = read.getRoutes().iterator().next();
+        assertEquals(5., readRoute.getDepartureTime(), 0.);
+        assertEquals(4, readRoute.getActivities().size());
+        assertEquals("service", readRoute.getActivities().get(0).getName());
+        assertEquals("pickupShipment", readRoute.getActivities().get(1).getName());
+        assertEquals("break", readRoute.getActivities().get(2).getName());
+        assertEquals("deliverShipment", readRoute.getActivities().get(3).getName());
+        assertEquals(1, read.getUnassignedJobs().size());
+        assertEquals("2", read.getUnassignedJobs().iterator().next().getId());
+    }
+
+    @Test
+    public void whenTransportCostsAreDenseMatrix_itIsEmbedded() throws IOException {
+        DenseVehicleRoutingTransportCostsMatrix.Builder matrixBuilder = DenseVehicleRoutingTransportCostsMatrix.Builder
+            .newInstance(3, false).setPrecision(DenseVehicleRoutingTransportCostsMatrix.Precision.INT).setScale(10.);
+        for (int from = 0; from < 3; from++) {
+            for (int to = 0; to < 3; to++) {
+                matrixBuilder.addTransportTimeAndDistance(from, to, from * 2.5 + to, from + to * 0.1);
+            }
+        }
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        builder.addVehicle(VehicleImpl.Builder.newInstance("v").setStartLocation(Location.newInstance(0)).build());
+        builder.addJob(Service.Builder.newInstance("1").setLocation(Location.newInstance(2)).build());
+        VehicleRoutingProblem vrp = builder.setRoutingCost(matrixBuilder.build()).build();
+
+        VehicleRoutingProblem readVrp = writeAndRead(vrp, null);
+        assertTrue(readVrp.getTransportCosts() instanceof DenseVehicleRoutingTransportCostsMatrix);
+        DenseVehicleRoutingTransportCostsMatrix matrix = (DenseVehicleRoutingTransportCostsMatrix) readVrp.getTransportCosts();
+        assertEquals(DenseVehicleRoutingTransportCostsMatrix.Precision.INT, matrix.getPrecision());
+        assertEquals(3, matrix.getNoLocations());
+        for (int from = 0; from < 3; from++) {
+            for (int to = 0; to < 3; to++) {
+                assertEquals(from * 2.5 + to, matrix.getTransportTime(from, to), 1e-9);
+                assertEquals(from + to * 0.1, matrix.getDistance(from, to), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void whenReadingUnknownRecord_itIsSkipped() throws IOException {
+        VehicleRoutingProblem.Builder builder = vehicleBuilder();
+        builder.addJob(Service.Builder.newInstance("1").setLocation(TestUtils.loc("loc")).build());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new VrpBinaryWriter(builder.build()).write(out);
+        byte[] bytes = out.toByteArray();
+        byte[] withUnknownRecord = new byte[bytes.length + 8];
+        System.arraycopy(bytes, 0, withUnknownRecord, 0, 8);
+        withUnknownRecord[8] = 99;
+        withUnknownRecord[12] = 3;
+        System.arraycopy(bytes, 8, withUnknownRecord, 16, bytes.length - 8);
+
+        VehicleRoutingProblem.Builder readBuilder = VehicleRoutingProblem.Builder.newInstance();
+        new VrpBinaryReader(readBuilder).read(new ByteArrayInputStream(withUnknownRecord));
+        assertEquals(1, readBuilder.build().getJobs().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void whenReadingOtherFormat_itThrowsException() throws IOException {
+        new VrpBinaryReader(VehicleRoutingProblem.Builder.newInstance()).read(new ByteArrayInputStream("<problem/>".getBytes()));
+    }
+
+    private static VehicleRoutingProblem.Builder vehicleBuilder() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        builder.addVehicle(VehicleImpl.Builder.newInstance("v1").setStartLocation(TestUtils.loc("depot")).build());
+        return builder;
+    }
+
+    private static Vehicle getVehicle(VehicleRoutingProblem vrp, String id) {
+        for (Vehicle v : vrp.getVehicles()) {
+            if (v.getId().equals(id)) return v;
+        }
+        return null;
+    }
+
+    private static VehicleRoutingProblem writeAndRead(VehicleRoutingProblem vrp, List<VehicleRoutingProblemSolution> solutionsToRead) throws IOException {
+        return writeAndRead(vrp, solutionsToRead, null);
+    }
+
+    private static VehicleRoutingProblem writeAndRead(VehicleRoutingProblem vrp, List<VehicleRoutingProblemSolution> solutionsToRead,
+                                                      List<VehicleRoutingProblemSolution> solutions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new VrpBinaryWriter(vrp, solutions).write(out);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new VrpBinaryReader(builder, solutionsToRead).read(new ByteArrayInputStream(out.toByteArray()));
+        return builder.build();
+    }
+
+}
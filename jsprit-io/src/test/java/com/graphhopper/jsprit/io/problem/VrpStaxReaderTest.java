@@ -0,0 +1,206 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Job;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.job.Shipment;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.solution.route.activity.TimeWindow;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class VrpStaxReaderTest {
+
+    private static final String[] FILES = {"biggerProblem.xml", "finiteVrpForReaderTest.xml",
+        "finiteVrpWithInitialSolutionForReaderTest.xml", "finiteVrpWithShipmentsAndSolution.xml", "lui-shen-solution.xml",
+        "simpleProblem_inclShipments_iniRoutes.xml", "simpleProblem_iniRoutes.xml", "simpleProblem_iniRoutes_2.xml",
+        "simpleProblem_iniRoutes_3.xml"};
+
+    @Test
+    public void whenReadingTestFiles_itShouldReadTheSameAsVrpXMLReader() {
+        for (String file : FILES) {
+            VehicleRoutingProblem.Builder xmlBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> xmlSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpXMLReader(xmlBuilder, xmlSolutions).read(getClass().getResourceAsStream(file));
+
+            VehicleRoutingProblem.Builder staxBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> staxSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpStaxReader(staxBuilder, staxSolutions).read(getClass().getResourceAsStream(file));
+
+            assertSameProblem(file, xmlBuilder.build(), staxBuilder.build());
+            assertSameSolutions(file, xmlSolutions, staxSolutions);
+        }
+    }
+
+    @Test
+    public void whenValidatingTestFiles_itShouldReadTheSameAsWithoutValidation() {
+        for (String file : FILES) {
+            VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpStaxReader(builder, solutions).read(getClass().getResourceAsStream(file));
+
+            VehicleRoutingProblem.Builder validatedBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> validatedSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            VrpStaxReader reader = new VrpStaxReader(validatedBuilder, validatedSolutions);
+            reader.setSchemaValidation(true);
+            reader.read(getClass().getResourceAsStream(file));
+
+            assertSameProblem(file, builder.build(), validatedBuilder.build());
+            assertSameSolutions(file, solutions, validatedSolutions);
+        }
+    }
+
+    @Test
+    public void whenValidatingAndFileDoesNotMatchSchema_itShouldThrowException() {
+        //the schema lists vehicles before types
+        String xml = "<problem xmlns=\"http://www.w3schools.com\"><vehicleTypes><type><id>t</id><capacity-dimensions>" +
+            "<dimension index=\"0\">5</dimension></capacity-dimensions></type></vehicleTypes>" +
+            "<vehicles><vehicle><id>v</id><typeId>t</typeId><startLocation><id>depot</id></startLocation>" +
+            "<timeSchedule><start>0.0</start><end>100.0</end></timeSchedule></vehicle></vehicles></problem>";
+        new VrpStaxReader(VehicleRoutingProblem.Builder.newInstance()).read(new ByteArrayInputStream(xml.getBytes()));
+        VrpStaxReader reader = new VrpStaxReader(VehicleRoutingProblem.Builder.newInstance());
+        reader.setSchemaValidation(true);
+        try {
+            reader.read(new ByteArrayInputStream(xml.getBytes()));
+            fail("expected the file to be rejected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof SAXException);
+        }
+    }
+
+    @Test
+    public void whenReadingWithoutSolutions_itShouldIgnoreThem() {
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new VrpStaxReader(builder).read(getClass().getResourceAsStream("finiteVrpWithShipmentsAndSolution.xml"));
+        assertEquals(4, builder.build().getJobs().size());
+    }
+
+    @Test
+    public void whenTypesAreListedBeforeVehicles_itShouldReadVehicles() {
+        String xml = "<problem><vehicleTypes><type><id>t</id><capacity-dimensions><dimension index=\"0\">5</dimension>" +
+            "</capacity-dimensions><costs><distance>2.0</distance></costs></type></vehicleTypes>" +
+            "<vehicles><vehicle><id>v</id><typeId>t</typeId><startLocation><id>depot</id></startLocation>" +
+            "<timeSchedule><start>0.0</start><end>100.0</end></timeSchedule></vehicle></vehicles></problem>";
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        new VrpStaxReader(builder).read(new ByteArrayInputStream(xml.getBytes()));
+        VehicleRoutingProblem vrp = builder.build();
+        assertEquals(1, vrp.getVehicles().size());
+        Vehicle vehicle = vrp.getVehicles().iterator().next();
+        assertEquals("t", vehicle.getType().getTypeId());
+        assertEquals(2.0, vehicle.getType().getVehicleCostParams().perDistanceUnit, 0.);
+        assertEquals(100.0, vehicle.getLatestArrival(), 0.);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenVehicleTypeIsMissing_itShouldThrowException() {
+        String xml = "<problem><vehicles><vehicle><id>v</id><typeId>t</typeId><startLocation><id>depot</id></startLocation>" +
+            "<timeSchedule><start>0.0</start><end>100.0</end></timeSchedule></vehicle></vehicles></problem>";
+        new VrpStaxReader(VehicleRoutingProblem.Builder.newInstance()).read(new ByteArrayInputStream(xml.getBytes()));
+    }
+
+    static void assertSameProblem(String file, VehicleRoutingProblem expected, VehicleRoutingProblem actual) {
+        assertEquals(file, expected.getFleetSize(), actual.getFleetSize());
+        assertEquals(file, expected.getJobs().keySet(), actual.getJobs().keySet());
+        for (Job expectedJob : expected.getJobs().values()) {
+            assertSameJob(file, expectedJob, actual.getJobs().get(expectedJob.getId()));
+        }
+        assertEquals(file, expected.getVehicles().size(), actual.getVehicles().size());
+        Map<String, Vehicle> actualVehicles = new HashMap<String, Vehicle>();
+        for (Vehicle v : actual.getVehicles()) actualVehicles.put(v.getId(), v);
+        for (Vehicle expectedVehicle : expected.getVehicles()) {
+            Vehicle actualVehicle = actualVehicles.get(expectedVehicle.getId());
+            assertNotNull(file, actualVehicle);
+            assertEquals(file, expectedVehicle.getType(), actualVehicle.getType());
+            assertEquals(file, expectedVehicle.getType().getCapacityDimensions(), actualVehicle.getType().getCapacityDimensions());
+            assertEquals(file, expectedVehicle.getStartLocation(), actualVehicle.getStartLocation());
+            assertEquals(file, expectedVehicle.getEndLocation(), actualVehicle.getEndLocation());
+            assertEquals(file, expectedVehicle.getEarliestDeparture(), actualVehicle.getEarliestDeparture(), 0.);
+            assertEquals(file, expectedVehicle.getLatestArrival(), actualVehicle.getLatestArrival(), 0.);
+            assertEquals(file, expectedVehicle.isReturnToDepot(), actualVehicle.isReturnToDepot());
+            assertEquals(file, expectedVehicle.getSkills(), actualVehicle.getSkills());
+            assertEquals(file, expectedVehicle.getBreak() == null, actualVehicle.getBreak() == null);
+        }
+        assertEquals(file, expected.getInitialVehicleRoutes().size(), actual.getInitialVehicleRoutes().size());
+        Iterator<VehicleRoute> actualRoutes = actual.getInitialVehicleRoutes().iterator();
+        for (VehicleRoute expectedRoute : expected.getInitialVehicleRoutes()) {
+            assertSameRoute(file, expectedRoute, actualRoutes.next());
+        }
+    }
+
+    static void assertSameSolutions(String file, List<VehicleRoutingProblemSolution> expected, List<VehicleRoutingProblemSolution> actual) {
+        assertEquals(file, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(file, expected.get(i).getCost(), actual.get(i).getCost(), 0.);
+            assertEquals(file, expected.get(i).getRoutes().size(), actual.get(i).getRoutes().size());
+            Iterator<VehicleRoute> actualRoutes = actual.get(i).getRoutes().iterator();
+            for (VehicleRoute expectedRoute : expected.get(i).getRoutes()) {
+                assertSameRoute(file, expectedRoute, actualRoutes.next());
+            }
+            assertEquals(file, expected.get(i).getUnassignedJobs(), actual.get(i).getUnassignedJobs());
+        }
+    }
+
+    private static void assertSameRoute(String file, VehicleRoute expected, VehicleRoute actual) {
+        assertEquals(file, expected.getVehicle().getId(), actual.getVehicle().getId());
+        assertEquals(file, expected.getDepartureTime(), actual.getDepartureTime(), 0.);
+        assertEquals(file, expected.getActivities().size(), actual.getActivities().size());
+        for (int i = 0; i < expected.getActivities().size(); i++) {
+            assertEquals(file, expected.getActivities().get(i).getName(), actual.getActivities().get(i).getName());
+            assertEquals(file, expected.getActivities().get(i).getLocation(), actual.getActivities().get(i).getLocation());
+        }
+    }
+
+    private static void assertSameJob(String file, Job expected, Job actual) {
+        assertNotNull(file, actual);
+        assertEquals(file, expected.getClass(), actual.getClass());
+        assertEquals(file, expected.getName(), actual.getName());
+        assertEquals(file, expected.getSize(), actual.getSize());
+        assertEquals(file, expected.getRequiredSkills(), actual.getRequiredSkills());
+        if (expected instanceof Shipment) {
+            Shipment e = (Shipment) expected;
+            Shipment a = (Shipment) actual;
+            assertEquals(file, e.getPickupLocation(), a.getPickupLocation());
+            assertEquals(file, e.getDeliveryLocation(), a.getDeliveryLocation());
+            assertEquals(file, e.getPickupServiceTime(), a.getPickupServiceTime(), 0.);
+            assertEquals(file, e.getDeliveryServiceTime(), a.getDeliveryServiceTime(), 0.);
+            assertSameTimeWindows(file, e.getPickupTimeWindows(), a.getPickupTimeWindows());
+            assertSameTimeWindows(file, e.getDeliveryTimeWindows(), a.getDeliveryTimeWindows());
+        } else {
+            Service e = (Service) expected;
+            Service a = (Service) actual;
+            assertEquals(file, e.getLocation(), a.getLocation());
+            assertEquals(file, e.getServiceDuration(), a.getServiceDuration(), 0.);
+            assertSameTimeWindows(file, e.getTimeWindows(), a.getTimeWindows());
+        }
+    }
+
+    private static void assertSameTimeWindows(String file, Collection<TimeWindow> expected, Collection<TimeWindow> actual) {
+        assertEquals(file, new ArrayList<TimeWindow>(expected), new ArrayList<TimeWindow>(actual));
+    }
+
+}
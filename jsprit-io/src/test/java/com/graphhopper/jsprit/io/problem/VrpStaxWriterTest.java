@@ -0,0 +1,91 @@
+/*
+ * Licensed to GraphHopper GmbH under one or more contributor
+ * license agreements. See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * GraphHopper GmbH licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.graphhopper.jsprit.io.problem;
+
+import com.graphhopper.jsprit.core.problem.VehicleRoutingProblem;
+import com.graphhopper.jsprit.core.problem.job.Break;
+import com.graphhopper.jsprit.core.problem.job.Service;
+import com.graphhopper.jsprit.core.problem.solution.VehicleRoutingProblemSolution;
+import com.graphhopper.jsprit.core.problem.solution.route.VehicleRoute;
+import com.graphhopper.jsprit.core.problem.vehicle.Vehicle;
+import com.graphhopper.jsprit.core.problem.vehicle.VehicleImpl;
+import com.graphhopper.jsprit.io.util.TestUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class VrpStaxWriterTest {
+
+    private static final String[] FILES = {"biggerProblem.xml", "finiteVrpForReaderTest.xml",
+        "finiteVrpWithInitialSolutionForReaderTest.xml", "finiteVrpWithShipmentsAndSolution.xml", "lui-shen-solution.xml",
+        "simpleProblem_inclShipments_iniRoutes.xml", "simpleProblem_iniRoutes.xml", "simpleProblem_iniRoutes_2.xml",
+        "simpleProblem_iniRoutes_3.xml"};
+
+    @Test
+    public void whenWritingTestFiles_vrpXMLReaderShouldValidateAndReadTheSameProblem() {
+        for (String file : FILES) {
+            VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> solutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpXMLReader(builder, solutions).read(getClass().getResourceAsStream(file));
+            VehicleRoutingProblem vrp = builder.build();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new VrpStaxWriter(vrp, solutions).write(out);
+
+            VehicleRoutingProblem.Builder xmlBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> xmlSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpXMLReader(xmlBuilder, xmlSolutions).read(new ByteArrayInputStream(out.toByteArray()));
+            VrpStaxReaderTest.assertSameProblem(file, vrp, xmlBuilder.build());
+            VrpStaxReaderTest.assertSameSolutions(file, solutions, xmlSolutions);
+
+            VehicleRoutingProblem.Builder staxBuilder = VehicleRoutingProblem.Builder.newInstance();
+            List<VehicleRoutingProblemSolution> staxSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+            new VrpStaxReader(staxBuilder, staxSolutions).read(new ByteArrayInputStream(out.toByteArray()));
+            VrpStaxReaderTest.assertSameProblem(file, vrp, staxBuilder.build());
+            VrpStaxReaderTest.assertSameSolutions(file, solutions, staxSolutions);
+        }
+    }
+
+    @Test
+    public void whenWritingBreaks_theyShouldBeReadWithTheirIds() {
+        Break aBreak = Break.Builder.newInstance("lunch").setServiceTime(30.).addTimeWindow(100, 200).build();
+        Vehicle vehicle = VehicleImpl.Builder.newInstance("v").setStartLocation(TestUtils.loc("start")).setBreak(aBreak).build();
+        Service service = Service.Builder.newInstance("1").setLocation(TestUtils.loc("loc")).build();
+        VehicleRoutingProblem vrp = VehicleRoutingProblem.Builder.newInstance().addVehicle(vehicle).addJob(service)
+            .setFleetSize(VehicleRoutingProblem.FleetSize.FINITE).build();
+        VehicleRoute route = VehicleRoute.Builder.newInstance(vehicle).addService(service).addBreak(aBreak).build();
+        List<VehicleRoutingProblemSolution> solutions = Arrays.asList(new VehicleRoutingProblemSolution(Arrays.asList(route), 10.));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new VrpStaxWriter(vrp, solutions).write(out);
+        VehicleRoutingProblem.Builder builder = VehicleRoutingProblem.Builder.newInstance();
+        List<VehicleRoutingProblemSolution> readSolutions = new ArrayList<VehicleRoutingProblemSolution>();
+        new VrpStaxReader(builder, readSolutions).read(new ByteArrayInputStream(out.toByteArray()));
+        Vehicle readVehicle = builder.build().getVehicles().iterator().next();
+        assertEquals("lunch", readVehicle.getBreak().getId());
+        assertEquals(30., readVehicle.getBreak().getServiceDuration(), 0.);
+        assertEquals("break", readSolutions.get(0).getRoutes().iterator().next().getActivities().get(1).getName());
+    }
+
+}